@@ -32,6 +32,8 @@ import sync.pds.solver.nodes.NodeWithLocation;
 import sync.pds.solver.nodes.PopNode;
 import sync.pds.solver.nodes.PushNode;
 import sync.pds.solver.nodes.SingleNode;
+import wpds.impl.HashTransitionStore;
+import wpds.impl.IntTransitionStore;
 import wpds.impl.NestedAutomatonListener;
 import wpds.impl.NestedWeightedPAutomatons;
 import wpds.impl.NormalRule;
@@ -44,6 +46,7 @@ import wpds.impl.WeightedPAutomaton;
 import wpds.impl.WeightedPushdownSystem;
 import wpds.interfaces.Location;
 import wpds.interfaces.State;
+import wpds.interfaces.TransitionStore;
 import wpds.interfaces.WPAStateListener;
 import wpds.interfaces.WPAUpdateListener;
 
@@ -58,6 +61,9 @@ public abstract class SyncPDSSolver<
   private static final org.slf4j.Logger logger = LoggerFactory.getLogger(SyncPDSSolver.class);
   private static final boolean FieldSensitive = true;
   private static final boolean ContextSensitive = true;
+  // A node and its entry in a hash set, and a listener, see estimateRetainedBytes()
+  private static final long BYTES_PER_NODE = 64;
+  private static final long BYTES_PER_LISTENER = 64;
   protected final WeightedPushdownSystem<Stmt, INode<Fact>, W> callingPDS =
       new WeightedPushdownSystem<Stmt, INode<Fact>, W>() {
         public String toString() {
@@ -96,8 +102,33 @@ public abstract class SyncPDSSolver<
       int maxCallDepth,
       int maxFieldDepth,
       int maxUnbalancedCallDepth) {
+    this(
+        useCallSummaries,
+        callSummaries,
+        useFieldSummaries,
+        fieldSummaries,
+        maxCallDepth,
+        maxFieldDepth,
+        maxUnbalancedCallDepth,
+        false);
+  }
+
+  /**
+   * @param compactAutomata if set, the call and field automaton store their transitions in an
+   *     {@link IntTransitionStore} instead of hash maps of transition objects.
+   */
+  public SyncPDSSolver(
+      final boolean useCallSummaries,
+      NestedWeightedPAutomatons<Stmt, INode<Fact>, W> callSummaries,
+      final boolean useFieldSummaries,
+      NestedWeightedPAutomatons<Field, INode<Node<Stmt, Fact>>, W> fieldSummaries,
+      int maxCallDepth,
+      int maxFieldDepth,
+      int maxUnbalancedCallDepth,
+      boolean compactAutomata) {
     fieldAutomaton =
-        new WeightedPAutomaton<Field, INode<Node<Stmt, Fact>>, W>() {
+        new WeightedPAutomaton<Field, INode<Node<Stmt, Fact>>, W>(
+            SyncPDSSolver.<Field, INode<Node<Stmt, Fact>>, W>transitionStore(compactAutomata)) {
           @Override
           public INode<Node<Stmt, Fact>> createState(INode<Node<Stmt, Fact>> d, Field loc) {
             if (loc.equals(emptyField())) return d;
@@ -138,7 +169,8 @@ public abstract class SyncPDSSolver<
         };
 
     callAutomaton =
-        new WeightedPAutomaton<Stmt, INode<Fact>, W>() {
+        new WeightedPAutomaton<Stmt, INode<Fact>, W>(
+            SyncPDSSolver.<Stmt, INode<Fact>, W>transitionStore(compactAutomata)) {
           @Override
           public INode<Fact> createState(INode<Fact> d, Stmt loc) {
             return generateCallState(d, loc);
@@ -426,6 +458,11 @@ public abstract class SyncPDSSolver<
     }
   }
 
+  private static <N extends Location, D extends State, W extends Weight>
+      TransitionStore<N, D, W> transitionStore(boolean compact) {
+    return compact ? new IntTransitionStore<N, D, W>() : new HashTransitionStore<N, D, W>();
+  }
+
   private class CallAutomatonListener implements WPAUpdateListener<Stmt, INode<Fact>, W> {
 
     @Override
@@ -802,6 +839,30 @@ public abstract class SyncPDSSolver<
     return Sets.newHashSet(reachedStates);
   }
 
+  /**
+   * Estimates the bytes retained by the automata, the rules and the reached nodes of this solver,
+   * see {@link WeightedPAutomaton#estimateRetainedBytes()}.
+   */
+  public long estimateRetainedBytes() {
+    return estimateRetainedBytes(Sets.newIdentityHashSet());
+  }
+
+  /**
+   * Like {@link #estimateRetainedBytes()}, but counts automata shared with other solvers, e.g.
+   * summaries, only if they are not yet in the given identity set.
+   */
+  public long estimateRetainedBytes(Set<WeightedPAutomaton<?, ?, ?>> counted) {
+    long nodes =
+        (long) reachedStates.size() + callingContextReachable.size() + fieldContextReachable.size();
+    long listeners = (long) updateListeners.size() + reachedStateUpdateListeners.size();
+    return callAutomaton.estimateRetainedBytes(counted)
+        + fieldAutomaton.estimateRetainedBytes(counted)
+        + callingPDS.estimateRetainedBytes()
+        + fieldPDS.estimateRetainedBytes()
+        + nodes * BYTES_PER_NODE
+        + listeners * BYTES_PER_LISTENER;
+  }
+
   public void debugOutput() {
     logger.debug(this.getClass().toString());
     logger.debug("All reachable states");
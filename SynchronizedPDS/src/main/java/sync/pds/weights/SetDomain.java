@@ -16,10 +16,13 @@ import java.util.Collection;
 import java.util.Set;
 import sync.pds.solver.nodes.Node;
 import wpds.impl.Weight;
+import wpds.impl.WeightInterner;
 import wpds.interfaces.Location;
 
 public class SetDomain<N, Stmt, Fact> extends Weight {
 
+  private static final WeightInterner<SetDomain<?, ?, ?>> INTERNER =
+      new WeightInterner<>(100000);
   private static SetDomain one;
   private static SetDomain zero;
   private final String rep;
@@ -50,19 +53,37 @@ public class SetDomain<N, Stmt, Fact> extends Weight {
     return zero();
   }
 
+  /** Interning of node sets is disabled by default. */
+  public static WeightInterner<SetDomain<?, ?, ?>> interner() {
+    return INTERNER;
+  }
+
   @Override
   public Weight combineWith(Weight other) {
-    if (other.equals(zero())) return this;
-    if (this.equals(zero())) return other;
-    if (this.equals(one()) || other.equals(one())) return one();
     if (other instanceof SetDomain) {
-      Set<Node<Stmt, Fact>> merged = Sets.newHashSet(nodes);
-      merged.addAll(((SetDomain) other).nodes);
-      return new SetDomain<N, Stmt, Fact>(merged);
+      return INTERNER.combineWith(this, (SetDomain<?, ?, ?>) other, SetDomain::combine);
     }
+    if (this.equals(zero())) return other;
+    if (this.equals(one())) return one();
     return zero();
   }
 
+  private static SetDomain<?, ?, ?> combine(SetDomain<?, ?, ?> a, SetDomain<?, ?, ?> b) {
+    if (b.equals(zero())) return a;
+    if (a.equals(zero())) return b;
+    if (a.equals(one()) || b.equals(one())) return one();
+    return union(a, b);
+  }
+
+  // The weights of one analysis range over the same nodes, the interner only erases their types.
+  @SuppressWarnings("unchecked")
+  private static <N, Stmt, Fact> SetDomain<N, Stmt, Fact> union(
+      SetDomain<N, Stmt, Fact> a, SetDomain<?, ?, ?> b) {
+    Set<Node<Stmt, Fact>> merged = Sets.newHashSet(a.nodes);
+    merged.addAll(((SetDomain<N, Stmt, Fact>) b).nodes);
+    return new SetDomain<>(merged);
+  }
+
   public static <N extends Location, Stmt, Fact> SetDomain<N, Stmt, Fact> one() {
     if (one == null) one = new SetDomain("<1>");
     return one;
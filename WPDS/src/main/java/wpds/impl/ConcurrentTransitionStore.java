@@ -0,0 +1,155 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import wpds.interfaces.Location;
+import wpds.interfaces.State;
+import wpds.interfaces.TransitionStore;
+
+/**
+ * Thread-safe {@link TransitionStore}. Weights are combined lock-free: a thread reads the current
+ * weight, combines it with its own and only installs the result if the weight has not been
+ * replaced in the meantime, otherwise it retries. A transition only shows up in the indices by
+ * state after its first weight has been set, readers never see a weighted transition without
+ * weight. The thread that inserts a transition appends it to the insertion order, so {@link
+ * #replay(BiConsumer)} passes each transition once.
+ */
+public class ConcurrentTransitionStore<N extends Location, D extends State, W extends Weight>
+    implements TransitionStore<N, D, W> {
+  // Measured like the constants of HashTransitionStore: a transition with its entries in the
+  // map and both indices, and a state with its set in one of the indices.
+  private static final long BYTES_PER_TRANSITION = 159;
+  private static final long BYTES_PER_KEY = 199;
+  // A slot of the insertion order, whose array doubles.
+  private static final long BYTES_PER_ORDER_ENTRY = 6;
+  // Marks transitions that have been added without a weight.
+  private static final Object NO_WEIGHT = new Object();
+
+  private final ConcurrentMap<Transition<N, D>, Object> transitionToWeights =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<D, Set<Transition<N, D>>> transitionsOutOf =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<D, Set<Transition<N, D>>> transitionsInto =
+      new ConcurrentHashMap<>();
+  private final TransitionLog<N, D> insertionOrder = new TransitionLog<>(true);
+
+  @Override
+  public boolean add(Transition<N, D> t) {
+    if (transitionToWeights.putIfAbsent(t, NO_WEIGHT) != null) {
+      return false;
+    }
+    index(t);
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public W combineWeight(Transition<N, D> t, W w) {
+    while (true) {
+      Object oldWeight = transitionToWeights.get(t);
+      if (oldWeight == null) {
+        if (transitionToWeights.putIfAbsent(t, w) == null) {
+          index(t);
+          return w;
+        }
+      } else if (oldWeight == NO_WEIGHT) {
+        if (transitionToWeights.replace(t, NO_WEIGHT, w)) {
+          return w;
+        }
+      } else {
+        W newWeight = (W) ((W) oldWeight).combineWith(w);
+        if (Weight.same(newWeight, (W) oldWeight)) {
+          return null;
+        }
+        if (transitionToWeights.replace(t, oldWeight, newWeight)) {
+          return newWeight;
+        }
+      }
+    }
+  }
+
+  // Only called by the thread that inserted the transition.
+  private void index(Transition<N, D> t) {
+    transitionsOutOf.computeIfAbsent(t.getStart(), k -> ConcurrentHashMap.newKeySet()).add(t);
+    transitionsInto.computeIfAbsent(t.getTarget(), k -> ConcurrentHashMap.newKeySet()).add(t);
+    insertionOrder.append(t);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public W getWeight(Transition<N, D> t) {
+    Object w = transitionToWeights.get(t);
+    return w == NO_WEIGHT ? null : (W) w;
+  }
+
+  @Override
+  public void setWeight(Transition<N, D> t, W w) {
+    transitionToWeights.put(t, w);
+  }
+
+  @Override
+  public Collection<Transition<N, D>> getTransitionsOutOf(D state) {
+    Set<Transition<N, D>> res = transitionsOutOf.get(state);
+    return res == null
+        ? Collections.<Transition<N, D>>emptySet()
+        : Collections.unmodifiableSet(res);
+  }
+
+  @Override
+  public Collection<Transition<N, D>> getTransitionsInto(D state) {
+    Set<Transition<N, D>> res = transitionsInto.get(state);
+    return res == null
+        ? Collections.<Transition<N, D>>emptySet()
+        : Collections.unmodifiableSet(res);
+  }
+
+  @Override
+  public Collection<Transition<N, D>> getTransitions() {
+    return Collections.unmodifiableSet(transitionToWeights.keySet());
+  }
+
+  @Override
+  public int size() {
+    return transitionToWeights.size();
+  }
+
+  @Override
+  public void replay(BiConsumer<? super Transition<N, D>, ? super W> action) {
+    TransitionLog<N, D>.Cursor cursor = insertionOrder.cursor();
+    while (cursor.advance()) {
+      Transition<N, D> t = cursor.transition();
+      action.accept(t, getWeight(t));
+    }
+  }
+
+  @Override
+  public long estimateRetainedBytes() {
+    return transitionToWeights.size() * (BYTES_PER_TRANSITION + BYTES_PER_ORDER_ENTRY)
+        + ((long) transitionsOutOf.size() + transitionsInto.size()) * BYTES_PER_KEY;
+  }
+
+  @Override
+  public boolean isConcurrent() {
+    return true;
+  }
+
+  @Override
+  public TransitionStore<N, D, W> emptyCopy() {
+    return new ConcurrentTransitionStore<>();
+  }
+}
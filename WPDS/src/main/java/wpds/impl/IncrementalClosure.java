@@ -0,0 +1,135 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.impl;
+
+import com.google.common.collect.Lists;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Incrementally maintained transitive closure of a directed graph over dense int ids, e.g. those
+ * handed out by an {@link Interner}. For each node, the closure stores the nodes it reaches and
+ * the nodes it is reached by as {@link SparseBitSet}s. Inserting an edge (a,b) adds the nodes
+ * reached by b to each node that reaches a, and those nodes to each node that became reachable,
+ * one word-wise union per such node.
+ *
+ * <p>A node reaches itself only once it was added via {@link #addReflexive(int)}. Whenever nodes
+ * become reachable from an {@link #observe(int) observed} node, the {@link Listener} is notified.
+ * Notifications happen after the closure has been updated, the listener may modify the closure.
+ */
+public class IncrementalClosure {
+
+  public interface Listener {
+    /** The targets, in ascending order, became reachable from the source. */
+    void reached(int source, int[] targets);
+  }
+
+  private final List<SparseBitSet> reaches = Lists.newArrayList();
+  private final List<SparseBitSet> reachedBy = Lists.newArrayList();
+  private final BitSet observed = new BitSet();
+  private final Listener listener;
+
+  public IncrementalClosure(Listener listener) {
+    this.listener = listener;
+  }
+
+  /** The listener is notified about nodes that become reachable from the node from now on. */
+  public void observe(int node) {
+    observed.set(node);
+  }
+
+  /** @return true if the node did not reach itself before. */
+  public boolean addReflexive(int node) {
+    if (!row(reaches, node).set(node)) {
+      return false;
+    }
+    row(reachedBy, node).set(node);
+    if (observed.get(node)) {
+      listener.reached(node, new int[] {node});
+    }
+    return true;
+  }
+
+  public void addEdge(int from, int to) {
+    // The closure is transitive: a node that reaches to also reaches all nodes reached by to.
+    if (row(reaches, from).get(to)) {
+      // Each node that reaches from also reaches all targets already.
+      return;
+    }
+    SparseBitSet targets = row(reaches, to).copy();
+    targets.set(to);
+    SparseBitSet sources = row(reachedBy, from).copy();
+    sources.set(from);
+    List<Reached> pending = Lists.newArrayList();
+    SparseBitSet reachable = null;
+    for (int source : sources.toArray()) {
+      SparseBitSet reached = row(reaches, source);
+      if (reached.get(to)) {
+        continue;
+      }
+      SparseBitSet added = reached.addAll(targets);
+      if (added == null) {
+        continue;
+      }
+      if (reachable == null) {
+        reachable = added.copy();
+      } else {
+        reachable.addAll(added);
+      }
+      if (observed.get(source)) {
+        pending.add(new Reached(source, added.toArray()));
+      }
+    }
+    if (reachable == null) {
+      return;
+    }
+    // All sources reach all targets now. A target that no source newly reaches was reached by all
+    // of them before.
+    for (int node : reachable.toArray()) {
+      row(reachedBy, node).addAll(sources);
+    }
+    for (Reached r : pending) {
+      listener.reached(r.source, r.targets);
+    }
+  }
+
+  public boolean reaches(int from, int to) {
+    return from < reaches.size() && reaches.get(from).get(to);
+  }
+
+  /** @return the nodes reachable from the node, in ascending order. */
+  public int[] reachableFrom(int node) {
+    return node < reaches.size() ? reaches.get(node).toArray() : new int[0];
+  }
+
+  /** @return the nodes that reach the node, in ascending order. */
+  public int[] reachedBy(int node) {
+    return node < reachedBy.size() ? reachedBy.get(node).toArray() : new int[0];
+  }
+
+  private static SparseBitSet row(List<SparseBitSet> rows, int node) {
+    while (rows.size() <= node) {
+      rows.add(new SparseBitSet());
+    }
+    return rows.get(node);
+  }
+
+  private static class Reached {
+    final int source;
+    final int[] targets;
+
+    Reached(int source, int[] targets) {
+      this.source = source;
+      this.targets = targets;
+    }
+  }
+}
@@ -0,0 +1,325 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.impl;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import wpds.interfaces.Location;
+import wpds.interfaces.State;
+import wpds.interfaces.TransitionStore;
+
+/**
+ * {@link TransitionStore} that interns states and labels to dense ints and keeps transitions in
+ * parallel primitive arrays. A transition is identified by its index into these arrays; an open
+ * addressing hash table maps (start, label, target) to that index. The incoming and outgoing
+ * transitions of a state are chained through the arrays {@code nextOut} and {@code nextIn}, so a
+ * state costs a few ints and no per state collection.
+ *
+ * <p>No {@link Transition} objects are retained. The collections returned by the adjacency queries
+ * are views that walk the chains, they answer {@code size()}, {@code isEmpty()} and {@code
+ * contains()} on the ints and only create a transition for the element an iterator returns.
+ * Lookups by label compare the label ids before creating a transition. Stores created by {@link
+ * #emptyCopy()} share the interners with this store. Transitions are indexed in insertion order,
+ * {@link #replay(BiConsumer)} walks the arrays.
+ */
+public class IntTransitionStore<N extends Location, D extends State, W extends Weight>
+    implements TransitionStore<N, D, W> {
+  private static final int INITIAL_CAPACITY = 16;
+  // An interned object's map entry, boxed id and list slot, measured like the constants of
+  // HashTransitionStore.
+  private static final long BYTES_PER_INTERNED = 60;
+
+  private final Interner<D> states;
+  private final Interner<N> labels;
+  // Stores created by emptyCopy() share the interners, only the original counts them.
+  private final boolean ownsInterners;
+
+  private int size;
+  private int[] starts = new int[INITIAL_CAPACITY];
+  private int[] stackSymbols = new int[INITIAL_CAPACITY];
+  private int[] targets = new int[INITIAL_CAPACITY];
+  private Object[] weights = new Object[INITIAL_CAPACITY];
+  // Next transition in the chain of the start (nextOut) or target (nextIn) state, -1 ends a chain.
+  private int[] nextOut = new int[INITIAL_CAPACITY];
+  private int[] nextIn = new int[INITIAL_CAPACITY];
+
+  // Slots hold the transition index + 1, 0 marks an empty slot.
+  private int[] table = new int[2 * INITIAL_CAPACITY];
+
+  // Per state id: the head of the chains (transition index + 1, 0 if empty) and their lengths.
+  private int[] firstOut = new int[INITIAL_CAPACITY];
+  private int[] outDegree = new int[INITIAL_CAPACITY];
+  private int[] firstIn = new int[INITIAL_CAPACITY];
+  private int[] inDegree = new int[INITIAL_CAPACITY];
+
+  public IntTransitionStore() {
+    this(new Interner<D>(), new Interner<N>(), true);
+  }
+
+  public IntTransitionStore(Interner<D> states, Interner<N> labels) {
+    this(states, labels, false);
+  }
+
+  private IntTransitionStore(Interner<D> states, Interner<N> labels, boolean ownsInterners) {
+    this.states = states;
+    this.labels = labels;
+    this.ownsInterners = ownsInterners;
+  }
+
+  @Override
+  public boolean add(Transition<N, D> t) {
+    int start = states.intern(t.getStart());
+    int label = labels.intern(t.getLabel());
+    int target = states.intern(t.getTarget());
+    int slot = slot(start, label, target);
+    if (table[slot] != 0) {
+      return false;
+    }
+    if (size == starts.length) {
+      int capacity = size + (size >> 1);
+      starts = Arrays.copyOf(starts, capacity);
+      stackSymbols = Arrays.copyOf(stackSymbols, capacity);
+      targets = Arrays.copyOf(targets, capacity);
+      weights = Arrays.copyOf(weights, capacity);
+      nextOut = Arrays.copyOf(nextOut, capacity);
+      nextIn = Arrays.copyOf(nextIn, capacity);
+    }
+    int index = size++;
+    starts[index] = start;
+    stackSymbols[index] = label;
+    targets[index] = target;
+    table[slot] = index + 1;
+    if (size * 4 > table.length * 3) {
+      rehash();
+    }
+    ensureStateCapacity(Math.max(start, target));
+    nextOut[index] = firstOut[start] - 1;
+    firstOut[start] = index + 1;
+    outDegree[start]++;
+    nextIn[index] = firstIn[target] - 1;
+    firstIn[target] = index + 1;
+    inDegree[target]++;
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public W getWeight(Transition<N, D> t) {
+    int index = indexOf(t);
+    return index < 0 ? null : (W) weights[index];
+  }
+
+  @Override
+  public void setWeight(Transition<N, D> t, W w) {
+    int index = indexOf(t);
+    if (index < 0) {
+      throw new IllegalStateException("Transition " + t + " has not been added");
+    }
+    weights[index] = w;
+  }
+
+  @Override
+  public Collection<Transition<N, D>> getTransitionsOutOf(D state) {
+    int id = states.getId(state);
+    if (id < 0 || id >= firstOut.length || firstOut[id] == 0) {
+      return Collections.emptyList();
+    }
+    return new Chain(id, true);
+  }
+
+  @Override
+  public Collection<Transition<N, D>> getTransitionsOutOf(D state, N label) {
+    int id = states.getId(state);
+    int labelId = labels.getId(label);
+    if (id < 0 || labelId < 0 || id >= firstOut.length) {
+      return Collections.emptyList();
+    }
+    List<Transition<N, D>> res = null;
+    for (int i = firstOut[id] - 1; i >= 0; i = nextOut[i]) {
+      if (stackSymbols[i] == labelId) {
+        if (res == null) {
+          res = new ArrayList<>(2);
+        }
+        res.add(transition(i));
+      }
+    }
+    return res == null ? Collections.<Transition<N, D>>emptyList() : res;
+  }
+
+  @Override
+  public Collection<Transition<N, D>> getTransitionsInto(D state) {
+    int id = states.getId(state);
+    if (id < 0 || id >= firstIn.length || firstIn[id] == 0) {
+      return Collections.emptyList();
+    }
+    return new Chain(id, false);
+  }
+
+  @Override
+  public Collection<Transition<N, D>> getTransitions() {
+    List<Transition<N, D>> res = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      res.add(transition(i));
+    }
+    return res;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void replay(BiConsumer<? super Transition<N, D>, ? super W> action) {
+    int end = size;
+    for (int i = 0; i < end; i++) {
+      action.accept(transition(i), (W) weights[i]);
+    }
+  }
+
+  /**
+   * Computed from the capacities of the arrays, with 4 bytes per int and per compressed reference,
+   * and from the sizes of the interners if this store created them.
+   */
+  @Override
+  public long estimateRetainedBytes() {
+    long bytes = 4L * (7L * starts.length + table.length + 4L * firstOut.length);
+    if (ownsInterners) {
+      bytes += ((long) states.size() + labels.size()) * BYTES_PER_INTERNED;
+    }
+    return bytes;
+  }
+
+  @Override
+  public TransitionStore<N, D, W> emptyCopy() {
+    return new IntTransitionStore<>(states, labels);
+  }
+
+  private int indexOf(Transition<N, D> t) {
+    int start = states.getId(t.getStart());
+    int label = labels.getId(t.getLabel());
+    int target = states.getId(t.getTarget());
+    if (start < 0 || label < 0 || target < 0) {
+      return -1;
+    }
+    return table[slot(start, label, target)] - 1;
+  }
+
+  // Returns the slot holding the transition, or the empty slot where it would be inserted.
+  private int slot(int start, int label, int target) {
+    int mask = table.length - 1;
+    int slot = hash(start, label, target) & mask;
+    while (table[slot] != 0) {
+      int index = table[slot] - 1;
+      if (starts[index] == start && stackSymbols[index] == label && targets[index] == target) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash() {
+    table = new int[table.length * 2];
+    for (int i = 0; i < size; i++) {
+      table[slot(starts[i], stackSymbols[i], targets[i])] = i + 1;
+    }
+  }
+
+  private static int hash(int start, int label, int target) {
+    int h = (start * 31 + label) * 31 + target;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    return h;
+  }
+
+  private void ensureStateCapacity(int state) {
+    if (state < firstOut.length) {
+      return;
+    }
+    int capacity = Math.max(firstOut.length + (firstOut.length >> 1), state + 1);
+    firstOut = Arrays.copyOf(firstOut, capacity);
+    outDegree = Arrays.copyOf(outDegree, capacity);
+    firstIn = Arrays.copyOf(firstIn, capacity);
+    inDegree = Arrays.copyOf(inDegree, capacity);
+  }
+
+  private Transition<N, D> transition(int index) {
+    return new Transition<>(
+        states.get(starts[index]), labels.get(stackSymbols[index]), states.get(targets[index]));
+  }
+
+  /**
+   * Live view of the outgoing or incoming transitions of a state. Transitions are prepended to the
+   * chains, an iterator therefore does not return transitions added after it has been created.
+   */
+  private final class Chain extends AbstractCollection<Transition<N, D>> {
+    private final int state;
+    private final boolean out;
+
+    Chain(int state, boolean out) {
+      this.state = state;
+      this.out = out;
+    }
+
+    @Override
+    public int size() {
+      return out ? outDegree[state] : inDegree[state];
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+      if (!(o instanceof Transition)) {
+        return false;
+      }
+      int index = indexOf((Transition<N, D>) o);
+      return index >= 0 && (out ? starts[index] : targets[index]) == state;
+    }
+
+    @Override
+    public Iterator<Transition<N, D>> iterator() {
+      return new Iterator<Transition<N, D>>() {
+        private int next = (out ? firstOut[state] : firstIn[state]) - 1;
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public Transition<N, D> next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          int index = next;
+          next = out ? nextOut[index] : nextIn[index];
+          return transition(index);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,47 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.List;
+import java.util.Map;
+
+/** Maps objects to dense integer ids, starting at 0 in the order the objects are interned. */
+public class Interner<T> {
+  private final Map<T, Integer> ids = Maps.newHashMap();
+  private final List<T> objects = Lists.newArrayList();
+
+  public int intern(T object) {
+    Integer id = ids.get(object);
+    if (id == null) {
+      id = objects.size();
+      ids.put(object, id);
+      objects.add(object);
+    }
+    return id;
+  }
+
+  /** @return the id of the object or -1 if the object has not been interned. */
+  public int getId(T object) {
+    Integer id = ids.get(object);
+    return id == null ? -1 : id;
+  }
+
+  public T get(int id) {
+    return objects.get(id);
+  }
+
+  public int size() {
+    return objects.size();
+  }
+}
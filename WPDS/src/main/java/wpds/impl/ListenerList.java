@@ -0,0 +1,146 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.impl;
+
+import com.google.common.collect.Sets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Append-only list of the listeners of a {@link WeightedPAutomaton}, deduplicated by a key of the
+ * listener. Listeners of different classes are never duplicates, even if their keys are equal.
+ *
+ * <p>Iteration does not copy the list. An iterator visits the listeners that were added before it
+ * was created, listeners added during the iteration are not visited; the automaton notifies them
+ * when they are registered. If the list is concurrent, adding is synchronized and iterating is
+ * lock free.
+ */
+final class ListenerList<L> implements Iterable<L> {
+  private static final Object[] EMPTY = new Object[0];
+
+  private final boolean concurrent;
+  private final Set<Object> keys = Sets.newHashSet();
+  private volatile Object[] listeners = EMPTY;
+  // Written after the listeners, such that a reader that sees a size sees an array of this size
+  private volatile int size;
+
+  ListenerList(boolean concurrent) {
+    this.concurrent = concurrent;
+  }
+
+  /** @return false if a listener with the same class and key has been added before. */
+  boolean add(L listener, Object key) {
+    if (concurrent) {
+      synchronized (this) {
+        return append(listener, key);
+      }
+    }
+    return append(listener, key);
+  }
+
+  private boolean append(L listener, Object key) {
+    if (!keys.add(key == listener ? listener : new TypedKey(listener.getClass(), key))) {
+      return false;
+    }
+    Object[] array = listeners;
+    int n = size;
+    if (n == array.length) {
+      array = Arrays.copyOf(array, Math.max(4, n * 2));
+    }
+    array[n] = listener;
+    listeners = array;
+    size = n + 1;
+    return true;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Removes all listeners. Iterations in progress on the same thread still visit them, the list
+   * must not be cleared while other threads add listeners or iterate.
+   */
+  void clear() {
+    if (concurrent) {
+      synchronized (this) {
+        reset();
+      }
+    } else {
+      reset();
+    }
+  }
+
+  private void reset() {
+    keys.clear();
+    size = 0;
+    listeners = EMPTY;
+  }
+
+  @Override
+  public Iterator<L> iterator() {
+    int n = size;
+    Object[] array = listeners;
+    return new Cursor<>(array, Math.min(n, array.length));
+  }
+
+  private static final class Cursor<L> implements Iterator<L> {
+    private final Object[] listeners;
+    private final int size;
+    private int next;
+
+    private Cursor(Object[] listeners, int size) {
+      this.listeners = listeners;
+      this.size = size;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public L next() {
+      if (next >= size) {
+        throw new NoSuchElementException();
+      }
+      return (L) listeners[next++];
+    }
+  }
+
+  private static final class TypedKey {
+    private final Class<?> type;
+    private final Object key;
+
+    private TypedKey(Class<?> type, Object key) {
+      this.type = type;
+      this.key = key;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * type.hashCode() + Objects.hashCode(key);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof TypedKey)) return false;
+      TypedKey other = (TypedKey) obj;
+      return type == other.type && Objects.equals(key, other.key);
+    }
+  }
+}
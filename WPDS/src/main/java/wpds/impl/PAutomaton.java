@@ -15,10 +15,17 @@ import pathexpression.LabeledGraph;
 import wpds.impl.Weight.NoWeight;
 import wpds.interfaces.Location;
 import wpds.interfaces.State;
+import wpds.interfaces.TransitionStore;
 
 public abstract class PAutomaton<N extends Location, D extends State>
     extends WeightedPAutomaton<N, D, NoWeight> implements LabeledGraph<D, N> {
 
+  public PAutomaton() {}
+
+  public PAutomaton(TransitionStore<N, D, NoWeight> transitionStore) {
+    super(transitionStore);
+  }
+
   @Override
   public NoWeight getOne() {
     return NoWeight.NO_WEIGHT_ONE;
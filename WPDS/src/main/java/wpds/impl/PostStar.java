@@ -11,6 +11,22 @@
  */
 package wpds.impl;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import wpds.interfaces.Empty;
 import wpds.interfaces.IPushdownSystem;
 import wpds.interfaces.Location;
@@ -22,14 +38,77 @@ import wpds.wildcard.ExclusionWildcard;
 import wpds.wildcard.Wildcard;
 
 public abstract class PostStar<N extends Location, D extends State, W extends Weight> {
+
+  /** Selects how pending rule applications are scheduled during saturation. */
+  public enum Mode {
+    /**
+     * Every rule registers a state listener on the automaton. Rules are applied synchronously
+     * and recursively from within {@link WeightedPAutomaton#addWeightForTransition}.
+     */
+    LISTENER,
+    /**
+     * Weight updates of the automaton are queued as work items and matched against the rules
+     * of the pushdown system in a single loop. The stack depth stays bounded and no listener
+     * objects are allocated per rule.
+     */
+    WORKLIST,
+    /**
+     * Like {@link #WORKLIST}, but the work items are processed in parallel on a {@link
+     * ForkJoinPool}. The automaton has to be backed by a {@link
+     * wpds.interfaces.TransitionStore#isConcurrent() concurrent} store. For a nested automaton,
+     * {@link #getSummaryAutomaton} must be safe to call concurrently to {@link
+     * #putSummaryAutomaton}, the nested automata are created and registered under a lock of this
+     * instance. Listeners on the automata are notified from the threads of the pool. The thread
+     * that starts the saturation, or adds a rule or transition afterwards, blocks until all
+     * workers are idle. It may be a worker of the pool itself, the pool then compensates for the
+     * blocked worker as for any {@link ForkJoinPool#managedBlock managed block}.
+     */
+    PARALLEL
+  }
+
+  private final Mode mode;
+  private final ForkJoinPool pool;
   private IPushdownSystem<N, D, W> pds;
   private WeightedPAutomaton<N, D, W> fa;
+  private Worklist worklist;
+  private ParallelWorklist parallelWorklist;
+
+  public PostStar() {
+    this(Mode.LISTENER);
+  }
+
+  public PostStar(Mode mode) {
+    this(mode, ForkJoinPool.commonPool());
+  }
+
+  /** @param pool the pool the saturation runs on in {@link Mode#PARALLEL}. */
+  public PostStar(Mode mode, ForkJoinPool pool) {
+    this.mode = mode;
+    this.pool = pool;
+  }
 
   public void poststar(IPushdownSystem<N, D, W> pds, WeightedPAutomaton<N, D, W> initialAutomaton) {
     this.pds = pds;
     this.fa = initialAutomaton;
     fa.setInitialAutomaton(fa);
-    this.pds.registerUpdateListener(new PostStarUpdateListener(fa));
+    if (mode == Mode.PARALLEL) {
+      if (!fa.isConcurrent()) {
+        throw new IllegalArgumentException(
+            "Parallel saturation requires an automaton backed by a concurrent transition store");
+      }
+      parallelWorklist = new ParallelWorklist();
+      parallelWorklist.drive(
+          () -> {
+            this.pds.registerUpdateListener(parallelWorklist);
+            fa.registerListener(parallelWorklist);
+          });
+    } else if (mode == Mode.WORKLIST) {
+      worklist = new Worklist();
+      this.pds.registerUpdateListener(worklist);
+      fa.registerListener(worklist);
+    } else {
+      this.pds.registerUpdateListener(new PostStarUpdateListener(fa));
+    }
   }
 
   private class PostStarUpdateListener implements WPDSUpdateListener<N, D, W> {
@@ -88,8 +167,7 @@ public abstract class PostStar<N extends Location, D extends State, W extends We
 
     @Override
     public void onOutTransitionAdded(Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut) {
-      W extendWith = (W) w.extendWith(newWeight);
-      update(new Transition<>(start, t.getLabel(), t.getTarget()), extendWith);
+      applyTransitivePop(start, newWeight, t, w);
     }
 
     @Override
@@ -139,30 +217,7 @@ public abstract class PostStar<N extends Location, D extends State, W extends We
     @Override
     public void onOutTransitionAdded(
         final Transition<N, D> t, W weight, WeightedPAutomaton<N, D, W> aut) {
-      if (t.getLabel().accepts(popLabel) || popLabel.accepts(t.getLabel())) {
-        if (fa.isGeneratedState(t.getTarget())) {
-          if (popLabel instanceof Empty) {
-            throw new RuntimeException("IllegalState");
-          }
-          final W newWeight = (W) weight.extendWith(ruleWeight);
-          update(new Transition<>(targetState, fa.epsilon(), t.getTarget()), newWeight);
-          fa.registerListener(
-              new UpdateTransitivePopListener(targetState, t.getLabel(), t.getTarget(), newWeight));
-          aut.registerSummaryEdge(t);
-        } else if (fa.isUnbalancedState(t.getTarget())) {
-          if (popLabel instanceof Empty) {
-            throw new RuntimeException("IllegalState");
-          }
-          final W newWeight = (W) weight.extendWith(ruleWeight);
-          //                    fa.registerListener(new UpdateTransitivePopListener(
-          //                       targetState, t.getTarget(), newWeight));
-          fa.unbalancedPop(targetState, t, weight);
-        }
-      }
-      if (t.getLabel() instanceof Empty) {
-        fa.registerListener(
-            new HandlePopListener(t.getTarget(), popLabel, targetState, ruleWeight));
-      }
+      applyPopRule(popLabel, targetState, ruleWeight, t, weight, aut);
     }
 
     @Override
@@ -209,29 +264,18 @@ public abstract class PostStar<N extends Location, D extends State, W extends We
     @Override
     public void onOutTransitionAdded(
         final Transition<N, D> t, W weight, WeightedPAutomaton<N, D, W> aut) {
-      if (t.getLabel().equals(rule.getL1()) || rule.getL1() instanceof Wildcard) {
-        W newWeight = (W) weight.extendWith(rule.getWeight());
-        D p = rule.getS2();
-        N l2 = rule.getL2();
-        if (l2 instanceof ExclusionWildcard) {
-          ExclusionWildcard<N> ex = (ExclusionWildcard<N>) l2;
-          if (t.getLabel().equals(ex.excludes())) return;
-        }
-        if (l2 instanceof Wildcard) {
-          l2 = t.getLabel();
-          if (l2.equals(fa.epsilon())) return;
-        }
-        if (!rule.canBeApplied(t, weight)) {
-          return;
-        }
-        update(new Transition<N, D>(p, l2, t.getTarget()), newWeight);
-      }
+      applyNormalRule(rule, t, weight);
     }
 
     @Override
     public void onInTransitionAdded(
         Transition<N, D> t, W weight, WeightedPAutomaton<N, D, W> aut) {}
 
+    @Override
+    public Object listenerKey() {
+      return rule;
+    }
+
     @Override
     public int hashCode() {
       final int prime = 31;
@@ -264,53 +308,18 @@ public abstract class PostStar<N extends Location, D extends State, W extends We
     @Override
     public void onOutTransitionAdded(
         final Transition<N, D> t, W weight, final WeightedPAutomaton<N, D, W> aut) {
-      if (t.getLabel().equals(rule.getL1()) || rule.getL1() instanceof Wildcard) {
-        if (rule.getCallSite() instanceof Wildcard) {
-          if (t.getLabel().equals(fa.epsilon())) return;
-        }
-        final D p = rule.getS2();
-        final N gammaPrime = rule.getL2();
-        final D irState = fa.createState(p, gammaPrime);
-        final N transitionLabel =
-            (rule.getCallSite() instanceof Wildcard ? t.getLabel() : rule.getCallSite());
-        final Transition<N, D> callSiteTransition =
-            new Transition<N, D>(irState, transitionLabel, t.getTarget());
-        final Transition<N, D> calleeTransition = new Transition<N, D>(p, gammaPrime, irState);
-        W weightAtCallsite = (W) weight.extendWith(rule.getWeight());
-        update(callSiteTransition, weightAtCallsite);
-        if (!fa.nested()) {
-          update(calleeTransition, fa.getOne());
-        } else {
-          if (!fa.isGeneratedState(irState)) throw new RuntimeException("State must be generated");
-          final WeightedPAutomaton<N, D, W> summary =
-              getOrCreateSummaryAutomaton(irState, calleeTransition, fa.getOne(), aut);
-          summary.registerListener(
-              new WPAUpdateListener<N, D, W>() {
-
-                @Override
-                public void onWeightAdded(
-                    Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> innerAut) {
-                  if ((t.getLabel().equals(fa.epsilon()) && t.getTarget().equals(irState))) {
-                    update(t, (W) w);
-
-                    W newWeight = getWeightFor(callSiteTransition);
-                    update(
-                        new Transition<N, D>(
-                            t.getStart(),
-                            callSiteTransition.getLabel(),
-                            callSiteTransition.getTarget()),
-                        (W) newWeight.extendWith(w));
-                  }
-                }
-              });
-        }
-      }
+      applyPushRule(rule, t, weight, aut);
     }
 
     @Override
     public void onInTransitionAdded(
         Transition<N, D> t, W weight, WeightedPAutomaton<N, D, W> aut) {}
 
+    @Override
+    public Object listenerKey() {
+      return rule;
+    }
+
     @Override
     public int hashCode() {
       final int prime = 31;
@@ -332,6 +341,488 @@ public abstract class PostStar<N extends Location, D extends State, W extends We
     }
   }
 
+  private void applyTransitivePop(D start, W popWeight, Transition<N, D> t, W w) {
+    W extendWith = (W) w.extendWith(popWeight);
+    update(new Transition<>(start, t.getLabel(), t.getTarget()), extendWith);
+  }
+
+  private void applyPopRule(
+      N popLabel,
+      D targetState,
+      W ruleWeight,
+      final Transition<N, D> t,
+      W weight,
+      WeightedPAutomaton<N, D, W> aut) {
+    if (t.getLabel().accepts(popLabel) || popLabel.accepts(t.getLabel())) {
+      if (fa.isGeneratedState(t.getTarget())) {
+        if (popLabel instanceof Empty) {
+          throw new RuntimeException("IllegalState");
+        }
+        final W newWeight = (W) weight.extendWith(ruleWeight);
+        update(new Transition<>(targetState, fa.epsilon(), t.getTarget()), newWeight);
+        registerTransitivePop(targetState, t.getLabel(), t.getTarget(), newWeight);
+        aut.registerSummaryEdge(t);
+      } else if (fa.isUnbalancedState(t.getTarget())) {
+        if (popLabel instanceof Empty) {
+          throw new RuntimeException("IllegalState");
+        }
+        final W newWeight = (W) weight.extendWith(ruleWeight);
+        //                    fa.registerListener(new UpdateTransitivePopListener(
+        //                       targetState, t.getTarget(), newWeight));
+        fa.unbalancedPop(targetState, t, weight);
+      }
+    }
+    if (t.getLabel() instanceof Empty) {
+      registerPop(t.getTarget(), popLabel, targetState, ruleWeight);
+    }
+  }
+
+  private void applyNormalRule(NormalRule<N, D, W> rule, final Transition<N, D> t, W weight) {
+    if (t.getLabel().equals(rule.getL1()) || rule.getL1() instanceof Wildcard) {
+      W newWeight = (W) weight.extendWith(rule.getWeight());
+      D p = rule.getS2();
+      N l2 = rule.getL2();
+      if (l2 instanceof ExclusionWildcard) {
+        ExclusionWildcard<N> ex = (ExclusionWildcard<N>) l2;
+        if (t.getLabel().equals(ex.excludes())) return;
+      }
+      if (l2 instanceof Wildcard) {
+        l2 = t.getLabel();
+        if (l2.equals(fa.epsilon())) return;
+      }
+      if (!rule.canBeApplied(t, weight)) {
+        return;
+      }
+      update(new Transition<N, D>(p, l2, t.getTarget()), newWeight);
+    }
+  }
+
+  private void applyPushRule(
+      PushRule<N, D, W> rule,
+      final Transition<N, D> t,
+      W weight,
+      final WeightedPAutomaton<N, D, W> aut) {
+    if (t.getLabel().equals(rule.getL1()) || rule.getL1() instanceof Wildcard) {
+      if (rule.getCallSite() instanceof Wildcard) {
+        if (t.getLabel().equals(fa.epsilon())) return;
+      }
+      final D p = rule.getS2();
+      final N gammaPrime = rule.getL2();
+      final D irState = fa.createState(p, gammaPrime);
+      final N transitionLabel =
+          (rule.getCallSite() instanceof Wildcard ? t.getLabel() : rule.getCallSite());
+      final Transition<N, D> callSiteTransition =
+          new Transition<N, D>(irState, transitionLabel, t.getTarget());
+      final Transition<N, D> calleeTransition = new Transition<N, D>(p, gammaPrime, irState);
+      W weightAtCallsite = (W) weight.extendWith(rule.getWeight());
+      update(callSiteTransition, weightAtCallsite);
+      if (!fa.nested()) {
+        update(calleeTransition, fa.getOne());
+      } else {
+        if (!fa.isGeneratedState(irState)) throw new RuntimeException("State must be generated");
+        final WeightedPAutomaton<N, D, W> summary =
+            getOrCreateSummaryAutomaton(irState, calleeTransition, fa.getOne(), aut);
+        summary.registerListener(
+            new WPAUpdateListener<N, D, W>() {
+
+              @Override
+              public void onWeightAdded(
+                  Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> innerAut) {
+                if ((t.getLabel().equals(fa.epsilon()) && t.getTarget().equals(irState))) {
+                  update(t, (W) w);
+
+                  W newWeight = getWeightFor(callSiteTransition);
+                  update(
+                      new Transition<N, D>(
+                          t.getStart(),
+                          callSiteTransition.getLabel(),
+                          callSiteTransition.getTarget()),
+                      (W) newWeight.extendWith(w));
+                }
+              }
+            });
+      }
+    }
+  }
+
+  private void registerPop(D state, N popLabel, D targetState, W ruleWeight) {
+    if (mode == Mode.PARALLEL) {
+      parallelWorklist.subscribe(new PopSubscription(state, popLabel, targetState, ruleWeight));
+    } else if (mode == Mode.WORKLIST) {
+      worklist.subscribe(new PopSubscription(state, popLabel, targetState, ruleWeight));
+    } else {
+      fa.registerListener(new HandlePopListener(state, popLabel, targetState, ruleWeight));
+    }
+  }
+
+  private void registerTransitivePop(D start, N label, D target, W newWeight) {
+    if (mode == Mode.PARALLEL) {
+      parallelWorklist.subscribe(new TransitivePopSubscription(start, label, target, newWeight));
+    } else if (mode == Mode.WORKLIST) {
+      worklist.subscribe(new TransitivePopSubscription(start, label, target, newWeight));
+    } else {
+      fa.registerListener(new UpdateTransitivePopListener(start, label, target, newWeight));
+    }
+  }
+
+  /**
+   * Schedules saturation in {@link Mode#WORKLIST}. Weight updates of the automaton and newly
+   * added rules are queued and processed iteratively by the outermost caller. Normal and push
+   * rules are looked up through the rule index of the pushdown system; pop rules and the
+   * bookkeeping derived from them are held as subscriptions per state.
+   */
+  private class Worklist implements WPAUpdateListener<N, D, W>, WPDSUpdateListener<N, D, W> {
+    private final Deque<Runnable> items = new ArrayDeque<>();
+    private final Set<Subscription> subscriptions = Sets.newHashSet();
+    private final Multimap<D, Subscription> stateToSubscriptions = HashMultimap.create();
+    private final Multimap<D, WeightedPAutomaton<N, D, W>> stateToAutomata =
+        HashMultimap.create();
+    private boolean processing;
+
+    @Override
+    public void onWeightAdded(
+        final Transition<N, D> t, final W w, final WeightedPAutomaton<N, D, W> aut) {
+      schedule(() -> onTransition(t, w, aut));
+    }
+
+    @Override
+    public void onRuleAdded(final Rule<N, D, W> rule) {
+      schedule(() -> onRule(rule));
+    }
+
+    void subscribe(final Subscription subscription) {
+      schedule(
+          () -> {
+            if (!subscriptions.add(subscription)) {
+              return;
+            }
+            D state = subscription.state;
+            stateToSubscriptions.put(state, subscription);
+            for (WeightedPAutomaton<N, D, W> aut : automataWithTransitionsOutOf(state)) {
+              for (Transition<N, D> t : transitionsOutOf(aut, state)) {
+                subscription.apply(t, aut.getWeightFor(t), aut);
+              }
+            }
+          });
+    }
+
+    private void schedule(Runnable item) {
+      items.add(item);
+      if (processing) {
+        return;
+      }
+      processing = true;
+      try {
+        while (!items.isEmpty()) {
+          items.poll().run();
+        }
+      } finally {
+        processing = false;
+      }
+    }
+
+    private void onRule(Rule<N, D, W> rule) {
+      if (rule instanceof PopRule) {
+        subscribe(
+            new PopSubscription(rule.getS1(), rule.getL1(), rule.getS2(), rule.getWeight()));
+        return;
+      }
+      for (WeightedPAutomaton<N, D, W> aut : automataWithTransitionsOutOf(rule.getS1())) {
+        for (Transition<N, D> t : transitionsOutOf(aut, rule.getS1())) {
+          applyRule(rule, t, aut.getWeightFor(t), aut);
+        }
+      }
+    }
+
+    private void onTransition(Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut) {
+      stateToAutomata.put(t.getStart(), aut);
+      for (Rule<N, D, W> rule : pds.getRulesStarting(t.getStart(), t.getLabel())) {
+        applyRule(rule, t, w, aut);
+      }
+      for (Subscription s : Lists.newArrayList(stateToSubscriptions.get(t.getStart()))) {
+        s.apply(t, w, aut);
+      }
+    }
+
+    // Only automata whose transitions out of the state have already been processed are
+    // replayed; pending transitions pick up the new rule or subscription once they are
+    // processed themselves.
+    private Collection<WeightedPAutomaton<N, D, W>> automataWithTransitionsOutOf(D state) {
+      return Lists.newArrayList(stateToAutomata.get(state));
+    }
+
+    private Collection<Transition<N, D>> transitionsOutOf(
+        WeightedPAutomaton<N, D, W> aut, D state) {
+      return Lists.newArrayList(aut.getTransitionsOutOf(state));
+    }
+  }
+
+  /**
+   * Schedules saturation in {@link Mode#PARALLEL}. Each weight update, rule and subscription
+   * becomes a task on the pool; tasks created by a worker are forked to its local queue. A
+   * counter of scheduled but unfinished tasks detects quiescence: a task schedules its successors
+   * before it finishes, the counter thus only drops to zero once no work is left.
+   *
+   * <p>Subscriptions and rules are published before the transitions out of their state are
+   * replayed, while a transition is stored before its own task looks up the rules and
+   * subscriptions. Each pair of transition and rule or subscription is therefore applied at least
+   * once. Applying it twice is harmless, as the second update does not change any weight.
+   */
+  private class ParallelWorklist
+      implements WPAUpdateListener<N, D, W>, WPDSUpdateListener<N, D, W> {
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Map<D, Set<Subscription>> stateToSubscriptions = new ConcurrentHashMap<>();
+    private final Map<D, Set<WeightedPAutomaton<N, D, W>>> stateToAutomata =
+        new ConcurrentHashMap<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final ThreadLocal<Boolean> driving = ThreadLocal.withInitial(() -> false);
+    // Set while a worker runs an item of this worklist. Other threads, including workers of the
+    // pool that run unrelated tasks, have to wait for the items they schedule.
+    private final ThreadLocal<Boolean> working = ThreadLocal.withInitial(() -> false);
+    private final ForkJoinPool.ManagedBlocker quiescence =
+        new ForkJoinPool.ManagedBlocker() {
+          @Override
+          public boolean block() throws InterruptedException {
+            synchronized (ParallelWorklist.this) {
+              while (pending.get() > 0) {
+                ParallelWorklist.this.wait();
+              }
+            }
+            return true;
+          }
+
+          @Override
+          public boolean isReleasable() {
+            return pending.get() == 0;
+          }
+        };
+
+    @Override
+    public void onWeightAdded(
+        final Transition<N, D> t, final W w, final WeightedPAutomaton<N, D, W> aut) {
+      schedule(() -> onTransition(t, w, aut));
+    }
+
+    @Override
+    public void onRuleAdded(final Rule<N, D, W> rule) {
+      schedule(() -> onRule(rule));
+    }
+
+    void subscribe(final Subscription subscription) {
+      schedule(
+          () -> {
+            if (!subscriptions.add(subscription)) {
+              return;
+            }
+            D state = subscription.state;
+            stateToSubscriptions.computeIfAbsent(state, k -> ConcurrentHashMap.newKeySet())
+                .add(subscription);
+            for (WeightedPAutomaton<N, D, W> aut : automataWithTransitionsOutOf(state)) {
+              for (Transition<N, D> t : Lists.newArrayList(aut.getTransitionsOutOf(state))) {
+                subscription.apply(t, aut.getWeightFor(t), aut);
+              }
+            }
+          });
+    }
+
+    /**
+     * Runs the action on the current thread, which does not run an item of this worklist, and
+     * waits until the tasks scheduled by it and their successors are done.
+     */
+    void drive(Runnable action) {
+      boolean outermost = !driving.get();
+      driving.set(true);
+      try {
+        action.run();
+      } finally {
+        if (outermost) {
+          driving.set(false);
+        }
+      }
+      if (outermost) {
+        awaitQuiescence();
+      }
+    }
+
+    private void schedule(Runnable item) {
+      pending.incrementAndGet();
+      ForkJoinTask<?> task = ForkJoinTask.adapt(() -> run(item));
+      if (working.get()) {
+        task.fork();
+      } else {
+        drive(() -> pool.execute(task));
+      }
+    }
+
+    private void run(Runnable item) {
+      working.set(true);
+      try {
+        if (failure.get() == null) {
+          item.run();
+        }
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      } finally {
+        working.set(false);
+        if (pending.decrementAndGet() == 0) {
+          synchronized (this) {
+            notifyAll();
+          }
+        }
+      }
+    }
+
+    private void awaitQuiescence() {
+      boolean interrupted = false;
+      while (pending.get() > 0) {
+        try {
+          // A blocked worker of the pool would otherwise hold back the tasks forked to its queue,
+          // which deadlocks a pool of parallelism 1.
+          ForkJoinPool.managedBlock(quiescence);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      Throwable e = failure.getAndSet(null);
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      } else if (e instanceof Error) {
+        throw (Error) e;
+      } else if (e != null) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    private void onRule(Rule<N, D, W> rule) {
+      if (rule instanceof PopRule) {
+        subscribe(
+            new PopSubscription(rule.getS1(), rule.getL1(), rule.getS2(), rule.getWeight()));
+        return;
+      }
+      for (WeightedPAutomaton<N, D, W> aut : automataWithTransitionsOutOf(rule.getS1())) {
+        for (Transition<N, D> t : Lists.newArrayList(aut.getTransitionsOutOf(rule.getS1()))) {
+          applyRule(rule, t, aut.getWeightFor(t), aut);
+        }
+      }
+    }
+
+    private void onTransition(Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut) {
+      // Published before the lookup, like the transition itself, see the class comment.
+      stateToAutomata.computeIfAbsent(t.getStart(), k -> ConcurrentHashMap.newKeySet()).add(aut);
+      for (Rule<N, D, W> rule : pds.getRulesStarting(t.getStart(), t.getLabel())) {
+        applyRule(rule, t, w, aut);
+      }
+      Set<Subscription> subscriptions = stateToSubscriptions.get(t.getStart());
+      if (subscriptions != null) {
+        for (Subscription s : Lists.newArrayList(subscriptions)) {
+          s.apply(t, w, aut);
+        }
+      }
+    }
+
+    // The root automaton and the nested automata with a processed transition out of the state.
+    private Collection<WeightedPAutomaton<N, D, W>> automataWithTransitionsOutOf(D state) {
+      Set<WeightedPAutomaton<N, D, W>> automata = stateToAutomata.get(state);
+      if (automata == null) {
+        return Collections.singleton(fa);
+      }
+      Set<WeightedPAutomaton<N, D, W>> res = Sets.newHashSet(automata);
+      res.add(fa);
+      return res;
+    }
+  }
+
+  private void applyRule(
+      Rule<N, D, W> rule, Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut) {
+    if (rule instanceof NormalRule) {
+      applyNormalRule((NormalRule<N, D, W>) rule, t, w);
+    } else if (rule instanceof PushRule) {
+      applyPushRule((PushRule<N, D, W>) rule, t, w, aut);
+    }
+  }
+
+  private abstract class Subscription {
+    protected final D state;
+
+    Subscription(D state) {
+      this.state = state;
+    }
+
+    abstract void apply(Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut);
+  }
+
+  private class PopSubscription extends Subscription {
+    private final N popLabel;
+    private final D targetState;
+    private final W ruleWeight;
+
+    PopSubscription(D state, N popLabel, D targetState, W ruleWeight) {
+      super(state);
+      this.popLabel = popLabel;
+      this.targetState = targetState;
+      this.ruleWeight = ruleWeight;
+    }
+
+    @Override
+    void apply(Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut) {
+      applyPopRule(popLabel, targetState, ruleWeight, t, w, aut);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(state, popLabel, targetState, ruleWeight);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (obj == null || getClass() != obj.getClass()) return false;
+      PopSubscription other = (PopSubscription) obj;
+      return state.equals(other.state)
+          && popLabel.equals(other.popLabel)
+          && targetState.equals(other.targetState)
+          && ruleWeight.equals(other.ruleWeight);
+    }
+  }
+
+  private class TransitivePopSubscription extends Subscription {
+    private final D start;
+    private final N label;
+    private final W newWeight;
+
+    TransitivePopSubscription(D start, N label, D target, W newWeight) {
+      super(target);
+      this.start = start;
+      this.label = label;
+      this.newWeight = newWeight;
+    }
+
+    @Override
+    void apply(Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut) {
+      applyTransitivePop(start, newWeight, t, w);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(state, start, label, newWeight);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (obj == null || getClass() != obj.getClass()) return false;
+      TransitivePopSubscription other = (TransitivePopSubscription) obj;
+      return state.equals(other.state)
+          && start.equals(other.start)
+          && label.equals(other.label)
+          && newWeight.equals(other.newWeight);
+    }
+  }
+
   private void update(Transition<N, D> trans, W weight) {
     if (!fa.nested()) {
       fa.addWeightForTransition(trans, weight);
@@ -350,12 +841,20 @@ public abstract class PostStar<N extends Location, D extends State, W extends We
 
   private WeightedPAutomaton<N, D, W> getOrCreateSummaryAutomaton(
       D target, Transition<N, D> transition, W weight, WeightedPAutomaton<N, D, W> context) {
-    WeightedPAutomaton<N, D, W> aut = getSummaryAutomaton(target);
-    if (aut == null) {
-      aut = context.createNestedAutomaton(target);
-      putSummaryAutomaton(target, aut);
-      aut.setInitialAutomaton(fa);
-    } else {
+    WeightedPAutomaton<N, D, W> aut;
+    boolean created = false;
+    // Workers of Mode.PARALLEL may reach the same target at the same time, only one of them
+    // must create its summary.
+    synchronized (this) {
+      aut = getSummaryAutomaton(target);
+      if (aut == null) {
+        aut = context.createNestedAutomaton(target);
+        aut.setInitialAutomaton(fa);
+        putSummaryAutomaton(target, aut);
+        created = true;
+      }
+    }
+    if (!created) {
       context.addNestedAutomaton(aut);
     }
     aut.addWeightForTransition(transition, weight);
@@ -13,106 +13,86 @@ package wpds.impl;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
 import wpds.interfaces.IPushdownSystem;
 import wpds.interfaces.Location;
 import wpds.interfaces.State;
 import wpds.wildcard.Wildcard;
 
 public class PreStar<N extends Location, D extends State, W extends Weight> {
-  private LinkedList<Transition<N, D>> worklist = Lists.newLinkedList();
+  // Insertion ordered set, a transition is pending at most once no matter how often its weight
+  // changes before it is processed.
+  private Set<Transition<N, D>> worklist = Sets.newLinkedHashSet();
   private IPushdownSystem<N, D, W> pds;
   private WeightedPAutomaton<N, D, W> fa;
 
   public WeightedPAutomaton<N, D, W> prestar(
       IPushdownSystem<N, D, W> pds, WeightedPAutomaton<N, D, W> initialAutomaton) {
     this.pds = pds;
-    worklist = Lists.newLinkedList(initialAutomaton.getTransitions());
     fa = initialAutomaton;
 
-    for (Transition<N, D> trans : Sets.newHashSet(fa.getTransitions())) {
-      W one = fa.getOne();
-      fa.addWeightForTransition(trans, one);
+    for (Transition<N, D> trans : fa.getTransitions()) {
+      if (fa.getWeightFor(trans) == null) {
+        fa.addWeightForTransition(trans, fa.getOne());
+      }
+      worklist.add(trans);
     }
     for (PopRule<N, D, W> r : pds.getPopRules()) {
-      update(
-          new Transition<N, D>(r.getS1(), r.getL1(), r.getS2()),
-          r.getWeight(),
-          Lists.<Transition<N, D>>newLinkedList());
+      update(new Transition<N, D>(r.getS1(), r.getL1(), r.getS2()), r.getWeight());
     }
 
     while (!worklist.isEmpty()) {
-      Transition<N, D> t = worklist.removeFirst();
+      Iterator<Transition<N, D>> it = worklist.iterator();
+      Transition<N, D> t = it.next();
+      it.remove();
+      W weight = fa.getWeightFor(t);
 
       for (NormalRule<N, D, W> r : pds.getNormalRulesEnding(t.getStart(), t.getLabel())) {
         // Normal rules
-        LinkedList<Transition<N, D>> previous = Lists.<Transition<N, D>>newLinkedList();
-        previous.add(t);
-        update(new Transition<N, D>(r.getS1(), r.getL1(), t.getTarget()), r.getWeight(), previous);
+        update(
+            new Transition<N, D>(r.getS1(), r.getL1(), t.getTarget()),
+            (W) r.getWeight().extendWith(weight));
       }
       for (PushRule<N, D, W> r : pds.getPushRulesEnding(t.getStart(), t.getLabel())) {
-        // Push rules
-        for (Transition<N, D> tdash : Sets.newHashSet(fa.getTransitions())) {
-          if (tdash.getLabel().equals(r.getCallSite())) {
-            LinkedList<Transition<N, D>> previous = Lists.<Transition<N, D>>newLinkedList();
-            previous.add(t);
-            previous.add(tdash);
-            update(
-                new Transition<N, D>(r.getS1(), r.getL1(), tdash.getTarget()),
-                r.getWeight(),
-                previous);
-          } else if (r.getCallSite() instanceof Wildcard) {
-            LinkedList<Transition<N, D>> previous = Lists.<Transition<N, D>>newLinkedList();
-            previous.add(t);
-            previous.add(tdash);
-            update(
-                new Transition<N, D>(r.getS1(), tdash.getLabel(), tdash.getTarget()),
-                r.getWeight(),
-                previous);
-          }
+        // Push rules, t is the transition of the callee entry
+        W callWeight = (W) r.getWeight().extendWith(weight);
+        for (Transition<N, D> tdash : transitionsOutOf(t.getTarget(), r.getCallSite())) {
+          N label = (r.getCallSite() instanceof Wildcard ? tdash.getLabel() : r.getL1());
+          update(
+              new Transition<N, D>(r.getS1(), label, tdash.getTarget()),
+              (W) callWeight.extendWith(fa.getWeightFor(tdash)));
         }
       }
-
-      for (PushRule<N, D, W> r : pds.getPushRules()) {
-        if (!(r.getCallSite() instanceof Wildcard) && !r.getCallSite().equals(t.getLabel())) {
+      for (PushRule<N, D, W> r : pds.getPushRulesWithCallSite(t.getLabel())) {
+        // Push rules, t is the transition of the return site
+        Transition<N, D> tdash = new Transition<N, D>(r.getS2(), r.getL2(), t.getStart());
+        W calleeWeight = fa.getWeightFor(tdash);
+        if (calleeWeight == null) {
           continue;
         }
-        Transition<N, D> tdash = new Transition<N, D>(r.getS2(), r.getL2(), t.getTarget());
-        if (!fa.getTransitions().contains(tdash)) {
-          continue;
-        }
-        LinkedList<Transition<N, D>> previous = Lists.<Transition<N, D>>newLinkedList();
-        previous.add(tdash);
-        previous.add(t);
         N label = ((r.getCallSite() instanceof Wildcard) ? t.getLabel() : r.getL1());
-        update(new Transition<N, D>(r.getS1(), label, t.getTarget()), r.getWeight(), previous);
+        update(
+            new Transition<N, D>(r.getS1(), label, t.getTarget()),
+            (W) r.getWeight().extendWith(calleeWeight).extendWith(weight));
       }
     }
 
     return fa;
   }
 
-  private void update(Transition<N, D> trans, W weight, List<Transition<N, D>> previous) {
-    if (trans.getLabel() instanceof Wildcard) throw new RuntimeException("INVALID TRANSITION");
-    fa.addTransition(trans);
-    W lt = getOrCreateWeight(trans);
-    W fr = weight;
-    for (Transition<N, D> prev : previous) {
-      fr = (W) fr.extendWith(getOrCreateWeight(prev));
-    }
-    W newLt = (W) lt.combineWith(fr);
-    fa.addWeightForTransition(trans, newLt);
-    if (!lt.equals(newLt)) {
-      worklist.add(trans);
+  private Collection<Transition<N, D>> transitionsOutOf(D state, N label) {
+    if (label instanceof Wildcard) {
+      return Lists.newArrayList(fa.getTransitionsOutOf(state));
     }
+    return Lists.newArrayList(fa.getTransitionsOutOf(state, label));
   }
 
-  private W getOrCreateWeight(Transition<N, D> trans) {
-    W w = fa.getWeightFor(trans);
-    if (w != null) return w;
-
-    // z.setRange(trans.getLabel(), trans.getLabel());
-    return null;
+  private void update(Transition<N, D> trans, W weight) {
+    if (trans.getLabel() instanceof Wildcard) throw new RuntimeException("INVALID TRANSITION");
+    if (fa.addWeightForTransition(trans, weight)) {
+      worklist.add(trans);
+    }
   }
 }
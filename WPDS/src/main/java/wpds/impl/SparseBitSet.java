@@ -0,0 +1,172 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.impl;
+
+import java.util.Arrays;
+
+/**
+ * A set of non-negative integers, stored as the sorted indices and values of its non-zero 64 bit
+ * words. Unlike {@link java.util.BitSet}, the memory does not depend on the largest element, a set
+ * that only contains a few large elements stays small.
+ */
+final class SparseBitSet {
+  private static final int[] NO_INDICES = new int[0];
+  private static final long[] NO_WORDS = new long[0];
+
+  private int[] indices = NO_INDICES;
+  private long[] words = NO_WORDS;
+  private int size;
+
+  boolean get(int bit) {
+    int pos = find(bit >>> 6);
+    return pos >= 0 && (words[pos] & (1L << bit)) != 0;
+  }
+
+  /** @return true if the bit was not set before. */
+  boolean set(int bit) {
+    int index = bit >>> 6;
+    long mask = 1L << bit;
+    int pos = find(index);
+    if (pos >= 0) {
+      if ((words[pos] & mask) != 0) {
+        return false;
+      }
+      words[pos] |= mask;
+      return true;
+    }
+    pos = -pos - 1;
+    if (size == indices.length) {
+      int capacity = Math.max(2, size * 2);
+      indices = Arrays.copyOf(indices, capacity);
+      words = Arrays.copyOf(words, capacity);
+    }
+    System.arraycopy(indices, pos, indices, pos + 1, size - pos);
+    System.arraycopy(words, pos, words, pos + 1, size - pos);
+    indices[pos] = index;
+    words[pos] = mask;
+    size++;
+    return true;
+  }
+
+  /**
+   * Adds all elements of the other set.
+   *
+   * @return the elements that were added, or null if this set already contained all of them.
+   */
+  SparseBitSet addAll(SparseBitSet other) {
+    SparseBitSet added = null;
+    int missing = 0;
+    int i = 0;
+    for (int j = 0; j < other.size; j++) {
+      int index = other.indices[j];
+      while (i < size && indices[i] < index) {
+        i++;
+      }
+      long existing = i < size && indices[i] == index ? words[i] : 0L;
+      long diff = other.words[j] & ~existing;
+      if (diff == 0) {
+        continue;
+      }
+      if (added == null) {
+        // Sized for the remaining words, such that appending never grows the arrays.
+        added = new SparseBitSet();
+        added.indices = new int[other.size - j];
+        added.words = new long[other.size - j];
+      }
+      added.append(index, diff);
+      if (existing == 0) {
+        missing++;
+      } else {
+        words[i] |= diff;
+      }
+    }
+    if (missing > 0) {
+      merge(added, missing);
+    }
+    return added;
+  }
+
+  /** Merges the words of the added set, of which the given number are not yet contained. */
+  private void merge(SparseBitSet added, int missing) {
+    int newSize = size + missing;
+    int[] newIndices = new int[newSize];
+    long[] newWords = new long[newSize];
+    int i = 0;
+    int j = 0;
+    for (int k = 0; k < newSize; k++) {
+      if (j < added.size && (i == size || added.indices[j] < indices[i])) {
+        newIndices[k] = added.indices[j];
+        newWords[k] = added.words[j];
+        j++;
+      } else {
+        if (j < added.size && added.indices[j] == indices[i]) {
+          // Already or-ed in place.
+          j++;
+        }
+        newIndices[k] = indices[i];
+        newWords[k] = words[i];
+        i++;
+      }
+    }
+    indices = newIndices;
+    words = newWords;
+    size = newSize;
+  }
+
+  private void append(int index, long word) {
+    if (size == indices.length) {
+      int capacity = Math.max(2, size * 2);
+      indices = Arrays.copyOf(indices, capacity);
+      words = Arrays.copyOf(words, capacity);
+    }
+    indices[size] = index;
+    words[size] = word;
+    size++;
+  }
+
+  SparseBitSet copy() {
+    SparseBitSet copy = new SparseBitSet();
+    copy.indices = Arrays.copyOf(indices, size);
+    copy.words = Arrays.copyOf(words, size);
+    copy.size = size;
+    return copy;
+  }
+
+  int cardinality() {
+    int cardinality = 0;
+    for (int i = 0; i < size; i++) {
+      cardinality += Long.bitCount(words[i]);
+    }
+    return cardinality;
+  }
+
+  /** @return the elements in ascending order. */
+  int[] toArray() {
+    int[] res = new int[cardinality()];
+    int k = 0;
+    for (int i = 0; i < size; i++) {
+      long word = words[i];
+      while (word != 0) {
+        res[k++] = (indices[i] << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+      }
+    }
+    return res;
+  }
+
+  private int find(int index) {
+    if (size > 0 && indices[size - 1] == index) {
+      return size - 1;
+    }
+    return Arrays.binarySearch(indices, 0, size, index);
+  }
+}
@@ -0,0 +1,416 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import wpds.interfaces.BinaryCodec;
+import wpds.interfaces.Location;
+import wpds.interfaces.State;
+
+/**
+ * Binary format for summary automata, used to preload summaries of unchanged code in a later run.
+ * It stores the automata of a {@link SummaryNestedWeightedPAutomatons}, or detached {@link
+ * Summary summaries} such as the ones kept by a cache.
+ *
+ * <p>The file starts with a header (magic, version), followed by the tables of all states, stack
+ * symbols and weights, each written once by the client's {@link BinaryCodec}. Each summary then
+ * consists of its key, the id of its target state, its transitions as (start, label, target,
+ * weight) id quadruples and the ids of the target states of its nested summaries. The key is
+ * supplied by the client and should be stable across runs, e.g. the signature of the summarized
+ * method.
+ *
+ * <p>Files are read through a memory mapped buffer. A file that is truncated, corrupt or cannot be
+ * decoded by the codecs is rejected with an {@link IOException} before any summary is added.
+ */
+public class SummaryFile<N extends Location, D extends State, W extends Weight> {
+  private static final int MAGIC = 0x57504453;
+  private static final int VERSION = 1;
+  private static final int NO_WEIGHT = -1;
+  private static final int BYTES_PER_TRANSITION = 16;
+
+  private final BinaryCodec<N> labelCodec;
+  private final BinaryCodec<D> stateCodec;
+  private final BinaryCodec<W> weightCodec;
+
+  public SummaryFile(
+      BinaryCodec<N> labelCodec, BinaryCodec<D> stateCodec, BinaryCodec<W> weightCodec) {
+    this.labelCodec = labelCodec;
+    this.stateCodec = stateCodec;
+    this.weightCodec = weightCodec;
+  }
+
+  /**
+   * The content of a summary automaton, detached from the automaton. Weights may be null for
+   * transitions without weight.
+   */
+  public static class Summary<N extends Location, D extends State, W extends Weight> {
+    private final String key;
+    private final D target;
+    private final List<Transition<N, D>> transitions;
+    private final List<W> weights;
+    private final List<D> nestedTargets;
+
+    public Summary(
+        String key,
+        D target,
+        List<Transition<N, D>> transitions,
+        List<W> weights,
+        List<D> nestedTargets) {
+      if (transitions.size() != weights.size()) {
+        throw new IllegalArgumentException("Each transition requires a weight or null");
+      }
+      this.key = key;
+      this.target = target;
+      this.transitions = transitions;
+      this.weights = weights;
+      this.nestedTargets = nestedTargets;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public D getTarget() {
+      return target;
+    }
+
+    public List<Transition<N, D>> getTransitions() {
+      return Collections.unmodifiableList(transitions);
+    }
+
+    public List<W> getWeights() {
+      return Collections.unmodifiableList(weights);
+    }
+
+    /** The target states of the summaries nested into this one. */
+    public List<D> getNestedTargets() {
+      return Collections.unmodifiableList(nestedTargets);
+    }
+  }
+
+  /**
+   * Writes all summaries of the given automata to the file, replacing its content.
+   *
+   * @param keyOf computes the key of the summary for a target state.
+   * @return the number of summaries written, see {@link #write(Path, Collection)}.
+   */
+  public int write(
+      Path file, SummaryNestedWeightedPAutomatons<N, D, W> summaries, Function<D, String> keyOf)
+      throws IOException {
+    Map<D, WeightedPAutomaton<N, D, W>> automata = summaries.getSummaries();
+    Map<WeightedPAutomaton<N, D, W>, D> targetOf = Maps.newIdentityHashMap();
+    for (Entry<D, WeightedPAutomaton<N, D, W>> e : automata.entrySet()) {
+      targetOf.put(e.getValue(), e.getKey());
+    }
+    List<Summary<N, D, W>> detached = Lists.newArrayList();
+    for (Entry<D, WeightedPAutomaton<N, D, W>> e : automata.entrySet()) {
+      WeightedPAutomaton<N, D, W> aut = e.getValue();
+      List<Transition<N, D>> transitions = Lists.newArrayList(aut.getTransitions());
+      List<W> weights = Lists.newArrayListWithCapacity(transitions.size());
+      for (Transition<N, D> t : transitions) {
+        weights.add(aut.getWeightFor(t));
+      }
+      List<D> nested = Lists.newArrayList();
+      for (WeightedPAutomaton<N, D, W> n : aut.getNestedAutomata()) {
+        D nestedTarget = targetOf.get(n);
+        if (nestedTarget != null) {
+          nested.add(nestedTarget);
+        }
+      }
+      detached.add(
+          new Summary<>(keyOf.apply(e.getKey()), e.getKey(), transitions, weights, nested));
+    }
+    return write(file, detached);
+  }
+
+  /**
+   * Writes the summaries to the file, replacing its content. A summary is skipped if one of its
+   * values cannot be encoded, i.e. a codec rejects it with an {@link IllegalArgumentException}.
+   *
+   * @return the number of summaries written.
+   */
+  public int write(Path file, Collection<Summary<N, D, W>> summaries) throws IOException {
+    ValueTable<D> states = new ValueTable<>(stateCodec);
+    ValueTable<N> labels = new ValueTable<>(labelCodec);
+    ValueTable<W> weights = new ValueTable<>(weightCodec);
+    List<Summary<N, D, W>> encodable = Lists.newArrayList();
+    for (Summary<N, D, W> summary : summaries) {
+      if (isEncodable(summary, states, labels, weights)) {
+        encodable.add(summary);
+        states.intern(summary.target);
+        for (int i = 0; i < summary.transitions.size(); i++) {
+          Transition<N, D> t = summary.transitions.get(i);
+          states.intern(t.getStart());
+          labels.intern(t.getLabel());
+          states.intern(t.getTarget());
+          if (summary.weights.get(i) != null) {
+            weights.intern(summary.weights.get(i));
+          }
+        }
+        for (D nested : summary.nestedTargets) {
+          states.intern(nested);
+        }
+      }
+    }
+
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      states.write(out);
+      labels.write(out);
+      weights.write(out);
+      out.writeInt(encodable.size());
+      for (Summary<N, D, W> summary : encodable) {
+        writeString(out, summary.key);
+        out.writeInt(states.getId(summary.target));
+        out.writeInt(summary.transitions.size());
+        for (int i = 0; i < summary.transitions.size(); i++) {
+          Transition<N, D> t = summary.transitions.get(i);
+          W w = summary.weights.get(i);
+          out.writeInt(states.getId(t.getStart()));
+          out.writeInt(labels.getId(t.getLabel()));
+          out.writeInt(states.getId(t.getTarget()));
+          out.writeInt(w == null ? NO_WEIGHT : weights.getId(w));
+        }
+        out.writeInt(summary.nestedTargets.size());
+        for (D nested : summary.nestedTargets) {
+          out.writeInt(states.getId(nested));
+        }
+      }
+    }
+    return encodable.size();
+  }
+
+  private boolean isEncodable(
+      Summary<N, D, W> summary,
+      ValueTable<D> states,
+      ValueTable<N> labels,
+      ValueTable<W> weights)
+      throws IOException {
+    if (!states.isEncodable(summary.target)) {
+      return false;
+    }
+    for (int i = 0; i < summary.transitions.size(); i++) {
+      Transition<N, D> t = summary.transitions.get(i);
+      W w = summary.weights.get(i);
+      if (!states.isEncodable(t.getStart())
+          || !labels.isEncodable(t.getLabel())
+          || !states.isEncodable(t.getTarget())
+          || (w != null && !weights.isEncodable(w))) {
+        return false;
+      }
+    }
+    for (D nested : summary.nestedTargets) {
+      if (!states.isEncodable(nested)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads the summaries whose key is accepted by the filter and adds them to the given summaries.
+   * Summaries that are already present are kept.
+   *
+   * @param automatonFactory creates the (empty) summary automaton for a target state, typically
+   *     via {@link WeightedPAutomaton#createNestedAutomaton(State)} of the analysis' automaton.
+   * @return the number of summaries that were added.
+   * @throws IOException if the file cannot be read or decoded, no summary has been added then.
+   */
+  public int read(
+      Path file,
+      SummaryNestedWeightedPAutomatons<N, D, W> summaries,
+      Function<D, WeightedPAutomaton<N, D, W>> automatonFactory,
+      Predicate<String> keyFilter)
+      throws IOException {
+    Map<WeightedPAutomaton<N, D, W>, List<D>> nestedTargets = Maps.newHashMap();
+    for (Summary<N, D, W> summary : read(file, keyFilter)) {
+      D target = summary.target;
+      if (summaries.getSummaryAutomaton(target) != null) {
+        continue;
+      }
+      WeightedPAutomaton<N, D, W> aut = automatonFactory.apply(target);
+      for (int i = 0; i < summary.transitions.size(); i++) {
+        W weight = summary.weights.get(i);
+        if (weight == null) {
+          aut.addTransition(summary.transitions.get(i));
+        } else {
+          aut.addWeightForTransition(summary.transitions.get(i), weight);
+        }
+      }
+      summaries.putSummaryAutomaton(target, aut);
+      nestedTargets.put(aut, summary.nestedTargets);
+    }
+    for (Entry<WeightedPAutomaton<N, D, W>, List<D>> e : nestedTargets.entrySet()) {
+      for (D target : e.getValue()) {
+        WeightedPAutomaton<N, D, W> nested = summaries.getSummaryAutomaton(target);
+        if (nested != null) {
+          e.getKey().addNestedAutomaton(nested);
+        }
+      }
+    }
+    return nestedTargets.size();
+  }
+
+  /**
+   * Reads the summaries whose key is accepted by the filter.
+   *
+   * @throws IOException if the file cannot be read, is not a summary file, or is truncated or
+   *     corrupt. Values that the codecs fail to decode, e.g. as they no longer exist in the
+   *     analyzed program, are reported as corrupt as well.
+   */
+  public List<Summary<N, D, W>> read(Path file, Predicate<String> keyFilter) throws IOException {
+    MappedByteBuffer in;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      if (in.remaining() < 8 || in.getInt() != MAGIC) {
+        throw new IOException("Not a summary file: " + file);
+      }
+      int version = in.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported summary file version " + version + ": " + file);
+      }
+      return readSummaries(in, keyFilter);
+    } catch (RuntimeException e) {
+      throw new IOException("Corrupt summary file: " + file, e);
+    }
+  }
+
+  private List<Summary<N, D, W>> readSummaries(ByteBuffer in, Predicate<String> keyFilter) {
+    List<D> states = readTable(in, stateCodec);
+    List<N> labels = readTable(in, labelCodec);
+    List<W> weights = readTable(in, weightCodec);
+
+    List<Summary<N, D, W>> summaries = Lists.newArrayList();
+    int count = readSize(in, 1);
+    for (int i = 0; i < count; i++) {
+      String key = readString(in);
+      D target = states.get(in.getInt());
+      int size = readSize(in, BYTES_PER_TRANSITION);
+      List<Transition<N, D>> transitions = Lists.newArrayListWithCapacity(size);
+      List<W> transitionWeights = Lists.newArrayListWithCapacity(size);
+      for (int j = 0; j < size; j++) {
+        D start = states.get(in.getInt());
+        N label = labels.get(in.getInt());
+        D end = states.get(in.getInt());
+        int weight = in.getInt();
+        transitions.add(new Transition<>(start, label, end));
+        transitionWeights.add(weight == NO_WEIGHT ? null : weights.get(weight));
+      }
+      int nestedSize = readSize(in, Integer.BYTES);
+      List<D> nested = Lists.newArrayListWithCapacity(nestedSize);
+      for (int j = 0; j < nestedSize; j++) {
+        nested.add(states.get(in.getInt()));
+      }
+      if (keyFilter.test(key)) {
+        summaries.add(new Summary<>(key, target, transitions, transitionWeights, nested));
+      }
+    }
+    return summaries;
+  }
+
+  /** Reads a size and checks that the remaining bytes can hold as many elements. */
+  private static int readSize(ByteBuffer in, int bytesPerElement) {
+    int size = in.getInt();
+    if (size < 0 || (long) size * bytesPerElement > in.remaining()) {
+      throw new IllegalArgumentException("Invalid size " + size);
+    }
+    return size;
+  }
+
+  /** Interns the values of one table and remembers which values the codec can encode. */
+  private static class ValueTable<T> {
+    private static final DataOutput PROBE = new DataOutputStream(ByteStreams.nullOutputStream());
+    private final Interner<T> values = new Interner<>();
+    private final Map<T, Boolean> encodable = Maps.newHashMap();
+    private final BinaryCodec<T> codec;
+
+    ValueTable(BinaryCodec<T> codec) {
+      this.codec = codec;
+    }
+
+    boolean isEncodable(T value) throws IOException {
+      Boolean res = encodable.get(value);
+      if (res == null) {
+        try {
+          codec.write(value, PROBE);
+          res = true;
+        } catch (IllegalArgumentException e) {
+          res = false;
+        }
+        encodable.put(value, res);
+      }
+      return res;
+    }
+
+    void intern(T value) {
+      values.intern(value);
+    }
+
+    int getId(T value) {
+      return values.getId(value);
+    }
+
+    void write(DataOutput out) throws IOException {
+      out.writeInt(values.size());
+      for (int i = 0; i < values.size(); i++) {
+        codec.write(values.get(i), out);
+      }
+    }
+  }
+
+  private static <T> List<T> readTable(ByteBuffer in, BinaryCodec<T> codec) {
+    int size = readSize(in, 1);
+    List<T> table = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      table.add(codec.read(in));
+    }
+    return table;
+  }
+
+  /** Writes a string as length prefixed UTF-8, for use by {@link BinaryCodec}s. */
+  public static void writeString(DataOutput out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /** Reads a string written by {@link #writeString(DataOutput, String)}. */
+  public static String readString(ByteBuffer in) {
+    byte[] bytes = new byte[readSize(in, 1)];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
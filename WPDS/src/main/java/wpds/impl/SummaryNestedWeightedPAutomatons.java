@@ -12,6 +12,7 @@
 package wpds.impl;
 
 import com.google.common.collect.Maps;
+import java.util.Collections;
 import java.util.Map;
 import wpds.interfaces.Location;
 import wpds.interfaces.State;
@@ -19,7 +20,8 @@ import wpds.interfaces.State;
 public class SummaryNestedWeightedPAutomatons<N extends Location, D extends State, W extends Weight>
     implements NestedWeightedPAutomatons<N, D, W> {
 
-  private Map<D, WeightedPAutomaton<N, D, W>> summaries = Maps.newHashMap();
+  // Concurrent, as PostStar.Mode.PARALLEL looks up summaries while others are created.
+  private final Map<D, WeightedPAutomaton<N, D, W>> summaries = Maps.newConcurrentMap();
 
   @Override
   public void putSummaryAutomaton(D target, WeightedPAutomaton<N, D, W> aut) {
@@ -30,4 +32,8 @@ public class SummaryNestedWeightedPAutomatons<N extends Location, D extends Stat
   public WeightedPAutomaton<N, D, W> getSummaryAutomaton(D target) {
     return summaries.get(target);
   }
+
+  public Map<D, WeightedPAutomaton<N, D, W>> getSummaries() {
+    return Collections.unmodifiableMap(summaries);
+  }
 }
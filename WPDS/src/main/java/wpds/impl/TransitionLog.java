@@ -0,0 +1,87 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.impl;
+
+import java.util.Arrays;
+import wpds.interfaces.Location;
+import wpds.interfaces.State;
+
+/**
+ * Append-only log of transitions in the order in which they have been added, e.g. the summary
+ * edges of a {@link WeightedPAutomaton}. Listeners registered late consume the log through a {@link
+ * Cursor} instead of copying the transitions.
+ *
+ * <p>A cursor visits the transitions that were appended before it was created. If the log is
+ * concurrent, appending is synchronized and reading is lock free.
+ */
+final class TransitionLog<N extends Location, D extends State> {
+  private static final Object[] EMPTY = new Object[0];
+
+  private final boolean concurrent;
+  private volatile Object[] transitions = EMPTY;
+  // Written after the transitions, such that a reader that sees a size sees an array of this size
+  private volatile int size;
+
+  TransitionLog(boolean concurrent) {
+    this.concurrent = concurrent;
+  }
+
+  void append(Transition<N, D> t) {
+    if (concurrent) {
+      synchronized (this) {
+        doAppend(t);
+      }
+    } else {
+      doAppend(t);
+    }
+  }
+
+  private void doAppend(Transition<N, D> t) {
+    Object[] array = transitions;
+    int n = size;
+    if (n == array.length) {
+      array = Arrays.copyOf(array, Math.max(16, n * 2));
+    }
+    array[n] = t;
+    transitions = array;
+    size = n + 1;
+  }
+
+  int size() {
+    return size;
+  }
+
+  Cursor cursor() {
+    return new Cursor();
+  }
+
+  final class Cursor {
+    private final int end;
+    private final Object[] transitions;
+    private int index = -1;
+
+    private Cursor() {
+      this.end = size;
+      this.transitions = TransitionLog.this.transitions;
+    }
+
+    /** Moves to the next transition, @return false if there is none. */
+    boolean advance() {
+      return ++index < end;
+    }
+
+    @SuppressWarnings("unchecked")
+    Transition<N, D> transition() {
+      return (Transition<N, D>) transitions[index];
+    }
+  }
+}
@@ -12,10 +12,42 @@
 package wpds.impl;
 
 public abstract class Weight {
+  // The interner of which this weight is the representative, equal canonical weights of one
+  // interner are the same object. Volatile, as weights are shared among solver threads.
+  private volatile WeightInterner<?> interner;
+
   public abstract Weight extendWith(Weight other);
 
   public abstract Weight combineWith(Weight other);
 
+  boolean isCanonical() {
+    return interner != null;
+  }
+
+  void markCanonical(WeightInterner<?> interner) {
+    this.interner = interner;
+  }
+
+  /**
+   * Compares two weights. If one of them has been interned by an enabled {@link WeightInterner},
+   * the other one is interned as well and the weights are compared by reference, i.e. by the
+   * equivalence of the interner. Weights without an enabled interner are compared via {@link
+   * Object#equals(Object)}.
+   */
+  public static boolean same(Weight a, Weight b) {
+    if (a == b) {
+      return true;
+    }
+    if (a == null || b == null) {
+      return false;
+    }
+    WeightInterner<?> interner = a.interner != null ? a.interner : b.interner;
+    if (interner != null && interner.isEnabled() && a.getClass() == b.getClass()) {
+      return interner.internUnchecked(a) == interner.internUnchecked(b);
+    }
+    return a.equals(b);
+  }
+
   public static NoWeight NO_WEIGHT_ONE = new Weight.NoWeight();
 
   public static class NoWeight extends Weight {
@@ -0,0 +1,151 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Hash-conses the weights of one {@link Weight} class and memoizes its {@link
+ * Weight#extendWith(Weight)} and {@link Weight#combineWith(Weight)} operations. A weight class
+ * plugs in by routing its operations through {@link #extendWith(Weight, Weight, BinaryOperator)}
+ * and {@link #combineWith(Weight, Weight, BinaryOperator)}, passing the actual operation.
+ *
+ * <p>The interner is disabled by default, the operations are then applied directly. Once enabled,
+ * operands and results are interned, equal weights become the same object and {@link
+ * Weight#same(Weight, Weight)} compares them by reference. The results of the operations are
+ * cached by the identities of the interned operands, up to the given number of entries.
+ * Canonical weights are only referenced weakly by the interner itself.
+ *
+ * <p>Interning replaces a weight by any equivalent one. By default, weights are equivalent if they
+ * are {@link Object#equals(Object)}. Weight classes whose equals ignores part of their state, e.g.
+ * information that is only reported, supply a key covering all of their state instead. {@link
+ * Weight#same(Weight, Weight)} then compares by the key, which distinguishes weights that equals
+ * considers equal.
+ */
+public class WeightInterner<W extends Weight> {
+  private final Interner<W> weights = Interners.newWeakInterner();
+  private final Function<? super W, ?> keyOf;
+  private final Cache<Object, W> weightsByKey = CacheBuilder.newBuilder().weakValues().build();
+  private final Cache<Operation, W> results;
+  private volatile boolean enabled;
+
+  public WeightInterner(long maximumCachedResults) {
+    this(maximumCachedResults, null);
+  }
+
+  /**
+   * @param keyOf computes a key that covers all state of a weight. It must not reference the weight
+   *     itself, as keys are held strongly until their weight is collected.
+   */
+  public WeightInterner(long maximumCachedResults, Function<? super W, ?> keyOf) {
+    this.keyOf = keyOf;
+    this.results =
+        CacheBuilder.newBuilder().maximumSize(maximumCachedResults).recordStats().build();
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** @return the canonical weight equal to the given one, or the weight if disabled. */
+  public W intern(W w) {
+    if (!enabled || w.isCanonical()) {
+      return w;
+    }
+    W canonical =
+        keyOf == null
+            ? weights.intern(w)
+            : weightsByKey.asMap().computeIfAbsent(keyOf.apply(w), k -> w);
+    canonical.markCanonical(this);
+    return canonical;
+  }
+
+  // Only called by Weight.same on two weights of the class of one of the interner's weights.
+  @SuppressWarnings("unchecked")
+  Weight internUnchecked(Weight w) {
+    return intern((W) w);
+  }
+
+  public W extendWith(W a, W b, BinaryOperator<W> extend) {
+    return apply(true, a, b, extend);
+  }
+
+  public W combineWith(W a, W b, BinaryOperator<W> combine) {
+    return apply(false, a, b, combine);
+  }
+
+  private W apply(boolean extend, W a, W b, BinaryOperator<W> op) {
+    if (!enabled) {
+      return op.apply(a, b);
+    }
+    W left = intern(a);
+    W right = intern(b);
+    try {
+      return results.get(new Operation(extend, left, right), () -> intern(op.apply(left, right)));
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /** @return the number of operations answered from the cache. */
+  public long hitCount() {
+    return results.stats().hitCount();
+  }
+
+  /** @return the number of operations that had to be computed. */
+  public long missCount() {
+    return results.stats().missCount();
+  }
+
+  public void invalidateAll() {
+    results.invalidateAll();
+  }
+
+  /** An operation on two interned weights, identified by their references. */
+  private static class Operation {
+    private final boolean extend;
+    private final Weight left;
+    private final Weight right;
+
+    Operation(boolean extend, Weight left, Weight right) {
+      this.extend = extend;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = extend ? 1 : 0;
+      result = 31 * result + System.identityHashCode(left);
+      result = 31 * result + System.identityHashCode(right);
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof Operation)) return false;
+      Operation other = (Operation) obj;
+      return extend == other.extend && left == other.left && right == other.right;
+    }
+  }
+}
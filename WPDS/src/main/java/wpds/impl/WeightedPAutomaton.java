@@ -21,7 +21,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -29,6 +29,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pathexpression.Edge;
@@ -41,36 +43,43 @@ import wpds.interfaces.ForwardDFSVisitor;
 import wpds.interfaces.Location;
 import wpds.interfaces.ReachabilityListener;
 import wpds.interfaces.State;
+import wpds.interfaces.TransitionStore;
 import wpds.interfaces.WPAStateListener;
 import wpds.interfaces.WPAUpdateListener;
+import wpds.metrics.Counter;
+import wpds.metrics.Metrics;
 
 public abstract class WeightedPAutomaton<N extends Location, D extends State, W extends Weight>
     implements LabeledGraph<D, N> {
   private static final Logger LOGGER = LoggerFactory.getLogger(WeightedPAutomaton.class);
-  private Map<Transition<N, D>, W> transitionToWeights = new HashMap<>();
+  // Sizes on a 64-bit JVM with compressed references, see estimateRetainedBytes(). The entries
+  // and the listener were measured from the used heap after adding 100k of them. A log entry is a
+  // reference.
+  private static final long BYTES_PER_MAP_ENTRY = 40;
+  private static final long BYTES_PER_LOG_ENTRY = 4;
+  private static final long BYTES_PER_STATE = 40;
+  private static final long BYTES_PER_LISTENER = 108;
   // Set Q is implicit
   // Weighted Pushdown Systems and their Application to Interprocedural
   // Dataflow Analysis
-  protected Set<Transition<N, D>> transitions = Sets.newHashSet();
+  private final TransitionStore<N, D, W> transitionStore;
   // set F in paper [Reps2003]
   protected Set<D> finalState = Sets.newHashSet();
   protected Multimap<D, D> initialStatesToSource = HashMultimap.create();
   // set P in paper [Reps2003]
-  protected Set<D> states = Sets.newHashSet();
-  private final Multimap<D, Transition<N, D>> transitionsOutOf = HashMultimap.create();
-  private final Multimap<D, Transition<N, D>> transitionsInto = HashMultimap.create();
-  private Set<WPAUpdateListener<N, D, W>> listeners = Sets.newHashSet();
-  private Multimap<D, WPAStateListener<N, D, W>> stateListeners = HashMultimap.create();
+  protected Set<D> states;
+  private final ListenerList<WPAUpdateListener<N, D, W>> listeners;
+  private final Map<D, ListenerList<WPAStateListener<N, D, W>>> stateListeners;
   private Map<D, ForwardDFSVisitor<N, D, W>> stateToDFS = Maps.newHashMap();
   private Map<D, ForwardDFSVisitor<N, D, W>> stateToEpsilonDFS = Maps.newHashMap();
-  private Set<WeightedPAutomaton<N, D, W>> nestedAutomatons = Sets.newHashSet();
-  private Set<NestedAutomatonListener<N, D, W>> nestedAutomataListeners = Sets.newHashSet();
-  private Map<D, ReachabilityListener<N, D>> stateToEpsilonReachabilityListener = Maps.newHashMap();
-  private Map<D, ReachabilityListener<N, D>> stateToReachabilityListener = Maps.newHashMap();
+  private final Set<WeightedPAutomaton<N, D, W>> nestedAutomatons;
+  private final Set<NestedAutomatonListener<N, D, W>> nestedAutomataListeners;
+  private final Map<D, ReachabilityListener<N, D>> stateToEpsilonReachabilityListener;
+  private final Map<D, ReachabilityListener<N, D>> stateToReachabilityListener;
   private Set<ReturnSiteWithWeights> connectedPushes = Sets.newHashSet();
   private Set<ConnectPushListener<N, D, W>> conntectedPushListeners = Sets.newHashSet();
-  private Set<UnbalancedPopListener<N, D, W>> unbalancedPopListeners = Sets.newHashSet();
-  private Map<UnbalancedPopEntry, W> unbalancedPops = Maps.newHashMap();
+  private final Set<UnbalancedPopListener<N, D, W>> unbalancedPopListeners;
+  private final Map<UnbalancedPopEntry, W> unbalancedPops;
   private Map<Transition<N, D>, W> transitionsToFinalWeights = Maps.newHashMap();
   private ForwardDFSVisitor<N, D, W> dfsVisitor;
   private ForwardDFSVisitor<N, D, W> dfsEpsVisitor;
@@ -80,16 +89,86 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
   private PathExpressionComputer<D, N> pathExpressionComputer;
   private int lastStates = 0;
   private Stopwatch watch = Stopwatch.createUnstarted();
-  private Map<D, Integer> stateToDistanceToInitial = Maps.newHashMap();
+  private final Map<D, Integer> stateToDistanceToInitial;
   private Map<D, Integer> stateToUnbalancedDistance = Maps.newHashMap();
-  private final Map<D, Transition<N, D>> stateCreatingTransition = Maps.newHashMap();
+  private final Map<D, Transition<N, D>> stateCreatingTransition;
+  private final Set<Transition<N, D>> summaryEdges;
+  private final TransitionLog<N, D> summaryEdgeLog;
+  private final ListenerList<SummaryListener<N, D>> summaryEdgeListener;
+  private final boolean concurrent;
+  private final Counter failedAdditionsCounter =
+      Metrics.registry()
+          .counter(
+              "wpds_failed_additions_total",
+              "Transitions whose addition did not change an automaton");
+  private final Counter stateListenersCounter =
+      Metrics.registry()
+          .counter("wpds_listeners_registered_total", "Listeners registered", "kind", "state");
+  private final Counter updateListenersCounter =
+      Metrics.registry()
+          .counter("wpds_listeners_registered_total", "Listeners registered", "kind", "update");
+
+  public WeightedPAutomaton() {
+    this(new HashTransitionStore<N, D, W>());
+  }
+
+  /**
+   * If the store {@link TransitionStore#isConcurrent() is concurrent}, multiple threads may add
+   * transitions and register transition, summary and unbalanced pop listeners at the same time.
+   * Each listener eventually sees the combined weight of each transition, but may see weights of a
+   * transition out of order or the same weight twice when it is registered concurrently to an
+   * update. Nested automata may be added concurrently, each is added at most once. Initial and
+   * final states and DFS listeners have to be set up by a single thread. The counters of failed
+   * additions are not reliable and the {@link #getWatch() watch} is not maintained. A listener that
+   * registers late is replayed each transition once, in the order in which the store inserted them.
+   */
+  public WeightedPAutomaton(TransitionStore<N, D, W> transitionStore) {
+    this.transitionStore = transitionStore;
+    this.concurrent = transitionStore.isConcurrent();
+    this.states = newSet();
+    this.listeners = new ListenerList<>(concurrent);
+    this.stateListeners = newMap();
+    this.nestedAutomatons = newSet();
+    this.nestedAutomataListeners = newSet();
+    this.stateToEpsilonReachabilityListener = newMap();
+    this.stateToReachabilityListener = newMap();
+    this.unbalancedPopListeners = newSet();
+    this.unbalancedPops = newMap();
+    this.stateToDistanceToInitial = newMap();
+    this.stateCreatingTransition = newMap();
+    this.summaryEdges = newSet();
+    this.summaryEdgeLog = new TransitionLog<>(concurrent);
+    this.summaryEdgeListener = new ListenerList<>(concurrent);
+  }
+
+  private <T> Set<T> newSet() {
+    return concurrent ? ConcurrentHashMap.newKeySet() : Sets.newHashSet();
+  }
+
+  private <K, V> Map<K, V> newMap() {
+    return concurrent ? new ConcurrentHashMap<>() : Maps.newHashMap();
+  }
 
   public abstract D createState(D d, N loc);
 
+  /** @return true if the automaton may be updated by multiple threads at the same time. */
+  public boolean isConcurrent() {
+    return concurrent;
+  }
+
   public abstract boolean isGeneratedState(D d);
 
   public Collection<Transition<N, D>> getTransitions() {
-    return Lists.newArrayList(transitions);
+    return Lists.newArrayList(transitionStore.getTransitions());
+  }
+
+  public Collection<Transition<N, D>> getTransitionsOutOf(D state) {
+    return transitionStore.getTransitionsOutOf(state);
+  }
+
+  /** Returns the transitions leaving the given state with the given label. */
+  public Collection<Transition<N, D>> getTransitionsOutOf(D state, N label) {
+    return transitionStore.getTransitionsOutOf(state, label);
   }
 
   public boolean addTransition(Transition<N, D> trans) {
@@ -109,7 +188,11 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
     s += "\tInitialStates:" + initialStatesToSource.keySet() + "\n";
     s += "\tFinalStates:" + finalState + "\n";
     s += "\tWeightToTransitions:\n\t\t";
-    s += Joiner.on("\n\t\t").join(transitionToWeights.entrySet());
+    List<String> transAndWeights = Lists.newArrayList();
+    for (Transition<N, D> t : transitionStore.getTransitions()) {
+      transAndWeights.add(t + "=" + transitionStore.getWeight(t));
+    }
+    s += Joiner.on("\n\t\t").join(transAndWeights);
 
     for (WeightedPAutomaton<N, D, W> nested : nestedAutomatons) {
       s += "\n";
@@ -143,8 +226,9 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
     if (SUMMARIZE) {
       Table<N, D, Set<Transition<N, D>>> mergableStates = HashBasedTable.create();
       for (D source : states) {
-        if (transitionsInto.get(source).isEmpty() && transitionsOutOf.get(source).size() == 1) {
-          for (Transition<N, D> t : transitionsOutOf.get(source)) {
+        if (transitionStore.getTransitionsInto(source).isEmpty()
+            && transitionStore.getTransitionsOutOf(source).size() == 1) {
+          for (Transition<N, D> t : transitionStore.getTransitionsOutOf(source)) {
             Set<Transition<N, D>> set = mergableStates.get(t.getLabel(), t.getTarget());
             if (set == null) {
               set = Sets.newHashSet();
@@ -174,14 +258,15 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
       }
     }
     for (D source : states) {
-      Collection<Transition<N, D>> collection = transitionsOutOf.get(source);
+      Collection<Transition<N, D>> collection = transitionStore.getTransitionsOutOf(source);
 
       for (D target : states) {
         List<String> labels = Lists.newLinkedList();
         for (Transition<N, D> t : collection) {
           if (removableTrans.contains(t)) continue;
           if (t.getTarget().equals(target)) {
-            labels.add(escapeQuotes(t.getLabel().toString()) + " W: " + transitionToWeights.get(t));
+            labels.add(
+                escapeQuotes(t.getLabel().toString()) + " W: " + transitionStore.getWeight(t));
           }
         }
         if (!labels.isEmpty()) {
@@ -203,7 +288,12 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
       }
     }
 
-    s += "Transitions: " + transitions.size() + " Nested: " + nestedAutomatons.size() + "\n";
+    s +=
+        "Transitions: "
+            + transitionStore.size()
+            + " Nested: "
+            + nestedAutomatons.size()
+            + "\n";
     for (WeightedPAutomaton<N, D, W> nested : nestedAutomatons) {
       s += "NESTED -> \n";
       s += nested.toDotString(visited);
@@ -222,7 +312,7 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
 
   public String toLabelGroupedDotString() {
     HashBasedTable<D, N, Collection<D>> groupedByTargetAndLabel = HashBasedTable.create();
-    for (Transition<N, D> t : transitions) {
+    for (Transition<N, D> t : transitionStore.getTransitions()) {
       Collection<D> collection = groupedByTargetAndLabel.get(t.getTarget(), t.getLabel());
       if (collection == null) collection = Sets.newHashSet();
       collection.add(t.getStart());
@@ -239,7 +329,7 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
       }
     }
     s += "}\n";
-    s += "Transitions: " + transitions.size() + "\n";
+    s += "Transitions: " + transitionStore.size() + "\n";
     for (WeightedPAutomaton<N, D, W> nested : nestedAutomatons) {
       s += "NESTED -> \n";
       s += nested.toDotString();
@@ -277,7 +367,7 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
 
   public Set<Edge<D, N>> getEdges() {
     Set<Edge<D, N>> trans = Sets.newHashSet();
-    for (Edge<D, N> tran : transitions) {
+    for (Edge<D, N> tran : transitionStore.getTransitions()) {
       if (!tran.getLabel().equals(epsilon())) {
         trans.add(new Transition<N, D>(tran.getTarget(), tran.getLabel(), tran.getStart()));
       }
@@ -293,42 +383,40 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
     if (weight == null) throw new IllegalArgumentException("Weight must not be null!");
     if (trans.getStart().equals(trans.getTarget()) && trans.getLabel().equals(epsilon())) {
       failedAdditions++;
+      failedAdditionsCounter.increment();
       return false;
     }
     int distanceToInitial = computeDistance(trans);
     if (hasMaxDepth() && distanceToInitial > getMaxDepth()) {
       return false;
     }
-    if (!watch.isRunning()) {
+    if (!concurrent && !watch.isRunning()) {
       watch.start();
     }
-    transitionsOutOf.get(trans.getStart()).add(trans);
-    transitionsInto.get(trans.getTarget()).add(trans);
     if (states.add(trans.getTarget())) {
       stateCreatingTransition.put(trans.getTarget(), trans);
     }
     states.add(trans.getStart());
-    boolean added = transitions.add(trans);
-    W oldWeight = transitionToWeights.get(trans);
-    W newWeight = (W) (oldWeight == null ? weight : oldWeight.combineWith(weight));
-
-    if (!newWeight.equals(oldWeight)) {
-      transitionToWeights.put(trans, newWeight);
-
-      for (WPAUpdateListener<N, D, W> l : Lists.newArrayList(listeners)) {
+    W newWeight = transitionStore.combineWeight(trans, weight);
+    boolean added = newWeight != null;
+    if (added) {
+      for (WPAUpdateListener<N, D, W> l : listeners) {
         l.onWeightAdded(trans, newWeight, this);
       }
-      for (WPAStateListener<N, D, W> l : Lists.newArrayList(stateListeners.get(trans.getStart()))) {
+      for (WPAStateListener<N, D, W> l : getStateListeners(trans.getStart())) {
         l.onOutTransitionAdded(trans, newWeight, this);
       }
-      for (WPAStateListener<N, D, W> l :
-          Lists.newArrayList(stateListeners.get(trans.getTarget()))) {
+      for (WPAStateListener<N, D, W> l : getStateListeners(trans.getTarget())) {
         l.onInTransitionAdded(trans, newWeight, this);
       }
-      added = true;
     }
-    if (watch.isRunning()) watch.stop();
-    if (!added) failedAdditions++;
+    if (!concurrent) {
+      if (watch.isRunning()) watch.stop();
+      if (!added) failedAdditions++;
+    }
+    if (!added) {
+      failedAdditionsCounter.increment();
+    }
     return added;
   }
 
@@ -342,51 +430,57 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
         return -1;
       }
     }
-    Integer integer = ++distance;
-    Integer currDistance = stateToDistanceToInitial.get(trans.getStart());
-    if (currDistance == null || integer < currDistance) {
-      stateToDistanceToInitial.put(trans.getStart(), integer);
-      return integer;
-    }
-    return currDistance;
+    return stateToDistanceToInitial.merge(trans.getStart(), distance + 1, Math::min);
+  }
+
+  private Iterable<WPAStateListener<N, D, W>> getStateListeners(D state) {
+    ListenerList<WPAStateListener<N, D, W>> res = stateListeners.get(state);
+    return res == null ? Collections.<WPAStateListener<N, D, W>>emptyList() : res;
   }
 
   public W getWeightFor(Transition<N, D> trans) {
-    return transitionToWeights.get(trans);
+    return transitionStore.getWeight(trans);
   }
 
   public void registerListener(WPAUpdateListener<N, D, W> listener) {
-    if (!listeners.add(listener)) return;
-    for (Entry<Transition<N, D>, W> transAndWeight :
-        Lists.newArrayList(transitionToWeights.entrySet())) {
-      listener.onWeightAdded(transAndWeight.getKey(), transAndWeight.getValue(), this);
-    }
+    if (!listeners.add(listener, listener)) return;
+    updateListenersCounter.increment();
+    transitionStore.replay((t, w) -> listener.onWeightAdded(t, w, this));
     for (WeightedPAutomaton<N, D, W> nested : Lists.newArrayList(nestedAutomatons)) {
       nested.registerListener(listener);
     }
   }
 
-  private static int count = 0;
+  // Shared by all automata, which may be solved by different threads.
+  private static final AtomicInteger count = new AtomicInteger();
 
   private void increaseListenerCount(WPAStateListener<N, D, W> l) {
-    count++;
-    if (count % 100000 == 0) {
+    if (count.incrementAndGet() % 100000 == 0) {
       onManyStateListenerRegister();
     }
   }
 
   public void onManyStateListenerRegister() {}
 
+  /**
+   * Registers the listener unless a listener of the same class with an equal {@link
+   * WPAStateListener#listenerKey() key} has been registered for its state before.
+   */
   public void registerListener(WPAStateListener<N, D, W> l) {
-    if (!stateListeners.put(l.getState(), l)) {
+    if (!stateListeners
+        .computeIfAbsent(l.getState(), k -> new ListenerList<>(concurrent))
+        .add(l, l.listenerKey())) {
       return;
     }
     increaseListenerCount(l);
-    for (Transition<N, D> t : Lists.newArrayList(transitionsOutOf.get(l.getState()))) {
-      l.onOutTransitionAdded(t, transitionToWeights.get(t), this);
+    stateListenersCounter.increment();
+    for (Transition<N, D> t :
+        Lists.newArrayList(transitionStore.getTransitionsOutOf(l.getState()))) {
+      l.onOutTransitionAdded(t, transitionStore.getWeight(t), this);
     }
-    for (Transition<N, D> t : Lists.newArrayList(transitionsInto.get(l.getState()))) {
-      l.onInTransitionAdded(t, transitionToWeights.get(t), this);
+    for (Transition<N, D> t :
+        Lists.newArrayList(transitionStore.getTransitionsInto(l.getState()))) {
+      l.onInTransitionAdded(t, transitionStore.getWeight(t), this);
     }
 
     for (WeightedPAutomaton<N, D, W> nested : Lists.newArrayList(nestedAutomatons)) {
@@ -431,7 +525,7 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
 
   public WeightedPAutomaton<N, D, W> createNestedAutomaton(D initialState) {
     WeightedPAutomaton<N, D, W> nested =
-        new WeightedPAutomaton<N, D, W>() {
+        new WeightedPAutomaton<N, D, W>(transitionStore.emptyCopy()) {
 
           @Override
           public D createState(D d, N loc) {
@@ -488,31 +582,53 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
 
   public void unbalancedPop(D targetState, Transition<N, D> trans, W weight) {
     UnbalancedPopEntry t = new UnbalancedPopEntry(targetState, trans);
-    W oldVal = unbalancedPops.get(t);
-    W newVal = (oldVal == null ? weight : (W) oldVal.combineWith(weight));
-    if (!newVal.equals(oldVal)) {
-      unbalancedPops.put(t, newVal);
+    W newVal = combineWeight(unbalancedPops, t, weight);
+    if (newVal != null) {
       for (UnbalancedPopListener<N, D, W> l : Lists.newArrayList(unbalancedPopListeners)) {
         l.unbalancedPop(targetState, trans, newVal);
       }
     }
   }
 
-  private Set<Transition<N, D>> summaryEdges = Sets.newHashSet();
-  private Set<SummaryListener<N, D>> summaryEdgeListener = Sets.newHashSet();
+  /**
+   * Combines the weight of the key with the given weight. On a concurrent map, the combined weight
+   * is only installed if the weight has not been replaced by another thread in the meantime.
+   *
+   * @return the combined weight, or null if the weight did not change.
+   */
+  private static <K, W extends Weight> W combineWeight(Map<K, W> weights, K key, W weight) {
+    while (true) {
+      W oldVal = weights.get(key);
+      if (oldVal == null) {
+        if (weights.putIfAbsent(key, weight) == null) {
+          return weight;
+        }
+        continue;
+      }
+      W newVal = (W) oldVal.combineWith(weight);
+      if (Weight.same(newVal, oldVal)) {
+        return null;
+      }
+      if (weights.replace(key, oldVal, newVal)) {
+        return newVal;
+      }
+    }
+  }
 
   public void registerSummaryEdge(Transition<N, D> t) {
     if (summaryEdges.add(t)) {
-      for (SummaryListener<N, D> l : Lists.newArrayList(summaryEdgeListener)) {
+      summaryEdgeLog.append(t);
+      for (SummaryListener<N, D> l : summaryEdgeListener) {
         l.addedSummary(t);
       }
     }
   }
 
   public void addSummaryListener(SummaryListener<N, D> l) {
-    if (summaryEdgeListener.add(l)) {
-      for (Transition<N, D> edge : Lists.newArrayList(summaryEdges)) {
-        l.addedSummary(edge);
+    if (summaryEdgeListener.add(l, l)) {
+      TransitionLog<N, D>.Cursor cursor = summaryEdgeLog.cursor();
+      while (cursor.advance()) {
+        l.addedSummary(cursor.transition());
       }
       for (WeightedPAutomaton<N, D, W> nested : Lists.newArrayList(nestedAutomatons)) {
         nested.addSummaryListener(l);
@@ -677,14 +793,17 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
 
   public void addNestedAutomaton(WeightedPAutomaton<N, D, W> nested) {
     if (!nestedAutomatons.add(nested)) return;
-    for (WPAStateListener<N, D, W> e : Lists.newArrayList(stateListeners.values())) {
-      nested.registerListener(e);
+    for (ListenerList<WPAStateListener<N, D, W>> list :
+        Lists.newArrayList(stateListeners.values())) {
+      for (WPAStateListener<N, D, W> e : list) {
+        nested.registerListener(e);
+      }
     }
-    for (WPAUpdateListener<N, D, W> e : Lists.newArrayList(listeners)) {
+    for (WPAUpdateListener<N, D, W> e : listeners) {
       nested.registerListener(e);
     }
 
-    for (SummaryListener<N, D> e : Lists.newArrayList(summaryEdgeListener)) {
+    for (SummaryListener<N, D> e : summaryEdgeListener) {
       nested.addSummaryListener(e);
     }
 
@@ -720,6 +839,10 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
     }
   }
 
+  public Set<WeightedPAutomaton<N, D, W>> getNestedAutomata() {
+    return Collections.unmodifiableSet(nestedAutomatons);
+  }
+
   public void setInitialAutomaton(WeightedPAutomaton<N, D, W> aut) {
     initialAutomaton = aut;
   }
@@ -745,7 +868,7 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
     while (!worklist.isEmpty()) {
       D pop = worklist.pop();
       visited.add(pop);
-      Collection<Transition<N, D>> inTrans = transitionsInto.get(pop);
+      Collection<Transition<N, D>> inTrans = transitionStore.getTransitionsInto(pop);
       for (Transition<N, D> t : inTrans) {
         if (t.getLabel().equals(this.epsilon())) continue;
         if (!isGeneratedState(t.getStart())) continue;
@@ -766,7 +889,7 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
     while (!worklist.isEmpty()) {
       D pop = worklist.pop();
       Set<N> atCurr = getOrCreate(pathReachingD, pop);
-      Collection<Transition<N, D>> inTrans = transitionsInto.get(pop);
+      Collection<Transition<N, D>> inTrans = transitionStore.getTransitionsInto(pop);
       for (Transition<N, D> t : inTrans) {
         if (t.getLabel().equals(this.epsilon())) continue;
         D next = t.getStart();
@@ -837,6 +960,47 @@ public abstract class WeightedPAutomaton<N extends Location, D extends State, W
     this.unbalancedPopListeners.clear();
   }
 
+  /**
+   * Estimates the bytes retained by this automaton and its nested automata from the number of
+   * transitions, states and listeners. The estimate is computed in time linear in the number of
+   * states with listeners and does not walk the object graph, the sizes of the client's states,
+   * stack symbols and weights, which are typically shared, are not included.
+   */
+  public long estimateRetainedBytes() {
+    return estimateRetainedBytes(Sets.newIdentityHashSet());
+  }
+
+  /**
+   * Like {@link #estimateRetainedBytes()}, but skips the automata in the given identity set and
+   * adds the others, such that nested automata shared by multiple automata are counted once.
+   */
+  public long estimateRetainedBytes(Set<WeightedPAutomaton<?, ?, ?>> counted) {
+    if (!counted.add(this)) {
+      return 0;
+    }
+    long listenerCount =
+        listeners.size()
+            + summaryEdgeListener.size()
+            + unbalancedPopListeners.size()
+            + stateToReachabilityListener.size()
+            + stateToEpsilonReachabilityListener.size();
+    for (ListenerList<WPAStateListener<N, D, W>> l : stateListeners.values()) {
+      listenerCount += l.size();
+    }
+    long bytes =
+        transitionStore.estimateRetainedBytes()
+            + states.size() * BYTES_PER_STATE
+            + (stateToDistanceToInitial.size() + stateCreatingTransition.size())
+                * BYTES_PER_MAP_ENTRY
+            + (summaryEdges.size() + unbalancedPops.size()) * BYTES_PER_MAP_ENTRY
+            + listenerCount * BYTES_PER_LISTENER
+            + summaryEdgeLog.size() * BYTES_PER_LOG_ENTRY;
+    for (WeightedPAutomaton<N, D, W> nested : nestedAutomatons) {
+      bytes += nested.estimateRetainedBytes(counted);
+    }
+    return bytes;
+  }
+
   public Stopwatch getWatch() {
     return watch;
   }
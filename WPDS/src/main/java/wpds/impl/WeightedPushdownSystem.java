@@ -14,8 +14,11 @@ package wpds.impl;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import wpds.interfaces.IPushdownSystem;
 import wpds.interfaces.Location;
 import wpds.interfaces.State;
@@ -24,10 +27,31 @@ import wpds.wildcard.Wildcard;
 
 public class WeightedPushdownSystem<N extends Location, D extends State, W extends Weight>
     implements IPushdownSystem<N, D, W> {
-  protected final Set<PushRule<N, D, W>> pushRules = Sets.newHashSet();
-  protected final Set<PopRule<N, D, W>> popRules = Sets.newHashSet();
-  protected final Set<NormalRule<N, D, W>> normalRules = Sets.newHashSet();
-  protected final Set<WPDSUpdateListener<N, D, W>> listeners = Sets.newHashSet();
+  // Measured on a 64-bit JVM with compressed references from the used heap after adding 100k
+  // rules, see estimateRetainedBytes(): a rule with its entries in the rule set and two indices,
+  // a set of an index and its entry in the row, and a row of an index. A listener is a set entry
+  // and a small object.
+  private static final long BYTES_PER_RULE = 183;
+  private static final long BYTES_PER_INDEX_CELL = 187;
+  private static final long BYTES_PER_INDEX_ROW = 176;
+  private static final long BYTES_PER_LISTENER = 64;
+
+  // All rule sets and indices are concurrent: in PostStar.Mode.PARALLEL, the workers look up
+  // rules while further rules are added.
+  protected final Set<PushRule<N, D, W>> pushRules = ConcurrentHashMap.newKeySet();
+  protected final Set<PopRule<N, D, W>> popRules = ConcurrentHashMap.newKeySet();
+  protected final Set<NormalRule<N, D, W>> normalRules = ConcurrentHashMap.newKeySet();
+  protected final Set<WPDSUpdateListener<N, D, W>> listeners = ConcurrentHashMap.newKeySet();
+  // Indexes over all rules, kept up to date by addRule. Rules whose L1 is a wildcard are
+  // additionally held in a separate bucket, as they match every label of their start state.
+  private final Map<D, Map<N, Set<Rule<N, D, W>>>> rulesStarting = new ConcurrentHashMap<>();
+  private final Map<D, Set<Rule<N, D, W>>> wildcardRulesStarting = new ConcurrentHashMap<>();
+  private final Map<D, Map<N, Set<NormalRule<N, D, W>>>> normalRulesEnding =
+      new ConcurrentHashMap<>();
+  private final Map<D, Map<N, Set<PushRule<N, D, W>>>> pushRulesEnding =
+      new ConcurrentHashMap<>();
+  private final Map<N, Set<PushRule<N, D, W>>> pushRulesWithCallSite = new ConcurrentHashMap<>();
+  private final Set<PushRule<N, D, W>> wildcardCallSitePushRules = ConcurrentHashMap.newKeySet();
 
   @Override
   public boolean addRule(Rule<N, D, W> rule) {
@@ -41,10 +65,42 @@ public class WeightedPushdownSystem<N extends Location, D extends State, W exten
   }
 
   private boolean addRuleInternal(Rule<N, D, W> rule) {
-    if (rule instanceof PushRule) return pushRules.add((PushRule) rule);
-    else if (rule instanceof PopRule) return popRules.add((PopRule) rule);
-    else if (rule instanceof NormalRule) return normalRules.add((NormalRule) rule);
-    throw new RuntimeException("Try to add a rule of wrong type");
+    if (rule instanceof PushRule) {
+      if (!pushRules.add((PushRule) rule)) return false;
+      PushRule<N, D, W> pushRule = (PushRule<N, D, W>) rule;
+      index(pushRulesEnding, rule.getS2(), rule.getL2(), pushRule);
+      if (pushRule.getCallSite() instanceof Wildcard) {
+        wildcardCallSitePushRules.add(pushRule);
+      } else {
+        index(pushRulesWithCallSite, pushRule.getCallSite(), pushRule);
+      }
+    } else if (rule instanceof PopRule) {
+      if (!popRules.add((PopRule) rule)) return false;
+    } else if (rule instanceof NormalRule) {
+      if (!normalRules.add((NormalRule) rule)) return false;
+      index(normalRulesEnding, rule.getS2(), rule.getL2(), (NormalRule<N, D, W>) rule);
+    } else {
+      throw new RuntimeException("Try to add a rule of wrong type");
+    }
+    index(rulesStarting, rule.getS1(), rule.getL1(), rule);
+    if (rule.getL1() instanceof Wildcard) {
+      index(wildcardRulesStarting, rule.getS1(), rule);
+    }
+    return true;
+  }
+
+  private static <R, D, N> void index(
+      Map<D, Map<N, Set<R>>> table, D state, N label, R rule) {
+    index(table.computeIfAbsent(state, k -> new ConcurrentHashMap<>()), label, rule);
+  }
+
+  private static <R, K> void index(Map<K, Set<R>> map, K key, R rule) {
+    map.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(rule);
+  }
+
+  private static <R, D, N> Set<R> lookup(Map<D, Map<N, Set<R>>> table, D state, N label) {
+    Map<N, Set<R>> row = table.get(state);
+    return row == null ? null : row.get(label);
   }
 
   public void registerUpdateListener(WPDSUpdateListener<N, D, W> listener) {
@@ -83,40 +139,38 @@ public class WeightedPushdownSystem<N extends Location, D extends State, W exten
   @Override
   public Set<Rule<N, D, W>> getRulesStarting(D start, N string) {
     Set<Rule<N, D, W>> result = new HashSet<>();
-    getRulesStartingWithinSet(start, string, popRules, result);
-    getRulesStartingWithinSet(start, string, normalRules, result);
-    getRulesStartingWithinSet(start, string, pushRules, result);
-    return result;
-  }
-
-  private void getRulesStartingWithinSet(
-      D start, N string, Set<? extends Rule<N, D, W>> rules, Set<Rule<N, D, W>> res) {
-    for (Rule<N, D, W> r : rules) {
-      if (r.getS1().equals(start) && (r.getL1().equals(string) || r.getL1() instanceof Wildcard))
-        res.add(r);
-      if (string instanceof Wildcard && r.getS1().equals(start)) {
-        res.add(r);
+    if (string instanceof Wildcard) {
+      for (Set<Rule<N, D, W>> rules :
+          rulesStarting.getOrDefault(start, Collections.emptyMap()).values()) {
+        result.addAll(rules);
       }
+      return result;
     }
+    Set<Rule<N, D, W>> rules = lookup(rulesStarting, start, string);
+    if (rules != null) {
+      result.addAll(rules);
+    }
+    result.addAll(wildcardRulesStarting.getOrDefault(start, Collections.emptySet()));
+    return result;
   }
 
   @Override
   public Set<NormalRule<N, D, W>> getNormalRulesEnding(D start, N string) {
-    Set<NormalRule<N, D, W>> allRules = getNormalRules();
-    Set<NormalRule<N, D, W>> result = new HashSet<>();
-    for (NormalRule<N, D, W> r : allRules) {
-      if (r.getS2().equals(start) && r.getL2().equals(string)) result.add(r);
-    }
-    return result;
+    Set<NormalRule<N, D, W>> rules = lookup(normalRulesEnding, start, string);
+    return rules == null ? new HashSet<>() : new HashSet<>(rules);
   }
 
   @Override
   public Set<PushRule<N, D, W>> getPushRulesEnding(D start, N string) {
-    Set<PushRule<N, D, W>> allRules = getPushRules();
-    Set<PushRule<N, D, W>> result = new HashSet<>();
-    for (PushRule<N, D, W> r : allRules) {
-      if (r.getS2().equals(start) && r.getL2().equals(string)) result.add(r);
-    }
+    Set<PushRule<N, D, W>> rules = lookup(pushRulesEnding, start, string);
+    return rules == null ? new HashSet<>() : new HashSet<>(rules);
+  }
+
+  @Override
+  public Set<PushRule<N, D, W>> getPushRulesWithCallSite(N callSite) {
+    Set<PushRule<N, D, W>> result =
+        new HashSet<>(pushRulesWithCallSite.getOrDefault(callSite, Collections.emptySet()));
+    result.addAll(wildcardCallSitePushRules);
     return result;
   }
 
@@ -134,7 +188,15 @@ public class WeightedPushdownSystem<N extends Location, D extends State, W exten
   public void poststar(
       WeightedPAutomaton<N, D, W> initialAutomaton,
       final NestedWeightedPAutomatons<N, D, W> summaries) {
-    new PostStar<N, D, W>() {
+    poststar(initialAutomaton, summaries, PostStar.Mode.LISTENER);
+  }
+
+  @Override
+  public void poststar(
+      WeightedPAutomaton<N, D, W> initialAutomaton,
+      final NestedWeightedPAutomatons<N, D, W> summaries,
+      PostStar.Mode mode) {
+    new PostStar<N, D, W>(mode) {
 
       @Override
       public void putSummaryAutomaton(D target, WeightedPAutomaton<N, D, W> aut) {
@@ -150,7 +212,12 @@ public class WeightedPushdownSystem<N extends Location, D extends State, W exten
 
   @Override
   public void poststar(final WeightedPAutomaton<N, D, W> initialAutomaton) {
-    new PostStar<N, D, W>() {
+    poststar(initialAutomaton, PostStar.Mode.LISTENER);
+  }
+
+  @Override
+  public void poststar(final WeightedPAutomaton<N, D, W> initialAutomaton, PostStar.Mode mode) {
+    new PostStar<N, D, W>(mode) {
 
       @Override
       public void putSummaryAutomaton(D target, WeightedPAutomaton<N, D, W> aut) {}
@@ -222,4 +289,32 @@ public class WeightedPushdownSystem<N extends Location, D extends State, W exten
   public void unregisterAllListeners() {
     listeners.clear();
   }
+
+  /**
+   * Estimates the bytes retained by the rules and their indices, analogous to {@link
+   * WeightedPAutomaton#estimateRetainedBytes()}. Takes time linear in the number of states that
+   * start or end rules.
+   */
+  public long estimateRetainedBytes() {
+    long rules = (long) pushRules.size() + popRules.size() + normalRules.size();
+    long cells =
+        cells(rulesStarting)
+            + cells(normalRulesEnding)
+            + cells(pushRulesEnding)
+            + wildcardRulesStarting.size()
+            + pushRulesWithCallSite.size();
+    long rows = (long) rulesStarting.size() + normalRulesEnding.size() + pushRulesEnding.size();
+    return rules * BYTES_PER_RULE
+        + cells * BYTES_PER_INDEX_CELL
+        + rows * BYTES_PER_INDEX_ROW
+        + listeners.size() * BYTES_PER_LISTENER;
+  }
+
+  private static long cells(Map<?, ? extends Map<?, ?>> table) {
+    long cells = 0;
+    for (Map<?, ?> row : table.values()) {
+      cells += row.size();
+    }
+    return cells;
+  }
 }
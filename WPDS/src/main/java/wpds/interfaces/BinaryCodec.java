@@ -0,0 +1,33 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.interfaces;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes and reads values of the client analysis, i.e. states, stack symbols and weights, to and
+ * from the binary summary format of {@link wpds.impl.SummaryFile}. The encoding must not depend on
+ * object identities or hash codes, such that a value read in a different run equals the written
+ * one.
+ *
+ * <p>Each value is encoded in at least one byte. A codec rejects values it cannot encode with an
+ * {@link IllegalArgumentException}; the summaries containing them are then not written. A codec
+ * that fails to decode a value throws a {@link RuntimeException}, the file is reported as corrupt.
+ */
+public interface BinaryCodec<T> {
+
+  void write(T value, DataOutput out) throws IOException;
+
+  T read(ByteBuffer in);
+}
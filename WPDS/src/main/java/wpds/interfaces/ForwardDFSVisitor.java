@@ -11,85 +11,59 @@
  */
 package wpds.interfaces;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Table;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.List;
+import wpds.impl.IncrementalClosure;
+import wpds.impl.Interner;
 import wpds.impl.Transition;
 import wpds.impl.Weight;
 import wpds.impl.WeightedPAutomaton;
 
+/**
+ * Notifies {@link ReachabilityListener}s about all transitions whose start state is reachable from
+ * the state they are registered for. The reachability relation is maintained as an {@link
+ * IncrementalClosure} over the ids of the automaton's states. Updates are synchronized, as
+ * automata backed by a concurrent {@link TransitionStore} notify the visitor from multiple threads.
+ * The listeners are notified after the lock is released: a transition is passed to the listeners
+ * that reach its start state when it is added, and the transitions out of a state are replayed to
+ * a listener once the state becomes reachable for it.
+ */
 public class ForwardDFSVisitor<N extends Location, D extends State, W extends Weight>
     implements WPAUpdateListener<N, D, W> {
   private Multimap<D, ReachabilityListener<N, D>> listeners = HashMultimap.create();
   protected WeightedPAutomaton<N, D, W> aut;
-  private Multimap<D, D> adjacent = HashMultimap.create();
-  private Multimap<D, D> reaches = HashMultimap.create();
-  private Multimap<D, D> inverseReaches = HashMultimap.create();
-  private Table<D, D, Integer> refCount = HashBasedTable.create();
+  private final Interner<D> states = new Interner<>();
+  private final IncrementalClosure closure = new IncrementalClosure(this::onReached);
+  // The listeners registered for a state, indexed by its id.
+  private final List<List<ReachabilityListener<N, D>>> registered = Lists.newArrayList();
+  // The listeners that reach a state, indexed by its id, once per observed state they are
+  // registered for that reaches it.
+  private final List<List<ReachabilityListener<N, D>>> reaching = Lists.newArrayList();
+  // The newly reachable pairs of the current update, replayed once the lock is released.
+  private List<Replay<N, D>> replays = Lists.newArrayList();
 
   public ForwardDFSVisitor(WeightedPAutomaton<N, D, W> aut) {
     this.aut = aut;
   }
 
   public void registerListener(D state, final ReachabilityListener<N, D> l) {
-    if (listeners.put(state, l)) {
-      for (D d : Lists.newArrayList(inverseReaches.get(state))) {
-        aut.registerListener(new TransitiveClosure(d, state, l));
+    List<Replay<N, D>> pending;
+    synchronized (this) {
+      if (!listeners.put(state, l)) {
+        return;
       }
+      int id = states.intern(state);
+      row(registered, id).add(l);
+      closure.observe(id);
+      for (int d : closure.reachableFrom(id)) {
+        reached(d, l);
+      }
+      pending = takeReplays();
     }
-  }
-
-  private class TransitiveClosure extends WPAStateListener<N, D, W> {
-
-    private ReachabilityListener<N, D> listener;
-    private D s;
-
-    public TransitiveClosure(D state, D s, ReachabilityListener<N, D> l) {
-      super(state);
-      this.s = s;
-      this.listener = l;
-    }
-
-    @Override
-    public void onOutTransitionAdded(Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut) {
-      listener.reachable(t);
-    }
-
-    @Override
-    public void onInTransitionAdded(Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut) {}
-
-    @Override
-    public int hashCode() {
-      final int prime = 31;
-      int result = super.hashCode();
-      result = prime * result + getOuterType().hashCode();
-      result = prime * result + ((listener == null) ? 0 : listener.hashCode());
-      result = prime * result + ((s == null) ? 0 : s.hashCode());
-      return result;
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-      if (this == obj) return true;
-      if (!super.equals(obj)) return false;
-      if (getClass() != obj.getClass()) return false;
-      TransitiveClosure other = (TransitiveClosure) obj;
-      if (!getOuterType().equals(other.getOuterType())) return false;
-      if (s == null) {
-        if (other.s != null) return false;
-      } else if (!s.equals(other.s)) return false;
-      if (listener == null) {
-        if (other.listener != null) return false;
-      } else if (!listener.equals(other.listener)) return false;
-      return true;
-    }
-
-    private ForwardDFSVisitor getOuterType() {
-      return ForwardDFSVisitor.this;
-    }
+    replay(pending);
   }
 
   protected boolean continueWith(Transition<N, D> t) {
@@ -98,99 +72,81 @@ public class ForwardDFSVisitor<N extends Location, D extends State, W extends We
 
   @Override
   public void onWeightAdded(Transition<N, D> t, W w, WeightedPAutomaton<N, D, W> aut) {
-
-    D a = t.getStart();
-    D b = t.getTarget();
-    inverseReaches(a, a);
-    // inverseReaches(b,b);
-    if (!continueWith(t)) return;
-    insertEdge(a, b);
-  }
-
-  private void insertEdge(D a, D b) {
-    LinkedList<Edge> worklist = Lists.newLinkedList();
-    if (refCount.get(a, b) == null) {
-      makeClosure(a, b);
-      worklist.add(new Edge(a, b));
-      refCount.put(a, b, 1);
-    }
-    makeEdge(a, b);
-
-    for (D x : Lists.newArrayList(reaches.get(a))) {
-      if (refCount.get(x, b) == null) {
-        makeClosure(x, b);
-        worklist.add(new Edge(x, b));
-        refCount.put(x, b, 1);
+    List<ReachabilityListener<N, D>> notified;
+    List<Replay<N, D>> pending;
+    synchronized (this) {
+      int a = states.intern(t.getStart());
+      // Taken before the update, the listeners that reach the start state from now on see the
+      // transition when the transitions out of the state are replayed to them.
+      notified =
+          a < reaching.size() ? Lists.newArrayList(reaching.get(a)) : Collections.emptyList();
+      closure.addReflexive(a);
+      if (continueWith(t)) {
+        closure.addEdge(a, states.intern(t.getTarget()));
       }
+      pending = takeReplays();
+    }
+    for (ReachabilityListener<N, D> l : notified) {
+      l.reachable(t);
     }
-    while (!worklist.isEmpty()) {
-      Edge e = worklist.poll();
-      D x = e.from;
-      D y = e.to;
-      for (D z : Lists.newArrayList(adjacent.get(y))) {
-        if (refCount.get(x, z) == null) {
-          makeClosure(x, z);
-          worklist.add(new Edge(x, z));
-          refCount.put(x, z, 1);
-        }
+    replay(pending);
+  }
+
+  private void onReached(int source, int[] targets) {
+    for (ReachabilityListener<N, D> l : registered.get(source)) {
+      for (int to : targets) {
+        reached(to, l);
       }
     }
   }
 
-  private void makeEdge(D from, D to) {
-    adjacent.put(from, to);
-    inverseReaches(from, to);
+  private void reached(int state, ReachabilityListener<N, D> l) {
+    row(reaching, state).add(l);
+    replays.add(new Replay<>(states.get(state), l));
   }
 
-  private void inverseReaches(D from, D to) {
-    if (inverseReaches.put(from, to)) {
-      for (ReachabilityListener<N, D> l : Lists.newArrayList(listeners.get(from))) {
-        aut.registerListener(new TransitiveClosure(to, from, l));
-      }
+  private static <T> List<T> row(List<List<T>> rows, int id) {
+    while (rows.size() <= id) {
+      rows.add(Lists.newArrayListWithCapacity(1));
     }
+    return rows.get(id);
   }
 
-  private void makeClosure(D from, D to) {
-    if (reaches.put(to, from)) {
-      inverseReaches(from, to);
+  private List<Replay<N, D>> takeReplays() {
+    if (replays.isEmpty()) {
+      return Collections.emptyList();
     }
+    List<Replay<N, D>> res = replays;
+    replays = Lists.newArrayList();
+    return res;
   }
 
-  private class Index {
-    int refcount;
+  private void replay(List<Replay<N, D>> pending) {
+    for (Replay<N, D> r : pending) {
+      replay(aut, r.state, r.listener);
+    }
   }
 
-  private class Edge {
-    final D from;
-    final D to;
-
-    private Edge(D from, D to) {
-      this.from = from;
-      this.to = to;
+  // Covers the nested automata, which notify the visitor about their transitions as well.
+  private void replay(WeightedPAutomaton<N, D, W> a, D state, ReachabilityListener<N, D> l) {
+    for (Transition<N, D> t : Lists.newArrayList(a.getTransitionsOutOf(state))) {
+      l.reachable(t);
     }
-
-    @Override
-    public int hashCode() {
-      final int prime = 31;
-      int result = 1;
-      result = prime * result + ((from == null) ? 0 : from.hashCode());
-      result = prime * result + ((to == null) ? 0 : to.hashCode());
-      return result;
+    if (a.getNestedAutomata().isEmpty()) {
+      return;
     }
+    for (WeightedPAutomaton<N, D, W> nested : Lists.newArrayList(a.getNestedAutomata())) {
+      replay(nested, state, l);
+    }
+  }
+
+  private static class Replay<N extends Location, D extends State> {
+    final D state;
+    final ReachabilityListener<N, D> listener;
 
-    @Override
-    public boolean equals(Object obj) {
-      if (this == obj) return true;
-      if (obj == null) return false;
-      if (getClass() != obj.getClass()) return false;
-      Edge other = (Edge) obj;
-      if (from == null) {
-        if (other.from != null) return false;
-      } else if (!from.equals(other.from)) return false;
-      if (to == null) {
-        if (other.to != null) return false;
-      } else if (!to.equals(other.to)) return false;
-      return true;
+    Replay(D state, ReachabilityListener<N, D> listener) {
+      this.state = state;
+      this.listener = listener;
     }
   }
 
@@ -15,6 +15,7 @@ import java.util.Set;
 import wpds.impl.NestedWeightedPAutomatons;
 import wpds.impl.NormalRule;
 import wpds.impl.PopRule;
+import wpds.impl.PostStar;
 import wpds.impl.PushRule;
 import wpds.impl.Rule;
 import wpds.impl.Weight;
@@ -40,13 +41,22 @@ public interface IPushdownSystem<N extends Location, D extends State, W extends
 
   Set<PushRule<N, D, W>> getPushRulesEnding(D start, N string);
 
+  Set<PushRule<N, D, W>> getPushRulesWithCallSite(N callSite);
+
   void prestar(WeightedPAutomaton<N, D, W> initialAutomaton);
 
   void poststar(WeightedPAutomaton<N, D, W> initialAutomaton);
 
+  void poststar(WeightedPAutomaton<N, D, W> initialAutomaton, PostStar.Mode mode);
+
   void poststar(
       WeightedPAutomaton<N, D, W> initialAutomaton, NestedWeightedPAutomatons<N, D, W> summaries);
 
+  void poststar(
+      WeightedPAutomaton<N, D, W> initialAutomaton,
+      NestedWeightedPAutomatons<N, D, W> summaries,
+      PostStar.Mode mode);
+
   void registerUpdateListener(WPDSUpdateListener<N, D, W> listener);
 
   void unregisterAllListeners();
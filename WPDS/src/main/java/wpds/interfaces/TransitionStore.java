@@ -0,0 +1,112 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.interfaces;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import wpds.impl.Transition;
+import wpds.impl.Weight;
+
+/**
+ * Holds the transitions of a {@link wpds.impl.WeightedPAutomaton} together with their weights.
+ * The automaton only accesses its transitions through this interface, which allows swapping the
+ * memory layout without changing the API of the automaton.
+ */
+public interface TransitionStore<N extends Location, D extends State, W extends Weight> {
+
+  /** @return true if the transition was not contained before. */
+  boolean add(Transition<N, D> t);
+
+  /** @return the weight of the transition, or null if the transition has no weight yet. */
+  W getWeight(Transition<N, D> t);
+
+  /** Sets the weight of a transition that has previously been added. */
+  void setWeight(Transition<N, D> t, W w);
+
+  /**
+   * Adds the transition if necessary and combines its weight with the given one.
+   *
+   * @return the combined weight, or null if the weight did not change.
+   */
+  @SuppressWarnings("unchecked")
+  default W combineWeight(Transition<N, D> t, W w) {
+    add(t);
+    W oldWeight = getWeight(t);
+    W newWeight = oldWeight == null ? w : (W) oldWeight.combineWith(w);
+    if (Weight.same(newWeight, oldWeight)) {
+      return null;
+    }
+    setWeight(t, newWeight);
+    return newWeight;
+  }
+
+  Collection<Transition<N, D>> getTransitionsOutOf(D state);
+
+  /**
+   * @return the transitions leaving the given state with the given label. The default filters
+   *     {@link #getTransitionsOutOf(State)}, stores may answer this from an index.
+   */
+  default Collection<Transition<N, D>> getTransitionsOutOf(D state, N label) {
+    List<Transition<N, D>> res = new ArrayList<>();
+    for (Transition<N, D> t : getTransitionsOutOf(state)) {
+      if (t.getLabel().equals(label)) {
+        res.add(t);
+      }
+    }
+    return res;
+  }
+
+  Collection<Transition<N, D>> getTransitionsInto(D state);
+
+  /**
+   * @return all transitions. Implementations may either return an unmodifiable view or a
+   *     snapshot, callers that modify the store while iterating have to copy.
+   */
+  Collection<Transition<N, D>> getTransitions();
+
+  int size();
+
+  /**
+   * Passes the transitions and their weights to the action in the order in which the transitions
+   * were inserted, e.g. to replay an automaton to a listener that registers late. Only the
+   * transitions inserted before the call are passed, the action may insert further transitions.
+   * The default passes a copy of {@link #getTransitions()}, which is in no particular order.
+   */
+  default void replay(BiConsumer<? super Transition<N, D>, ? super W> action) {
+    for (Transition<N, D> t : new ArrayList<>(getTransitions())) {
+      action.accept(t, getWeight(t));
+    }
+  }
+
+  /**
+   * @return true if the store may be accessed by multiple threads at the same time. A {@link
+   *     wpds.impl.WeightedPAutomaton} backed by such a store is thread-safe itself.
+   */
+  default boolean isConcurrent() {
+    return false;
+  }
+
+  /**
+   * Estimates the bytes retained by the store, including its indices and the transition objects
+   * it keeps. Used for {@link wpds.impl.WeightedPAutomaton#estimateRetainedBytes()}. The default
+   * assumes about as much as {@link wpds.impl.HashTransitionStore} needs for states with few
+   * transitions each.
+   */
+  default long estimateRetainedBytes() {
+    return size() * 220L;
+  }
+
+  /** @return an empty store of the same kind, used for nested automata. */
+  TransitionStore<N, D, W> emptyCopy();
+}
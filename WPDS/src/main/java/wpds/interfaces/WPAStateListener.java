@@ -33,6 +33,16 @@ public abstract class WPAStateListener<N extends Location, D extends State, W ex
     return state;
   }
 
+  /**
+   * The automaton registers a single listener per class, state and key and ignores equivalent
+   * listeners that are registered later. The key must be equal for equal listeners of the same
+   * class and state and should be cheap to hash, e.g. the rule or solver the listener belongs to.
+   * The default is the listener itself, which uses {@link #equals(Object)}.
+   */
+  public Object listenerKey() {
+    return this;
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
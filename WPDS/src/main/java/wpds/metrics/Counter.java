@@ -0,0 +1,23 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.metrics;
+
+/** A monotonically increasing count, e.g. of rules added to a pushdown system. */
+public interface Counter {
+  Counter NOOP = n -> {};
+
+  void add(long n);
+
+  default void increment() {
+    add(1);
+  }
+}
@@ -0,0 +1,39 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.metrics;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * A value that is set to the current value of a quantity, or that sums a quantity over the objects
+ * it tracks, e.g. the solvers of all live solver instances.
+ */
+public interface Gauge {
+  Gauge NOOP =
+      new Gauge() {
+        @Override
+        public void set(long value) {}
+
+        @Override
+        public <T> void track(T owner, ToLongFunction<? super T> value) {}
+      };
+
+  void set(long value);
+
+  /**
+   * Adds the value of the owner to the gauge until the owner is garbage collected. The value is
+   * computed when the gauge is read, e.g. by a scrape, possibly on another thread than the one that
+   * updates the owner. The gauge must not keep the owner reachable, the function therefore should
+   * not capture it.
+   */
+  <T> void track(T owner, ToLongFunction<? super T> value);
+}
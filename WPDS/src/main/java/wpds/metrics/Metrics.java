@@ -0,0 +1,55 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.metrics;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Holds the {@link MetricsRegistry} the solvers report to. The registry is either installed
+ * explicitly by {@link #setRegistry(MetricsRegistry)}, or it is the first implementation
+ * registered as a service in {@code META-INF/services/wpds.metrics.MetricsRegistry}. Otherwise, the
+ * {@link MetricsRegistry#NOOP no-op registry} is used and reporting costs a virtual call per
+ * update.
+ *
+ * <p>Solvers request their metrics when they are constructed, a registry installed later only sees
+ * the updates of solvers constructed afterwards.
+ */
+public final class Metrics {
+  private static volatile MetricsRegistry registry;
+
+  private Metrics() {}
+
+  public static MetricsRegistry registry() {
+    MetricsRegistry res = registry;
+    if (res == null) {
+      synchronized (Metrics.class) {
+        if (registry == null) {
+          registry = loadRegistry();
+        }
+        res = registry;
+      }
+    }
+    return res;
+  }
+
+  public static void setRegistry(MetricsRegistry registry) {
+    if (registry == null) throw new IllegalArgumentException("Registry must not be null!");
+    Metrics.registry = registry;
+  }
+
+  private static MetricsRegistry loadRegistry() {
+    Iterator<MetricsRegistry> providers =
+        ServiceLoader.load(MetricsRegistry.class, Metrics.class.getClassLoader()).iterator();
+    return providers.hasNext() ? providers.next() : MetricsRegistry.NOOP;
+  }
+}
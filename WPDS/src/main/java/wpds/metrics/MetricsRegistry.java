@@ -0,0 +1,52 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.metrics;
+
+/**
+ * Service provider interface for the metrics of the solvers. A metric is identified by its name and
+ * its labels, given as alternating label names and values. Requesting a metric with the same name
+ * and labels twice returns the same metric, a name must always be used with the same kind of
+ * metric. Clients request their metrics once, e.g. on construction, and update them on hot paths.
+ *
+ * <p>Names follow the conventions of Prometheus, i.e. counters end with {@code _total} and timers
+ * with {@code _seconds}. Label values should be taken from a small set, they must not contain
+ * queries, states or other values of the analysis.
+ *
+ * @see Metrics
+ */
+public interface MetricsRegistry {
+
+  /** Discards all updates, used if no registry is installed. */
+  MetricsRegistry NOOP =
+      new MetricsRegistry() {
+        @Override
+        public Counter counter(String name, String help, String... labels) {
+          return Counter.NOOP;
+        }
+
+        @Override
+        public Gauge gauge(String name, String help, String... labels) {
+          return Gauge.NOOP;
+        }
+
+        @Override
+        public Timer timer(String name, String help, String... labels) {
+          return Timer.NOOP;
+        }
+      };
+
+  Counter counter(String name, String help, String... labels);
+
+  Gauge gauge(String name, String help, String... labels);
+
+  Timer timer(String name, String help, String... labels);
+}
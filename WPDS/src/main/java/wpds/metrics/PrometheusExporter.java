@@ -0,0 +1,153 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.metrics;
+
+import com.google.common.collect.Ordering;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map.Entry;
+import wpds.metrics.SimpleMetricsRegistry.Family;
+import wpds.metrics.SimpleMetricsRegistry.SimpleCounter;
+import wpds.metrics.SimpleMetricsRegistry.SimpleGauge;
+import wpds.metrics.SimpleMetricsRegistry.SimpleTimer;
+
+/**
+ * Exports the metrics of a {@link SimpleMetricsRegistry} in the Prometheus text format (version
+ * 0.0.4), either to a file that is picked up by the textfile collector of the node exporter, or
+ * through an HTTP endpoint that is scraped directly. Timers are exported as summaries without
+ * quantiles. Gauges read the values they {@link Gauge#track track} on the exporting thread.
+ */
+public class PrometheusExporter {
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private final SimpleMetricsRegistry registry;
+
+  public PrometheusExporter(SimpleMetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  public void write(Writer out) throws IOException {
+    for (Family family : registry.getFamilies()) {
+      out.write("# HELP " + family.getName() + " " + escapeHelp(family.getHelp()) + "\n");
+      out.write("# TYPE " + family.getName() + " " + typeName(family) + "\n");
+      for (Entry<List<String>, Object> e :
+          Ordering.usingToString()
+              .onResultOf((Entry<List<String>, Object> entry) -> entry.getKey())
+              .sortedCopy(family.getMetrics().entrySet())) {
+        String labels = labels(e.getKey());
+        Object metric = e.getValue();
+        if (metric instanceof SimpleCounter) {
+          sample(out, family.getName(), labels, Long.toString(((SimpleCounter) metric).get()));
+        } else if (metric instanceof SimpleGauge) {
+          sample(out, family.getName(), labels, Long.toString(((SimpleGauge) metric).get()));
+        } else {
+          SimpleTimer timer = (SimpleTimer) metric;
+          sample(out, family.getName() + "_count", labels, Long.toString(timer.getCount()));
+          sample(out, family.getName() + "_sum", labels, Double.toString(timer.getTotalSeconds()));
+        }
+      }
+    }
+  }
+
+  /** @return the current metrics in the text format. */
+  public String scrape() {
+    StringWriter out = new StringWriter();
+    try {
+      write(out);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * Writes the metrics to the file, replacing its content atomically such that a collector never
+   * reads a partially written file.
+   */
+  public void writeTo(Path file) throws IOException {
+    Path dir = file.toAbsolutePath().getParent();
+    Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+    try {
+      try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        write(out);
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Starts an HTTP server that serves the metrics at {@code /metrics}. The server runs on a
+   * background thread until it is stopped by the caller.
+   */
+  public HttpServer serve(InetSocketAddress address) throws IOException {
+    HttpServer server = HttpServer.create(address, 0);
+    server.createContext(
+        "/metrics",
+        exchange -> {
+          byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    server.start();
+    return server;
+  }
+
+  private static void sample(Writer out, String name, String labels, String value)
+      throws IOException {
+    out.write(name + labels + " " + value + "\n");
+  }
+
+  private static String typeName(Family family) {
+    switch (family.getType()) {
+      case COUNTER:
+        return "counter";
+      case GAUGE:
+        return "gauge";
+      default:
+        return "summary";
+    }
+  }
+
+  private static String labels(List<String> labels) {
+    if (labels.isEmpty()) {
+      return "";
+    }
+    StringBuilder s = new StringBuilder("{");
+    for (int i = 0; i < labels.size(); i += 2) {
+      if (i > 0) s.append(',');
+      s.append(labels.get(i)).append("=\"").append(escapeLabel(labels.get(i + 1))).append('"');
+    }
+    return s.append('}').toString();
+  }
+
+  private static String escapeHelp(String s) {
+    return s.replace("\\", "\\\\").replace("\n", "\\n");
+  }
+
+  private static String escapeLabel(String s) {
+    return escapeHelp(s).replace("\"", "\\\"");
+  }
+}
@@ -0,0 +1,225 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.metrics;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Ordering;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe {@link MetricsRegistry} that keeps the metrics in memory, e.g. to be exported by a
+ * {@link PrometheusExporter}.
+ */
+public class SimpleMetricsRegistry implements MetricsRegistry {
+
+  public enum Type {
+    COUNTER,
+    GAUGE,
+    TIMER
+  }
+
+  private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+  @Override
+  public SimpleCounter counter(String name, String help, String... labels) {
+    return (SimpleCounter) metric(name, help, Type.COUNTER, labels);
+  }
+
+  @Override
+  public SimpleGauge gauge(String name, String help, String... labels) {
+    return (SimpleGauge) metric(name, help, Type.GAUGE, labels);
+  }
+
+  @Override
+  public SimpleTimer timer(String name, String help, String... labels) {
+    return (SimpleTimer) metric(name, help, Type.TIMER, labels);
+  }
+
+  private Object metric(String name, String help, Type type, String[] labels) {
+    if (labels.length % 2 != 0) {
+      throw new IllegalArgumentException(
+          "Labels must be pairs of name and value: " + Arrays.toString(labels));
+    }
+    Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+    if (family.type != type) {
+      throw new IllegalArgumentException(
+          "Metric " + name + " is a " + family.type + ", not a " + type);
+    }
+    return family.metrics.computeIfAbsent(ImmutableList.copyOf(labels), k -> create(type));
+  }
+
+  private static Object create(Type type) {
+    switch (type) {
+      case COUNTER:
+        return new SimpleCounter();
+      case GAUGE:
+        return new SimpleGauge();
+      default:
+        return new SimpleTimer();
+    }
+  }
+
+  /** @return all metric families ordered by name. */
+  public List<Family> getFamilies() {
+    return Ordering.natural()
+        .onResultOf((Family f) -> f.name)
+        .immutableSortedCopy(families.values());
+  }
+
+  /** @return the family of the given name, or null if no metric of this name was requested. */
+  public Family getFamily(String name) {
+    return families.get(name);
+  }
+
+  /** All metrics of the same name, which differ in the values of their labels. */
+  public static class Family {
+    private final String name;
+    private final String help;
+    private final Type type;
+    private final ConcurrentMap<List<String>, Object> metrics = new ConcurrentHashMap<>();
+
+    private Family(String name, String help, Type type) {
+      this.name = name;
+      this.help = help;
+      this.type = type;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getHelp() {
+      return help;
+    }
+
+    public Type getType() {
+      return type;
+    }
+
+    /**
+     * @return the metrics keyed by their labels as alternating names and values. The metrics are
+     *     {@link SimpleCounter}s, {@link SimpleGauge}s or {@link SimpleTimer}s depending on the
+     *     type.
+     */
+    public Map<List<String>, Object> getMetrics() {
+      return ImmutableMap.copyOf(metrics);
+    }
+  }
+
+  public static class SimpleCounter implements Counter {
+    private final LongAdder value = new LongAdder();
+
+    @Override
+    public void add(long n) {
+      value.add(n);
+    }
+
+    public long get() {
+      return value.sum();
+    }
+  }
+
+  /**
+   * Reports the value it has been set to plus the values of the tracked owners that are still
+   * reachable. The owners are only referenced weakly and are read by {@link #get()}.
+   */
+  public static class SimpleGauge implements Gauge {
+    private final AtomicLong value = new AtomicLong();
+    private final ConcurrentLinkedQueue<Tracked<?>> tracked = new ConcurrentLinkedQueue<>();
+    // Collected owners are dropped whenever the number of tracked owners has doubled, such that a
+    // gauge that is never read does not grow with the owners that have been collected.
+    private final AtomicInteger trackedSize = new AtomicInteger();
+    private volatile int pruneAt = 64;
+
+    @Override
+    public void set(long value) {
+      this.value.set(value);
+    }
+
+    @Override
+    public <T> void track(T owner, ToLongFunction<? super T> value) {
+      tracked.add(new Tracked<T>(owner, value));
+      if (trackedSize.incrementAndGet() >= pruneAt) {
+        int live = 0;
+        for (Iterator<Tracked<?>> it = tracked.iterator(); it.hasNext(); ) {
+          if (it.next().owner.get() == null) {
+            it.remove();
+            trackedSize.decrementAndGet();
+          } else {
+            live++;
+          }
+        }
+        pruneAt = Math.max(64, 2 * live);
+      }
+    }
+
+    public long get() {
+      long res = value.get();
+      for (Tracked<?> t : tracked) {
+        res += t.value();
+      }
+      return res;
+    }
+  }
+
+  private static class Tracked<T> {
+    private final WeakReference<T> owner;
+    private final ToLongFunction<? super T> value;
+
+    Tracked(T owner, ToLongFunction<? super T> value) {
+      this.owner = new WeakReference<>(owner);
+      this.value = value;
+    }
+
+    // 0 if the owner has been collected since it was checked.
+    long value() {
+      T o = owner.get();
+      return o == null ? 0 : value.applyAsLong(o);
+    }
+  }
+
+  public static class SimpleTimer implements Timer {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    @Override
+    public void record(long duration, TimeUnit unit) {
+      count.increment();
+      totalNanos.add(unit.toNanos(duration));
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    public long getTotal(TimeUnit unit) {
+      return unit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public double getTotalSeconds() {
+      return totalNanos.sum() / 1e9;
+    }
+  }
+}
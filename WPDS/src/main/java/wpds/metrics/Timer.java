@@ -0,0 +1,31 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package wpds.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/** Records the durations of an operation, e.g. of solving a query. */
+public interface Timer {
+  Timer NOOP = (duration, unit) -> {};
+
+  void record(long duration, TimeUnit unit);
+
+  /** @return the current time, to be passed to {@link #stop(long)}. */
+  default long start() {
+    return System.nanoTime();
+  }
+
+  /** Records the time elapsed since the given {@link #start()}. */
+  default void stop(long start) {
+    record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,292 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static tests.TestHelper.ACC;
+import static tests.TestHelper.a;
+import static tests.TestHelper.s;
+import static tests.TestHelper.t;
+import static tests.TestHelper.waccepts;
+import static tests.TestHelper.wnormal;
+import static tests.TestHelper.wpop;
+import static tests.TestHelper.wpush;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CyclicBarrier;
+import org.junit.Test;
+import tests.TestHelper.Abstraction;
+import tests.TestHelper.StackSymbol;
+import wpds.impl.ConcurrentTransitionStore;
+import wpds.impl.Transition;
+import wpds.impl.Weight;
+import wpds.impl.WeightedPAutomaton;
+import wpds.impl.WeightedPushdownSystem;
+import wpds.interfaces.WPAStateListener;
+
+public class ConcurrentAutomatonTests {
+
+  private static final int THREADS = 8;
+  private static final int UPDATES = 20000;
+
+  @Test
+  public void listenersSeeCombinedWeights() throws Exception {
+    WeightedPAutomaton<StackSymbol, Abstraction, MinWeight> aut = automaton(new MinWeight(0));
+    List<RecordingListener> recorders = Lists.newArrayList();
+    for (int state = 0; state < 10; state++) {
+      recorders.add(new RecordingListener(a(state)));
+    }
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    List<Thread> threads = Lists.newArrayList();
+    List<Throwable> failures = Lists.newCopyOnWriteArrayList();
+    for (int i = 0; i < THREADS; i++) {
+      final int seed = i;
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  barrier.await();
+                  Random random = new Random(seed);
+                  for (int j = 0; j < UPDATES; j++) {
+                    if (j % 1000 == seed) {
+                      // Listeners are registered while other threads update.
+                      aut.registerListener(recorders.get(j / 1000 % recorders.size()));
+                    }
+                    aut.addWeightForTransition(
+                        transition(random.nextInt(500)), new MinWeight(random.nextInt(1000)));
+                  }
+                } catch (Throwable e) {
+                  failures.add(e);
+                }
+              });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(Lists.newArrayList(), failures);
+
+    Map<Transition<StackSymbol, Abstraction>, MinWeight> expected = Maps.newHashMap();
+    for (int i = 0; i < THREADS; i++) {
+      Random random = new Random(i);
+      for (int j = 0; j < UPDATES; j++) {
+        expected.merge(
+            transition(random.nextInt(500)),
+            new MinWeight(random.nextInt(1000)),
+            (w1, w2) -> (MinWeight) w1.combineWith(w2));
+      }
+    }
+    assertEquals(expected.keySet(), Sets.newHashSet(aut.getTransitions()));
+    for (Transition<StackSymbol, Abstraction> t : expected.keySet()) {
+      assertEquals(expected.get(t), aut.getWeightFor(t));
+    }
+    for (RecordingListener recorder : recorders) {
+      for (Transition<StackSymbol, Abstraction> t : aut.getTransitionsOutOf(recorder.getState())) {
+        assertEquals(expected.get(t), recorder.seen.get(t));
+      }
+    }
+  }
+
+  @Test
+  public void lateListenerSeesEachTransitionOnce() throws Exception {
+    WeightedPAutomaton<StackSymbol, Abstraction, MinWeight> aut = automaton(new MinWeight(0));
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    List<Thread> threads = Lists.newArrayList();
+    List<Throwable> failures = Lists.newCopyOnWriteArrayList();
+    for (int i = 0; i < THREADS; i++) {
+      final int seed = i;
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  barrier.await();
+                  // All threads insert the same transitions and update their weights.
+                  for (int j = 0; j < UPDATES; j++) {
+                    aut.addWeightForTransition(
+                        transition(j % 500), new MinWeight(UPDATES - j + seed));
+                  }
+                } catch (Throwable e) {
+                  failures.add(e);
+                }
+              });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(Lists.newArrayList(), failures);
+
+    Map<Transition<StackSymbol, Abstraction>, Integer> calls = Maps.newHashMap();
+    aut.registerListener((t, w, a) -> calls.merge(t, 1, Integer::sum));
+    assertEquals(Sets.newHashSet(aut.getTransitions()), calls.keySet());
+    for (Integer count : calls.values()) {
+      assertEquals(1, (int) count);
+    }
+  }
+
+  @Test
+  public void reachabilityListenersAreNotifiedWithoutTheVisitorLock() throws Exception {
+    WeightedPAutomaton<StackSymbol, Abstraction, MinWeight> aut = automaton(new MinWeight(0));
+    Set<Transition<StackSymbol, Abstraction>> reached = ConcurrentHashMap.newKeySet();
+    List<Throwable> failures = Lists.newCopyOnWriteArrayList();
+    aut.registerDFSListener(
+        a(0),
+        t -> {
+          reached.add(t);
+          if (!t.equals(t(0, "a", 1))) {
+            return;
+          }
+          // The other thread updates the closure while this one is notified.
+          Thread thread = new Thread(() -> aut.addTransition(t(1, "b", 2)));
+          thread.start();
+          try {
+            thread.join(10000);
+          } catch (InterruptedException e) {
+            failures.add(e);
+          }
+          if (thread.isAlive()) {
+            failures.add(new AssertionError("Update blocked by a notification"));
+          }
+        });
+    aut.addTransition(t(0, "a", 1));
+    assertEquals(Lists.newArrayList(), failures);
+    assertEquals(Sets.newHashSet(t(0, "a", 1), t(1, "b", 2)), reached);
+  }
+
+  @Test
+  public void poststarMatchesHashStore() {
+    WeightedPushdownSystem<StackSymbol, Abstraction, NumWeight> pds =
+        new WeightedPushdownSystem<>();
+    pds.addRule(wnormal(1, "a", 1, "b", new NumWeight(2)));
+    pds.addRule(wpush(1, "b", 1, "c", "d", new NumWeight(3)));
+    pds.addRule(wnormal(1, "c", 1, "e", new NumWeight(1)));
+    pds.addRule(wpop(1, "e", 1, new NumWeight(5)));
+    pds.addRule(wnormal(1, "d", 2, "f", new NumWeight(7)));
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> expected =
+        waccepts(1, "a", new NumWeight(0));
+    pds.poststar(expected);
+
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> concurrent =
+        automaton(NumWeight.one());
+    concurrent.addTransition(t(1, "a", ACC));
+    concurrent.addWeightForTransition(t(1, "a", ACC), new NumWeight(0));
+    pds.poststar(concurrent);
+
+    assertEquals(
+        Sets.newHashSet(expected.getTransitions()), Sets.newHashSet(concurrent.getTransitions()));
+    for (Transition<StackSymbol, Abstraction> t : expected.getTransitions()) {
+      assertEquals(expected.getWeightFor(t), concurrent.getWeightFor(t));
+    }
+  }
+
+  private static Transition<StackSymbol, Abstraction> transition(int i) {
+    return t(i % 10, "l" + (i % 7), i % 13 + 10);
+  }
+
+  private static <W extends Weight> WeightedPAutomaton<StackSymbol, Abstraction, W> automaton(
+      W one) {
+    WeightedPAutomaton<StackSymbol, Abstraction, W> aut =
+        new WeightedPAutomaton<StackSymbol, Abstraction, W>(
+            new ConcurrentTransitionStore<StackSymbol, Abstraction, W>()) {
+
+          @Override
+          public Abstraction createState(Abstraction d, StackSymbol loc) {
+            return new Abstraction(d, loc);
+          }
+
+          @Override
+          public StackSymbol epsilon() {
+            return s("EPS");
+          }
+
+          @Override
+          public W getOne() {
+            return one;
+          }
+
+          @Override
+          public boolean isGeneratedState(Abstraction d) {
+            return d.s != null;
+          }
+        };
+    aut.addFinalState(ACC);
+    return aut;
+  }
+
+  private static class RecordingListener
+      extends WPAStateListener<StackSymbol, Abstraction, MinWeight> {
+    private final ConcurrentMap<Transition<StackSymbol, Abstraction>, MinWeight> seen =
+        new ConcurrentHashMap<>();
+
+    RecordingListener(Abstraction state) {
+      super(state);
+    }
+
+    @Override
+    public void onOutTransitionAdded(
+        Transition<StackSymbol, Abstraction> t,
+        MinWeight w,
+        WeightedPAutomaton<StackSymbol, Abstraction, MinWeight> aut) {
+      seen.merge(t, w, (w1, w2) -> (MinWeight) w1.combineWith(w2));
+    }
+
+    @Override
+    public void onInTransitionAdded(
+        Transition<StackSymbol, Abstraction> t,
+        MinWeight w,
+        WeightedPAutomaton<StackSymbol, Abstraction, MinWeight> aut) {}
+  }
+
+  /** Shortest distance weights, combined by taking the minimum. */
+  private static class MinWeight extends Weight {
+    private final int distance;
+
+    MinWeight(int distance) {
+      this.distance = distance;
+    }
+
+    @Override
+    public Weight extendWith(Weight other) {
+      return new MinWeight(distance + ((MinWeight) other).distance);
+    }
+
+    @Override
+    public Weight combineWith(Weight other) {
+      return ((MinWeight) other).distance < distance ? other : this;
+    }
+
+    @Override
+    public int hashCode() {
+      return distance;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof MinWeight && ((MinWeight) obj).distance == distance;
+    }
+
+    @Override
+    public String toString() {
+      return Integer.toString(distance);
+    }
+  }
+}
@@ -20,6 +20,8 @@ import static tests.TestHelper.s;
 import static tests.TestHelper.t;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import java.util.HashSet;
 import java.util.Set;
@@ -112,6 +114,25 @@ public class ForwardDFSVisitorTest {
     Assert.assertTrue(reachableMinusTrans().isEmpty());
   }
 
+  @Test
+  public void reportsEachTransitionOncePerListener() {
+    Multiset<Transition<StackSymbol, Abstraction>> early = HashMultiset.create();
+    Multiset<Transition<StackSymbol, Abstraction>> late = HashMultiset.create();
+    fa.registerDFSListener(a(0), early::add);
+    fa.addTransition(t(0, "n1", 1));
+    fa.addTransition(t(1, "n1", 2));
+    fa.addTransition(t(2, "n1", 0));
+    fa.addTransition(t(0, "n2", 2));
+    fa.registerDFSListener(a(1), late::add);
+    fa.addTransition(t(2, "n1", 3));
+    fa.addTransition(t(3, "n1", 3));
+
+    Assert.assertEquals(Sets.newHashSet(fa.getTransitions()), early.elementSet());
+    Assert.assertEquals(Sets.newHashSet(fa.getTransitions()), late.elementSet());
+    Assert.assertEquals(fa.getTransitions().size(), early.size());
+    Assert.assertEquals(fa.getTransitions().size(), late.size());
+  }
+
   private PushdownSystem<StackSymbol, Abstraction> pds;
 
   @Before
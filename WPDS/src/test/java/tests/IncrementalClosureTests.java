@@ -0,0 +1,99 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import wpds.impl.IncrementalClosure;
+
+public class IncrementalClosureTests {
+
+  @Test
+  public void chain() {
+    Multimap<Integer, Integer> reached = HashMultimap.create();
+    IncrementalClosure closure =
+        new IncrementalClosure(
+            (source, targets) -> {
+              for (int t : targets) assertTrue(reached.put(source, t));
+            });
+    closure.observe(0);
+    closure.addEdge(1, 2);
+    closure.addEdge(0, 1);
+    assertEquals(Sets.newHashSet(1, 2), reached.get(0));
+    assertFalse(closure.reaches(0, 0));
+    assertTrue(closure.addReflexive(0));
+    assertFalse(closure.addReflexive(0));
+    closure.addEdge(2, 0);
+    assertArrayEquals(new int[] {0, 1, 2}, closure.reachableFrom(1));
+    assertArrayEquals(new int[] {0, 1, 2}, closure.reachedBy(2));
+    assertEquals(Sets.newHashSet(0, 1, 2), reached.get(0));
+  }
+
+  @Test
+  public void randomGraphs() {
+    Random random = new Random(1);
+    for (int round = 0; round < 20; round++) {
+      int nodes = 10 + random.nextInt(300);
+      boolean[][] edges = new boolean[nodes][nodes];
+      Multimap<Integer, Integer> reached = HashMultimap.create();
+      IncrementalClosure closure =
+          new IncrementalClosure(
+              (source, targets) -> {
+                for (int t : targets) assertTrue(reached.put(source, t));
+              });
+      for (int i = 0; i < nodes; i += 3) {
+        closure.observe(i);
+      }
+      for (int i = 0; i < nodes * 2; i++) {
+        int from = random.nextInt(nodes);
+        int to = random.nextInt(nodes);
+        edges[from][to] = true;
+        closure.addEdge(from, to);
+      }
+      for (int from = 0; from < nodes; from++) {
+        Set<Integer> expected = reachable(edges, from);
+        for (int to = 0; to < nodes; to++) {
+          assertEquals(expected.contains(to), closure.reaches(from, to));
+        }
+        if (from % 3 == 0) {
+          assertEquals(expected, reached.get(from));
+        }
+      }
+    }
+  }
+
+  private static Set<Integer> reachable(boolean[][] edges, int from) {
+    Set<Integer> visited = Sets.newHashSet();
+    Deque<Integer> worklist = new ArrayDeque<>();
+    worklist.add(from);
+    while (!worklist.isEmpty()) {
+      int node = worklist.poll();
+      for (int next = 0; next < edges.length; next++) {
+        if (edges[node][next] && visited.add(next)) {
+          worklist.add(next);
+        }
+      }
+    }
+    return visited;
+  }
+}
@@ -0,0 +1,175 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static tests.TestHelper.ACC;
+import static tests.TestHelper.a;
+import static tests.TestHelper.s;
+import static tests.TestHelper.t;
+import static tests.TestHelper.waccepts;
+import static tests.TestHelper.wnormal;
+import static tests.TestHelper.wpop;
+import static tests.TestHelper.wpush;
+
+import com.google.common.collect.Sets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import org.junit.Test;
+import tests.TestHelper.Abstraction;
+import tests.TestHelper.StackSymbol;
+import wpds.impl.IntTransitionStore;
+import wpds.impl.Transition;
+import wpds.impl.WeightedPAutomaton;
+import wpds.impl.WeightedPushdownSystem;
+import wpds.interfaces.TransitionStore;
+
+public class IntTransitionStoreTests {
+
+  @Test
+  public void addAndLookup() {
+    TransitionStore<StackSymbol, Abstraction, NumWeight> store = new IntTransitionStore<>();
+    assertTrue(store.add(t(1, "a", 2)));
+    assertFalse(store.add(t(1, "a", 2)));
+    assertTrue(store.add(t(1, "b", 2)));
+    assertTrue(store.add(t(2, "a", 3)));
+    assertEquals(3, store.size());
+    assertNull(store.getWeight(t(1, "a", 2)));
+    assertNull(store.getWeight(t(3, "a", 1)));
+    store.setWeight(t(1, "a", 2), new NumWeight(4));
+    assertEquals(new NumWeight(4), store.getWeight(t(1, "a", 2)));
+    assertEquals(
+        Sets.newHashSet(t(1, "a", 2), t(1, "b", 2)),
+        Sets.newHashSet(store.getTransitionsOutOf(a(1))));
+    assertEquals(
+        Sets.newHashSet(t(1, "a", 2), t(1, "b", 2)),
+        Sets.newHashSet(store.getTransitionsInto(a(2))));
+    assertTrue(store.getTransitionsOutOf(a(3)).isEmpty());
+    assertTrue(store.getTransitionsInto(a(4)).isEmpty());
+  }
+
+  @Test
+  public void adjacencyViews() {
+    TransitionStore<StackSymbol, Abstraction, NumWeight> store = new IntTransitionStore<>();
+    store.add(t(1, "a", 2));
+    store.add(t(1, "b", 3));
+    store.add(t(4, "a", 2));
+    Collection<Transition<StackSymbol, Abstraction>> out = store.getTransitionsOutOf(a(1));
+    assertEquals(2, out.size());
+    assertTrue(out.contains(t(1, "b", 3)));
+    assertFalse(out.contains(t(4, "a", 2)));
+    assertTrue(store.getTransitionsInto(a(2)).contains(t(4, "a", 2)));
+    assertEquals(
+        Collections.singletonList(t(1, "a", 2)), store.getTransitionsOutOf(a(1), s("a")));
+    assertTrue(store.getTransitionsOutOf(a(1), s("c")).isEmpty());
+    assertTrue(store.getTransitionsOutOf(a(2), s("a")).isEmpty());
+
+    Iterator<Transition<StackSymbol, Abstraction>> it = out.iterator();
+    store.add(t(1, "c", 4));
+    assertEquals(3, out.size());
+    int visited = 0;
+    while (it.hasNext()) {
+      assertFalse(it.next().equals(t(1, "c", 4)));
+      visited++;
+    }
+    assertEquals(2, visited);
+  }
+
+  @Test
+  public void emptyCopyIsIndependent() {
+    TransitionStore<StackSymbol, Abstraction, NumWeight> store = new IntTransitionStore<>();
+    store.add(t(1, "a", 2));
+    TransitionStore<StackSymbol, Abstraction, NumWeight> copy = store.emptyCopy();
+    assertEquals(0, copy.size());
+    assertNull(copy.getWeight(t(1, "a", 2)));
+    assertTrue(copy.add(t(1, "a", 2)));
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  public void manyTransitions() {
+    TransitionStore<StackSymbol, Abstraction, NumWeight> store = new IntTransitionStore<>();
+    int n = 10000;
+    for (int i = 0; i < n; i++) {
+      store.add(t(i % 100, "l" + i, i + 1));
+      store.setWeight(t(i % 100, "l" + i, i + 1), new NumWeight(i));
+    }
+    assertEquals(n, store.size());
+    for (int i = 0; i < n; i++) {
+      assertEquals(new NumWeight(i), store.getWeight(t(i % 100, "l" + i, i + 1)));
+    }
+    assertEquals(n / 100, store.getTransitionsOutOf(a(5)).size());
+    assertEquals(1, store.getTransitionsInto(a(n)).size());
+  }
+
+  @Test
+  public void poststarMatchesHashStore() {
+    WeightedPushdownSystem<StackSymbol, Abstraction, NumWeight> pds =
+        new WeightedPushdownSystem<>();
+    pds.addRule(wnormal(1, "a", 1, "b", new NumWeight(2)));
+    pds.addRule(wpush(1, "b", 1, "c", "d", new NumWeight(3)));
+    pds.addRule(wnormal(1, "c", 1, "e", new NumWeight(1)));
+    pds.addRule(wpop(1, "e", 1, new NumWeight(5)));
+    pds.addRule(wnormal(1, "d", 2, "f", new NumWeight(7)));
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> expected =
+        waccepts(1, "a", new NumWeight(0));
+    pds.poststar(expected);
+
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> compact = compactAccepts(1, "a");
+    pds.poststar(compact);
+
+    assertEquals(
+        Sets.newHashSet(expected.getTransitions()), Sets.newHashSet(compact.getTransitions()));
+    for (Transition<StackSymbol, Abstraction> t : expected.getTransitions()) {
+      assertEquals(expected.getWeightFor(t), compact.getWeightFor(t));
+    }
+    assertEquals(new NumWeight(18), compact.getWeightFor(t(2, "f", ACC)));
+    assertTrue(compact.estimateRetainedBytes() > 0);
+    assertTrue(compact.estimateRetainedBytes() < expected.estimateRetainedBytes());
+  }
+
+  private static WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> compactAccepts(
+      int a, String c) {
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> aut =
+        new WeightedPAutomaton<StackSymbol, Abstraction, NumWeight>(
+            new IntTransitionStore<StackSymbol, Abstraction, NumWeight>()) {
+
+          @Override
+          public Abstraction createState(Abstraction d, StackSymbol loc) {
+            return new Abstraction(d, loc);
+          }
+
+          @Override
+          public StackSymbol epsilon() {
+            return s("EPS");
+          }
+
+          @Override
+          public NumWeight getOne() {
+            return NumWeight.one();
+          }
+
+          @Override
+          public boolean isGeneratedState(Abstraction d) {
+            return d.s != null;
+          }
+        };
+    aut.addFinalState(ACC);
+    aut.addTransition(t(a, c, ACC));
+    aut.addWeightForTransition(t(a, c, ACC), new NumWeight(0));
+    return aut;
+  }
+}
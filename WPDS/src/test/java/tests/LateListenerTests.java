@@ -0,0 +1,95 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static tests.TestHelper.ACC;
+import static tests.TestHelper.t;
+import static tests.TestHelper.waccepts;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import tests.TestHelper.Abstraction;
+import tests.TestHelper.StackSymbol;
+import wpds.impl.ConcurrentTransitionStore;
+import wpds.impl.HashTransitionStore;
+import wpds.impl.IntTransitionStore;
+import wpds.impl.Transition;
+import wpds.impl.WeightedPAutomaton;
+import wpds.interfaces.TransitionStore;
+
+public class LateListenerTests {
+
+  @Test
+  public void lateUpdateListenerSeesCurrentWeightOnce() {
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> fa =
+        waccepts(1, "a", new NumWeight(5));
+    fa.addWeightForTransition(t(1, "a", ACC), new NumWeight(3));
+    fa.addWeightForTransition(t(2, "b", ACC), new NumWeight(4));
+    fa.addWeightForTransition(t(1, "a", ACC), new NumWeight(1));
+
+    Map<Transition<StackSymbol, Abstraction>, NumWeight> seen = Maps.newHashMap();
+    List<Transition<StackSymbol, Abstraction>> calls = Lists.newArrayList();
+    fa.registerListener(
+        (t, w, aut) -> {
+          calls.add(t);
+          seen.put(t, w);
+        });
+    assertEquals(2, calls.size());
+    assertEquals(fa.getWeightFor(t(1, "a", ACC)), seen.get(t(1, "a", ACC)));
+    assertEquals(fa.getWeightFor(t(2, "b", ACC)), seen.get(t(2, "b", ACC)));
+  }
+
+  @Test
+  public void lateSummaryListenerSeesAllEdges() {
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> fa = waccepts(1, "a", NumWeight.one());
+    fa.registerSummaryEdge(t(1, "a", ACC));
+    fa.registerSummaryEdge(t(2, "b", ACC));
+    fa.registerSummaryEdge(t(1, "a", ACC));
+
+    List<Transition<StackSymbol, Abstraction>> seen = Lists.newArrayList();
+    fa.addSummaryListener(seen::add);
+    assertEquals(Lists.newArrayList(t(1, "a", ACC), t(2, "b", ACC)), seen);
+
+    fa.registerSummaryEdge(t(3, "c", ACC));
+    assertEquals(3, seen.size());
+  }
+
+  @Test
+  public void storesReplayInInsertionOrder() {
+    List<TransitionStore<StackSymbol, Abstraction, NumWeight>> stores =
+        Lists.newArrayList(
+            new HashTransitionStore<>(),
+            new IntTransitionStore<>(),
+            new ConcurrentTransitionStore<>());
+    for (TransitionStore<StackSymbol, Abstraction, NumWeight> store : stores) {
+      store.combineWeight(t(3, "c", ACC), new NumWeight(3));
+      store.combineWeight(t(1, "a", ACC), new NumWeight(1));
+      store.combineWeight(t(2, "b", ACC), new NumWeight(2));
+      store.combineWeight(t(3, "c", ACC), new NumWeight(5));
+
+      List<Transition<StackSymbol, Abstraction>> replayed = Lists.newArrayList();
+      store.replay(
+          (t, w) -> {
+            assertEquals(store.getWeight(t), w);
+            replayed.add(t);
+            // Transitions inserted during the replay are not replayed.
+            store.combineWeight(t(4, "d", ACC), NumWeight.one());
+          });
+      assertEquals(Lists.newArrayList(t(3, "c", ACC), t(1, "a", ACC), t(2, "b", ACC)), replayed);
+      assertEquals(4, store.size());
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static tests.TestHelper.t;
+import static tests.TestHelper.waccepts;
+import static tests.TestHelper.wnormal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import tests.TestHelper.Abstraction;
+import tests.TestHelper.StackSymbol;
+import wpds.impl.WeightedPAutomaton;
+import wpds.impl.WeightedPushdownSystem;
+import wpds.metrics.Metrics;
+import wpds.metrics.MetricsRegistry;
+import wpds.metrics.PrometheusExporter;
+import wpds.metrics.SimpleMetricsRegistry;
+import wpds.metrics.SimpleMetricsRegistry.SimpleGauge;
+
+public class MetricsTests {
+
+  @After
+  public void uninstall() {
+    Metrics.setRegistry(MetricsRegistry.NOOP);
+  }
+
+  @Test
+  public void countsFailedAdditionsAndListeners() {
+    SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+    Metrics.setRegistry(registry);
+    WeightedPushdownSystem<StackSymbol, Abstraction, NumWeight> pds =
+        new WeightedPushdownSystem<>();
+    pds.addRule(wnormal(1, "a", 2, "b", new NumWeight(1)));
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> fa = waccepts(1, "a", new NumWeight(0));
+    pds.poststar(fa);
+    int failed = fa.failedAdditions;
+    fa.addWeightForTransition(t(2, "b", TestHelper.ACC), new NumWeight(1));
+
+    assertEquals(failed + 1, registry.counter("wpds_failed_additions_total", "").get());
+    assertTrue(registry.counter("wpds_listeners_registered_total", "", "kind", "state").get() > 0);
+  }
+
+  @Test
+  public void sameNameAndLabelsReturnSameMetric() {
+    SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+    assertSame(
+        registry.counter("c_total", "", "a", "1"), registry.counter("c_total", "", "a", "1"));
+    assertEquals(1, registry.getFamily("c_total").getMetrics().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nameIsBoundToKind() {
+    SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+    registry.counter("m", "");
+    registry.gauge("m", "");
+  }
+
+  @Test
+  public void trackedGaugeIsReadLazily() {
+    SimpleGauge gauge = (SimpleGauge) new SimpleMetricsRegistry().gauge("bytes", "");
+    AtomicInteger reads = new AtomicInteger();
+    Object first = new Object();
+    Object second = new Object();
+    gauge.track(
+        first, o -> {
+          reads.incrementAndGet();
+          return 3;
+        });
+    gauge.track(
+        second, o -> {
+          reads.incrementAndGet();
+          return 4;
+        });
+    gauge.set(1);
+    assertEquals(0, reads.get());
+    assertEquals(8, gauge.get());
+    assertEquals(2, reads.get());
+  }
+
+  @Test
+  public void trackedGaugeDropsCollectedOwners() throws InterruptedException {
+    SimpleGauge gauge = (SimpleGauge) new SimpleMetricsRegistry().gauge("bytes", "");
+    gauge.track(this, o -> 1);
+    for (int i = 0; i < 1000; i++) {
+      gauge.track(new Object(), o -> 1);
+    }
+    for (int i = 0; i < 100 && gauge.get() > 1; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertEquals(1, gauge.get());
+  }
+
+  @Test
+  public void prometheusTextFormat() {
+    SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+    registry.counter("rules_total", "Rules", "pds", "call").add(3);
+    registry.counter("rules_total", "Rules", "pds", "field").increment();
+    registry.gauge("solvers", "Solvers\nof \\ the instance").set(7);
+    registry.timer("query_seconds", "Time", "q", "a\"b").record(1500, TimeUnit.MILLISECONDS);
+    assertEquals(
+        "# HELP query_seconds Time\n"
+            + "# TYPE query_seconds summary\n"
+            + "query_seconds_count{q=\"a\\\"b\"} 1\n"
+            + "query_seconds_sum{q=\"a\\\"b\"} 1.5\n"
+            + "# HELP rules_total Rules\n"
+            + "# TYPE rules_total counter\n"
+            + "rules_total{pds=\"call\"} 3\n"
+            + "rules_total{pds=\"field\"} 1\n"
+            + "# HELP solvers Solvers\\nof \\\\ the instance\n"
+            + "# TYPE solvers gauge\n"
+            + "solvers 7\n",
+        new PrometheusExporter(registry).scrape());
+  }
+}
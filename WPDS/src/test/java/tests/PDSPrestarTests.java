@@ -23,7 +23,6 @@ import static tests.TestHelper.t;
 
 import java.util.Collection;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
 import tests.TestHelper.Abstraction;
 import tests.TestHelper.StackSymbol;
@@ -31,7 +30,6 @@ import wpds.impl.PAutomaton;
 import wpds.impl.PushdownSystem;
 import wpds.impl.Transition;
 
-@Ignore
 public class PDSPrestarTests {
 
   private PushdownSystem<StackSymbol, Abstraction> pds;
@@ -121,6 +119,19 @@ public class PDSPrestarTests {
     assertTrue(fa.getTransitions().contains(t(1, "a", ACC)));
   }
 
+  @Test
+  public void longChain() {
+    int length = 20000;
+    for (int i = 0; i < length; i++) {
+      pds.addRule(normal(1, "n" + i, 1, "n" + (i + 1)));
+      pds.addRule(push(1, "n" + i, 1, "m" + i, "n" + (i + 1)));
+      pds.addRule(pop(1, "m" + i, 1));
+    }
+    PAutomaton<StackSymbol, Abstraction> fa = accepts(1, "n" + length);
+    pds.prestar(fa);
+    assertTrue(fa.getTransitions().contains(t(1, "n0", ACC)));
+  }
+
   // Example taken from http://research.cs.wisc.edu/wpis/papers/fsttcs07.invited.pdf
   @Test
   public void paperEx() {
@@ -0,0 +1,263 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static tests.TestHelper.ACC;
+import static tests.TestHelper.accepts;
+import static tests.TestHelper.normal;
+import static tests.TestHelper.pop;
+import static tests.TestHelper.push;
+import static tests.TestHelper.s;
+import static tests.TestHelper.t;
+
+import com.google.common.collect.Sets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import tests.TestHelper.Abstraction;
+import tests.TestHelper.StackSymbol;
+import wpds.impl.ConcurrentTransitionStore;
+import wpds.impl.PAutomaton;
+import wpds.impl.PostStar;
+import wpds.impl.PushdownSystem;
+import wpds.impl.SummaryNestedWeightedPAutomatons;
+import wpds.impl.Weight.NoWeight;
+import wpds.impl.WeightedPAutomaton;
+
+public class ParallelPostStarTests {
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+
+  @After
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void sameAutomatonAsListenerMode() {
+    Random random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      long seed = random.nextLong();
+      PAutomaton<StackSymbol, Abstraction> expected = accepts(0, "l0");
+      randomSystem(seed).poststar(expected, PostStar.Mode.LISTENER);
+      PAutomaton<StackSymbol, Abstraction> parallel = concurrentAccepts(0, "l0");
+      poststar(randomSystem(seed), parallel);
+      assertEquals(
+          Sets.newHashSet(expected.getTransitions()), Sets.newHashSet(parallel.getTransitions()));
+    }
+  }
+
+  @Test
+  public void rulesAddedAfterPoststar() {
+    PushdownSystem<StackSymbol, Abstraction> pds =
+        new PushdownSystem<StackSymbol, Abstraction>() {};
+    PAutomaton<StackSymbol, Abstraction> fa = concurrentAccepts(1, "a");
+    poststar(pds, fa);
+    pds.addRule(normal(1, "a", 1, "b"));
+    pds.addRule(push(1, "b", 1, "c", "d"));
+    pds.addRule(pop(1, "c", 1));
+    assertTrue(fa.getTransitions().contains(t(1, "d", ACC)));
+  }
+
+  @Test
+  public void longChain() {
+    PushdownSystem<StackSymbol, Abstraction> pds =
+        new PushdownSystem<StackSymbol, Abstraction>() {};
+    int length = 20000;
+    for (int i = 0; i < length; i++) {
+      pds.addRule(normal(1, "n" + i, 1, "n" + (i + 1)));
+    }
+    PAutomaton<StackSymbol, Abstraction> fa = concurrentAccepts(1, "n0");
+    poststar(pds, fa);
+    assertEquals(length + 1, fa.getTransitions().size());
+  }
+
+  @Test
+  public void sameSummariesAsListenerModeForNestedAutomata() {
+    Random random = new Random(7);
+    for (int run = 0; run < 50; run++) {
+      long seed = random.nextLong();
+      SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NoWeight> expected =
+          new SummaryNestedWeightedPAutomatons<>();
+      randomSystem(seed)
+          .poststar(nestedAccepts(0, "l0", expected), expected, PostStar.Mode.LISTENER);
+      SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NoWeight> parallel =
+          new SummaryNestedWeightedPAutomatons<>();
+      PAutomaton<StackSymbol, Abstraction> fa = nestedAccepts(0, "l0", parallel);
+      new PostStar<StackSymbol, Abstraction, NoWeight>(PostStar.Mode.PARALLEL, pool) {
+        @Override
+        public void putSummaryAutomaton(
+            Abstraction target, WeightedPAutomaton<StackSymbol, Abstraction, NoWeight> aut) {
+          parallel.putSummaryAutomaton(target, aut);
+        }
+
+        @Override
+        public WeightedPAutomaton<StackSymbol, Abstraction, NoWeight> getSummaryAutomaton(
+            Abstraction target) {
+          return parallel.getSummaryAutomaton(target);
+        }
+      }.poststar(randomSystem(seed), fa);
+
+      assertEquals(expected.getSummaries().keySet(), parallel.getSummaries().keySet());
+      for (Abstraction target : expected.getSummaries().keySet()) {
+        assertEquals(
+            Sets.newHashSet(expected.getSummaryAutomaton(target).getTransitions()),
+            Sets.newHashSet(parallel.getSummaryAutomaton(target).getTransitions()));
+      }
+    }
+  }
+
+  @Test
+  public void poststarOnWorkerOfItsPool() throws Exception {
+    ForkJoinPool single = new ForkJoinPool(1);
+    try {
+      assertPoststarOnWorker(single, single);
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  public void poststarOnWorkerOfCommonPool() throws Exception {
+    assertPoststarOnWorker(ForkJoinPool.commonPool(), ForkJoinPool.commonPool());
+  }
+
+  // The worker blocks until the saturation it started is done, which needs a spare worker when the
+  // pool has a parallelism of 1.
+  private void assertPoststarOnWorker(ForkJoinPool caller, ForkJoinPool saturation)
+      throws Exception {
+    PushdownSystem<StackSymbol, Abstraction> pds =
+        new PushdownSystem<StackSymbol, Abstraction>() {};
+    int length = 1000;
+    for (int i = 0; i < length; i++) {
+      pds.addRule(normal(1, "n" + i, 1, "n" + (i + 1)));
+    }
+    PAutomaton<StackSymbol, Abstraction> fa = concurrentAccepts(1, "n0");
+    caller
+        .submit(
+            () -> {
+              poststar(pds, fa, saturation);
+              pds.addRule(push(1, "n" + length, 1, "c", "d"));
+            })
+        .get(30, TimeUnit.SECONDS);
+    assertEquals(length + 3, fa.getTransitions().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void requiresConcurrentAutomaton() {
+    poststar(new PushdownSystem<StackSymbol, Abstraction>() {}, accepts(1, "a"));
+  }
+
+  private void poststar(
+      PushdownSystem<StackSymbol, Abstraction> pds, PAutomaton<StackSymbol, Abstraction> fa) {
+    poststar(pds, fa, pool);
+  }
+
+  private static void poststar(
+      PushdownSystem<StackSymbol, Abstraction> pds,
+      PAutomaton<StackSymbol, Abstraction> fa,
+      ForkJoinPool pool) {
+    new PostStar<StackSymbol, Abstraction, NoWeight>(PostStar.Mode.PARALLEL, pool) {
+      @Override
+      public void putSummaryAutomaton(
+          Abstraction target, WeightedPAutomaton<StackSymbol, Abstraction, NoWeight> aut) {}
+
+      @Override
+      public WeightedPAutomaton<StackSymbol, Abstraction, NoWeight> getSummaryAutomaton(
+          Abstraction target) {
+        return fa;
+      }
+    }.poststar(pds, fa);
+  }
+
+  private static PushdownSystem<StackSymbol, Abstraction> randomSystem(long seed) {
+    Random random = new Random(seed);
+    PushdownSystem<StackSymbol, Abstraction> pds =
+        new PushdownSystem<StackSymbol, Abstraction>() {};
+    for (int i = 0; i < 30; i++) {
+      int s1 = random.nextInt(3);
+      int s2 = random.nextInt(3);
+      String l1 = "l" + random.nextInt(8);
+      String l2 = "l" + random.nextInt(8);
+      switch (random.nextInt(3)) {
+        case 0:
+          pds.addRule(normal(s1, l1, s2, l2));
+          break;
+        case 1:
+          pds.addRule(push(s1, l1, s2, l2, "l" + random.nextInt(8)));
+          break;
+        default:
+          pds.addRule(pop(s1, l1, s2));
+      }
+    }
+    return pds;
+  }
+
+  private static PAutomaton<StackSymbol, Abstraction> nestedAccepts(
+      int a, String c, SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NoWeight> sums) {
+    PAutomaton<StackSymbol, Abstraction> aut =
+        new PAutomaton<StackSymbol, Abstraction>(new ConcurrentTransitionStore<>()) {
+
+          @Override
+          public Abstraction createState(Abstraction d, StackSymbol loc) {
+            return new Abstraction(d, loc);
+          }
+
+          @Override
+          public StackSymbol epsilon() {
+            return s("EPS");
+          }
+
+          @Override
+          public boolean isGeneratedState(Abstraction d) {
+            return d.s != null;
+          }
+
+          @Override
+          public boolean nested() {
+            return true;
+          }
+        };
+    aut.addFinalState(ACC);
+    sums.putSummaryAutomaton(ACC, aut);
+    aut.addTransition(t(a, c, ACC));
+    return aut;
+  }
+
+  private static PAutomaton<StackSymbol, Abstraction> concurrentAccepts(int a, String c) {
+    PAutomaton<StackSymbol, Abstraction> aut =
+        new PAutomaton<StackSymbol, Abstraction>(new ConcurrentTransitionStore<>()) {
+
+          @Override
+          public Abstraction createState(Abstraction d, StackSymbol loc) {
+            return new Abstraction(d, loc);
+          }
+
+          @Override
+          public StackSymbol epsilon() {
+            return s("EPS");
+          }
+
+          @Override
+          public boolean isGeneratedState(Abstraction d) {
+            return d.s != null;
+          }
+        };
+    aut.addFinalState(ACC);
+    aut.addTransition(t(a, c, ACC));
+    return aut;
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static tests.TestHelper.a;
+import static tests.TestHelper.normal;
+import static tests.TestHelper.pop;
+import static tests.TestHelper.push;
+import static tests.TestHelper.s;
+
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import tests.TestHelper.Abstraction;
+import tests.TestHelper.StackSymbol;
+import wpds.impl.PushdownSystem;
+import wpds.impl.Rule;
+import wpds.impl.UNormalRule;
+import wpds.impl.Weight.NoWeight;
+import wpds.wildcard.Wildcard;
+
+public class RuleIndexTests {
+
+  private PushdownSystem<StackSymbol, Abstraction> pds;
+
+  @Before
+  public void init() {
+    pds = new PushdownSystem<StackSymbol, Abstraction>() {};
+  }
+
+  @Test
+  public void rulesStarting() {
+    pds.addRule(normal(1, "a", 1, "b"));
+    pds.addRule(push(1, "a", 2, "c", "d"));
+    pds.addRule(pop(1, "b", 3));
+    pds.addRule(normal(2, "a", 1, "b"));
+    assertEquals(2, pds.getRulesStarting(a(1), s("a")).size());
+    assertEquals(1, pds.getRulesStarting(a(1), s("b")).size());
+    assertEquals(1, pds.getRulesStarting(a(2), s("a")).size());
+    assertTrue(pds.getRulesStarting(a(3), s("a")).isEmpty());
+  }
+
+  @Test
+  public void rulesEnding() {
+    pds.addRule(normal(1, "a", 1, "b"));
+    pds.addRule(normal(2, "c", 1, "b"));
+    pds.addRule(push(1, "b", 1, "b", "d"));
+    pds.addRule(pop(1, "b", 1));
+    assertEquals(2, pds.getNormalRulesEnding(a(1), s("b")).size());
+    assertEquals(1, pds.getPushRulesEnding(a(1), s("b")).size());
+    assertTrue(pds.getNormalRulesEnding(a(1), s("d")).isEmpty());
+    assertTrue(pds.getPushRulesEnding(a(2), s("b")).isEmpty());
+  }
+
+  @Test
+  public void wildcardRulesStarting() {
+    UNormalRule<StackSymbol, Abstraction> wildcardRule =
+        new UNormalRule<>(a(1), new WildcardSymbol(), a(2), s("b"));
+    pds.addRule(wildcardRule);
+    pds.addRule(normal(1, "a", 1, "b"));
+    pds.addRule(normal(1, "c", 1, "b"));
+    Set<Rule<StackSymbol, Abstraction, NoWeight>> rules = pds.getRulesStarting(a(1), s("a"));
+    assertEquals(2, rules.size());
+    assertTrue(rules.contains(wildcardRule));
+    assertEquals(1, pds.getRulesStarting(a(1), s("x")).size());
+    assertEquals(3, pds.getRulesStarting(a(1), new WildcardSymbol()).size());
+  }
+
+  @Test
+  public void duplicateRuleNotIndexedTwice() {
+    assertTrue(pds.addRule(normal(1, "a", 1, "b")));
+    assertFalse(pds.addRule(normal(1, "a", 1, "b")));
+    assertEquals(1, pds.getRulesStarting(a(1), s("a")).size());
+    assertEquals(1, pds.getNormalRulesEnding(a(1), s("b")).size());
+  }
+
+  private static class WildcardSymbol extends StackSymbol implements Wildcard {
+    WildcardSymbol() {
+      super("*");
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static tests.TestHelper.ACC;
+import static tests.TestHelper.a;
+import static tests.TestHelper.t;
+import static tests.TestHelper.waccepts;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Lists;
+import java.util.List;
+import org.junit.Test;
+import tests.TestHelper.Abstraction;
+import tests.TestHelper.StackSymbol;
+import wpds.impl.Transition;
+import wpds.impl.WeightedPAutomaton;
+import wpds.interfaces.WPAStateListener;
+
+public class StateListenerTests {
+
+  @Test
+  public void listenersWithEqualKeysAreRegisteredOnce() {
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> fa = waccepts(1, "a", NumWeight.one());
+    List<Transition<StackSymbol, Abstraction>> seen = Lists.newArrayList();
+    fa.registerListener(new KeyedListener(a(1), "k", seen));
+    fa.registerListener(new KeyedListener(a(1), "k", seen));
+    fa.registerListener(new KeyedListener(a(1), "l", seen));
+    fa.registerListener(new OtherKeyedListener(a(1), "k", seen));
+    assertEquals(3, seen.size());
+
+    seen.clear();
+    fa.addWeightForTransition(t(1, "b", ACC), NumWeight.one());
+    assertEquals(3, seen.size());
+  }
+
+  @Test
+  public void listenerRegisteredDuringNotificationSeesTransitionOnce() {
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> fa = waccepts(1, "a", NumWeight.one());
+    List<Transition<StackSymbol, Abstraction>> seen = Lists.newArrayList();
+    fa.registerListener(
+        new KeyedListener(a(1), "outer", seen) {
+          @Override
+          public void onOutTransitionAdded(
+              Transition<StackSymbol, Abstraction> t,
+              NumWeight w,
+              WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> aut) {
+            aut.registerListener(new KeyedListener(a(1), t.getLabel(), seen));
+          }
+        });
+    assertEquals(1, seen.size());
+
+    seen.clear();
+    fa.addWeightForTransition(t(1, "b", ACC), NumWeight.one());
+    // The listener for "b" sees both transitions when it is registered, but is not notified by
+    // the ongoing update, the listener for "a" is.
+    assertEquals(
+        HashMultiset.create(Lists.newArrayList(t(1, "a", ACC), t(1, "b", ACC), t(1, "b", ACC))),
+        HashMultiset.create(seen));
+  }
+
+  private static class KeyedListener extends WPAStateListener<StackSymbol, Abstraction, NumWeight> {
+    private final Object key;
+    private final List<Transition<StackSymbol, Abstraction>> seen;
+
+    KeyedListener(Abstraction state, Object key, List<Transition<StackSymbol, Abstraction>> seen) {
+      super(state);
+      this.key = key;
+      this.seen = seen;
+    }
+
+    @Override
+    public Object listenerKey() {
+      return key;
+    }
+
+    @Override
+    public void onOutTransitionAdded(
+        Transition<StackSymbol, Abstraction> t,
+        NumWeight w,
+        WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> aut) {
+      seen.add(t);
+    }
+
+    @Override
+    public void onInTransitionAdded(
+        Transition<StackSymbol, Abstraction> t,
+        NumWeight w,
+        WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> aut) {}
+  }
+
+  private static class OtherKeyedListener extends KeyedListener {
+    OtherKeyedListener(
+        Abstraction state, Object key, List<Transition<StackSymbol, Abstraction>> seen) {
+      super(state, key, seen);
+    }
+  }
+}
@@ -0,0 +1,326 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static tests.TestHelper.ACC;
+import static tests.TestHelper.s;
+import static tests.TestHelper.t;
+import static tests.TestHelper.wnormal;
+import static tests.TestHelper.wpop;
+import static tests.TestHelper.wpush;
+
+import com.google.common.collect.Sets;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.junit.Test;
+import tests.TestHelper.Abstraction;
+import tests.TestHelper.StackSymbol;
+import wpds.impl.SummaryFile;
+import wpds.impl.SummaryNestedWeightedPAutomatons;
+import wpds.impl.Transition;
+import wpds.impl.WeightedPAutomaton;
+import wpds.impl.WeightedPushdownSystem;
+import wpds.interfaces.BinaryCodec;
+
+public class SummaryFileTests {
+
+  private static final BinaryCodec<StackSymbol> LABELS =
+      new BinaryCodec<StackSymbol>() {
+        @Override
+        public void write(StackSymbol value, DataOutput out) throws IOException {
+          SummaryFile.writeString(out, value.s);
+        }
+
+        @Override
+        public StackSymbol read(ByteBuffer in) {
+          return s(SummaryFile.readString(in));
+        }
+      };
+
+  private static final BinaryCodec<Abstraction> STATES =
+      new BinaryCodec<Abstraction>() {
+        @Override
+        public void write(Abstraction value, DataOutput out) throws IOException {
+          out.writeInt(value.a);
+          out.writeBoolean(value.s != null);
+          if (value.s != null) {
+            LABELS.write(value.s, out);
+          }
+        }
+
+        @Override
+        public Abstraction read(ByteBuffer in) {
+          Abstraction a = new Abstraction(in.getInt());
+          return in.get() != 0 ? new Abstraction(a, LABELS.read(in)) : a;
+        }
+      };
+
+  private static final BinaryCodec<NumWeight> WEIGHTS =
+      new BinaryCodec<NumWeight>() {
+        @Override
+        public void write(NumWeight value, DataOutput out) throws IOException {
+          SummaryFile.writeString(out, value.toString());
+        }
+
+        @Override
+        public NumWeight read(ByteBuffer in) {
+          String s = SummaryFile.readString(in);
+          if (s.equals(NumWeight.one().toString())) return NumWeight.one();
+          if (s.equals(NumWeight.zero().toString())) return NumWeight.zero();
+          return new NumWeight(Integer.parseInt(s));
+        }
+      };
+
+  @Test
+  public void roundTrip() throws IOException {
+    SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NumWeight> summaries =
+        solveWithSummaries();
+    assertTrue(summaries.getSummaries().size() > 1);
+
+    Path file = Files.createTempFile("summaries", ".bin");
+    try {
+      SummaryFile<StackSymbol, Abstraction, NumWeight> format =
+          new SummaryFile<>(LABELS, STATES, WEIGHTS);
+      format.write(file, summaries, Object::toString);
+
+      SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NumWeight> loaded =
+          new SummaryNestedWeightedPAutomatons<>();
+      WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> root = nestedAutomaton();
+      int count = format.read(file, loaded, root::createNestedAutomaton, key -> true);
+
+      assertEquals(summaries.getSummaries().size(), count);
+      for (Entry<Abstraction, WeightedPAutomaton<StackSymbol, Abstraction, NumWeight>> e :
+          summaries.getSummaries().entrySet()) {
+        WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> expected = e.getValue();
+        WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> actual =
+            loaded.getSummaryAutomaton(e.getKey());
+        assertNotNull(actual);
+        assertEquals(
+            Sets.newHashSet(expected.getTransitions()), Sets.newHashSet(actual.getTransitions()));
+        for (Transition<StackSymbol, Abstraction> t : expected.getTransitions()) {
+          assertEquals(expected.getWeightFor(t), actual.getWeightFor(t));
+        }
+        assertEquals(
+            nestedTargets(summaries, expected.getNestedAutomata()),
+            nestedTargets(loaded, actual.getNestedAutomata()));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void keyFilter() throws IOException {
+    SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NumWeight> summaries =
+        solveWithSummaries();
+    Path file = Files.createTempFile("summaries", ".bin");
+    try {
+      SummaryFile<StackSymbol, Abstraction, NumWeight> format =
+          new SummaryFile<>(LABELS, STATES, WEIGHTS);
+      format.write(file, summaries, Object::toString);
+      SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NumWeight> loaded =
+          new SummaryNestedWeightedPAutomatons<>();
+      WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> root = nestedAutomaton();
+      String excluded = ACC.toString();
+      int count = format.read(file, loaded, root::createNestedAutomaton, k -> !k.equals(excluded));
+      assertEquals(summaries.getSummaries().size() - 1, count);
+      assertNull(loaded.getSummaryAutomaton(ACC));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void truncatedFile() throws IOException {
+    Path file = Files.createTempFile("summaries", ".bin");
+    try {
+      SummaryFile<StackSymbol, Abstraction, NumWeight> format =
+          new SummaryFile<>(LABELS, STATES, WEIGHTS);
+      format.write(file, solveWithSummaries(), Object::toString);
+      byte[] content = Files.readAllBytes(file);
+      for (int length : new int[] {0, 6, 12, content.length / 2, content.length - 1}) {
+        Files.write(file, Arrays.copyOf(content, length));
+        assertRejected(format, file);
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void corruptFile() throws IOException {
+    Path file = Files.createTempFile("summaries", ".bin");
+    try {
+      SummaryFile<StackSymbol, Abstraction, NumWeight> format =
+          new SummaryFile<>(LABELS, STATES, WEIGHTS);
+      format.write(file, solveWithSummaries(), Object::toString);
+      byte[] content = Files.readAllBytes(file);
+      // The size of the state table.
+      content[8] = (byte) 0x7f;
+      Files.write(file, content);
+      assertRejected(format, file);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void corruptIds() throws IOException {
+    Path file = Files.createTempFile("summaries", ".bin");
+    try {
+      SummaryFile<StackSymbol, Abstraction, NumWeight> format =
+          new SummaryFile<>(LABELS, STATES, WEIGHTS);
+      SummaryFile.Summary<StackSymbol, Abstraction, NumWeight> summary =
+          new SummaryFile.Summary<>(
+              "a",
+              ACC,
+              Collections.singletonList(t(1, "a", ACC)),
+              Collections.singletonList(new NumWeight(1)),
+              Collections.emptyList());
+      format.write(file, Collections.singletonList(summary));
+      byte[] content = Files.readAllBytes(file);
+      // The weight id of the transition, followed by the empty list of nested targets.
+      content[content.length - 8] = (byte) 0x40;
+      Files.write(file, content);
+      assertRejected(format, file);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void skipsValuesWithoutEncoding() throws IOException {
+    BinaryCodec<StackSymbol> rejectingD =
+        new BinaryCodec<StackSymbol>() {
+          @Override
+          public void write(StackSymbol value, DataOutput out) throws IOException {
+            if (value.equals(s("d"))) {
+              throw new IllegalArgumentException("No encoding for " + value);
+            }
+            LABELS.write(value, out);
+          }
+
+          @Override
+          public StackSymbol read(ByteBuffer in) {
+            return LABELS.read(in);
+          }
+        };
+    SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NumWeight> summaries =
+        solveWithSummaries();
+    Path file = Files.createTempFile("summaries", ".bin");
+    try {
+      SummaryFile<StackSymbol, Abstraction, NumWeight> format =
+          new SummaryFile<>(rejectingD, STATES, WEIGHTS);
+      int written = format.write(file, summaries, Object::toString);
+      assertTrue(written < summaries.getSummaries().size());
+      for (SummaryFile.Summary<StackSymbol, Abstraction, NumWeight> summary :
+          format.read(file, k -> true)) {
+        for (Transition<StackSymbol, Abstraction> t : summary.getTransitions()) {
+          assertNotEquals(s("d"), t.getLabel());
+        }
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static void assertRejected(
+      SummaryFile<StackSymbol, Abstraction, NumWeight> format, Path file) {
+    SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NumWeight> loaded =
+        new SummaryNestedWeightedPAutomatons<>();
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> root = nestedAutomaton();
+    try {
+      format.read(file, loaded, root::createNestedAutomaton, key -> true);
+      fail("Expected an IOException for " + file);
+    } catch (IOException e) {
+      assertTrue(loaded.getSummaries().isEmpty());
+    }
+  }
+
+  private static SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NumWeight>
+      solveWithSummaries() {
+    WeightedPushdownSystem<StackSymbol, Abstraction, NumWeight> pds =
+        new WeightedPushdownSystem<>();
+    pds.addRule(wnormal(1, "a", 1, "b", new NumWeight(2)));
+    pds.addRule(wpush(1, "b", 1, "c", "d", new NumWeight(3)));
+    pds.addRule(wnormal(1, "c", 1, "e", new NumWeight(1)));
+    pds.addRule(wpush(1, "e", 1, "f", "g", new NumWeight(4)));
+    pds.addRule(wpop(1, "f", 1, new NumWeight(5)));
+    pds.addRule(wpop(1, "g", 1, new NumWeight(6)));
+    SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NumWeight> summaries =
+        new SummaryNestedWeightedPAutomatons<>();
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> fa = nestedAutomaton();
+    summaries.putSummaryAutomaton(ACC, fa);
+    fa.addWeightForTransition(t(1, "a", ACC), NumWeight.one());
+    pds.poststar(fa, summaries);
+    return summaries;
+  }
+
+  private static Set<Abstraction> nestedTargets(
+      SummaryNestedWeightedPAutomatons<StackSymbol, Abstraction, NumWeight> summaries,
+      Set<WeightedPAutomaton<StackSymbol, Abstraction, NumWeight>> nested) {
+    Set<Abstraction> res = Sets.newHashSet();
+    for (Entry<Abstraction, WeightedPAutomaton<StackSymbol, Abstraction, NumWeight>> e :
+        summaries.getSummaries().entrySet()) {
+      if (nested.contains(e.getValue())) {
+        res.add(e.getKey());
+      }
+    }
+    return res;
+  }
+
+  private static WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> nestedAutomaton() {
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> aut =
+        new WeightedPAutomaton<StackSymbol, Abstraction, NumWeight>() {
+
+          @Override
+          public Abstraction createState(Abstraction d, StackSymbol loc) {
+            return new Abstraction(d, loc);
+          }
+
+          @Override
+          public StackSymbol epsilon() {
+            return s("EPS");
+          }
+
+          @Override
+          public NumWeight getOne() {
+            return NumWeight.one();
+          }
+
+          @Override
+          public boolean isGeneratedState(Abstraction d) {
+            return d.s != null;
+          }
+
+          @Override
+          public boolean nested() {
+            return true;
+          }
+        };
+    aut.addFinalState(ACC);
+    return aut;
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import wpds.impl.Weight;
+import wpds.impl.WeightInterner;
+
+public class WeightInternerTests {
+
+  @Test
+  public void disabledAppliesOperations() {
+    WeightInterner<MaxWeight> interner = new WeightInterner<>(100);
+    MaxWeight a = new MaxWeight(interner, 1);
+    MaxWeight b = new MaxWeight(interner, 2);
+    assertNotSame(a.combineWith(b), a.combineWith(b));
+    assertEquals(new MaxWeight(interner, 3), a.extendWith(b));
+    assertEquals(0, interner.hitCount() + interner.missCount());
+  }
+
+  @Test
+  public void enabledInternsResults() {
+    WeightInterner<MaxWeight> interner = new WeightInterner<>(100);
+    interner.setEnabled(true);
+    MaxWeight a = new MaxWeight(interner, 1);
+    MaxWeight b = new MaxWeight(interner, 2);
+    Weight first = a.extendWith(b);
+    assertSame(first, a.extendWith(b));
+    assertSame(first, new MaxWeight(interner, 1).extendWith(new MaxWeight(interner, 2)));
+    assertSame(first, interner.intern(new MaxWeight(interner, 3)));
+    assertEquals(1, interner.missCount());
+    assertEquals(2, interner.hitCount());
+    // Extend and combine are cached separately.
+    assertSame(interner.intern(b), a.combineWith(b));
+  }
+
+  @Test
+  public void sameComparesCanonicalWeightsByReference() {
+    WeightInterner<MaxWeight> interner = new WeightInterner<>(100);
+    MaxWeight a = new MaxWeight(interner, 1);
+    MaxWeight equal = new MaxWeight(interner, 1);
+    assertTrue(Weight.same(a, equal));
+    interner.setEnabled(true);
+    MaxWeight canonical = interner.intern(a);
+    assertTrue(Weight.same(canonical, interner.intern(equal)));
+    assertTrue(Weight.same(canonical, equal));
+    assertFalse(Weight.same(canonical, interner.intern(new MaxWeight(interner, 2))));
+    assertFalse(Weight.same(canonical, null));
+  }
+
+  @Test
+  public void keyCoversStateIgnoredByEquals() {
+    WeightInterner<MaxWeight> interner = new WeightInterner<>(100, w -> w.value + "/" + w.note);
+    interner.setEnabled(true);
+    MaxWeight a = new MaxWeight(interner, 1, "a");
+    MaxWeight b = new MaxWeight(interner, 1, "b");
+    assertEquals(a, b);
+    assertNotSame(interner.intern(a), interner.intern(b));
+    assertSame(interner.intern(a), interner.intern(new MaxWeight(interner, 1, "a")));
+    assertFalse(Weight.same(a, b));
+    assertTrue(Weight.same(a, new MaxWeight(interner, 1, "a")));
+    interner.setEnabled(false);
+    assertTrue(Weight.same(a, b));
+  }
+
+  @Test
+  public void sameInternsTheOtherWeight() {
+    WeightInterner<MaxWeight> interner = new WeightInterner<>(100);
+    interner.setEnabled(true);
+    MaxWeight canonical = interner.intern(new MaxWeight(interner, 1));
+    MaxWeight other = new MaxWeight(interner, 1);
+    assertTrue(Weight.same(other, canonical));
+    assertSame(canonical, interner.intern(other));
+    assertFalse(Weight.same(new MaxWeight(interner, 2), canonical));
+  }
+
+  /** Combined by taking the maximum, extended by addition. */
+  private static class MaxWeight extends Weight {
+    private final WeightInterner<MaxWeight> interner;
+    private final int value;
+    // Ignored by equals
+    private final String note;
+
+    MaxWeight(WeightInterner<MaxWeight> interner, int value) {
+      this(interner, value, "");
+    }
+
+    MaxWeight(WeightInterner<MaxWeight> interner, int value, String note) {
+      this.interner = interner;
+      this.value = value;
+      this.note = note;
+    }
+
+    @Override
+    public Weight extendWith(Weight other) {
+      return interner.extendWith(
+          this, (MaxWeight) other, (a, b) -> new MaxWeight(interner, a.value + b.value));
+    }
+
+    @Override
+    public Weight combineWith(Weight other) {
+      return interner.combineWith(
+          this,
+          (MaxWeight) other,
+          (a, b) -> new MaxWeight(interner, Math.max(a.value, b.value)));
+    }
+
+    @Override
+    public int hashCode() {
+      return value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof MaxWeight && ((MaxWeight) obj).value == value;
+    }
+  }
+}
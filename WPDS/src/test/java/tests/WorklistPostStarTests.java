@@ -0,0 +1,119 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static tests.TestHelper.ACC;
+import static tests.TestHelper.accepts;
+import static tests.TestHelper.normal;
+import static tests.TestHelper.pop;
+import static tests.TestHelper.push;
+import static tests.TestHelper.t;
+import static tests.TestHelper.waccepts;
+import static tests.TestHelper.wnormal;
+import static tests.TestHelper.wpop;
+import static tests.TestHelper.wpush;
+
+import com.google.common.collect.Sets;
+import java.util.Random;
+import org.junit.Test;
+import tests.TestHelper.Abstraction;
+import tests.TestHelper.StackSymbol;
+import wpds.impl.PAutomaton;
+import wpds.impl.PostStar;
+import wpds.impl.PushdownSystem;
+import wpds.impl.WeightedPAutomaton;
+import wpds.impl.WeightedPushdownSystem;
+
+public class WorklistPostStarTests {
+
+  @Test
+  public void weightedPush() {
+    WeightedPushdownSystem<StackSymbol, Abstraction, NumWeight> pds =
+        new WeightedPushdownSystem<>();
+    pds.addRule(wnormal(1, "a", 1, "b", new NumWeight(2)));
+    pds.addRule(wpush(1, "b", 1, "c", "d", new NumWeight(3)));
+    pds.addRule(wnormal(1, "c", 1, "e", new NumWeight(1)));
+    pds.addRule(wpop(1, "e", 1, new NumWeight(5)));
+    WeightedPAutomaton<StackSymbol, Abstraction, NumWeight> fa =
+        waccepts(1, "a", new NumWeight(0));
+    pds.poststar(fa, PostStar.Mode.WORKLIST);
+    assertEquals(new NumWeight(2), fa.getWeightFor(t(1, "b", ACC)));
+    assertEquals(new NumWeight(11), fa.getWeightFor(t(1, "d", ACC)));
+  }
+
+  @Test
+  public void rulesAddedAfterPoststar() {
+    PushdownSystem<StackSymbol, Abstraction> pds =
+        new PushdownSystem<StackSymbol, Abstraction>() {};
+    PAutomaton<StackSymbol, Abstraction> fa = accepts(1, "a");
+    pds.poststar(fa, PostStar.Mode.WORKLIST);
+    pds.addRule(normal(1, "a", 1, "b"));
+    pds.addRule(push(1, "b", 1, "c", "d"));
+    pds.addRule(pop(1, "c", 1));
+    assertTrue(fa.getTransitions().contains(t(1, "d", ACC)));
+  }
+
+  @Test
+  public void longChainKeepsStackFlat() throws InterruptedException {
+    final PushdownSystem<StackSymbol, Abstraction> pds =
+        new PushdownSystem<StackSymbol, Abstraction>() {};
+    int length = 20000;
+    for (int i = 0; i < length; i++) {
+      pds.addRule(normal(1, "n" + i, 1, "n" + (i + 1)));
+    }
+    final PAutomaton<StackSymbol, Abstraction> fa = accepts(1, "n0");
+    Thread thread =
+        new Thread(null, () -> pds.poststar(fa, PostStar.Mode.WORKLIST), "poststar", 256 * 1024);
+    thread.start();
+    thread.join();
+    assertEquals(length + 1, fa.getTransitions().size());
+  }
+
+  @Test
+  public void sameAutomatonAsListenerMode() {
+    Random random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      long seed = random.nextLong();
+      PAutomaton<StackSymbol, Abstraction> listener = saturate(seed, PostStar.Mode.LISTENER);
+      PAutomaton<StackSymbol, Abstraction> worklist = saturate(seed, PostStar.Mode.WORKLIST);
+      assertEquals(
+          Sets.newHashSet(listener.getTransitions()), Sets.newHashSet(worklist.getTransitions()));
+    }
+  }
+
+  private static PAutomaton<StackSymbol, Abstraction> saturate(long seed, PostStar.Mode mode) {
+    Random random = new Random(seed);
+    PushdownSystem<StackSymbol, Abstraction> pds =
+        new PushdownSystem<StackSymbol, Abstraction>() {};
+    for (int i = 0; i < 30; i++) {
+      int s1 = random.nextInt(3);
+      int s2 = random.nextInt(3);
+      String l1 = "l" + random.nextInt(8);
+      String l2 = "l" + random.nextInt(8);
+      switch (random.nextInt(3)) {
+        case 0:
+          pds.addRule(normal(s1, l1, s2, l2));
+          break;
+        case 1:
+          pds.addRule(push(s1, l1, s2, l2, "l" + random.nextInt(8)));
+          break;
+        default:
+          pds.addRule(pop(s1, l1, s2));
+      }
+    }
+    PAutomaton<StackSymbol, Abstraction> fa = accepts(0, "l0");
+    pds.poststar(fa, mode);
+    return fa;
+  }
+}
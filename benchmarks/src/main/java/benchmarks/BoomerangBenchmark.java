@@ -0,0 +1,247 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package benchmarks;
+
+import boomerang.BackwardQuery;
+import boomerang.Boomerang;
+import boomerang.DefaultBoomerangOptions;
+import boomerang.Query;
+import boomerang.results.BackwardBoomerangResults;
+import boomerang.scene.AnalysisScope;
+import boomerang.scene.CallGraph;
+import boomerang.scene.DataFlowScope;
+import boomerang.scene.SootDataFlowScope;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import boomerang.scene.jimple.BoomerangPretransformer;
+import boomerang.scene.jimple.SootCallGraph;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import soot.ArrayType;
+import soot.G;
+import soot.Local;
+import soot.Modifier;
+import soot.PackManager;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.options.Options;
+
+/**
+ * Solves the queries of a test case of boomerangPDS end-to-end. The test case is given as the
+ * name of the class and the test method, its queries are the arguments of the calls to {@code
+ * queryFor}. The Soot scene is set up once per trial like for the test cases, such that the
+ * benchmark only measures the query time.
+ *
+ * <p>The test classes are read from the directory given by the system property {@value
+ * #SOOT_CLASS_PATH}, by default {@code boomerangPDS/target/test-classes} relative to the working
+ * directory. As for the tests, the benchmark has to run on a Java 8 runtime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xmx8G", "-Xss128m"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BoomerangBenchmark {
+  public static final String SOOT_CLASS_PATH = "benchmarks.sootClassPath";
+
+  @Param({
+    "test.cases.basic.InterprocedualTest#heavySumary",
+    "test.cases.fields.ThreeFieldsTest#indirectAllocationSite",
+    "test.cases.fields.SummaryTest#branchedSummaryReuse",
+    "test.cases.hashmap.KeySensitiveTest#directAccess"
+  })
+  private String testCase;
+
+  private CallGraph callGraph;
+  private DataFlowScope dataFlowScope;
+  private Collection<Query> queries;
+
+  @Setup
+  public void setup() {
+    String[] split = testCase.split("#");
+    initializeSoot(split[0], split[1]);
+    PackManager.v().getPack("cg").apply();
+    BoomerangPretransformer.v().reset();
+    BoomerangPretransformer.v().apply();
+    callGraph = new SootCallGraph();
+    dataFlowScope = SootDataFlowScope.make(Scene.v());
+    queries =
+        new AnalysisScope(callGraph) {
+          @Override
+          protected Collection<? extends Query> generate(Statement stmt) {
+            if (!stmt.containsInvokeExpr()
+                || !stmt.getInvokeExpr().getMethod().getName().equals("queryFor")) {
+              return Collections.emptySet();
+            }
+            Val arg = stmt.getInvokeExpr().getArg(0);
+            if (!arg.isLocal()) {
+              return Collections.emptySet();
+            }
+            return Collections.singleton(BackwardQuery.make(stmt, arg));
+          }
+        }.computeSeeds();
+    if (queries.isEmpty()) {
+      throw new IllegalStateException("No queries found in " + testCase);
+    }
+  }
+
+  @Benchmark
+  public void solve(Blackhole bh) {
+    for (Query query : queries) {
+      Boomerang solver =
+          new Boomerang(
+              callGraph,
+              dataFlowScope,
+              new DefaultBoomerangOptions() {
+                @Override
+                public boolean onTheFlyCallGraph() {
+                  return false;
+                }
+              });
+      BackwardBoomerangResults<?> results = solver.solve((BackwardQuery) query);
+      bh.consume(results.getAllocationSites());
+    }
+  }
+
+  private static void initializeSoot(String testClassName, String testMethodName) {
+    G.reset();
+    Options.v().set_whole_program(true);
+    Options.v().setPhaseOption("cg.spark", "on");
+    Options.v().set_output_format(Options.output_format_none);
+    Options.v().set_no_bodies_for_excluded(true);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().setPhaseOption("jb", "use-original-names:true");
+    Options.v().set_include(
+        Arrays.asList(
+            "java.lang.*",
+            "java.util.*",
+            "java.io.*",
+            "sun.misc.*",
+            "java.net.*",
+            "sun.nio.*",
+            "javax.servlet.*"));
+    Options.v().set_exclude(
+        Arrays.asList(
+            "sun.*",
+            "javax.*",
+            "com.sun.*",
+            "com.ibm.*",
+            "org.xml.*",
+            "org.w3c.*",
+            "apple.awt.*",
+            "com.apple.*"));
+    Options.v().set_soot_classpath(sootClassPath());
+
+    SootClass testClass = Scene.v().forceResolve(testClassName, SootClass.BODIES);
+    SootMethod testMethod = null;
+    for (SootMethod m : testClass.getMethods()) {
+      if (m.getName().equals(testMethodName)) {
+        testMethod = m;
+      }
+    }
+    if (testMethod == null) {
+      throw new IllegalArgumentException(
+          "The method " + testMethodName + " was not found in " + testClassName);
+    }
+    testClass.setApplicationClass();
+    SootClass mainClass = createMainClass(testClass, testMethod);
+    Scene.v().addBasicClass(mainClass.getName(), SootClass.BODIES);
+    Scene.v().loadNecessaryClasses();
+    mainClass.setApplicationClass();
+
+    List<SootMethod> entryPoints = new ArrayList<>();
+    for (SootClass c : Scene.v().getClasses()) {
+      if (c.getName().startsWith(testClassName)) {
+        c.setApplicationClass();
+        for (SootMethod m : c.getMethods()) {
+          if (m.isStaticInitializer()) {
+            entryPoints.add(m);
+          }
+        }
+      }
+    }
+    entryPoints.add(mainClass.getMethodByName("main"));
+    Scene.v().setEntryPoints(entryPoints);
+  }
+
+  /** Creates a main method that invokes the test method on a new instance of the test class. */
+  private static SootClass createMainClass(SootClass testClass, SootMethod testMethod) {
+    SootClass mainClass = new SootClass("dummyClass");
+    Type paramType = ArrayType.v(RefType.v("java.lang.String"), 1);
+    SootMethod main =
+        new SootMethod(
+            "main",
+            Collections.singletonList(paramType),
+            VoidType.v(),
+            Modifier.PUBLIC | Modifier.STATIC);
+    mainClass.addMethod(main);
+    JimpleBody body = Jimple.v().newBody(main);
+    main.setActiveBody(body);
+    Local args = Jimple.v().newLocal("l0", paramType);
+    body.getLocals().add(args);
+    body.getUnits()
+        .add(Jimple.v().newIdentityStmt(args, Jimple.v().newParameterRef(paramType, 0)));
+    RefType testType = testClass.getType();
+    Local testObj = Jimple.v().newLocal("dummyObj", testType);
+    body.getLocals().add(testObj);
+    body.getUnits().add(Jimple.v().newAssignStmt(testObj, Jimple.v().newNewExpr(testType)));
+    body.getUnits()
+        .add(
+            Jimple.v()
+                .newInvokeStmt(Jimple.v().newVirtualInvokeExpr(testObj, testMethod.makeRef())));
+    body.getUnits().add(Jimple.v().newReturnVoidStmt());
+    Scene.v().addClass(mainClass);
+    body.validate();
+    return mainClass;
+  }
+
+  private static String sootClassPath() {
+    String testClasses =
+        System.getProperty(
+            SOOT_CLASS_PATH,
+            System.getProperty("user.dir") + "/boomerangPDS/target/test-classes");
+    String javaHome = System.getProperty("java.home");
+    return testClasses
+        + File.pathSeparator
+        + javaHome
+        + "/lib/rt.jar"
+        + File.pathSeparator
+        + javaHome
+        + "/lib/jce.jar";
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package benchmarks;
+
+import benchmarks.SyntheticProgram.Fact;
+import benchmarks.SyntheticProgram.Stmt;
+import com.google.common.collect.Lists;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wpds.impl.PAutomaton;
+import wpds.impl.Transition;
+import wpds.interfaces.ForwardDFSVisitor;
+import wpds.interfaces.ReachabilityListener;
+
+/**
+ * Maintains the transitive closure of an automaton by a {@link ForwardDFSVisitor} while the
+ * transitions of a random acyclic graph are added in random order. Every tenth state has a
+ * reachability listener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xss128m")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ForwardDFSVisitorBenchmark {
+  private static final int LABELS = 8;
+  private static final int MAX_EDGE_LENGTH = 10;
+  private static final int LISTENER_DISTANCE = 10;
+
+  @Param({"100", "500", "1000"})
+  private int states;
+
+  private final List<Transition<Stmt, Fact>> transitions = Lists.newArrayList();
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    for (int i = 0; i < states - 1; i++) {
+      transitions.add(transition(i, random.nextInt(LABELS), i + 1));
+      int target = Math.min(states - 1, i + 1 + random.nextInt(MAX_EDGE_LENGTH));
+      transitions.add(transition(i, random.nextInt(LABELS), target));
+    }
+    Collections.shuffle(transitions, random);
+  }
+
+  @Benchmark
+  public int closure() {
+    PAutomaton<Stmt, Fact> aut = SyntheticProgram.automaton();
+    int[] reached = new int[1];
+    ReachabilityListener<Stmt, Fact> listener = t -> reached[0]++;
+    for (int i = 0; i < states; i += LISTENER_DISTANCE) {
+      aut.registerDFSListener(SyntheticProgram.fact(i), listener);
+    }
+    for (Transition<Stmt, Fact> t : transitions) {
+      aut.addTransition(t);
+    }
+    return reached[0];
+  }
+
+  private static Transition<Stmt, Fact> transition(int start, int label, int target) {
+    return new Transition<>(
+        SyntheticProgram.fact(start),
+        SyntheticProgram.stmt(0, label),
+        SyntheticProgram.fact(target));
+  }
+}
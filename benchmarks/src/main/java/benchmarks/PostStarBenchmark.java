@@ -0,0 +1,68 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package benchmarks;
+
+import benchmarks.SyntheticProgram.Fact;
+import benchmarks.SyntheticProgram.Stmt;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wpds.impl.ConcurrentTransitionStore;
+import wpds.impl.PAutomaton;
+import wpds.impl.PostStar;
+import wpds.impl.PushdownSystem;
+
+/** Saturates the automaton of the initial configuration of a {@link SyntheticProgram}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xss128m")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PostStarBenchmark {
+
+  @Param({"25", "100", "200"})
+  private int methods;
+
+  @Param({"LISTENER", "WORKLIST", "PARALLEL"})
+  private PostStar.Mode mode;
+
+  private SyntheticProgram program;
+  private PushdownSystem<Stmt, Fact> pds;
+
+  @Setup
+  public void setup() {
+    program = new SyntheticProgram(methods, 42);
+    pds = program.getPushdownSystem();
+  }
+
+  @Benchmark
+  public int poststar() {
+    PAutomaton<Stmt, Fact> aut =
+        mode == PostStar.Mode.PARALLEL
+            ? program.initialAutomaton(new ConcurrentTransitionStore<>())
+            : program.initialAutomaton();
+    pds.poststar(aut, mode);
+    // The saturation registers its listeners on the shared system.
+    pds.unregisterAllListeners();
+    return aut.getTransitions().size();
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package benchmarks;
+
+import benchmarks.SyntheticProgram.Fact;
+import benchmarks.SyntheticProgram.Stmt;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wpds.impl.PAutomaton;
+import wpds.impl.PrefixImport;
+import wpds.impl.Transition;
+
+/**
+ * Imports the prefix of a base automaton into a flow automaton. Both automata share a transition
+ * and a chain of outgoing transitions of its target. The base automaton contains a tree of
+ * incoming transitions of the target, which is copied into the flow automaton.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xss128m")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PrefixImportBenchmark {
+  private static final int FAN_IN = 4;
+  private static final int CHAIN_LENGTH = 10;
+  private static final int LABELS = 8;
+
+  @Param({"100", "1000", "10000"})
+  private int transitions;
+
+  private PAutomaton<Stmt, Fact> base;
+  private PAutomaton<Stmt, Fact> flow;
+  private Transition<Stmt, Fact> shared;
+
+  @Setup(Level.Invocation)
+  public void setup() {
+    // States 0 to transitions form the tree, followed by the states of the chains.
+    int baseTarget = transitions + 1;
+    int flowTarget = transitions + 2;
+    base = SyntheticProgram.automaton();
+    flow = SyntheticProgram.automaton();
+    shared = transition(0, 0, baseTarget);
+    base.addTransition(shared);
+    flow.addTransition(transition(0, 0, flowTarget));
+    for (int k = 1; k <= transitions; k++) {
+      int parent = (k - 1) / FAN_IN;
+      base.addTransition(transition(k, k % LABELS, parent == 0 ? baseTarget : parent));
+    }
+    int baseChain = baseTarget;
+    int flowChain = flowTarget;
+    for (int i = 0; i < CHAIN_LENGTH; i++) {
+      int next = transitions + 3 + 2 * i;
+      base.addTransition(transition(baseChain, i % LABELS, next));
+      flow.addTransition(transition(flowChain, i % LABELS, next + 1));
+      baseChain = next;
+      flowChain = next + 1;
+    }
+  }
+
+  @Benchmark
+  public int prefixImport() {
+    new PrefixImport<>(base, flow, shared);
+    return flow.getTransitions().size();
+  }
+
+  private static Transition<Stmt, Fact> transition(int start, int label, int target) {
+    return new Transition<>(
+        SyntheticProgram.fact(start),
+        SyntheticProgram.stmt(0, label),
+        SyntheticProgram.fact(target));
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package benchmarks;
+
+import benchmarks.SyntheticProgram.Fact;
+import benchmarks.SyntheticProgram.Stmt;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import wpds.impl.PushdownSystem;
+
+/**
+ * Looks up the rules of a {@link SyntheticProgram} by their start and end configurations and by
+ * their call site, as done by the saturation algorithms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xss128m")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RuleLookupBenchmark {
+
+  @Param({"100", "1000", "5000"})
+  private int methods;
+
+  private SyntheticProgram program;
+  private PushdownSystem<Stmt, Fact> pds;
+
+  @Setup
+  public void setup() {
+    program = new SyntheticProgram(methods, 42);
+    pds = program.getPushdownSystem();
+  }
+
+  @Benchmark
+  public void rulesStarting(Blackhole bh) {
+    for (int m = 0; m < methods; m++) {
+      for (int i = 0; i < SyntheticProgram.STATEMENTS_PER_METHOD; i++) {
+        for (int f = 0; f < SyntheticProgram.FACTS; f++) {
+          bh.consume(pds.getRulesStarting(SyntheticProgram.fact(f), SyntheticProgram.stmt(m, i)));
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public void rulesEnding(Blackhole bh) {
+    for (int m = 0; m < methods; m++) {
+      for (int i = 0; i < SyntheticProgram.STATEMENTS_PER_METHOD; i++) {
+        for (int f = 0; f < SyntheticProgram.FACTS; f++) {
+          Fact fact = SyntheticProgram.fact(f);
+          Stmt stmt = SyntheticProgram.stmt(m, i);
+          bh.consume(pds.getNormalRulesEnding(fact, stmt));
+          bh.consume(pds.getPushRulesEnding(fact, stmt));
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public void pushRulesWithCallSite(Blackhole bh) {
+    for (Stmt callSite : program.getCallSites()) {
+      bh.consume(pds.getPushRulesWithCallSite(callSite));
+    }
+  }
+}
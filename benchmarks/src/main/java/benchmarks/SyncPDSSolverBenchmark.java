@@ -0,0 +1,269 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package benchmarks;
+
+import benchmarks.SyntheticProgram.Fact;
+import benchmarks.SyntheticProgram.Stmt;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sync.pds.solver.OneWeightFunctions;
+import sync.pds.solver.SyncPDSSolver;
+import sync.pds.solver.SyncPDSSolver.PDSSystem;
+import sync.pds.solver.WeightFunctions;
+import sync.pds.solver.nodes.INode;
+import sync.pds.solver.nodes.Node;
+import sync.pds.solver.nodes.NodeWithLocation;
+import sync.pds.solver.nodes.PopNode;
+import sync.pds.solver.nodes.PushNode;
+import sync.pds.solver.nodes.SingleNode;
+import wpds.impl.NestedWeightedPAutomatons;
+import wpds.impl.SummaryNestedWeightedPAutomatons;
+import wpds.impl.Weight.NoWeight;
+import wpds.impl.WeightedPAutomaton;
+import wpds.interfaces.Location;
+import wpds.wildcard.ExclusionWildcard;
+import wpds.wildcard.Wildcard;
+
+/**
+ * Solves a {@link SyncPDSSolver} on a generated program. Like a {@link SyntheticProgram}, the
+ * program consists of methods of fixed length that call each other, additionally each statement may
+ * store a variable to or load a variable from a field of another variable. The solver starts from
+ * the first variable at the first statement of the first method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xss128m")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SyncPDSSolverBenchmark {
+  private static final int STATEMENTS_PER_METHOD = 10;
+  private static final int VARIABLES = 4;
+  private static final int FIELDS = 3;
+  private static final double CALL_PROBABILITY = 0.2;
+  private static final double STORE_PROBABILITY = 0.15;
+  private static final double LOAD_PROBABILITY = 0.15;
+
+  private static final Field EMPTY_FIELD = new Field("EMPTY");
+  private static final Field EPSILON_FIELD = new Field("EPS");
+  private static final Stmt EPSILON_STMT = SyntheticProgram.stmt(-1, -1);
+
+  @Param({"10", "20", "40"})
+  private int methods;
+
+  @Param({"true", "false"})
+  private boolean summaries;
+
+  private final Multimap<Node<Stmt, Fact>, wpds.interfaces.State> successors =
+      HashMultimap.create();
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    for (int m = 0; m < methods; m++) {
+      for (int i = 0; i < STATEMENTS_PER_METHOD - 1; i++) {
+        Stmt curr = SyntheticProgram.stmt(m, i);
+        Stmt succ = SyntheticProgram.stmt(m, i + 1);
+        for (int v = 0; v < VARIABLES; v++) {
+          successors.put(node(curr, v), node(succ, v));
+        }
+        int v = random.nextInt(VARIABLES);
+        int other = random.nextInt(VARIABLES);
+        Field f = new Field("f" + random.nextInt(FIELDS));
+        if (random.nextDouble() < STORE_PROBABILITY) {
+          successors.put(node(curr, v), new PushNode<>(succ, var(other), f, PDSSystem.FIELDS));
+        } else if (random.nextDouble() < LOAD_PROBABILITY) {
+          successors.put(
+              node(curr, v),
+              new PopNode<>(new NodeWithLocation<>(succ, var(other), f), PDSSystem.FIELDS));
+        }
+        // The methods form a binary call tree, such that all of them are reachable from the
+        // first one, further calls are random.
+        int callee = -1;
+        if (i == 2 || i == 5) {
+          callee = 2 * m + (i == 2 ? 1 : 2);
+        } else if (random.nextDouble() < CALL_PROBABILITY) {
+          callee = random.nextInt(methods);
+        }
+        if (callee >= 0 && callee < methods) {
+          Stmt calleeStart = SyntheticProgram.stmt(callee, 0);
+          for (int w = 0; w < VARIABLES; w++) {
+            successors.put(
+                node(curr, w), new PushNode<>(calleeStart, var(w), succ, PDSSystem.CALLS));
+          }
+        }
+      }
+      Stmt exit = SyntheticProgram.stmt(m, STATEMENTS_PER_METHOD - 1);
+      for (int v = 0; v < VARIABLES; v++) {
+        successors.put(node(exit, v), new PopNode<>(var(v), PDSSystem.CALLS));
+      }
+    }
+  }
+
+  @Benchmark
+  public int solve() {
+    SummaryNestedWeightedPAutomatons<Stmt, INode<Fact>, NoWeight> callSummaries =
+        new SummaryNestedWeightedPAutomatons<>();
+    SummaryNestedWeightedPAutomatons<Field, INode<Node<Stmt, Fact>>, NoWeight> fieldSummaries =
+        new SummaryNestedWeightedPAutomatons<>();
+    Solver solver = new Solver(callSummaries, fieldSummaries);
+    Node<Stmt, Fact> start = node(SyntheticProgram.stmt(0, 0), 0);
+    SingleNode<Node<Stmt, Fact>> fieldTarget = new SingleNode<>(start);
+    SingleNode<Fact> callTarget = new SingleNode<>(var(0));
+    if (summaries) {
+      // The automata of the solver summarize the initial targets, as for the solvers of Boomerang.
+      callSummaries.putSummaryAutomaton(callTarget, solver.callAutomaton());
+      fieldSummaries.putSummaryAutomaton(fieldTarget, solver.fieldAutomaton());
+    }
+    solver.solve(start, EMPTY_FIELD, fieldTarget, EPSILON_STMT, callTarget);
+    return solver.getReachedStates().size();
+  }
+
+  private static Node<Stmt, Fact> node(Stmt stmt, int var) {
+    return new Node<>(stmt, var(var));
+  }
+
+  private static Fact var(int id) {
+    return SyntheticProgram.fact(id);
+  }
+
+  private class Solver extends SyncPDSSolver<Stmt, Fact, Field, NoWeight> {
+
+    Solver(
+        NestedWeightedPAutomatons<Stmt, INode<Fact>, NoWeight> callSummaries,
+        NestedWeightedPAutomatons<Field, INode<Node<Stmt, Fact>>, NoWeight> fieldSummaries) {
+      super(summaries, callSummaries, summaries, fieldSummaries, -1, -1, -1);
+    }
+
+    WeightedPAutomaton<Stmt, INode<Fact>, NoWeight> callAutomaton() {
+      return callAutomaton;
+    }
+
+    WeightedPAutomaton<Field, INode<Node<Stmt, Fact>>, NoWeight> fieldAutomaton() {
+      return fieldAutomaton;
+    }
+
+    @Override
+    public void computeSuccessor(Node<Stmt, Fact> node) {
+      for (wpds.interfaces.State s : successors.get(node)) {
+        propagate(node, s);
+      }
+    }
+
+    @Override
+    public void applyCallSummary(
+        Stmt callSite, Fact factInCallee, Stmt spInCallee, Stmt exitStmt, Fact returnedFact) {
+      Node<Stmt, Fact> returnSite =
+          new Node<>(SyntheticProgram.stmt(callSite.method, callSite.index + 1), returnedFact);
+      addNormalFieldFlow(new Node<>(exitStmt, returnedFact), returnSite);
+      addNormalCallFlow(new Node<>(callSite, returnedFact), returnSite);
+    }
+
+    @Override
+    public Field epsilonField() {
+      return EPSILON_FIELD;
+    }
+
+    @Override
+    public Field emptyField() {
+      return EMPTY_FIELD;
+    }
+
+    @Override
+    public Stmt epsilonStmt() {
+      return EPSILON_STMT;
+    }
+
+    @Override
+    public Field exclusionFieldWildCard(Field exclusion) {
+      return new ExclusionWildcardField(exclusion);
+    }
+
+    @Override
+    public Field fieldWildCard() {
+      return new WildcardField();
+    }
+
+    @Override
+    public WeightFunctions<Stmt, Fact, Field, NoWeight> getFieldWeights() {
+      return new OneWeightFunctions<>(NoWeight.NO_WEIGHT_ONE);
+    }
+
+    @Override
+    public WeightFunctions<Stmt, Fact, Stmt, NoWeight> getCallWeights() {
+      return new OneWeightFunctions<>(NoWeight.NO_WEIGHT_ONE);
+    }
+  }
+
+  private static class Field implements Location {
+    final String name;
+
+    Field(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public boolean accepts(Location other) {
+      return equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (obj == null || getClass() != obj.getClass()) return false;
+      return name.equals(((Field) obj).name);
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private static class WildcardField extends Field implements Wildcard {
+    WildcardField() {
+      super("*");
+    }
+  }
+
+  private static class ExclusionWildcardField extends Field implements ExclusionWildcard<Field> {
+    private final Field excludes;
+
+    ExclusionWildcardField(Field excludes) {
+      super("not " + excludes.name);
+      this.excludes = excludes;
+    }
+
+    @Override
+    public Field excludes() {
+      return excludes;
+    }
+  }
+}
@@ -0,0 +1,226 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package benchmarks;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import wpds.impl.HashTransitionStore;
+import wpds.impl.PAutomaton;
+import wpds.impl.PushdownSystem;
+import wpds.impl.Transition;
+import wpds.impl.UNormalRule;
+import wpds.impl.UPopRule;
+import wpds.impl.UPushRule;
+import wpds.impl.Weight.NoWeight;
+import wpds.interfaces.Location;
+import wpds.interfaces.State;
+import wpds.interfaces.TransitionStore;
+
+/**
+ * Generates pushdown systems that model the call structure of a program. The program consists of
+ * the given number of methods of fixed length. Each statement flows to its successor, which is
+ * encoded as normal rules that partially move facts to other facts, and may call a method, which
+ * is encoded as a push rule. The methods form a binary call tree, such that all of them are
+ * reachable from the first one, further calls are random. The last statement of each method
+ * returns, which is encoded as a pop rule. The generator is seeded, the same size always yields the
+ * same system.
+ */
+public class SyntheticProgram {
+  public static final int STATEMENTS_PER_METHOD = 10;
+  public static final int FACTS = 4;
+  private static final double CALL_PROBABILITY = 0.2;
+  private static final double FACT_CHANGE_PROBABILITY = 0.3;
+
+  private final int methods;
+  private final PushdownSystem<Stmt, Fact> pds = new PushdownSystem<Stmt, Fact>() {};
+  private final List<Stmt> callSites = Lists.newArrayList();
+
+  public SyntheticProgram(int methods, long seed) {
+    this.methods = methods;
+    Random random = new Random(seed);
+    for (int m = 0; m < methods; m++) {
+      for (int i = 0; i < STATEMENTS_PER_METHOD; i++) {
+        Stmt curr = stmt(m, i);
+        for (int f = 0; f < FACTS; f++) {
+          Fact fact = fact(f);
+          if (i == STATEMENTS_PER_METHOD - 1) {
+            pds.addRule(new UPopRule<>(fact, curr, fact));
+            continue;
+          }
+          Stmt succ = stmt(m, i + 1);
+          pds.addRule(new UNormalRule<>(fact, curr, fact, succ));
+          if (random.nextDouble() < FACT_CHANGE_PROBABILITY) {
+            pds.addRule(new UNormalRule<>(fact, curr, fact((f + 1) % FACTS), succ));
+          }
+        }
+        if (i == STATEMENTS_PER_METHOD - 1) {
+          continue;
+        }
+        int callee = -1;
+        if (i == 2 || i == 5) {
+          callee = 2 * m + (i == 2 ? 1 : 2);
+        } else if (random.nextDouble() < CALL_PROBABILITY) {
+          callee = random.nextInt(methods);
+        }
+        if (callee >= 0 && callee < methods) {
+          Stmt calleeStart = stmt(callee, 0);
+          callSites.add(curr);
+          for (int f = 0; f < FACTS; f++) {
+            pds.addRule(new UPushRule<>(fact(f), curr, fact(f), calleeStart, stmt(m, i + 1)));
+          }
+        }
+      }
+    }
+  }
+
+  public PushdownSystem<Stmt, Fact> getPushdownSystem() {
+    return pds;
+  }
+
+  public List<Stmt> getCallSites() {
+    return callSites;
+  }
+
+  public int getNumberOfMethods() {
+    return methods;
+  }
+
+  /**
+   * @return an automaton that accepts the initial configuration of the program, i.e. the first
+   *     fact at the first statement of the first method.
+   */
+  public PAutomaton<Stmt, Fact> initialAutomaton() {
+    return initialAutomaton(new HashTransitionStore<>());
+  }
+
+  /** Like {@link #initialAutomaton()}, with the transitions held by the given store. */
+  public PAutomaton<Stmt, Fact> initialAutomaton(TransitionStore<Stmt, Fact, NoWeight> store) {
+    PAutomaton<Stmt, Fact> aut = automaton(store);
+    aut.addTransition(new Transition<>(fact(0), stmt(0, 0), Fact.ACCEPT));
+    return aut;
+  }
+
+  /**
+   * @return an automaton that accepts the configurations of the first fact at the last statement
+   *     of the given method, with an arbitrary call stack of return sites.
+   */
+  public PAutomaton<Stmt, Fact> exitAutomaton(int method) {
+    PAutomaton<Stmt, Fact> aut = automaton();
+    Stmt exit = stmt(method, STATEMENTS_PER_METHOD - 1);
+    aut.addTransition(new Transition<>(fact(0), exit, Fact.ACCEPT));
+    for (int m = 0; m < methods; m++) {
+      for (int i = 1; i < STATEMENTS_PER_METHOD; i++) {
+        aut.addTransition(new Transition<>(Fact.ACCEPT, stmt(m, i), Fact.ACCEPT));
+      }
+    }
+    return aut;
+  }
+
+  public static PAutomaton<Stmt, Fact> automaton() {
+    return automaton(new HashTransitionStore<>());
+  }
+
+  public static PAutomaton<Stmt, Fact> automaton(TransitionStore<Stmt, Fact, NoWeight> store) {
+    PAutomaton<Stmt, Fact> aut =
+        new PAutomaton<Stmt, Fact>(store) {
+          @Override
+          public Fact createState(Fact d, Stmt loc) {
+            return new Fact(d.id, loc);
+          }
+
+          @Override
+          public boolean isGeneratedState(Fact d) {
+            return d.generatedAt != null;
+          }
+
+          @Override
+          public Stmt epsilon() {
+            return Stmt.EPSILON;
+          }
+        };
+    aut.addFinalState(Fact.ACCEPT);
+    return aut;
+  }
+
+  public static Stmt stmt(int method, int index) {
+    return new Stmt(method, index);
+  }
+
+  public static Fact fact(int id) {
+    return new Fact(id, null);
+  }
+
+  public static class Stmt implements Location {
+    static final Stmt EPSILON = new Stmt(-1, -1);
+    final int method;
+    final int index;
+
+    Stmt(int method, int index) {
+      this.method = method;
+      this.index = index;
+    }
+
+    @Override
+    public boolean accepts(Location other) {
+      return equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * method + index;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (obj == null || getClass() != obj.getClass()) return false;
+      Stmt other = (Stmt) obj;
+      return method == other.method && index == other.index;
+    }
+
+    @Override
+    public String toString() {
+      return "m" + method + "_" + index;
+    }
+  }
+
+  public static class Fact implements State {
+    static final Fact ACCEPT = new Fact(-1, null);
+    final int id;
+    final Stmt generatedAt;
+
+    Fact(int id, Stmt generatedAt) {
+      this.id = id;
+      this.generatedAt = generatedAt;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * id + Objects.hashCode(generatedAt);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (obj == null || getClass() != obj.getClass()) return false;
+      Fact other = (Fact) obj;
+      return id == other.id && Objects.equals(generatedAt, other.generatedAt);
+    }
+
+    @Override
+    public String toString() {
+      return generatedAt == null ? "f" + id : "f" + id + "@" + generatedAt;
+    }
+  }
+}
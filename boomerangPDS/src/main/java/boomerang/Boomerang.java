@@ -33,6 +33,12 @@ public class Boomerang extends WeightedBoomerang<Weight.NoWeight> {
     super(callGraph, scope, opt);
   }
 
+  /** All instances compute the weight {@link Weight#NO_WEIGHT_ONE} only. */
+  @Override
+  protected Object getSummaryCacheDomain() {
+    return Weight.NoWeight.class;
+  }
+
   @Override
   protected WeightFunctions<Statement, Val, Field, Weight.NoWeight> getForwardFieldWeights() {
     return getOrCreateFieldWeights();
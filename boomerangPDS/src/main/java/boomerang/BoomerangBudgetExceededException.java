@@ -0,0 +1,40 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+import boomerang.stats.IBoomerangStats;
+
+/**
+ * Thrown when a query exceeds a limit of its {@link QueryBudget}. It is handled like a timeout, the
+ * results of the query are partial.
+ */
+public class BoomerangBudgetExceededException extends BoomerangTimeoutException {
+
+  private final String limit;
+  private final long max;
+
+  BoomerangBudgetExceededException(String limit, long max, long elapsed, IBoomerangStats stats) {
+    super(elapsed, stats);
+    this.limit = limit;
+    this.max = max;
+  }
+
+  /** @return the name of the exceeded limit, e.g. "transitions". */
+  public String getLimit() {
+    return limit;
+  }
+
+  @Override
+  public String toString() {
+    return "Boomerang budget exceeded, more than " + max + " " + limit;
+  }
+}
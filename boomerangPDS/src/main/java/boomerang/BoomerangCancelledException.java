@@ -0,0 +1,30 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+import boomerang.stats.IBoomerangStats;
+
+/**
+ * Thrown when a query is stopped by {@link WeightedBoomerang#cancel()}. It is handled like a
+ * timeout, the results of the query are partial.
+ */
+public class BoomerangCancelledException extends BoomerangTimeoutException {
+
+  BoomerangCancelledException(long elapsed, IBoomerangStats stats) {
+    super(elapsed, stats);
+  }
+
+  @Override
+  public String toString() {
+    return "Boomerang query cancelled";
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+import wpds.metrics.Counter;
+import wpds.metrics.Gauge;
+import wpds.metrics.Metrics;
+import wpds.metrics.MetricsRegistry;
+import wpds.metrics.Timer;
+
+/**
+ * The metrics a {@link WeightedBoomerang} instance reports to the {@link Metrics#registry()}. The
+ * number of queries spawned per root query is the ratio of {@code boomerang_queries_total} and
+ * {@code boomerang_query_roots_total}, queries are not used as labels.
+ */
+class BoomerangMetrics {
+  final Counter forwardCallRules;
+  final Counter forwardFieldRules;
+  final Counter backwardCallRules;
+  final Counter backwardFieldRules;
+  final Counter forwardCallTransitions;
+  final Counter forwardFieldTransitions;
+  final Counter backwardCallTransitions;
+  final Counter backwardFieldTransitions;
+  final Counter forwardQueries;
+  final Counter backwardQueries;
+  final Counter forwardRoots;
+  final Counter backwardRoots;
+  final Counter poisActivated;
+  final Timer forwardQueryTime;
+  final Timer backwardQueryTime;
+  final Gauge solvers;
+  final Gauge retainedBytes;
+
+  BoomerangMetrics() {
+    MetricsRegistry registry = Metrics.registry();
+    String rules = "boomerang_rules_added_total";
+    String rulesHelp = "Rules added to the pushdown systems of the solvers";
+    forwardCallRules = registry.counter(rules, rulesHelp, "pds", "call", "direction", "forward");
+    forwardFieldRules = registry.counter(rules, rulesHelp, "pds", "field", "direction", "forward");
+    backwardCallRules = registry.counter(rules, rulesHelp, "pds", "call", "direction", "backward");
+    backwardFieldRules =
+        registry.counter(rules, rulesHelp, "pds", "field", "direction", "backward");
+    String transitions = "boomerang_transitions_added_total";
+    String transitionsHelp = "Transitions added to the automata of the solvers";
+    forwardCallTransitions =
+        registry.counter(transitions, transitionsHelp, "automaton", "call", "direction", "forward");
+    forwardFieldTransitions =
+        registry.counter(
+            transitions, transitionsHelp, "automaton", "field", "direction", "forward");
+    backwardCallTransitions =
+        registry.counter(
+            transitions, transitionsHelp, "automaton", "call", "direction", "backward");
+    backwardFieldTransitions =
+        registry.counter(
+            transitions, transitionsHelp, "automaton", "field", "direction", "backward");
+    String queries = "boomerang_queries_total";
+    String queriesHelp = "Queries spawned, including the root queries";
+    forwardQueries = registry.counter(queries, queriesHelp, "direction", "forward");
+    backwardQueries = registry.counter(queries, queriesHelp, "direction", "backward");
+    String roots = "boomerang_query_roots_total";
+    String rootsHelp = "Root queries of the query graphs, i.e. queries solved by clients";
+    forwardRoots = registry.counter(roots, rootsHelp, "direction", "forward");
+    backwardRoots = registry.counter(roots, rootsHelp, "direction", "backward");
+    poisActivated =
+        registry.counter("boomerang_pois_activated_total", "Field import POIs activated");
+    String time = "boomerang_query_duration_seconds";
+    String timeHelp = "Time to solve a root query";
+    forwardQueryTime = registry.timer(time, timeHelp, "direction", "forward");
+    backwardQueryTime = registry.timer(time, timeHelp, "direction", "backward");
+    // Both gauges sum over the instances that have not been garbage collected yet.
+    solvers = registry.gauge("boomerang_solvers", "Solvers of the live instances");
+    retainedBytes =
+        registry.gauge(
+            "boomerang_retained_bytes",
+            "Estimated bytes retained by the live instances, as of their last query");
+  }
+}
@@ -59,6 +59,11 @@ public interface BoomerangOptions {
 
   int analysisTimeoutMS();
 
+  /** Limits on the resources of a single query beyond {@link #analysisTimeoutMS()}. */
+  default QueryBudget queryBudget() {
+    return QueryBudget.unlimited();
+  }
+
   // TODO remove icfg here.
   Optional<AllocVal> getAllocationVal(
       Method m, Statement stmt, Val fact, ObservableICFG<Statement, Method> icfg);
@@ -89,8 +94,30 @@ public interface BoomerangOptions {
 
   int maxUnbalancedCallDepth();
 
+  /**
+   * Stores the transitions of the call and field automata in int-indexed arrays rather than in
+   * hash maps of transition objects. Trades some lookup speed for a smaller heap footprint.
+   */
+  boolean compactAutomata();
+
+  /**
+   * Cache that keeps call and field summaries across {@link WeightedBoomerang} instances. Only
+   * used when {@link #callSummaries()} or {@link #fieldSummaries()} are enabled, the instance must
+   * supply a domain for its weights, see {@link WeightedBoomerang#getSummaryCacheDomain()}.
+   */
+  Optional<SummaryCache> summaryCache();
+
   boolean onTheFlyControlFlow();
 
+  /**
+   * Propagates data-flow facts sparsely, i.e. directly from one statement that is relevant for the
+   * fact to the next one, see {@link boomerang.controlflowgraph.RelevantStatements}. Reduces the
+   * number of rules and transitions on long methods. The results are the same, except that facts
+   * are not reported at statements that neither define nor use them. Requires the static control
+   * flow graph, i.e. {@link #onTheFlyControlFlow()} disabled.
+   */
+  boolean sparsePropagation();
+
   boolean ignoreInnerClassFields();
 
   boolean trackPathConditions();
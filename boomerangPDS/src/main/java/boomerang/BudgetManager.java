@@ -0,0 +1,86 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+import boomerang.stats.IBoomerangStats;
+import com.google.common.base.Stopwatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the transitions, rules and solvers of the current query of a {@link WeightedBoomerang}
+ * and throws a {@link BoomerangBudgetExceededException} once a limit of the {@link QueryBudget} is
+ * exceeded. Reading the allocated bytes is comparably expensive and only done every {@link
+ * QueryBudget#getCheckInterval()} transitions.
+ */
+class BudgetManager {
+  private final QueryBudget budget;
+  private final Stopwatch analysisWatch;
+  private final IBoomerangStats<?> stats;
+  private long transitions;
+  private long rules;
+  private long solvers;
+  private long allocatedBytesAtStart;
+  private int untilCheck;
+
+  BudgetManager(QueryBudget budget, Stopwatch analysisWatch, IBoomerangStats<?> stats) {
+    this.budget = budget;
+    this.analysisWatch = analysisWatch;
+    this.stats = stats;
+  }
+
+  /** Resets the counters, called when a query is solved. */
+  void start() {
+    transitions = 0;
+    rules = 0;
+    solvers = 0;
+    allocatedBytesAtStart = Util.getAllocatedBytes();
+    untilCheck = budget.getCheckInterval();
+  }
+
+  /**
+   * Counts a transition.
+   *
+   * @return true once every check interval, the caller then checks the elapsed time.
+   */
+  boolean transitionAdded() {
+    check(++transitions, budget.getMaxTransitions(), "transitions");
+    if (--untilCheck > 0) {
+      return false;
+    }
+    untilCheck = budget.getCheckInterval();
+    if (budget.getMaxAllocatedBytes() > 0 && Util.isAllocatedBytesSupported()) {
+      check(allocatedBytes(), budget.getMaxAllocatedBytes(), "bytes");
+    }
+    return true;
+  }
+
+  /** @return the bytes allocated by the current thread since the query was started. */
+  long allocatedBytes() {
+    return Util.getAllocatedBytes() - allocatedBytesAtStart;
+  }
+
+  void ruleAdded() {
+    check(++rules, budget.getMaxRules(), "rules");
+  }
+
+  void solverCreated() {
+    check(++solvers, budget.getMaxSolvers(), "solvers");
+  }
+
+  private void check(long value, long max, String limit) {
+    if (max > 0 && value > max) {
+      if (analysisWatch.isRunning()) analysisWatch.stop();
+      throw new BoomerangBudgetExceededException(
+          limit, max, analysisWatch.elapsed(TimeUnit.MILLISECONDS), stats);
+    }
+  }
+}
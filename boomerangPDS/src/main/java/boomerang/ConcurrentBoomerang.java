@@ -0,0 +1,234 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+import boomerang.results.AbstractBoomerangResults;
+import boomerang.scene.CallGraph;
+import boomerang.scene.Method;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import wpds.impl.Weight;
+
+/**
+ * Solves a batch of queries on multiple threads.
+ *
+ * <p>The solvers, automata and the query graph of a {@link WeightedBoomerang} instance are not
+ * thread-safe. Each thread therefore owns a {@link WeightedBoomerang} instance that allows multiple
+ * queries, such that the sub-queries derived by its queries (e.g. the backward queries triggered
+ * at points of indirection and the forward queries of the allocation sites they find) are solved
+ * only once per thread. The queries of a batch are grouped by the method they start in, and idle
+ * threads take the next group from a shared queue, largest groups first.
+ *
+ * <p>Queries are deduplicated across threads: every query of the batch and every sub-query a thread
+ * derives is owned by the first thread that solves it. A query of the batch that is already owned
+ * by another thread is not solved again but deferred, and its results are collected from the
+ * owning instance once all threads finished.
+ *
+ * <p>All instances share the {@link CallGraph}, which is why the factory should create them on an
+ * {@link CallGraph#immutableCopy()}.
+ */
+public class ConcurrentBoomerang<W extends Weight> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentBoomerang.class);
+
+  private final Supplier<? extends WeightedBoomerang<W>> solverFactory;
+  private final int numberOfThreads;
+  private List<WeightedBoomerang<W>> solvers = Collections.emptyList();
+
+  /**
+   * @param solverFactory creates the solver of one thread, invoked once per thread and batch.
+   * @param numberOfThreads number of threads solving queries in parallel.
+   */
+  public ConcurrentBoomerang(
+      Supplier<? extends WeightedBoomerang<W>> solverFactory, int numberOfThreads) {
+    if (numberOfThreads < 1) {
+      throw new IllegalArgumentException("Number of threads must be positive: " + numberOfThreads);
+    }
+    this.solverFactory = solverFactory;
+    this.numberOfThreads = numberOfThreads;
+  }
+
+  /**
+   * Solves the forward and backward queries of the batch. Queries that are contained more than
+   * once are solved once. Results must only be inspected after this method returned, and only until
+   * the next batch is solved: the solvers of the previous batch are released when a new batch
+   * starts.
+   *
+   * @return the results of each query of the batch.
+   */
+  public Map<Query, AbstractBoomerangResults<W>> solve(Collection<? extends Query> queries) {
+    unregisterAllListeners();
+    solvers = Collections.emptyList();
+
+    Multimap<Method, Query> byMethod = LinkedHashMultimap.create();
+    for (Query q : queries) {
+      if (!(q instanceof ForwardQuery) && !(q instanceof BackwardQuery)) {
+        throw new IllegalArgumentException("Unsupported query type: " + q);
+      }
+      byMethod.put(q.stmt().getMethod(), q);
+    }
+    List<Collection<Query>> groups = Lists.newArrayList(byMethod.asMap().values());
+    groups.sort(Comparator.<Collection<Query>>comparingInt(Collection::size).reversed());
+    Queue<Collection<Query>> pending = new ConcurrentLinkedQueue<>(groups);
+    ConcurrentMap<Query, Worker> owners = Maps.newConcurrentMap();
+
+    int threads = Math.min(numberOfThreads, Math.max(groups.size(), 1));
+    LOGGER.debug("Solving {} queries on {} threads", byMethod.size(), threads);
+    List<Worker> workers = Lists.newArrayList();
+    for (int i = 0; i < threads; i++) {
+      WeightedBoomerang<W> solver = solverFactory.get();
+      if (!solver.getOptions().allowMultipleQueries()) {
+        throw new IllegalStateException("Solvers of a batch must allow multiple queries");
+      }
+      workers.add(new Worker(solver, pending, owners));
+    }
+    List<WeightedBoomerang<W>> batch = Lists.newArrayList();
+    for (Worker w : workers) {
+      batch.add(w.solver);
+    }
+    solvers = batch;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      invokeAll(executor, workers);
+      // Each deferred query is owned by another worker, whose solver has already computed it.
+      ListMultimap<Worker, Query> deferred = ArrayListMultimap.create();
+      for (Worker w : workers) {
+        for (Query q : w.deferred) {
+          deferred.put(owners.get(q), q);
+        }
+      }
+      List<Callable<Void>> collect = Lists.newArrayList();
+      for (Map.Entry<Worker, List<Query>> e : Multimaps.asMap(deferred).entrySet()) {
+        collect.add(() -> e.getKey().solveAll(e.getValue()));
+      }
+      invokeAll(executor, collect);
+      LOGGER.debug("Deduplicated {} queries across threads", deferred.size());
+
+      Map<Query, AbstractBoomerangResults<W>> results = Maps.newHashMap();
+      for (Worker w : workers) {
+        results.putAll(w.results);
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void invokeAll(
+      ExecutorService executor, Collection<? extends Callable<Void>> tasks) {
+    try {
+      for (Future<Void> f : executor.invokeAll(tasks)) {
+        f.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while solving queries", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /** The solvers of the last batch, one per thread. */
+  public List<WeightedBoomerang<W>> getSolvers() {
+    return solvers;
+  }
+
+  /** Unregisters the listeners of all solvers, call once the results are no longer inspected. */
+  public void unregisterAllListeners() {
+    for (WeightedBoomerang<W> solver : solvers) {
+      solver.unregisterAllListeners();
+    }
+  }
+
+  /** Solves groups of queries on one {@link WeightedBoomerang} instance until none is pending. */
+  private class Worker implements Callable<Void> {
+    private final WeightedBoomerang<W> solver;
+    private final Queue<Collection<Query>> pending;
+    private final ConcurrentMap<Query, Worker> owners;
+    private final Map<Query, AbstractBoomerangResults<W>> results = Maps.newHashMap();
+    private final List<Query> deferred = Lists.newArrayList();
+    private int publishedBackwardQueries;
+
+    private Worker(
+        WeightedBoomerang<W> solver,
+        Queue<Collection<Query>> pending,
+        ConcurrentMap<Query, Worker> owners) {
+      this.solver = solver;
+      this.pending = pending;
+      this.owners = owners;
+      // Called on the thread of this worker for every forward query its solver derives.
+      solver.registerSolverCreationListener((query, s) -> owners.putIfAbsent(query, this));
+    }
+
+    @Override
+    public Void call() {
+      Collection<Query> group;
+      while ((group = pending.poll()) != null) {
+        for (Query q : group) {
+          Worker owner = owners.putIfAbsent(q, this);
+          if (owner == null || owner == this) {
+            solve(q);
+          } else {
+            deferred.add(q);
+          }
+        }
+      }
+      return null;
+    }
+
+    private Void solveAll(List<Query> queries) {
+      for (Query q : queries) {
+        solve(q);
+      }
+      return null;
+    }
+
+    private void solve(Query q) {
+      if (q instanceof ForwardQuery) {
+        results.put(q, solver.solve((ForwardQuery) q));
+      } else {
+        results.put(q, solver.solve((BackwardQuery) q));
+      }
+      Map<BackwardQuery, ?> backwardSolvers = solver.getBackwardSolvers();
+      if (backwardSolvers.size() != publishedBackwardQueries) {
+        publishedBackwardQueries = backwardSolvers.size();
+        for (BackwardQuery derived : backwardSolvers.keySet()) {
+          owners.putIfAbsent(derived, this);
+        }
+      }
+    }
+  }
+}
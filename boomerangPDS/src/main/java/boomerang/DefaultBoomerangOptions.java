@@ -153,6 +153,16 @@ public class DefaultBoomerangOptions implements BoomerangOptions {
     return -1;
   }
 
+  @Override
+  public boolean compactAutomata() {
+    return false;
+  }
+
+  @Override
+  public Optional<SummaryCache> summaryCache() {
+    return Optional.empty();
+  }
+
   @Override
   public int maxFieldDepth() {
     return -1;
@@ -163,6 +173,11 @@ public class DefaultBoomerangOptions implements BoomerangOptions {
     return false;
   }
 
+  @Override
+  public boolean sparsePropagation() {
+    return false;
+  }
+
   @Override
   public String toString() {
     Class<? extends DefaultBoomerangOptions> cls = this.getClass();
@@ -219,5 +234,10 @@ public class DefaultBoomerangOptions implements BoomerangOptions {
       throw new RuntimeException(
           "InvalidCombinations of Options, Path Conditions must be ables when pruning path conditions");
     }
+    if (sparsePropagation() && onTheFlyControlFlow()) {
+      throw new RuntimeException(
+          "InvalidCombinations of Options, sparse propagation requires the static control flow "
+              + "graph");
+    }
   }
 }
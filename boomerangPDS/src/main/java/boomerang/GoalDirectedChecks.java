@@ -0,0 +1,130 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+import boomerang.results.BackwardBoomerangResults;
+import boomerang.results.ResultsListener;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import boomerang.util.AccessPath;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import wpds.impl.Weight;
+
+/**
+ * Yes/no questions about the points-to sets computed by a {@link WeightedBoomerang} instance. A
+ * check solves a backward query and observes its results through a {@link ResultsListener}. As soon
+ * as the answer is {@link Answer#YES}, the query is stopped by {@link WeightedBoomerang#cancel()};
+ * only a {@link Answer#NO} requires the fixpoint.
+ *
+ * <p>Results of earlier checks are kept, a check that is already decided by them does not solve
+ * again. Several checks on the same instance require {@link
+ * BoomerangOptions#allowMultipleQueries()}. As after a timeout, the automata of a stopped query are
+ * not saturated. Once a check has been stopped or has timed out, later checks on the same instance
+ * therefore answer {@link Answer#UNKNOWN} instead of {@link Answer#NO}.
+ */
+public class GoalDirectedChecks<W extends Weight> {
+
+  public enum Answer {
+    YES,
+    NO,
+    /**
+     * The query timed out before the answer was decided, or an earlier check on the same instance
+     * was stopped or timed out.
+     */
+    UNKNOWN
+  }
+
+  private final WeightedBoomerang<W> solver;
+  private final Multimap<BackwardQuery, ForwardQuery> allocationSites = HashMultimap.create();
+  private final Multimap<BackwardQuery, AccessPath> aliases = HashMultimap.create();
+  private BackwardQuery query;
+  private BooleanSupplier goal;
+  // Set once a query of this instance was cancelled or timed out, its automata are incomplete.
+  private boolean incomplete;
+
+  public GoalDirectedChecks(WeightedBoomerang<W> solver) {
+    this.solver = solver;
+    solver.registerResultsListener(
+        new ResultsListener<W>() {
+          @Override
+          public void onAllocationSiteFound(BackwardQuery query, ForwardQuery allocationSite) {
+            allocationSites.put(query, allocationSite);
+            checkGoal(query);
+          }
+
+          @Override
+          public void onAliasFound(
+              BackwardQuery query, ForwardQuery allocationSite, AccessPath alias) {
+            aliases.put(query, alias);
+            checkGoal(query);
+          }
+        });
+  }
+
+  /** Does the variable of the query point to the given allocation site? */
+  public Answer pointsTo(BackwardQuery query, ForwardQuery allocationSite) {
+    return decide(query, () -> allocationSites.containsEntry(query, allocationSite));
+  }
+
+  /** Does the variable of the query point to any allocation site accepted by the predicate? */
+  public Answer pointsTo(BackwardQuery query, Predicate<ForwardQuery> allocationSite) {
+    return decide(query, () -> allocationSites.get(query).stream().anyMatch(allocationSite));
+  }
+
+  /** Does the variable of the query point to an allocation of a subtype of the given type? */
+  public Answer pointsToAllocationOfType(BackwardQuery query, String type) {
+    return pointsTo(query, allocationSite -> allocationSite.getType().isSubtypeOf(type));
+  }
+
+  /** May the variables a and b alias at the statement? */
+  public Answer mayAlias(Statement stmt, Val a, Val b) {
+    BackwardQuery query = BackwardQuery.make(stmt, a);
+    return decide(
+        query,
+        () ->
+            aliases.get(query).stream()
+                .anyMatch(alias -> alias.getBase().equals(b) && alias.getFields().isEmpty()));
+  }
+
+  private Answer decide(BackwardQuery query, BooleanSupplier goal) {
+    if (goal.getAsBoolean()) {
+      return Answer.YES;
+    }
+    this.query = query;
+    this.goal = goal;
+    try {
+      BackwardBoomerangResults<W> results = solver.solve(query);
+      if (results.isTimedout()) {
+        incomplete = true;
+      }
+      if (goal.getAsBoolean()) {
+        return Answer.YES;
+      }
+      return incomplete ? Answer.UNKNOWN : Answer.NO;
+    } finally {
+      this.query = null;
+      this.goal = null;
+    }
+  }
+
+  private void checkGoal(BackwardQuery query) {
+    if (goal != null && query.equals(this.query) && goal.getAsBoolean()) {
+      goal = null;
+      // Even if the query terminates before it observes the cancellation.
+      incomplete = true;
+      solver.cancel();
+    }
+  }
+}
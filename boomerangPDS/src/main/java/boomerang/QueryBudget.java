@@ -0,0 +1,112 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+/**
+ * Limits on the resources a single query of a {@link WeightedBoomerang} may use, in addition to
+ * {@link BoomerangOptions#analysisTimeoutMS()}. A limit that is not positive is disabled. A query
+ * that exceeds a limit terminates like a query that times out, see {@link
+ * BoomerangBudgetExceededException}.
+ *
+ * <p>Transitions, rules and solvers are counted exactly. The allocated bytes of the solving thread
+ * and the elapsed time are only checked every {@link #getCheckInterval()} transitions.
+ */
+public class QueryBudget {
+  private static final QueryBudget UNLIMITED = new QueryBudget(0, 0, 0, 0, 1000);
+
+  private final long maxTransitions;
+  private final long maxRules;
+  private final long maxSolvers;
+  private final long maxAllocatedBytes;
+  private final int checkInterval;
+
+  private QueryBudget(
+      long maxTransitions,
+      long maxRules,
+      long maxSolvers,
+      long maxAllocatedBytes,
+      int checkInterval) {
+    this.maxTransitions = maxTransitions;
+    this.maxRules = maxRules;
+    this.maxSolvers = maxSolvers;
+    this.maxAllocatedBytes = maxAllocatedBytes;
+    this.checkInterval = checkInterval;
+  }
+
+  public static QueryBudget unlimited() {
+    return UNLIMITED;
+  }
+
+  /** Limits the transitions added to the call and field automata of all solvers. */
+  public QueryBudget withMaxTransitions(long maxTransitions) {
+    return new QueryBudget(maxTransitions, maxRules, maxSolvers, maxAllocatedBytes, checkInterval);
+  }
+
+  /** Limits the call and field rules added to the pushdown systems of all solvers. */
+  public QueryBudget withMaxRules(long maxRules) {
+    return new QueryBudget(maxTransitions, maxRules, maxSolvers, maxAllocatedBytes, checkInterval);
+  }
+
+  /** Limits the forward and backward solvers that are created. */
+  public QueryBudget withMaxSolvers(long maxSolvers) {
+    return new QueryBudget(maxTransitions, maxRules, maxSolvers, maxAllocatedBytes, checkInterval);
+  }
+
+  /**
+   * Limits the bytes allocated by the thread that solves the query. Ignored if the JVM does not
+   * support measuring the allocated bytes of a thread.
+   */
+  public QueryBudget withMaxAllocatedBytes(long maxAllocatedBytes) {
+    return new QueryBudget(maxTransitions, maxRules, maxSolvers, maxAllocatedBytes, checkInterval);
+  }
+
+  /** Sets the number of transitions after which the allocated bytes and elapsed time are read. */
+  public QueryBudget withCheckInterval(int checkInterval) {
+    if (checkInterval <= 0) {
+      throw new IllegalArgumentException("Check interval must be positive: " + checkInterval);
+    }
+    return new QueryBudget(maxTransitions, maxRules, maxSolvers, maxAllocatedBytes, checkInterval);
+  }
+
+  public long getMaxTransitions() {
+    return maxTransitions;
+  }
+
+  public long getMaxRules() {
+    return maxRules;
+  }
+
+  public long getMaxSolvers() {
+    return maxSolvers;
+  }
+
+  public long getMaxAllocatedBytes() {
+    return maxAllocatedBytes;
+  }
+
+  public int getCheckInterval() {
+    return checkInterval;
+  }
+
+  @Override
+  public String toString() {
+    return "QueryBudget{transitions="
+        + maxTransitions
+        + ", rules="
+        + maxRules
+        + ", solvers="
+        + maxSolvers
+        + ", allocatedBytes="
+        + maxAllocatedBytes
+        + "}";
+  }
+}
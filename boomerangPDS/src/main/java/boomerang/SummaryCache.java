@@ -0,0 +1,281 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+import boomerang.scene.Method;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import sync.pds.solver.nodes.INode;
+import sync.pds.solver.nodes.Node;
+import wpds.impl.NestedWeightedPAutomatons;
+import wpds.impl.SummaryFile;
+import wpds.impl.Transition;
+import wpds.impl.Weight;
+import wpds.impl.WeightedPAutomaton;
+import wpds.interfaces.Location;
+import wpds.interfaces.State;
+
+/**
+ * Keeps the call and field summaries computed by {@link WeightedBoomerang} instances beyond the
+ * lifetime of the instance. Summaries are keyed by the method they summarize, the entry fact and a
+ * weight domain, see {@link WeightedBoomerang#getSummaryCacheDomain()}, and only take effect when
+ * call or field summaries are enabled in the {@link BoomerangOptions}.
+ *
+ * <p>An instance hands its summaries to the cache in {@link
+ * WeightedBoomerang#unregisterAllListeners()}. The cache only stores the weighted transitions of a
+ * summary, not the automaton, such that it does not keep the instance or its solvers alive. When
+ * another instance creates the summary automaton for the same key, the transitions are added to
+ * the new automaton. The cache holds at most the given number of summaries and evicts the least
+ * recently handed in ones.
+ *
+ * <p>The summaries can be kept across runs, see {@link #write} and {@link #preload}.
+ */
+public class SummaryCache {
+
+  public enum Kind {
+    FORWARD_CALL,
+    FORWARD_FIELD,
+    BACKWARD_CALL,
+    BACKWARD_FIELD;
+
+    /** The method of a summary of this kind of {@link WeightedBoomerang} with the given target. */
+    public Method methodOf(INode<?> target) {
+      if (this == FORWARD_CALL || this == BACKWARD_CALL) {
+        return ((Val) target.fact()).m();
+      }
+      return ((Statement) ((Node<?, ?>) target.fact()).stmt()).getMethod();
+    }
+  }
+
+  private final Cache<Key, Summary> summaries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public SummaryCache(long maximumSize) {
+    this.summaries = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * Creates the summaries of a single {@link WeightedBoomerang} instance, which are backed by this
+   * cache.
+   */
+  public <N extends Location, D extends State, W extends Weight> Summaries<N, D, W> summaries(
+      Kind kind, Object domain, Function<D, Method> methodOf) {
+    return new Summaries<>(kind, domain, methodOf);
+  }
+
+  /**
+   * Writes the cached summaries of the kind and domain to the file, replacing its content. The key
+   * of each summary in the file is the string of its method, such that {@link #preload} can skip
+   * the methods that changed in the meantime. Summaries that the format cannot encode are skipped.
+   *
+   * @return the number of summaries written.
+   */
+  @SuppressWarnings("unchecked")
+  public <N extends Location, D extends State, W extends Weight> int write(
+      Path file, Kind kind, Object domain, SummaryFile<N, D, W> format) throws IOException {
+    List<SummaryFile.Summary<N, D, W>> written = Lists.newArrayList();
+    for (Entry<Key, Summary> e : summaries.asMap().entrySet()) {
+      Key key = e.getKey();
+      if (key.kind == kind && key.domain.equals(domain)) {
+        Summary summary = e.getValue();
+        written.add(
+            new SummaryFile.Summary<>(
+                String.valueOf(key.method),
+                (D) key.entry,
+                (List<Transition<N, D>>) summary.transitions,
+                (List<W>) summary.weights,
+                Collections.emptyList()));
+      }
+    }
+    return format.write(file, written);
+  }
+
+  /**
+   * Adds the summaries of a file written by {@link #write} to the cache, under the given kind and
+   * domain. {@link WeightedBoomerang} instances with this cache then start from the preloaded
+   * summaries.
+   *
+   * @param methodOf the method of a summary, for the summaries of {@link WeightedBoomerang} see
+   *     {@link Kind#methodOf(INode)}.
+   * @param keyFilter accepts the string of the methods whose summaries are preloaded.
+   * @return the number of summaries preloaded.
+   * @throws IOException if the file cannot be read or decoded, no summary has been added then.
+   */
+  public <N extends Location, D extends State, W extends Weight> int preload(
+      Path file,
+      Kind kind,
+      Object domain,
+      SummaryFile<N, D, W> format,
+      Function<D, Method> methodOf,
+      Predicate<String> keyFilter)
+      throws IOException {
+    List<SummaryFile.Summary<N, D, W>> read = format.read(file, keyFilter);
+    for (SummaryFile.Summary<N, D, W> summary : read) {
+      D target = summary.getTarget();
+      summaries.put(
+          new Key(kind, domain, methodOf.apply(target), target),
+          new Summary(summary.getTransitions(), summary.getWeights()));
+    }
+    return read.size();
+  }
+
+  /** @return the number of summary automata that were created from a cached summary. */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /** @return the number of summary automata that were created without a cached summary. */
+  public long missCount() {
+    return misses.get();
+  }
+
+  public long evictionCount() {
+    return summaries.stats().evictionCount();
+  }
+
+  public long size() {
+    return summaries.size();
+  }
+
+  public void invalidateAll() {
+    summaries.invalidateAll();
+  }
+
+  @Override
+  public String toString() {
+    return "SummaryCache{size="
+        + size()
+        + ", hits="
+        + hitCount()
+        + ", misses="
+        + missCount()
+        + ", evictions="
+        + evictionCount()
+        + "}";
+  }
+
+  public class Summaries<N extends Location, D extends State, W extends Weight>
+      implements NestedWeightedPAutomatons<N, D, W> {
+    private final Kind kind;
+    private final Object domain;
+    private final Function<D, Method> methodOf;
+    private final Map<D, WeightedPAutomaton<N, D, W>> local = Maps.newHashMap();
+
+    private Summaries(Kind kind, Object domain, Function<D, Method> methodOf) {
+      this.kind = kind;
+      this.domain = domain;
+      this.methodOf = methodOf;
+    }
+
+    /** Adds the transitions of the cached summary for the target, if any, to the automaton. */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void putSummaryAutomaton(D target, WeightedPAutomaton<N, D, W> aut) {
+      if (local.put(target, aut) == aut) {
+        return;
+      }
+      Summary summary = summaries.getIfPresent(key(target));
+      if (summary == null) {
+        misses.incrementAndGet();
+        return;
+      }
+      hits.incrementAndGet();
+      for (int i = 0; i < summary.transitions.size(); i++) {
+        Transition<N, D> t = (Transition<N, D>) summary.transitions.get(i);
+        W w = (W) summary.weights.get(i);
+        if (w == null) {
+          aut.addTransition(t);
+        } else {
+          aut.addWeightForTransition(t, w);
+        }
+      }
+    }
+
+    @Override
+    public WeightedPAutomaton<N, D, W> getSummaryAutomaton(D target) {
+      return local.get(target);
+    }
+
+    /** Hands the transitions of the summaries to the cache. */
+    public void publish() {
+      for (Entry<D, WeightedPAutomaton<N, D, W>> e : local.entrySet()) {
+        WeightedPAutomaton<N, D, W> aut = e.getValue();
+        List<Transition<N, D>> transitions = Lists.newArrayList(aut.getTransitions());
+        List<W> weights = Lists.newArrayListWithCapacity(transitions.size());
+        for (Transition<N, D> t : transitions) {
+          weights.add(aut.getWeightFor(t));
+        }
+        summaries.put(key(e.getKey()), new Summary(transitions, weights));
+      }
+    }
+
+    private Key key(D target) {
+      return new Key(kind, domain, methodOf.apply(target), target);
+    }
+  }
+
+  /** The weighted transitions of a summary automaton, weights may be null. */
+  private static class Summary {
+    private final List<?> transitions;
+    private final List<?> weights;
+
+    Summary(List<?> transitions, List<?> weights) {
+      this.transitions = transitions;
+      this.weights = weights;
+    }
+  }
+
+  private static class Key {
+    private final Kind kind;
+    private final Object domain;
+    private final Method method;
+    private final Object entry;
+
+    Key(Kind kind, Object domain, Method method, Object entry) {
+      this.kind = kind;
+      this.domain = domain;
+      this.method = method;
+      this.entry = entry;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(kind, domain, method, entry);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (obj == null || getClass() != obj.getClass()) return false;
+      Key other = (Key) obj;
+      return kind == other.kind
+          && domain.equals(other.domain)
+          && Objects.equals(method, other.method)
+          && entry.equals(other.entry);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+import boomerang.scene.Field;
+import boomerang.scene.SceneCodec;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import sync.pds.solver.nodes.GeneratedState;
+import sync.pds.solver.nodes.INode;
+import sync.pds.solver.nodes.Node;
+import sync.pds.solver.nodes.SingleNode;
+import wpds.impl.SummaryFile;
+import wpds.impl.Weight;
+import wpds.impl.Weight.NoWeight;
+import wpds.interfaces.BinaryCodec;
+
+/**
+ * The {@link SummaryFile} formats of the call and field summaries of {@link WeightedBoomerang},
+ * see {@link SummaryCache#write} and {@link SummaryCache#preload}. States of the summary automata
+ * are encoded if they are {@link SingleNode}s or {@link GeneratedState}s, summaries containing
+ * other states are not written.
+ */
+public class SummaryCodecs {
+  private static final byte SINGLE_NODE = 0;
+  private static final byte GENERATED_STATE = 1;
+
+  public static final BinaryCodec<NoWeight> NO_WEIGHT =
+      new BinaryCodec<NoWeight>() {
+        @Override
+        public void write(NoWeight value, DataOutput out) throws IOException {
+          if (value != Weight.NO_WEIGHT_ONE) {
+            throw new IllegalArgumentException("Unknown weight " + value);
+          }
+          out.writeByte(0);
+        }
+
+        @Override
+        public NoWeight read(ByteBuffer in) {
+          in.get();
+          return Weight.NO_WEIGHT_ONE;
+        }
+      };
+
+  private SummaryCodecs() {}
+
+  /** The format of the call summaries, see {@link SummaryCache.Kind#FORWARD_CALL}. */
+  public static <W extends Weight> SummaryFile<Statement, INode<Val>, W> callSummaries(
+      SceneCodec scene, BinaryCodec<W> weights) {
+    return new SummaryFile<>(scene.statements(), states(scene.vals(), scene.statements()), weights);
+  }
+
+  /** The format of the field summaries, see {@link SummaryCache.Kind#FORWARD_FIELD}. */
+  public static <W extends Weight> SummaryFile<Field, INode<Node<Statement, Val>>, W>
+      fieldSummaries(SceneCodec scene, BinaryCodec<W> weights) {
+    return new SummaryFile<>(
+        scene.fields(), states(nodes(scene.statements(), scene.vals()), scene.fields()), weights);
+  }
+
+  /** Encodes {@link Node}s, subclasses are rejected. */
+  public static <S, F> BinaryCodec<Node<S, F>> nodes(
+      BinaryCodec<S> statements, BinaryCodec<F> facts) {
+    return new BinaryCodec<Node<S, F>>() {
+      @Override
+      public void write(Node<S, F> value, DataOutput out) throws IOException {
+        if (value.getClass() != Node.class) {
+          throw new IllegalArgumentException("Unknown node " + value);
+        }
+        statements.write(value.stmt(), out);
+        facts.write(value.fact(), out);
+      }
+
+      @Override
+      public Node<S, F> read(ByteBuffer in) {
+        S stmt = statements.read(in);
+        return new Node<>(stmt, facts.read(in));
+      }
+    };
+  }
+
+  /**
+   * Encodes the states of summary automata, i.e. {@link SingleNode}s and the {@link
+   * GeneratedState}s of the automata with locations of the given codec.
+   */
+  public static <F, L> BinaryCodec<INode<F>> states(
+      BinaryCodec<F> facts, BinaryCodec<L> locations) {
+    return new BinaryCodec<INode<F>>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void write(INode<F> value, DataOutput out) throws IOException {
+        if (value.getClass() == SingleNode.class) {
+          out.writeByte(SINGLE_NODE);
+          facts.write(value.fact(), out);
+        } else if (value.getClass() == GeneratedState.class) {
+          GeneratedState<F, L> state = (GeneratedState<F, L>) value;
+          out.writeByte(GENERATED_STATE);
+          write(state.node(), out);
+          locations.write(state.location(), out);
+        } else {
+          throw new IllegalArgumentException("Unknown state " + value);
+        }
+      }
+
+      @Override
+      public INode<F> read(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+          case SINGLE_NODE:
+            return new SingleNode<>(facts.read(in));
+          case GENERATED_STATE:
+            INode<F> node = read(in);
+            return new GeneratedState<>(node, locations.read(in));
+          default:
+            throw new IllegalArgumentException("Unknown state tag " + tag);
+        }
+      }
+    };
+  }
+}
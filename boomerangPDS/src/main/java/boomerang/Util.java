@@ -2,8 +2,10 @@ package boomerang;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 
 public class Util {
+  private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
   private static int icfgEdges;
 
   private static long getGcCount() {
@@ -43,17 +45,42 @@ public class Util {
   //        return icfgEdges;
   //    }
 
+  /**
+   * @return the used heap of the JVM. The value includes garbage that has not been collected yet,
+   *     for the memory of a single query see {@link #getAllocatedBytes()} and {@link
+   *     WeightedBoomerang#estimateRetainedBytes()}.
+   */
   public static long getReallyUsedMemory() {
-    return 0;
-    // long before = getGcCount();
-    // System.gc();
-    // while (getGcCount() == before)
-    // ;
-    // return getCurrentlyUsedMemory();
+    return getCurrentlyUsedMemory();
   }
 
   private static long getCurrentlyUsedMemory() {
     return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
     // + ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage().getUsed();
   }
+
+  /** @return true if {@link #getAllocatedBytes()} is supported by the JVM. */
+  public static boolean isAllocatedBytesSupported() {
+    return THREADS != null;
+  }
+
+  /**
+   * @return the bytes allocated by the current thread since it was started, or 0 if the JVM does
+   *     not support allocation counting. The counter is maintained by the JVM per thread, reading
+   *     it does not stop other threads.
+   */
+  public static long getAllocatedBytes() {
+    return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static com.sun.management.ThreadMXBean allocationCounter() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+      if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+        return counter;
+      }
+    }
+    return null;
+  }
 }
@@ -23,12 +23,16 @@ import boomerang.customize.BackwardEmptyCalleeFlow;
 import boomerang.customize.EmptyCalleeFlow;
 import boomerang.customize.ForwardEmptyCalleeFlow;
 import boomerang.debugger.Debugger;
+import boomerang.jfr.QueryEvent;
+import boomerang.jfr.SolverCreationEvent;
 import boomerang.poi.AbstractPOI;
 import boomerang.poi.CopyAccessPathChain;
 import boomerang.poi.ExecuteImportFieldStmtPOI;
 import boomerang.poi.PointOfIndirection;
 import boomerang.results.BackwardBoomerangResults;
 import boomerang.results.ForwardBoomerangResults;
+import boomerang.results.ResultsListener;
+import boomerang.results.ResultsStream;
 import boomerang.scene.AllocVal;
 import boomerang.scene.CallGraph;
 import boomerang.scene.CallSiteStatement;
@@ -50,6 +54,7 @@ import boomerang.solver.ForwardBoomerangSolver.UnknownElement;
 import boomerang.solver.StatementBasedFieldTransitionListener;
 import boomerang.solver.Strategies;
 import boomerang.stats.IBoomerangStats;
+import boomerang.stats.QueryMemory;
 import boomerang.util.DefaultValueMap;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.HashBasedTable;
@@ -62,6 +67,7 @@ import com.google.common.collect.Table.Cell;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
@@ -80,8 +86,10 @@ import wpds.impl.SummaryNestedWeightedPAutomatons;
 import wpds.impl.Transition;
 import wpds.impl.Weight;
 import wpds.impl.WeightedPAutomaton;
+import wpds.interfaces.Location;
 import wpds.interfaces.State;
 import wpds.interfaces.WPAStateListener;
+import wpds.metrics.Timer;
 
 public abstract class WeightedBoomerang<W extends Weight> {
   protected ObservableICFG<Statement, Method> icfg;
@@ -102,12 +110,43 @@ public abstract class WeightedBoomerang<W extends Weight> {
           final ForwardBoomerangSolver<W> solver;
           LOGGER.trace("Forward solving query: {}", key);
           forwardQueries++;
+          metrics.forwardQueries.increment();
+          SolverCreationEvent event = new SolverCreationEvent();
+          event.begin();
           solver = createForwardSolver(key);
 
           stats.registerSolver(key, solver);
-          solver.getCallAutomaton().registerListener((t, w, aut) -> checkTimeout());
-          solver.getFieldAutomaton().registerListener((t, w, aut) -> checkTimeout());
+          budget.solverCreated();
+          solver
+              .getCallAutomaton()
+              .registerListener(
+                  (t, w, aut) -> {
+                    metrics.forwardCallTransitions.increment();
+                    checkTimeout();
+                  });
+          solver
+              .getFieldAutomaton()
+              .registerListener(
+                  (t, w, aut) -> {
+                    metrics.forwardFieldTransitions.increment();
+                    checkTimeout();
+                  });
+          solver
+              .getCallPDS()
+              .registerUpdateListener(
+                  rule -> {
+                    metrics.forwardCallRules.increment();
+                    budget.ruleAdded();
+                  });
+          solver
+              .getFieldPDS()
+              .registerUpdateListener(
+                  rule -> {
+                    metrics.forwardFieldRules.increment();
+                    budget.ruleAdded();
+                  });
           onCreateSubSolver(key, solver);
+          commit(event, key, "forward");
           return solver;
         }
       };
@@ -118,10 +157,12 @@ public abstract class WeightedBoomerang<W extends Weight> {
       new DefaultValueMap<BackwardQuery, BackwardBoomerangSolver<W>>() {
         @Override
         protected BackwardBoomerangSolver<W> createItem(BackwardQuery key) {
-
+          metrics.backwardQueries.increment();
           if (backwardSolverIns != null) {
             return backwardSolverIns;
           }
+          SolverCreationEvent event = new SolverCreationEvent();
+          event.begin();
           BackwardBoomerangSolver<W> backwardSolver =
               new BackwardBoomerangSolver<W>(
                   bwicfg(),
@@ -183,14 +224,54 @@ public abstract class WeightedBoomerang<W extends Weight> {
                 }
                 addVisitedMethod(node.stmt().getMethod());
               });
+          budget.solverCreated();
+          backwardSolver
+              .getCallAutomaton()
+              .registerListener((t, w, aut) -> metrics.backwardCallTransitions.increment());
+          backwardSolver
+              .getFieldAutomaton()
+              .registerListener((t, w, aut) -> metrics.backwardFieldTransitions.increment());
+          backwardSolver
+              .getCallPDS()
+              .registerUpdateListener(
+                  rule -> {
+                    metrics.backwardCallRules.increment();
+                    budget.ruleAdded();
+                  });
+          backwardSolver
+              .getFieldPDS()
+              .registerUpdateListener(
+                  rule -> {
+                    metrics.backwardFieldRules.increment();
+                    budget.ruleAdded();
+                  });
           backwardSolverIns = backwardSolver;
+          commit(event, key, "backward");
           return backwardSolver;
         }
       };
   private BackwardBoomerangSolver<W> backwardSolverIns;
   private boolean solving;
-
+  private volatile boolean cancelled;
+  private final List<ResultsStream<W>> resultsStreams = Lists.newArrayList();
+  private final Set<BackwardQuery> backwardRoots = Sets.newLinkedHashSet();
+
+  /**
+   * Called for every transition that is added to an automaton. Checks the timeout and the {@link
+   * QueryBudget}; the elapsed time is only read every {@link QueryBudget#getCheckInterval()} calls.
+   */
   public void checkTimeout() {
+    if (cancelled) {
+      if (analysisWatch.isRunning()) analysisWatch.stop();
+      throw new BoomerangCancelledException(
+          analysisWatch.elapsed(TimeUnit.MILLISECONDS), stats);
+    }
+    if (budget.transitionAdded()) {
+      checkElapsedTime();
+    }
+  }
+
+  private void checkElapsedTime() {
     if (options.analysisTimeoutMS() > 0) {
       long elapsed = analysisWatch.elapsed(TimeUnit.MILLISECONDS);
       if (elapsed - lastTick > 15000) {
@@ -219,14 +300,13 @@ public abstract class WeightedBoomerang<W extends Weight> {
   private EmptyCalleeFlow forwardEmptyCalleeFlow = new ForwardEmptyCalleeFlow();
   private EmptyCalleeFlow backwardEmptyCalleeFlow = new BackwardEmptyCalleeFlow();
 
-  private NestedWeightedPAutomatons<Statement, INode<Val>, W> backwardCallSummaries =
-      new SummaryNestedWeightedPAutomatons<>();
-  private NestedWeightedPAutomatons<Field, INode<Node<Statement, Val>>, W> backwardFieldSummaries =
-      new SummaryNestedWeightedPAutomatons<>();
-  private NestedWeightedPAutomatons<Statement, INode<Val>, W> forwardCallSummaries =
-      new SummaryNestedWeightedPAutomatons<>();
-  private NestedWeightedPAutomatons<Field, INode<Node<Statement, Val>>, W> forwardFieldSummaries =
-      new SummaryNestedWeightedPAutomatons<>();
+  private final NestedWeightedPAutomatons<Statement, INode<Val>, W> backwardCallSummaries;
+  private final NestedWeightedPAutomatons<Field, INode<Node<Statement, Val>>, W>
+      backwardFieldSummaries;
+  private final NestedWeightedPAutomatons<Statement, INode<Val>, W> forwardCallSummaries;
+  private final NestedWeightedPAutomatons<Field, INode<Node<Statement, Val>>, W>
+      forwardFieldSummaries;
+  private final List<SummaryCache.Summaries<?, ?, W>> cachedSummaries = Lists.newArrayList();
   private DefaultValueMap<FieldWritePOI, FieldWritePOI> fieldWrites =
       new DefaultValueMap<FieldWritePOI, FieldWritePOI>() {
         @Override
@@ -237,6 +317,13 @@ public abstract class WeightedBoomerang<W extends Weight> {
       };
   protected final BoomerangOptions options;
   private Stopwatch analysisWatch = Stopwatch.createUnstarted();
+  private final BudgetManager budget;
+  private final BoomerangMetrics metrics = new BoomerangMetrics();
+  // The retained bytes gauge reads the last estimate and requests a new one, which the solving
+  // thread computes when its current query terminates. Estimating on the thread that reads the
+  // gauge would walk solvers that are being updated.
+  private volatile boolean retainedBytesRequested;
+  private volatile long reportedRetainedBytes;
   private final DataFlowScope dataFlowscope;
   private Strategies<W> strategies;
   private CallGraph callGraph;
@@ -246,6 +333,7 @@ public abstract class WeightedBoomerang<W extends Weight> {
     this.options = options;
     this.options.checkValid();
     this.stats = options.statsFactory();
+    this.budget = new BudgetManager(options.queryBudget(), analysisWatch, stats);
     this.dataFlowscope = scope;
 
     if (options.onTheFlyControlFlow()) {
@@ -262,6 +350,38 @@ public abstract class WeightedBoomerang<W extends Weight> {
     this.callGraph = cg;
     this.strategies = new Strategies<>(options, this);
     this.queryGraph = new QueryGraph<>(this);
+    this.forwardCallSummaries = createSummaries(SummaryCache.Kind.FORWARD_CALL);
+    this.forwardFieldSummaries = createSummaries(SummaryCache.Kind.FORWARD_FIELD);
+    this.backwardCallSummaries = createSummaries(SummaryCache.Kind.BACKWARD_CALL);
+    this.backwardFieldSummaries = createSummaries(SummaryCache.Kind.BACKWARD_FIELD);
+    metrics.solvers.track(this, WeightedBoomerang::numberOfSolvers);
+    metrics.retainedBytes.track(this, WeightedBoomerang::requestRetainedBytes);
+  }
+
+  private <N extends Location, D extends INode<?>>
+      NestedWeightedPAutomatons<N, D, W> createSummaries(SummaryCache.Kind kind) {
+    if (!options.summaryCache().isPresent()) {
+      return new SummaryNestedWeightedPAutomatons<>();
+    }
+    Object domain = getSummaryCacheDomain();
+    if (domain == null) {
+      throw new RuntimeException(
+          "A summary cache requires " + getClass() + " to override getSummaryCacheDomain()");
+    }
+    SummaryCache.Summaries<N, D, W> summaries =
+        options.summaryCache().get().summaries(kind, domain, kind::methodOf);
+    cachedSummaries.add(summaries);
+    return summaries;
+  }
+
+  /**
+   * Identifies the weights of this instance in the {@link SummaryCache}. Summaries are only reused
+   * by instances of an equal domain, two instances must therefore only share a domain if they
+   * compute the same weights for the same flows. An instance can only use a summary cache if it
+   * returns a domain, the default is null.
+   */
+  protected Object getSummaryCacheDomain() {
+    return null;
   }
 
   public WeightedBoomerang(CallGraph cg, DataFlowScope scope) {
@@ -508,6 +628,9 @@ public abstract class WeightedBoomerang<W extends Weight> {
     this.worklist.clear();
     this.activatedPoi.clear();
     this.fieldWrites.clear();
+    for (SummaryCache.Summaries<?, ?, W> summaries : cachedSummaries) {
+      summaries.publish();
+    }
   }
 
   public DefaultValueMap<BackwardQuery, BackwardBoomerangSolver<W>> getBackwardSolvers() {
@@ -775,6 +898,12 @@ public abstract class WeightedBoomerang<W extends Weight> {
           "One cannot re-use the same Boomerang solver for more than one query, unless option allowMultipleQueries is enabled. If allowMultipleQueries is enabled, ensure to call unregisterAllListeners() on this instance upon termination of all queries.");
     }
     solving = true;
+    cancelled = false;
+    budget.start();
+    metrics.forwardRoots.increment();
+    long start = metrics.forwardQueryTime.start();
+    QueryEvent event = new QueryEvent();
+    event.begin();
     if (!analysisWatch.isRunning()) {
       analysisWatch.start();
     }
@@ -800,6 +929,9 @@ public abstract class WeightedBoomerang<W extends Weight> {
     } catch (Throwable e) {
       LOGGER.error("Solving query crashed in {}", e);
     }
+    QueryMemory memory = queryMemory();
+    reportMetrics(metrics.forwardQueryTime, start);
+    commit(event, query, "forward", timedout, memory);
     if (!options.allowMultipleQueries()) {
       unregisterAllListeners();
     }
@@ -818,7 +950,8 @@ public abstract class WeightedBoomerang<W extends Weight> {
         visitedMethods,
         options.trackDataFlowPath(),
         options.prunePathConditions(),
-        options.trackImplicitFlows());
+        options.trackImplicitFlows(),
+        memory);
   }
 
   public BackwardBoomerangResults<W> solve(BackwardQuery query) {
@@ -831,12 +964,23 @@ public abstract class WeightedBoomerang<W extends Weight> {
           "One cannot re-use the same Boomerang solver for more than one query, unless option allowMultipleQueries is enabled. If allowMultipleQueries is enabled, ensure to call unregisterAllListeners() on this instance upon termination of all queries.");
     }
     solving = true;
+    cancelled = false;
+    budget.start();
+    metrics.backwardRoots.increment();
+    long start = metrics.backwardQueryTime.start();
+    QueryEvent event = new QueryEvent();
+    event.begin();
     if (timing && !analysisWatch.isRunning()) {
       analysisWatch.start();
     }
     boolean timedout = false;
     try {
       queryGraph.addRoot(query);
+      if (backwardRoots.add(query)) {
+        for (ResultsStream<W> stream : resultsStreams) {
+          stream.addBackwardQuery(query);
+        }
+      }
       LOGGER.trace("Starting backward analysis of: {}", query);
       backwardSolve(query);
 
@@ -848,6 +992,9 @@ public abstract class WeightedBoomerang<W extends Weight> {
     } catch (Throwable e) {
       LOGGER.error("Boomerang crashed in {} ", e);
     }
+    QueryMemory memory = queryMemory();
+    reportMetrics(metrics.backwardQueryTime, start);
+    commit(event, query, "backward", timedout, memory);
     if (!options.allowMultipleQueries()) {
       unregisterAllListeners();
     }
@@ -855,7 +1002,13 @@ public abstract class WeightedBoomerang<W extends Weight> {
       analysisWatch.stop();
     }
     return new BackwardBoomerangResults<W>(
-        query, timedout, this.queryToSolvers, backwardSolverIns, getStats(), analysisWatch);
+        query,
+        timedout,
+        this.queryToSolvers,
+        backwardSolverIns,
+        getStats(),
+        analysisWatch,
+        memory);
   }
 
   public void debugOutput() {
@@ -1055,6 +1208,7 @@ public abstract class WeightedBoomerang<W extends Weight> {
 
   protected void activateAllPois(SolverPair pair, INode<Node<Statement, Val>> start) {
     if (activatedPoi.put(pair, start)) {
+      metrics.poisActivated.increment();
       Collection<ExecuteImportFieldStmtPOI<W>> listeners = poiListeners.get(pair);
       for (ExecuteImportFieldStmtPOI<W> l : Lists.newArrayList(listeners)) {
         l.trigger(start);
@@ -1156,6 +1310,103 @@ public abstract class WeightedBoomerang<W extends Weight> {
     }
   }
 
+  /**
+   * Reports the results of all queries to the listener while they are computed. Results that are
+   * already known are reported upon registration. The results of a backward query are only
+   * reported for queries that are passed to {@link #solve(BackwardQuery)}.
+   */
+  public void registerResultsListener(ResultsListener<W> listener) {
+    for (ResultsStream<W> stream : resultsStreams) {
+      if (stream.getListener().equals(listener)) {
+        return;
+      }
+    }
+    ResultsStream<W> stream = new ResultsStream<>(listener);
+    resultsStreams.add(stream);
+    for (BackwardQuery query : backwardRoots) {
+      stream.addBackwardQuery(query);
+    }
+    registerSolverCreationListener(stream);
+  }
+
+  /**
+   * Stops the query that is currently solved, e.g. from a {@link ResultsListener} once enough is
+   * known. The query terminates like a query that times out and returns the partial results.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Estimates the bytes retained by the forward and backward solvers of this instance, including
+   * their automata, rules and summaries. The estimate is meant for capacity planning, it does not
+   * walk the object graph but visits every solver, so it is only computed when requested.
+   */
+  public long estimateRetainedBytes() {
+    Set<AbstractBoomerangSolver<W>> solvers = Sets.newIdentityHashSet();
+    solvers.addAll(queryToSolvers.values());
+    solvers.addAll(queryToBackwardSolvers.values());
+    Set<WeightedPAutomaton<?, ?, ?>> counted = Sets.newIdentityHashSet();
+    long bytes = 0;
+    for (AbstractBoomerangSolver<W> solver : solvers) {
+      bytes += solver.estimateRetainedBytes(counted);
+    }
+    return bytes;
+  }
+
+  /**
+   * The memory of the current query. The retained bytes cover all queries of this instance, as
+   * they share the solvers, and are estimated when first requested.
+   */
+  private QueryMemory queryMemory() {
+    return new QueryMemory(budget.allocatedBytes(), this::estimateRetainedBytes);
+  }
+
+  private void reportMetrics(Timer queryTime, long start) {
+    queryTime.stop(start);
+    if (retainedBytesRequested) {
+      retainedBytesRequested = false;
+      reportedRetainedBytes = estimateRetainedBytes();
+    }
+  }
+
+  /**
+   * Read by the retained bytes gauge, possibly from another thread. The estimate lags behind by the
+   * queries solved since the previous read.
+   */
+  private long requestRetainedBytes() {
+    retainedBytesRequested = true;
+    return reportedRetainedBytes;
+  }
+
+  /** Also read by the solvers gauge, possibly while another thread solves a query. */
+  private int numberOfSolvers() {
+    return queryToSolvers.size() + (backwardSolverIns != null ? 1 : 0);
+  }
+
+  private void commit(
+      QueryEvent event, Query query, String direction, boolean timedout, QueryMemory memory) {
+    if (event.shouldCommit()) {
+      event.query = query.toString();
+      event.direction = direction;
+      event.instance = System.identityHashCode(this);
+      event.timedOut = timedout;
+      event.solvers = numberOfSolvers();
+      event.allocatedBytes = memory.getAllocatedBytes();
+      event.retainedBytes = memory.getRetainedBytes();
+      event.commit();
+    }
+  }
+
+  private void commit(SolverCreationEvent event, Query query, String direction) {
+    if (event.shouldCommit()) {
+      event.query = query.toString();
+      event.direction = direction;
+      event.instance = System.identityHashCode(this);
+      event.commit();
+    }
+  }
+
   public Table<Statement, Val, W> getResults(ForwardQuery seed) {
     final Table<Statement, Val, W> results = HashBasedTable.create();
     WeightedPAutomaton<Statement, INode<Val>, W> fieldAut =
@@ -22,6 +22,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -47,7 +48,9 @@ public class BoomerangResolver implements ICallerCalleeResolutionStrategy {
   private static final String THREAD_RUN_SUB_SIGNATURE = "void run()";
 
   private static NoCalleeFoundFallbackOptions FALLBACK_OPTION = NoCalleeFoundFallbackOptions.BYPASS;
-  private static Multimap<DeclaredMethod, WrappedClass> didNotFindMethodLog = HashMultimap.create();
+  // Shared by all resolvers, which may run on different threads when seeds run in parallel.
+  private static Multimap<DeclaredMethod, WrappedClass> didNotFindMethodLog =
+      Multimaps.synchronizedMultimap(HashMultimap.<DeclaredMethod, WrappedClass>create());
 
   private CallGraph precomputedCallGraph;
   private WeightedBoomerang<? extends Weight> solver;
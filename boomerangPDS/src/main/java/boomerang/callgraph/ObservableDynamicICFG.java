@@ -1,6 +1,7 @@
 package boomerang.callgraph;
 
 import boomerang.controlflowgraph.ObservableControlFlowGraph;
+import boomerang.jfr.CallGraphEdgeEvent;
 import boomerang.scene.CallGraph;
 import boomerang.scene.CallGraph.Edge;
 import boomerang.scene.CallSiteStatement;
@@ -11,8 +12,11 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import java.util.Collection;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import wpds.metrics.Counter;
+import wpds.metrics.Metrics;
 
 /**
  * An interprocedural control-flow graph, for which caller-callee edges can be observed using {@link
@@ -41,6 +45,10 @@ public class ObservableDynamicICFG implements ObservableICFG<Statement, Method>
 
   private final ObservableControlFlowGraph cfg;
   private final ICallerCalleeResolutionStrategy resolutionStrategy;
+  private final Counter discoveredEdges =
+      Metrics.registry()
+          .counter(
+              "boomerang_callgraph_edges_total", "Call graph edges discovered during the analysis");
 
   public ObservableDynamicICFG(
       ObservableControlFlowGraph cfg, ICallerCalleeResolutionStrategy resolutionStrategy) {
@@ -125,20 +133,31 @@ public class ObservableDynamicICFG implements ObservableICFG<Statement, Method>
     if (!demandDrivenCallGraph.addEdge(edge)) {
       return false;
     }
+    discoveredEdges.increment();
+    CallGraphEdgeEvent event = new CallGraphEdgeEvent();
+    event.begin();
     logger.debug("Added call from unit '{}' to method '{}'", caller, callee);
     // Notify all interested listeners, so ..
     // .. CalleeListeners interested in callees of the caller or the CallGraphExtractor that is
     // interested in any
-    for (CalleeListener<Statement, Method> listener :
-        Lists.newArrayList(calleeListeners.get(caller))) {
+    List<CalleeListener<Statement, Method>> calleeListenersOfCaller =
+        Lists.newArrayList(calleeListeners.get(caller));
+    for (CalleeListener<Statement, Method> listener : calleeListenersOfCaller) {
       listener.onCalleeAdded(caller, callee);
     }
     // .. CallerListeners interested in callers of the callee or the CallGraphExtractor that is
     // interested in any
-    for (CallerListener<Statement, Method> listener :
-        Lists.newArrayList(callerListeners.get(callee))) {
+    List<CallerListener<Statement, Method>> callerListenersOfCallee =
+        Lists.newArrayList(callerListeners.get(callee));
+    for (CallerListener<Statement, Method> listener : callerListenersOfCallee) {
       listener.onCallerAdded(caller, callee);
     }
+    if (event.shouldCommit()) {
+      event.callSite = caller.toString();
+      event.callee = callee.toString();
+      event.listeners = calleeListenersOfCaller.size() + callerListenersOfCallee.size();
+      event.commit();
+    }
     return true;
   }
 
@@ -0,0 +1,146 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.controlflowgraph;
+
+import boomerang.scene.CallSiteStatement;
+import boomerang.scene.ControlFlowGraph;
+import boomerang.scene.Method;
+import boomerang.scene.ReturnSiteStatement;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import boomerang.scene.ValWithFalseVariable;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Sets;
+import com.google.common.collect.SetMultimap;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the statements at which the flow functions of the solvers may do more for a fact than
+ * pass it on unchanged, used for sparse propagation. A fact is propagated directly from one
+ * relevant statement to the next one instead of stepping through every statement in between.
+ *
+ * <p>A statement is relevant for every fact if it is a call site, return site, heap access, branch,
+ * merge point, throw, catch or exit statement of its method. Otherwise it is relevant for the
+ * values it defines or uses. Static fields, unbalanced values and values with a second variable
+ * are relevant at every statement. The index of a method is built on its first use and shared by
+ * all solvers.
+ */
+public class RelevantStatements {
+
+  /** Treats every statement as relevant, i.e. propagates densely. */
+  public static final RelevantStatements ALL =
+      new RelevantStatements() {
+        @Override
+        public boolean isRelevant(Statement stmt, Val fact) {
+          return true;
+        }
+      };
+
+  private final Map<Method, MethodIndex> methods = new ConcurrentHashMap<>();
+
+  public boolean isRelevant(Statement stmt, Val fact) {
+    if (fact.isStatic() || fact.isUnbalanced() || fact instanceof ValWithFalseVariable) {
+      return true;
+    }
+    Method method = stmt.getMethod();
+    if (method == null) {
+      return true;
+    }
+    return methods.computeIfAbsent(method, MethodIndex::new).isRelevant(stmt, fact);
+  }
+
+  /**
+   * @return the first statement relevant for the fact that is reached from the statement by
+   *     following unique successors, the statement itself if it is relevant.
+   */
+  public Statement nextRelevant(Statement stmt, Val fact) {
+    return skip(stmt, fact, true);
+  }
+
+  /**
+   * @return the first statement relevant for the fact that is reached from the statement by
+   *     following unique predecessors, the statement itself if it is relevant.
+   */
+  public Statement previousRelevant(Statement stmt, Val fact) {
+    return skip(stmt, fact, false);
+  }
+
+  private Statement skip(Statement stmt, Val fact, boolean forward) {
+    if (isRelevant(stmt, fact)) {
+      return stmt;
+    }
+    Statement curr = stmt;
+    // Irrelevant statements have a unique successor and predecessor, the bound only guards
+    // against unreachable cycles.
+    int bound = stmt.getMethod().getStatements().size();
+    do {
+      ControlFlowGraph cfg = curr.getMethod().getControlFlowGraph();
+      curr = (forward ? cfg.getSuccsOf(curr) : cfg.getPredsOf(curr)).iterator().next();
+    } while (--bound > 0 && !isRelevant(curr, fact));
+    return curr;
+  }
+
+  private static class MethodIndex {
+    private final Set<Statement> barriers = Sets.newHashSet();
+    private final SetMultimap<Statement, Val> mentioned = HashMultimap.create();
+
+    MethodIndex(Method method) {
+      ControlFlowGraph cfg = method.getControlFlowGraph();
+      for (Statement s : cfg.getStatements()) {
+        if (isBarrier(s, cfg)) {
+          barriers.add(s);
+        } else if (s.isAssign()) {
+          Val rightOp = s.getRightOp();
+          mentioned.put(s, s.getLeftOp());
+          mentioned.put(s, rightOp);
+          if (rightOp.isCast()) {
+            mentioned.put(s, rightOp.getCastOp());
+          } else if (rightOp.isInstanceOfExpr()) {
+            mentioned.put(s, rightOp.getInstanceOfOp());
+          } else if (rightOp.isLengthExpr()) {
+            mentioned.put(s, rightOp.getLengthOp());
+          }
+          if (s.isPhiStatement()) {
+            mentioned.putAll(s, s.getPhiVals());
+          }
+        }
+      }
+    }
+
+    private static boolean isBarrier(Statement s, ControlFlowGraph cfg) {
+      Collection<Statement> succs = cfg.getSuccsOf(s);
+      Collection<Statement> preds = cfg.getPredsOf(s);
+      return succs.size() != 1
+          || preds.size() != 1
+          || s instanceof CallSiteStatement
+          || s instanceof ReturnSiteStatement
+          || s.containsInvokeExpr()
+          || s.containsStaticFieldAccess()
+          || s.isFieldStore()
+          || s.isFieldLoad()
+          || s.isArrayStore()
+          || s.isArrayLoad()
+          || s.isIfStmt()
+          || s.isThrowStmt()
+          || s.isCatchStmt()
+          || s.isReturnStmt()
+          || s.isIdentityStmt();
+    }
+
+    boolean isRelevant(Statement stmt, Val fact) {
+      return barriers.contains(stmt) || mentioned.containsEntry(stmt, fact);
+    }
+  }
+}
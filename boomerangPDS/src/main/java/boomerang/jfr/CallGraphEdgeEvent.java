@@ -0,0 +1,39 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans the discovery of a call graph edge by the {@link
+ * boomerang.callgraph.ObservableDynamicICFG}, including the notification of the listeners. See
+ * {@link QueryEvent}.
+ */
+@Name("boomerang.CallGraphEdge")
+@Label("Boomerang Call Graph Edge")
+@Category({"Boomerang"})
+@Description("Discovery of a call graph edge")
+public class CallGraphEdgeEvent extends Event {
+  @Label("Call Site")
+  public String callSite;
+
+  @Label("Callee")
+  public String callee;
+
+  @Label("Listeners")
+  @Description("Callee and caller listeners notified about the edge")
+  public int listeners;
+}
@@ -0,0 +1,41 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans the activation of a {@link boomerang.poi.ExecuteImportFieldStmtPOI}, i.e. the registration
+ * of the listeners that import the field transitions, including the transitions imported
+ * immediately. See {@link QueryEvent}.
+ */
+@Name("boomerang.PoiActivation")
+@Label("Boomerang POI Activation")
+@Category({"Boomerang"})
+@Description("Activation of a field import point of indirection")
+public class PoiActivationEvent extends Event {
+  @Label("Statement")
+  public String statement;
+
+  @Label("Field")
+  public String field;
+
+  @Label("Base Query")
+  public String baseQuery;
+
+  @Label("Flow Query")
+  public String flowQuery;
+}
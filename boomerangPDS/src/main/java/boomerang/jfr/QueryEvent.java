@@ -0,0 +1,58 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans {@link boomerang.WeightedBoomerang#solve(boomerang.ForwardQuery)} and {@link
+ * boomerang.WeightedBoomerang#solve(boomerang.BackwardQuery)} of a root query.
+ *
+ * <p>The events of this package are disabled unless a recording enables them, e.g. by {@code
+ * -XX:StartFlightRecording}. Fields are only computed if {@link #shouldCommit()} holds, a disabled
+ * event costs neither an allocation nor a {@code toString()} of the query.
+ */
+@Name("boomerang.Query")
+@Label("Boomerang Query")
+@Category({"Boomerang"})
+@Description("Solving of a root query by a WeightedBoomerang instance")
+public class QueryEvent extends Event {
+  @Label("Query")
+  public String query;
+
+  @Label("Direction")
+  public String direction;
+
+  @Label("Instance")
+  @Description("Identity of the WeightedBoomerang instance")
+  public int instance;
+
+  @Label("Timed Out")
+  public boolean timedOut;
+
+  @Label("Solvers")
+  public int solvers;
+
+  @Label("Allocated")
+  @DataAmount
+  public long allocatedBytes;
+
+  @Label("Retained")
+  @Description("Estimated bytes retained by the solvers of the instance")
+  @DataAmount
+  public long retainedBytes;
+}
@@ -0,0 +1,35 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Spans the creation of a forward or backward solver for a (sub) query, see {@link QueryEvent}. */
+@Name("boomerang.SolverCreation")
+@Label("Boomerang Solver Creation")
+@Category({"Boomerang"})
+@Description("Creation of a solver for a query spawned by a WeightedBoomerang instance")
+public class SolverCreationEvent extends Event {
+  @Label("Query")
+  public String query;
+
+  @Label("Direction")
+  public String direction;
+
+  @Label("Instance")
+  @Description("Identity of the WeightedBoomerang instance")
+  public int instance;
+}
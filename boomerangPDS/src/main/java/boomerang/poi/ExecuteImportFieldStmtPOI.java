@@ -1,5 +1,6 @@
 package boomerang.poi;
 
+import boomerang.jfr.PoiActivationEvent;
 import boomerang.scene.Field;
 import boomerang.scene.ReturnSiteStatement;
 import boomerang.scene.Statement;
@@ -295,8 +296,17 @@ public abstract class ExecuteImportFieldStmtPOI<W extends Weight> {
     if (isLogEnabled()) {
       LOGGER.trace("POI: Propagation of {} flows to {}", baseSolver, flowSolver);
     }
+    PoiActivationEvent event = new PoiActivationEvent();
+    event.begin();
     handlingAtFieldStatements();
     handlingAtCallSites();
+    if (event.shouldCommit()) {
+      event.statement = curr.toString();
+      event.field = field.toString();
+      event.baseQuery = baseSolver.getQuery().toString();
+      event.flowQuery = flowSolver.getQuery().toString();
+      event.commit();
+    }
   }
 
   private void handlingAtFieldStatements() {
@@ -592,6 +602,11 @@ public abstract class ExecuteImportFieldStmtPOI<W extends Weight> {
         W w,
         WeightedPAutomaton<Field, INode<Node<Statement, Val>>, W> weightedPAutomaton) {}
 
+    @Override
+    public Object listenerKey() {
+      return flowSolver;
+    }
+
     @Override
     public int hashCode() {
       final int prime = 31;
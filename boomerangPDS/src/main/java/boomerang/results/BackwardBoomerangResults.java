@@ -3,7 +3,6 @@ package boomerang.results;
 import boomerang.BackwardQuery;
 import boomerang.ForwardQuery;
 import boomerang.Query;
-import boomerang.Util;
 import boomerang.scene.Field;
 import boomerang.scene.Statement;
 import boomerang.scene.Type;
@@ -11,6 +10,7 @@ import boomerang.scene.Val;
 import boomerang.solver.BackwardBoomerangSolver;
 import boomerang.solver.ForwardBoomerangSolver;
 import boomerang.stats.IBoomerangStats;
+import boomerang.stats.QueryMemory;
 import boomerang.util.AccessPath;
 import boomerang.util.DefaultValueMap;
 import com.google.common.base.Stopwatch;
@@ -34,7 +34,7 @@ public class BackwardBoomerangResults<W extends Weight> extends AbstractBoomeran
   private final boolean timedout;
   private final IBoomerangStats<W> stats;
   private Stopwatch analysisWatch;
-  private long maxMemory;
+  private final QueryMemory memory;
 
   public BackwardBoomerangResults(
       BackwardQuery query,
@@ -42,15 +42,16 @@ public class BackwardBoomerangResults<W extends Weight> extends AbstractBoomeran
       DefaultValueMap<ForwardQuery, ForwardBoomerangSolver<W>> queryToSolvers,
       BackwardBoomerangSolver<W> backwardSolver,
       IBoomerangStats<W> stats,
-      Stopwatch analysisWatch) {
+      Stopwatch analysisWatch,
+      QueryMemory memory) {
     super(queryToSolvers);
     this.query = query;
     this.timedout = timedout;
     this.stats = stats;
     this.analysisWatch = analysisWatch;
     this.backwardSolver = backwardSolver;
+    this.memory = memory;
     stats.terminated(query, this);
-    maxMemory = Util.getReallyUsedMemory();
   }
 
   public Map<ForwardQuery, Context> getAllocationSites() {
@@ -171,7 +172,15 @@ public class BackwardBoomerangResults<W extends Weight> extends AbstractBoomeran
     return dataFlowPath;
   }
 
+  /**
+   * @return the estimated bytes retained by the solvers, estimated when first requested, see
+   *     {@link QueryMemory#getRetainedBytes()}.
+   */
   public long getMaxMemory() {
-    return maxMemory;
+    return memory.getRetainedBytes();
+  }
+
+  public QueryMemory getMemory() {
+    return memory;
   }
 }
@@ -10,6 +10,7 @@ import com.google.common.collect.Sets;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import sync.pds.solver.SyncPDSUpdateListener;
 import sync.pds.solver.nodes.GeneratedState;
 import sync.pds.solver.nodes.INode;
@@ -23,12 +24,18 @@ import wpds.interfaces.WPAUpdateListener;
 
 public class ExtractAllAliasListener<W extends Weight>
     implements SyncPDSUpdateListener<Statement, Val> {
-  private final Set<AccessPath> results;
+  private final Consumer<AccessPath> results;
   private final Statement stmt;
   private AbstractBoomerangSolver<W> fwSolver;
 
   public ExtractAllAliasListener(
       AbstractBoomerangSolver<W> fwSolver, Set<AccessPath> results, Statement stmt) {
+    this(fwSolver, results::add, stmt);
+  }
+
+  /** Reports each access path to the consumer as soon as it is found. */
+  public ExtractAllAliasListener(
+      AbstractBoomerangSolver<W> fwSolver, Consumer<AccessPath> results, Statement stmt) {
     this.fwSolver = fwSolver;
     this.results = results;
     this.stmt = stmt;
@@ -54,7 +61,7 @@ public class ExtractAllAliasListener<W extends Weight>
                         && t.getStart().fact().fact().equals(base)) {
                       if (t.getLabel().equals(Field.empty())) {
                         if (t.getTarget().equals(allocNode)) {
-                          results.add(new AccessPath(base));
+                          results.accept(new AccessPath(base));
                         }
                       }
                       List<Transition<Field, INode<Node<Statement, Val>>>> fields =
@@ -79,7 +86,7 @@ public class ExtractAllAliasListener<W extends Weight>
 
     private INode<Node<Statement, Val>> allocNode;
     private Collection<Transition<Field, INode<Node<Statement, Val>>>> fields;
-    private Set<AccessPath> results;
+    private Consumer<AccessPath> results;
     private Val base;
 
     public ExtractAccessPathStateListener(
@@ -87,7 +94,7 @@ public class ExtractAllAliasListener<W extends Weight>
         INode<Node<Statement, Val>> allocNode,
         Val base,
         Collection<Transition<Field, INode<Node<Statement, Val>>>> fields,
-        Set<AccessPath> results) {
+        Consumer<AccessPath> results) {
       super(state);
       this.allocNode = allocNode;
       this.base = base;
@@ -111,7 +118,7 @@ public class ExtractAllAliasListener<W extends Weight>
       }
       if (t.getTarget().equals(allocNode)) {
 
-        results.add(new AccessPath(base, convert(copiedFields)));
+        results.accept(new AccessPath(base, convert(copiedFields)));
       }
       weightedPAutomaton.registerListener(
           new ExtractAccessPathStateListener(
@@ -181,6 +188,7 @@ public class ExtractAllAliasListener<W extends Weight>
     int result = 1;
     result = prime * result + ((fwSolver == null) ? 0 : fwSolver.hashCode());
     result = prime * result + ((stmt == null) ? 0 : stmt.hashCode());
+    result = prime * result + results.hashCode();
     return result;
   }
 
@@ -196,6 +204,6 @@ public class ExtractAllAliasListener<W extends Weight>
     if (stmt == null) {
       if (other.stmt != null) return false;
     } else if (!stmt.equals(other.stmt)) return false;
-    return true;
+    return results.equals(other.results);
   }
 }
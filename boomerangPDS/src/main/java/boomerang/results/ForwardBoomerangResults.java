@@ -1,7 +1,6 @@
 package boomerang.results;
 
 import boomerang.ForwardQuery;
-import boomerang.Util;
 import boomerang.callgraph.CallerListener;
 import boomerang.callgraph.ObservableICFG;
 import boomerang.controlflowgraph.ObservableControlFlowGraph;
@@ -17,6 +16,7 @@ import boomerang.scene.jimple.JimpleVal;
 import boomerang.solver.AbstractBoomerangSolver;
 import boomerang.solver.ForwardBoomerangSolver;
 import boomerang.stats.IBoomerangStats;
+import boomerang.stats.QueryMemory;
 import boomerang.util.DefaultValueMap;
 import boomerang.weights.DataFlowPathWeight;
 import boomerang.weights.PathConditionWeight.ConditionDomain;
@@ -47,7 +47,7 @@ public class ForwardBoomerangResults<W extends Weight> extends AbstractBoomerang
   private final boolean timedout;
   private final IBoomerangStats<W> stats;
   private Stopwatch analysisWatch;
-  private long maxMemory;
+  private final QueryMemory memory;
   private ObservableICFG<Statement, Method> icfg;
   private Set<Method> visitedMethods;
   private final boolean trackDataFlowPath;
@@ -66,7 +66,8 @@ public class ForwardBoomerangResults<W extends Weight> extends AbstractBoomerang
       Set<Method> visitedMethods,
       boolean trackDataFlowPath,
       boolean pruneContradictoryDataFlowPath,
-      boolean pruneImplictFlows) {
+      boolean pruneImplictFlows,
+      QueryMemory memory) {
     super(queryToSolvers);
     this.query = query;
     this.icfg = icfg;
@@ -78,8 +79,8 @@ public class ForwardBoomerangResults<W extends Weight> extends AbstractBoomerang
     this.trackDataFlowPath = trackDataFlowPath;
     this.pruneContradictoryDataFlowPath = pruneContradictoryDataFlowPath;
     this.pruneImplictFlows = pruneImplictFlows;
+    this.memory = memory;
     stats.terminated(query, this);
-    this.maxMemory = Util.getReallyUsedMemory();
   }
 
   public Stopwatch getAnalysisWatch() {
@@ -320,10 +321,10 @@ public class ForwardBoomerangResults<W extends Weight> extends AbstractBoomerang
             Evaluation eval = null;
             if (e.getValue().equals(ConditionDomain.TRUE)) {
               // Map first to JimpleVal
-              eval = ifStmt1.evaluate(new JimpleVal(IntConstant.v(1), e.getKey().m()));
+              eval = ifStmt1.evaluate(JimpleVal.of(IntConstant.v(1), e.getKey().m()));
             } else if (e.getValue().equals(ConditionDomain.FALSE)) {
               // Map first to JimpleVal
-              eval = ifStmt1.evaluate(new JimpleVal(IntConstant.v(0), e.getKey().m()));
+              eval = ifStmt1.evaluate(JimpleVal.of(IntConstant.v(0), e.getKey().m()));
             }
             if (eval != null) {
               if (mustBeVal.equals(ConditionDomain.FALSE)) {
@@ -388,7 +389,15 @@ public class ForwardBoomerangResults<W extends Weight> extends AbstractBoomerang
     return visitedMethods;
   }
 
+  /**
+   * @return the estimated bytes retained by the solvers, estimated when first requested, see
+   *     {@link QueryMemory#getRetainedBytes()}.
+   */
   public long getMaxMemory() {
-    return maxMemory;
+    return memory.getRetainedBytes();
+  }
+
+  public QueryMemory getMemory() {
+    return memory;
   }
 }
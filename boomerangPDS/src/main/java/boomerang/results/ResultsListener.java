@@ -0,0 +1,47 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.results;
+
+import boomerang.BackwardQuery;
+import boomerang.ForwardQuery;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import boomerang.util.AccessPath;
+import wpds.impl.Weight;
+
+/**
+ * Receives the results of the queries of a {@link boomerang.WeightedBoomerang} while they are
+ * computed, see {@link boomerang.WeightedBoomerang#registerResultsListener(ResultsListener)}. The
+ * callbacks are invoked from within the saturation of the automata; they must not block and may
+ * call {@link boomerang.WeightedBoomerang#cancel()} once enough is known.
+ */
+public interface ResultsListener<W extends Weight> {
+
+  /**
+   * An allocation site of the backward query is found, i.e. the forward query of the allocation
+   * site reaches the queried variable at the queried statement. Called once per allocation site.
+   */
+  default void onAllocationSiteFound(BackwardQuery query, ForwardQuery allocationSite) {}
+
+  /**
+   * An access path that points to the allocation site at the statement of the backward query is
+   * found. Called once per access path and allocation site.
+   */
+  default void onAliasFound(BackwardQuery query, ForwardQuery allocationSite, AccessPath alias) {}
+
+  /**
+   * The forward query reaches the value at the statement with the given weight. Called again with
+   * the combined weight whenever the weight for the statement and value changes, as in {@link
+   * AbstractBoomerangResults#asStatementValWeightTable(ForwardQuery)}.
+   */
+  default void onStatementReached(ForwardQuery query, Statement stmt, Val val, W weight) {}
+}
@@ -0,0 +1,223 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.results;
+
+import boomerang.BackwardQuery;
+import boomerang.ForwardQuery;
+import boomerang.Query;
+import boomerang.SolverCreationListener;
+import boomerang.scene.Field;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import boomerang.solver.AbstractBoomerangSolver;
+import boomerang.util.AccessPath;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import sync.pds.solver.nodes.INode;
+import sync.pds.solver.nodes.Node;
+import wpds.impl.Transition;
+import wpds.impl.Weight;
+import wpds.impl.WeightedPAutomaton;
+import wpds.interfaces.WPAStateListener;
+import wpds.interfaces.WPAUpdateListener;
+
+/**
+ * Feeds a {@link ResultsListener} from the automata of the forward solvers while they saturate.
+ * The listeners on the automata compute the same results as {@link
+ * BackwardBoomerangResults#getAllocationSites()}, {@link
+ * BackwardBoomerangResults#getAllAliases()} and {@link
+ * AbstractBoomerangResults#asStatementValWeightTable(ForwardQuery)}, but report each result as
+ * soon as it is found.
+ */
+public class ResultsStream<W extends Weight> implements SolverCreationListener<W> {
+
+  private final ResultsListener<W> listener;
+  private final Map<ForwardQuery, AbstractBoomerangSolver<W>> solvers = Maps.newLinkedHashMap();
+  private final List<BackwardQuery> backwardQueries = Lists.newArrayList();
+  private final Multimap<BackwardQuery, ForwardQuery> allocationSites = HashMultimap.create();
+  private final Multimap<Entry<BackwardQuery, ForwardQuery>, AccessPath> aliases =
+      HashMultimap.create();
+
+  public ResultsStream(ResultsListener<W> listener) {
+    this.listener = listener;
+  }
+
+  public ResultsListener<W> getListener() {
+    return listener;
+  }
+
+  @Override
+  public void onCreatedSolver(Query query, AbstractBoomerangSolver<W> solver) {
+    if (!(query instanceof ForwardQuery)) {
+      return;
+    }
+    ForwardQuery forwardQuery = (ForwardQuery) query;
+    solvers.put(forwardQuery, solver);
+    solver.getCallAutomaton().registerListener(new ReachedStatements(forwardQuery));
+    for (BackwardQuery backwardQuery : Lists.newArrayList(backwardQueries)) {
+      solver
+          .getFieldAutomaton()
+          .registerListener(new AllocationSiteListener(backwardQuery, forwardQuery));
+    }
+  }
+
+  /** Reports the allocation sites and aliases of the backward query from now on. */
+  public void addBackwardQuery(BackwardQuery query) {
+    if (backwardQueries.contains(query)) {
+      return;
+    }
+    backwardQueries.add(query);
+    for (Entry<ForwardQuery, AbstractBoomerangSolver<W>> e :
+        Lists.newArrayList(solvers.entrySet())) {
+      e.getValue()
+          .getFieldAutomaton()
+          .registerListener(new AllocationSiteListener(query, e.getKey()));
+    }
+  }
+
+  private void allocationSiteFound(BackwardQuery query, ForwardQuery allocationSite) {
+    if (!allocationSites.put(query, allocationSite)) {
+      return;
+    }
+    listener.onAllocationSiteFound(query, allocationSite);
+    AbstractBoomerangSolver<W> solver = solvers.get(allocationSite);
+    Entry<BackwardQuery, ForwardQuery> key = Maps.immutableEntry(query, allocationSite);
+    solver.registerListener(
+        new ExtractAllAliasListener<W>(
+            solver,
+            alias -> {
+              if (aliases.put(key, alias)) {
+                listener.onAliasFound(query, allocationSite, alias);
+              }
+            },
+            query.stmt()));
+  }
+
+  /** Detects allocation sites as {@link ExtractAllocationSiteStateListener} does. */
+  private class AllocationSiteListener
+      implements WPAUpdateListener<Field, INode<Node<Statement, Val>>, W> {
+    private final BackwardQuery query;
+    private final ForwardQuery allocationSite;
+
+    AllocationSiteListener(BackwardQuery query, ForwardQuery allocationSite) {
+      this.query = query;
+      this.allocationSite = allocationSite;
+    }
+
+    @Override
+    public void onWeightAdded(
+        Transition<Field, INode<Node<Statement, Val>>> t,
+        W w,
+        WeightedPAutomaton<Field, INode<Node<Statement, Val>>, W> aut) {
+      if (t.getLabel().equals(Field.empty())
+          && t.getStart().fact().equals(query.asNode())
+          && aut.getInitialStates().contains(t.getTarget())) {
+        allocationSiteFound(query, allocationSite);
+      }
+    }
+  }
+
+  /**
+   * Computes the weights of the transitions of the call automaton to its initial states, as {@link
+   * WeightedPAutomaton#getTransitionsToFinalWeights()} does.
+   */
+  private class ReachedStatements implements WPAUpdateListener<Statement, INode<Val>, W> {
+    private final ForwardQuery query;
+    private final Set<INode<Val>> initialStates = Sets.newHashSet();
+    private final Map<Transition<Statement, INode<Val>>, W> weights = Maps.newHashMap();
+
+    ReachedStatements(ForwardQuery query) {
+      this.query = query;
+    }
+
+    @Override
+    public void onWeightAdded(
+        Transition<Statement, INode<Val>> t,
+        W w,
+        WeightedPAutomaton<Statement, INode<Val>, W> aut) {
+      if (aut.getInitialStates().contains(t.getTarget()) && initialStates.add(t.getTarget())) {
+        aut.registerListener(new WeightListener(t.getTarget(), aut.getOne()));
+      }
+    }
+
+    private class WeightListener extends WPAStateListener<Statement, INode<Val>, W> {
+      private final W weight;
+
+      WeightListener(INode<Val> state, W weight) {
+        super(state);
+        this.weight = weight;
+      }
+
+      @Override
+      public void onOutTransitionAdded(
+          Transition<Statement, INode<Val>> t,
+          W w,
+          WeightedPAutomaton<Statement, INode<Val>, W> aut) {}
+
+      @Override
+      public void onInTransitionAdded(
+          Transition<Statement, INode<Val>> t,
+          W w,
+          WeightedPAutomaton<Statement, INode<Val>, W> aut) {
+        W newWeight = (W) weight.extendWith(w);
+        W weightAtTarget = weights.get(t);
+        W newVal =
+            (weightAtTarget == null ? newWeight : (W) weightAtTarget.combineWith(newWeight));
+        if (newVal.equals(weightAtTarget)) {
+          return;
+        }
+        weights.put(t, newVal);
+        if (!t.getLabel().equals(Statement.epsilon())
+            && !(t.getStart().fact().isLocal()
+                && !t.getLabel().getMethod().equals(t.getStart().fact().m()))) {
+          listener.onStatementReached(query, t.getLabel(), t.getStart().fact(), newVal);
+        }
+        if (aut.isGeneratedState(t.getStart())) {
+          aut.registerListener(new WeightListener(t.getStart(), newVal));
+        }
+      }
+
+      @Override
+      public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + ReachedStatements.this.hashCode();
+        result = prime * result + ((weight == null) ? 0 : weight.hashCode());
+        return result;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!super.equals(obj)) return false;
+        if (getClass() != obj.getClass()) return false;
+        WeightListener other = (WeightListener) obj;
+        if (ReachedStatements.this != other.getOuterType()) return false;
+        if (weight == null) {
+          if (other.weight != null) return false;
+        } else if (!weight.equals(other.weight)) return false;
+        return true;
+      }
+
+      private ReachedStatements getOuterType() {
+        return ReachedStatements.this;
+      }
+    }
+  }
+}
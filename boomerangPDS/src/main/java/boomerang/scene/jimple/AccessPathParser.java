@@ -42,12 +42,12 @@ public class AccessPathParser {
       if (type instanceof RefType) {
         RefType refType = (RefType) type;
         SootField fieldByName = refType.getSootClass().getFieldByName(fieldName);
-        fields.add(new JimpleField(fieldByName));
+        fields.add(JimpleField.of(fieldByName));
         type = fieldByName.getType();
       }
     }
     return new AccessPath(
-        new JimpleVal(base, m), (!overApproximated ? fields : Sets.newHashSet(fields)));
+        JimpleVal.of(base, m), (!overApproximated ? fields : Sets.newHashSet(fields)));
   }
 
   private static Local getLocal(JimpleMethod m, String baseName) {
@@ -106,7 +106,8 @@ public abstract class AbstractBoomerangSolver<W extends Weight>
         fieldSummaries,
         options.maxCallDepth(),
         options.maxFieldDepth(),
-        options.maxUnbalancedCallDepth());
+        options.maxUnbalancedCallDepth(),
+        options.compactAutomata());
     this.options = options;
     this.icfg = icfg;
     this.cfg = cfg;
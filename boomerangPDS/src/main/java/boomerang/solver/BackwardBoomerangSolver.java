@@ -16,6 +16,7 @@ import boomerang.BoomerangOptions;
 import boomerang.callgraph.CalleeListener;
 import boomerang.callgraph.ObservableICFG;
 import boomerang.controlflowgraph.ObservableControlFlowGraph;
+import boomerang.controlflowgraph.RelevantStatements;
 import boomerang.scene.AllocVal;
 import boomerang.scene.CallSiteStatement;
 import boomerang.scene.DataFlowScope;
@@ -185,9 +186,19 @@ public abstract class BackwardBoomerangSolver<W extends Weight> extends Abstract
     Set<State> out = Sets.newHashSet();
     Statement curr = currNode.stmt();
     Val value = currNode.fact();
+    RelevantStatements relevant = strategies.getRelevantStatements();
     for (Statement succ : curr.getMethod().getControlFlowGraph().getPredsOf(curr)) {
-      Collection<State> flow = computeNormalFlow(method, curr, value, succ);
-      out.addAll(flow);
+      for (State s : computeNormalFlow(method, curr, value, succ)) {
+        // Statements that only pass the fact on are skipped in sparse mode
+        if (s.getClass() == Node.class) {
+          Node<Statement, Val> n = (Node<Statement, Val>) s;
+          Statement prev = relevant.previousRelevant(n.stmt(), n.fact());
+          if (prev != n.stmt()) {
+            s = new Node<>(prev, n.fact());
+          }
+        }
+        out.add(s);
+      }
     }
     for (State s : out) {
       propagate(currNode, s);
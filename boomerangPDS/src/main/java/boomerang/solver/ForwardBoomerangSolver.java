@@ -437,12 +437,14 @@ public abstract class ForwardBoomerangSolver<W extends Weight> extends AbstractB
             if (query.getType().isNullType() && curr.isIfStmt() && curr.killAtIfStmt(value, succ)) {
               return;
             }
-
-            if (succ.containsInvokeExpr() && (succ.isParameter(value) || value.isStatic())) {
-              callFlow(method, node, (CallSiteStatement) succ, succ.getInvokeExpr());
-            } else if (!killFlow(method, succ, value)) {
-              checkForFieldOverwrite(method, curr, succ, value);
-              Collection<State> out = computeNormalFlow(method, curr, value, succ);
+            // Statements that only pass the fact on are skipped in sparse mode
+            Statement next = strategies.getRelevantStatements().nextRelevant(succ, value);
+
+            if (next.containsInvokeExpr() && (next.isParameter(value) || value.isStatic())) {
+              callFlow(method, node, (CallSiteStatement) next, next.getInvokeExpr());
+            } else if (!killFlow(method, next, value)) {
+              checkForFieldOverwrite(method, curr, next, value);
+              Collection<State> out = computeNormalFlow(method, curr, value, next);
               for (State s : out) {
                 LOGGER.trace("{}: {} -> {}", s, node, ForwardBoomerangSolver.this.query);
                 propagate(node, s);
@@ -6,6 +6,7 @@ import boomerang.arrays.ArrayHandlingStrategy;
 import boomerang.arrays.ArrayIndexInsensitiveStrategy;
 import boomerang.arrays.ArrayIndexSensitiveStrategy;
 import boomerang.arrays.IgnoreArrayStrategy;
+import boomerang.controlflowgraph.RelevantStatements;
 import boomerang.staticfields.FlowSensitiveStaticFieldStrategy;
 import boomerang.staticfields.IgnoreStaticFieldStrategy;
 import boomerang.staticfields.SingletonStaticFieldStrategy;
@@ -15,6 +16,7 @@ import wpds.impl.Weight;
 public class Strategies<W extends Weight> {
   private final StaticFieldStrategy<W> staticFieldStrategy;
   private final ArrayHandlingStrategy<W> arrayHandlingStrategy;
+  private final RelevantStatements relevantStatements;
 
   public Strategies(BoomerangOptions opts, WeightedBoomerang<W> boomerang) {
     switch (opts.getStaticFieldStrategy()) {
@@ -41,6 +43,8 @@ public class Strategies<W extends Weight> {
         arrayHandlingStrategy = new ArrayIndexSensitiveStrategy();
         break;
     }
+    relevantStatements =
+        opts.sparsePropagation() ? new RelevantStatements() : RelevantStatements.ALL;
   }
 
   public StaticFieldStrategy<W> getStaticFieldStrategy() {
@@ -50,4 +54,8 @@ public class Strategies<W extends Weight> {
   public ArrayHandlingStrategy<W> getArrayHandlingStrategy() {
     return arrayHandlingStrategy;
   }
+
+  public RelevantStatements getRelevantStatements() {
+    return relevantStatements;
+  }
 }
@@ -69,6 +69,7 @@ public class AdvancedBoomerangStats<W extends Weight> implements IBoomerangStats
 
   private Map<String, Integer> forwardFieldMethodsRules = new TreeMap<>();
   private Map<String, Integer> forwardCallMethodsRules = new TreeMap<>();
+  private Map<Query, QueryMemory> queryMemory = Maps.newHashMap();
 
   public static <K> Map<K, Integer> sortByValues(final Map<K, Integer> map) {
     Comparator<K> valueComparator =
@@ -315,14 +316,17 @@ public class AdvancedBoomerangStats<W extends Weight> implements IBoomerangStats
 
   @Override
   public void terminated(ForwardQuery query, ForwardBoomerangResults<W> forwardBoomerangResults) {
-    // TODO Auto-generated method stub
-
+    queryMemory.put(query, forwardBoomerangResults.getMemory());
   }
 
   @Override
   public void terminated(
       BackwardQuery query, BackwardBoomerangResults<W> backwardBoomerangResults) {
-    // TODO Auto-generated method stub
+    queryMemory.put(query, backwardBoomerangResults.getMemory());
+  }
 
+  @Override
+  public QueryMemory getMemory(Query query) {
+    return queryMemory.getOrDefault(query, QueryMemory.NONE);
   }
 }
@@ -83,6 +83,7 @@ public class CSVBoomerangStatsWriter<W extends Weight> implements IBoomerangStat
   private List<String> headers = Lists.newArrayList();
   private Map<String, String> headersToValues = Maps.newHashMap();
   private long memoryBefore;
+  private Map<Query, QueryMemory> queryMemory = Maps.newHashMap();
 
   private enum Headers {
     Query,
@@ -112,7 +113,9 @@ public class CSVBoomerangStatsWriter<W extends Weight> implements IBoomerangStat
     FieldContainsLoop,
     MemoryBefore,
     MemoryAfter,
-    MemoryDiff
+    MemoryDiff,
+    AllocatedBytes,
+    RetainedBytes
   }
 
   public CSVBoomerangStatsWriter(String outputFileName) {
@@ -344,14 +347,21 @@ public class CSVBoomerangStatsWriter<W extends Weight> implements IBoomerangStat
 
   @Override
   public void terminated(ForwardQuery query, ForwardBoomerangResults<W> res) {
+    queryMemory.put(query, res.getMemory());
     writeToFile(query, res.getAnalysisWatch().elapsed(TimeUnit.MILLISECONDS), res.isTimedout());
   }
 
   @Override
   public void terminated(BackwardQuery query, BackwardBoomerangResults<W> res) {
+    queryMemory.put(query, res.getMemory());
     writeToFile(query, res.getAnalysisWatch().elapsed(TimeUnit.MILLISECONDS), res.isTimedout());
   }
 
+  @Override
+  public QueryMemory getMemory(Query query) {
+    return queryMemory.getOrDefault(query, QueryMemory.NONE);
+  }
+
   private void writeToFile(Query query, long queryTime, boolean timeout) {
     long memoryAfter = Util.getReallyUsedMemory();
     put(Headers.Query, query.toString());
@@ -387,6 +397,8 @@ public class CSVBoomerangStatsWriter<W extends Weight> implements IBoomerangStat
     put(Headers.MemoryAfter, memoryAfter);
     put(Headers.MemoryBefore, memoryBefore);
     put(Headers.MemoryDiff, memoryAfter - memoryBefore);
+    put(Headers.AllocatedBytes, getMemory(query).getAllocatedBytes());
+    put(Headers.RetainedBytes, getMemory(query).getRetainedBytes());
     try {
       File reportFile = new File(outputFileName).getAbsoluteFile();
       if (!reportFile.getParentFile().exists()) {
@@ -39,4 +39,12 @@ public interface IBoomerangStats<W extends Weight> {
   void terminated(ForwardQuery query, ForwardBoomerangResults<W> forwardBoomerangResults);
 
   void terminated(BackwardQuery query, BackwardBoomerangResults<W> backwardBoomerangResults);
+
+  /**
+   * @return the memory of a terminated query, or {@link QueryMemory#NONE} if the query has not
+   *     terminated.
+   */
+  default QueryMemory getMemory(Query query) {
+    return QueryMemory.NONE;
+  }
 }
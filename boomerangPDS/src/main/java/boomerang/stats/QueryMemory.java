@@ -0,0 +1,67 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.stats;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The memory of a single query of a {@link boomerang.WeightedBoomerang}, as reported by the
+ * results and the {@link IBoomerangStats}. The retained bytes are only estimated when first
+ * requested, as the estimate visits all solvers of the instance.
+ */
+public class QueryMemory {
+  public static final QueryMemory NONE = new QueryMemory(0, 0);
+
+  private final long allocatedBytes;
+  private LongSupplier estimate;
+  private long retainedBytes;
+
+  public QueryMemory(long allocatedBytes, long retainedBytes) {
+    this.allocatedBytes = allocatedBytes;
+    this.retainedBytes = retainedBytes;
+  }
+
+  /**
+   * @param estimate estimates the retained bytes on the first call of {@link #getRetainedBytes()},
+   *     must be safe to call from the thread that calls it.
+   */
+  public QueryMemory(long allocatedBytes, LongSupplier estimate) {
+    this.allocatedBytes = allocatedBytes;
+    this.estimate = estimate;
+  }
+
+  /**
+   * @return the bytes allocated by the thread that solved the query, including garbage, or 0 if the
+   *     JVM does not count allocations per thread.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * @return the estimated bytes retained by the solvers of the {@link boomerang.WeightedBoomerang}
+   *     instance, see {@link boomerang.WeightedBoomerang#estimateRetainedBytes()}. Estimated on the
+   *     first call, i.e. the value includes queries solved on the instance in the meantime.
+   */
+  public synchronized long getRetainedBytes() {
+    if (estimate != null) {
+      retainedBytes = estimate.getAsLong();
+      estimate = null;
+    }
+    return retainedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "QueryMemory{allocated=" + allocatedBytes + ", retained=" + getRetainedBytes() + "}";
+  }
+}
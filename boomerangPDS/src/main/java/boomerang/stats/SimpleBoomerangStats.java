@@ -40,6 +40,7 @@ public class SimpleBoomerangStats<W extends Weight> implements IBoomerangStats<W
   private Map<Query, AbstractBoomerangSolver<W>> queries = Maps.newHashMap();
   private Set<Method> callVisitedMethods = Sets.newHashSet();
   private Set<Method> fieldVisitedMethods = Sets.newHashSet();
+  private Map<Query, QueryMemory> queryMemory = Maps.newHashMap();
 
   @Override
   public void registerSolver(Query key, final AbstractBoomerangSolver<W> solver) {
@@ -116,9 +117,18 @@ public class SimpleBoomerangStats<W extends Weight> implements IBoomerangStats<W
   }
 
   @Override
-  public void terminated(ForwardQuery query, ForwardBoomerangResults<W> forwardBoomerangResults) {}
+  public void terminated(ForwardQuery query, ForwardBoomerangResults<W> forwardBoomerangResults) {
+    queryMemory.put(query, forwardBoomerangResults.getMemory());
+  }
 
   @Override
   public void terminated(
-      BackwardQuery query, BackwardBoomerangResults<W> backwardBoomerangResults) {}
+      BackwardQuery query, BackwardBoomerangResults<W> backwardBoomerangResults) {
+    queryMemory.put(query, backwardBoomerangResults.getMemory());
+  }
+
+  @Override
+  public QueryMemory getMemory(Query query) {
+    return queryMemory.getOrDefault(query, QueryMemory.NONE);
+  }
 }
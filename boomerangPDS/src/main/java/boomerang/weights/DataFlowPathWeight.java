@@ -5,13 +5,18 @@ import boomerang.scene.Statement;
 import boomerang.scene.Val;
 import boomerang.weights.PathConditionWeight.ConditionDomain;
 import com.google.common.base.Objects;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import sync.pds.solver.nodes.Node;
 import wpds.impl.Weight;
+import wpds.impl.WeightInterner;
 
 public class DataFlowPathWeight extends Weight {
 
+  private static final WeightInterner<DataFlowPathWeight> INTERNER =
+      new WeightInterner<>(100000, DataFlowPathWeight::key);
+
   private static DataFlowPathWeight one;
 
   private PathTrackingWeight path;
@@ -57,6 +62,18 @@ public class DataFlowPathWeight extends Weight {
     this.condition = new PathConditionWeight(returnVal);
   }
 
+  /**
+   * Interning of data-flow paths is disabled by default. As equals ignores parts of the path and
+   * the condition, weights are interned by all of their state.
+   */
+  public static WeightInterner<DataFlowPathWeight> interner() {
+    return INTERNER;
+  }
+
+  private Object key() {
+    return Arrays.asList(path.key(), condition.key());
+  }
+
   public static DataFlowPathWeight one() {
     if (one == null) one = new DataFlowPathWeight();
     return one;
@@ -93,15 +110,23 @@ public class DataFlowPathWeight extends Weight {
   }
 
   public Weight extendWith(Weight other) {
+    return INTERNER.extendWith(this, (DataFlowPathWeight) other, DataFlowPathWeight::extend);
+  }
+
+  private DataFlowPathWeight extend(DataFlowPathWeight other) {
     return new DataFlowPathWeight(
-        (PathTrackingWeight) path.extendWith(((DataFlowPathWeight) other).path),
-        (PathConditionWeight) condition.extendWith(((DataFlowPathWeight) other).condition));
+        (PathTrackingWeight) path.extendWith(other.path),
+        (PathConditionWeight) condition.extendWith(other.condition));
   }
 
   @Override
   public Weight combineWith(Weight other) {
+    return INTERNER.combineWith(this, (DataFlowPathWeight) other, DataFlowPathWeight::combine);
+  }
+
+  private DataFlowPathWeight combine(DataFlowPathWeight other) {
     return new DataFlowPathWeight(
-        (PathTrackingWeight) path.combineWith(((DataFlowPathWeight) other).path),
-        (PathConditionWeight) condition.combineWith(((DataFlowPathWeight) other).condition));
+        (PathTrackingWeight) path.combineWith(other.path),
+        (PathConditionWeight) condition.combineWith(other.condition));
   }
 }
@@ -1,9 +1,11 @@
 package boomerang.weights;
 
 import wpds.impl.Weight;
+import wpds.impl.WeightInterner;
 
 public class MinDistanceWeight extends Weight {
 
+  private static final WeightInterner<MinDistanceWeight> INTERNER = new WeightInterner<>(100000);
   private static MinDistanceWeight one;
   private static MinDistanceWeight zero;
 
@@ -18,11 +20,19 @@ public class MinDistanceWeight extends Weight {
     this.minDistance = minDistance;
   }
 
+  /** Interning of distances is disabled by default. */
+  public static WeightInterner<MinDistanceWeight> interner() {
+    return INTERNER;
+  }
+
   @Override
   public Weight extendWith(Weight o) {
     if (!(o instanceof MinDistanceWeight))
       throw new RuntimeException("Cannot extend to different types of weight!");
-    MinDistanceWeight other = (MinDistanceWeight) o;
+    return INTERNER.extendWith(this, (MinDistanceWeight) o, MinDistanceWeight::extend);
+  }
+
+  private MinDistanceWeight extend(MinDistanceWeight other) {
     if (other.equals(one())) return this;
     if (this.equals(one())) return other;
     Integer newDistance = minDistance + other.minDistance;
@@ -33,7 +43,10 @@ public class MinDistanceWeight extends Weight {
   public Weight combineWith(Weight o) {
     if (!(o instanceof MinDistanceWeight))
       throw new RuntimeException("Cannot extend to different types of weight!");
-    MinDistanceWeight other = (MinDistanceWeight) o;
+    return INTERNER.combineWith(this, (MinDistanceWeight) o, MinDistanceWeight::combine);
+  }
+
+  private MinDistanceWeight combine(MinDistanceWeight other) {
     if (other.equals(one())) return this;
     if (this.equals(one())) return other;
     return new MinDistanceWeight(Math.min(other.minDistance, minDistance));
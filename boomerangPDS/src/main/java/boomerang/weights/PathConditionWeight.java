@@ -5,12 +5,17 @@ import boomerang.scene.Statement;
 import boomerang.scene.Val;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import wpds.impl.Weight;
+import wpds.impl.WeightInterner;
 
 public class PathConditionWeight extends Weight {
 
+  private static final WeightInterner<PathConditionWeight> INTERNER =
+      new WeightInterner<>(100000, PathConditionWeight::key);
+
   private static PathConditionWeight one;
   private Map<Statement, ConditionDomain> ifStatements = Maps.newHashMap();
   private Map<Val, ConditionDomain> variableToValue = Maps.newHashMap();
@@ -62,12 +67,27 @@ public class PathConditionWeight extends Weight {
     TOP
   }
 
+  /**
+   * Interning of path conditions is disabled by default. As equals ignores the return values and
+   * the call sites of the callees, weights are interned by all of their state.
+   */
+  public static WeightInterner<PathConditionWeight> interner() {
+    return INTERNER;
+  }
+
+  Object key() {
+    return Arrays.asList(rep, ifStatements, variableToValue, returnVals, calleeToCallSite);
+  }
+
   @Override
   public Weight extendWith(Weight o) {
     if (!(o instanceof PathConditionWeight)) {
       throw new RuntimeException("Cannot extend to different types of weight!");
     }
-    PathConditionWeight other = (PathConditionWeight) o;
+    return INTERNER.extendWith(this, (PathConditionWeight) o, PathConditionWeight::extend);
+  }
+
+  private PathConditionWeight extend(PathConditionWeight other) {
     Map<Statement, ConditionDomain> newIfs = Maps.newHashMap();
 
     newIfs.putAll(ifStatements);
@@ -116,7 +136,10 @@ public class PathConditionWeight extends Weight {
     if (!(o instanceof PathConditionWeight)) {
       throw new RuntimeException("Cannot extend to different types of weight!");
     }
-    PathConditionWeight other = (PathConditionWeight) o;
+    return INTERNER.combineWith(this, (PathConditionWeight) o, PathConditionWeight::combine);
+  }
+
+  private PathConditionWeight combine(PathConditionWeight other) {
     Map<Statement, ConditionDomain> newIfs = Maps.newHashMap();
     for (Map.Entry<Statement, ConditionDomain> e : ifStatements.entrySet()) {
       if (other.ifStatements.containsKey(e.getKey())) {
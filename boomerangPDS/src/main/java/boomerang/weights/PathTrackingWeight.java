@@ -3,6 +3,7 @@ package boomerang.weights;
 import boomerang.scene.Statement;
 import boomerang.scene.Val;
 import com.google.common.collect.Lists;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import sync.pds.solver.nodes.Node;
@@ -35,6 +36,11 @@ public class PathTrackingWeight extends Weight {
     return one;
   }
 
+  // Covers the order of the statements, which equals ignores.
+  Object key() {
+    return Arrays.asList(rep, Lists.newArrayList(allStatements));
+  }
+
   @Override
   public Weight extendWith(Weight o) {
     if (!(o instanceof PathTrackingWeight))
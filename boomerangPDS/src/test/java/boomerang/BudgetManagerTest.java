@@ -0,0 +1,118 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Stopwatch;
+import org.junit.Test;
+
+public class BudgetManagerTest {
+
+  @Test
+  public void unlimitedBudgetIsNeverExceeded() {
+    BudgetManager budget = start(QueryBudget.unlimited());
+    for (int i = 0; i < 10000; i++) {
+      budget.transitionAdded();
+      budget.ruleAdded();
+      budget.solverCreated();
+    }
+  }
+
+  @Test
+  public void transitionsExceeded() {
+    BudgetManager budget = start(QueryBudget.unlimited().withMaxTransitions(3));
+    for (int i = 0; i < 3; i++) {
+      budget.transitionAdded();
+    }
+    assertExceeded("transitions", budget::transitionAdded);
+  }
+
+  @Test
+  public void rulesExceeded() {
+    BudgetManager budget = start(QueryBudget.unlimited().withMaxRules(2));
+    budget.ruleAdded();
+    budget.ruleAdded();
+    assertExceeded("rules", budget::ruleAdded);
+  }
+
+  @Test
+  public void solversExceeded() {
+    BudgetManager budget = start(QueryBudget.unlimited().withMaxSolvers(1));
+    budget.solverCreated();
+    assertExceeded("solvers", budget::solverCreated);
+  }
+
+  @Test
+  public void allocatedBytesExceeded() {
+    if (!Util.isAllocatedBytesSupported()) {
+      return;
+    }
+    BudgetManager budget =
+        start(QueryBudget.unlimited().withMaxAllocatedBytes(1024).withCheckInterval(2));
+    byte[][] allocated = new byte[16][];
+    for (int i = 0; i < allocated.length; i++) {
+      allocated[i] = new byte[1024];
+    }
+    // The allocated bytes are only read once per check interval.
+    budget.transitionAdded();
+    assertExceeded("bytes", budget::transitionAdded);
+    assertEquals(16, allocated.length);
+  }
+
+  @Test
+  public void startResetsCounters() {
+    BudgetManager budget = start(QueryBudget.unlimited().withMaxTransitions(2).withMaxRules(2));
+    budget.transitionAdded();
+    budget.transitionAdded();
+    budget.ruleAdded();
+    budget.ruleAdded();
+    budget.start();
+    budget.transitionAdded();
+    budget.transitionAdded();
+    budget.ruleAdded();
+    budget.ruleAdded();
+    assertExceeded("transitions", budget::transitionAdded);
+  }
+
+  @Test
+  public void checkEveryInterval() {
+    BudgetManager budget = start(QueryBudget.unlimited().withCheckInterval(3));
+    assertFalse(budget.transitionAdded());
+    assertFalse(budget.transitionAdded());
+    assertTrue(budget.transitionAdded());
+    assertFalse(budget.transitionAdded());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void checkIntervalMustBePositive() {
+    QueryBudget.unlimited().withCheckInterval(0);
+  }
+
+  private static BudgetManager start(QueryBudget queryBudget) {
+    BudgetManager budget = new BudgetManager(queryBudget, Stopwatch.createStarted(), null);
+    budget.start();
+    return budget;
+  }
+
+  private static void assertExceeded(String limit, Runnable update) {
+    try {
+      update.run();
+      fail("Expected the " + limit + " budget to be exceeded");
+    } catch (BoomerangBudgetExceededException e) {
+      assertEquals(limit, e.getLimit());
+    }
+  }
+}
@@ -0,0 +1,45 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package test.cases.goaldirected;
+
+import org.junit.Test;
+import test.core.GoalDirectedBoomerangTest;
+import test.core.selfrunning.AllocatedObject;
+
+public class GoalDirectedChecksTests extends GoalDirectedBoomerangTest {
+
+  @Test
+  public void pointsToAllocationOfType() {
+    Object alloc = new Alloc();
+    Object alias = alloc;
+    yesQueryFor(alias, AllocatedObject.class);
+  }
+
+  @Test
+  public void doesNotPointToAllocationOfType() {
+    Object alloc = new Other();
+    Object alias = alloc;
+    noQueryFor(alias, AllocatedObject.class);
+  }
+
+  @Test
+  public void unknownAfterStoppedCheck() {
+    Object alloc = new Alloc();
+    Object other = new Other();
+    yesQueryFor(alloc, AllocatedObject.class);
+    unknownQueryFor(other, AllocatedObject.class);
+  }
+
+  private static class Alloc implements AllocatedObject {}
+
+  private static class Other {}
+}
@@ -0,0 +1,31 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package test.cases.metrics;
+
+import org.junit.Test;
+import test.cases.fields.Alloc;
+import test.core.MetricsBoomerangTest;
+
+public class RetainedBytesGaugeTests extends MetricsBoomerangTest {
+
+  @Test
+  public void estimatedOnlyWhenRead() {
+    Container container = new Container();
+    container.field = new Alloc();
+    Object alias = container.field;
+    gaugedQueryFor(alias);
+  }
+
+  private static class Container {
+    Object field;
+  }
+}
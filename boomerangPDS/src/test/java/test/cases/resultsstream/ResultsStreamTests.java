@@ -0,0 +1,64 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package test.cases.resultsstream;
+
+import org.junit.Test;
+import test.cases.fields.Alloc;
+import test.core.ResultsStreamBoomerangTest;
+
+public class ResultsStreamTests extends ResultsStreamBoomerangTest {
+
+  @Test
+  public void aliasesAreStreamed() {
+    Object alloc = new Alloc();
+    Object alias = alloc;
+    streamedQueryFor(alias);
+  }
+
+  @Test
+  public void aliasesThroughFieldAreStreamed() {
+    Container container = new Container();
+    container.field = new Alloc();
+    Object alias = container.field;
+    streamedQueryFor(alias);
+  }
+
+  @Test
+  public void allocationSitesAreStreamed() {
+    Object alloc;
+    if (staticallyUnknown()) {
+      alloc = new Alloc();
+    } else {
+      alloc = new Alloc();
+    }
+    streamedQueryFor(alloc);
+  }
+
+  @Test
+  public void cancelAtFirstAllocationSite() {
+    Container container = new Container();
+    if (staticallyUnknown()) {
+      container.field = new Alloc();
+    } else if (staticallyUnknown()) {
+      container.field = new Alloc();
+    } else {
+      container.field = new Alloc();
+    }
+    Container other = container;
+    Object alias = other.field;
+    cancelledQueryFor(alias);
+  }
+
+  private static class Container {
+    Object field;
+  }
+}
@@ -19,6 +19,7 @@ import boomerang.scene.Val;
 import boomerang.scene.jimple.BoomerangPretransformer;
 import boomerang.scene.jimple.IntAndStringBoomerangOptions;
 import boomerang.scene.jimple.SootCallGraph;
+import boomerang.solver.AbstractBoomerangSolver;
 import boomerang.solver.ForwardBoomerangSolver;
 import boomerang.util.AccessPath;
 import boomerang.util.DefaultValueMap;
@@ -31,6 +32,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -74,6 +76,10 @@ public class AbstractBoomerangTest extends AbstractTestingFramework {
   protected Collection<Error> unsoundErrors = Sets.newHashSet();
   protected Collection<Error> imprecisionErrors = Sets.newHashSet();
   private static Duration globalQueryTime = Duration.ofMillis(0);
+  // Rules and transitions of all solvers, summed over all dense and all sparse runs.
+  private static long denseRules, denseTransitions, sparseRules, sparseTransitions;
+  private boolean sparse;
+  private Set<Node<Statement, Val>> denseResults;
 
   protected int analysisTimeout = 3000 * 1000;
   private CallGraph callGraph;
@@ -81,13 +87,18 @@ public class AbstractBoomerangTest extends AbstractTestingFramework {
 
   public enum AnalysisMode {
     WholeProgram,
-    DemandDrivenBackward;
+    DemandDrivenBackward,
+    /**
+     * Same as {@link #DemandDrivenBackward} with {@link BoomerangOptions#sparsePropagation()}, the
+     * results must equal the ones of a preceding dense run.
+     */
+    DemandDrivenBackwardSparse;
   }
 
   protected AnalysisMode[] getAnalyses() {
     return new AnalysisMode[] {
       // AnalysisMode.WholeProgram,
-      AnalysisMode.DemandDrivenBackward
+      AnalysisMode.DemandDrivenBackward, AnalysisMode.DemandDrivenBackwardSparse
     };
   }
 
@@ -138,7 +149,8 @@ public class AbstractBoomerangTest extends AbstractTestingFramework {
             if (!queryDetector.integerQueries) runWholeProgram();
             break;
           case DemandDrivenBackward:
-            runDemandDrivenBackward();
+          case DemandDrivenBackwardSparse:
+            runDemandDrivenBackward(analysis);
             break;
         }
       }
@@ -234,14 +246,34 @@ public class AbstractBoomerangTest extends AbstractTestingFramework {
     System.out.println();
   }
 
-  private void runDemandDrivenBackward() {
+  private void runDemandDrivenBackward(AnalysisMode analysis) {
     // Run backward analysis
+    sparse = analysis == AnalysisMode.DemandDrivenBackwardSparse;
     Set<Node<Statement, Val>> backwardResults = runQuery(queryForCallSites);
     if (queryDetector.integerQueries) {
-      compareIntegerResults(backwardResults, AnalysisMode.DemandDrivenBackward);
+      compareIntegerResults(backwardResults, analysis);
     } else {
-      compareQuery(expectedAllocationSites, backwardResults, AnalysisMode.DemandDrivenBackward);
+      compareQuery(expectedAllocationSites, backwardResults, analysis);
     }
+    if (!sparse) {
+      denseResults = backwardResults;
+      return;
+    }
+    if (denseResults != null && !denseResults.equals(backwardResults)) {
+      unsoundErrors.add(
+          new Error(
+              analysis
+                  + " Results differ from dense propagation: "
+                  + backwardResults
+                  + " instead of "
+                  + denseResults));
+    }
+    LOGGER.info(
+        "Dense propagation: {} rules, {} transitions. Sparse propagation: {} rules, {} transitions",
+        denseRules,
+        denseTransitions,
+        sparseRules,
+        sparseTransitions);
   }
 
   private void compareIntegerResults(
@@ -300,17 +332,44 @@ public class AbstractBoomerangTest extends AbstractTestingFramework {
         if (queryDetector.accessPathQuery) {
           checkContainsAllExpectedAccessPath(res.getAllAliases());
         }
+        countRulesAndTransitions(solver);
       }
     }
     return results;
   }
 
+  private void countRulesAndTransitions(Boomerang solver) {
+    List<AbstractBoomerangSolver<NoWeight>> solvers = Lists.newArrayList();
+    solvers.addAll(solver.getSolvers().values());
+    solvers.addAll(solver.getBackwardSolvers().values());
+    long rules = 0;
+    long transitions = 0;
+    for (AbstractBoomerangSolver<NoWeight> s : solvers) {
+      rules += s.getCallPDS().getAllRules().size() + s.getFieldPDS().getAllRules().size();
+      transitions +=
+          s.getCallAutomaton().getTransitions().size()
+              + s.getFieldAutomaton().getTransitions().size();
+    }
+    if (sparse) {
+      sparseRules += rules;
+      sparseTransitions += transitions;
+    } else {
+      denseRules += rules;
+      denseTransitions += transitions;
+    }
+  }
+
   protected BoomerangOptions createBoomerangOptions() {
     return (queryDetector.integerQueries
         ? new IntAndStringBoomerangOptions() {
           public boolean onTheFlyCallGraph() {
             return false;
           };
+
+          @Override
+          public boolean sparsePropagation() {
+            return sparse;
+          }
         }
         : new DefaultBoomerangOptions() {
           @Override
@@ -322,6 +381,11 @@ public class AbstractBoomerangTest extends AbstractTestingFramework {
           public boolean onTheFlyCallGraph() {
             return false;
           }
+
+          @Override
+          public boolean sparsePropagation() {
+            return sparse;
+          }
         });
   }
 
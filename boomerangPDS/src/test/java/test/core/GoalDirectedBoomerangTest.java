@@ -0,0 +1,105 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package test.core;
+
+import boomerang.BackwardQuery;
+import boomerang.Boomerang;
+import boomerang.DefaultBoomerangOptions;
+import boomerang.GoalDirectedChecks;
+import boomerang.GoalDirectedChecks.Answer;
+import boomerang.Query;
+import boomerang.scene.CallGraph;
+import boomerang.scene.DataFlowScope;
+import boomerang.scene.SootDataFlowScope;
+import boomerang.scene.jimple.BoomerangPretransformer;
+import boomerang.scene.jimple.SootCallGraph;
+import com.google.common.collect.Lists;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import soot.Scene;
+import soot.SceneTransformer;
+import test.core.selfrunning.AbstractTestingFramework;
+import wpds.impl.Weight;
+
+/**
+ * Runs {@link GoalDirectedChecks} on the calls to {@link #yesQueryFor}, {@link #noQueryFor} and
+ * {@link #unknownQueryFor} of a test case. Each call checks whether its variable points to an
+ * allocation of the given type and expects the answer of its name. The checks share one solver
+ * and are run in the order of their expected answers.
+ */
+public class GoalDirectedBoomerangTest extends AbstractTestingFramework {
+
+  @Rule public Timeout timeout = new Timeout(10000000, TimeUnit.MILLISECONDS);
+
+  protected SceneTransformer createAnalysisTransformer() {
+    return new SceneTransformer() {
+
+      protected void internalTransform(
+          String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        BoomerangPretransformer.v().reset();
+        BoomerangPretransformer.v().apply();
+        CallGraph callGraph = new SootCallGraph();
+        DataFlowScope dataFlowScope = SootDataFlowScope.make(Scene.v());
+        List<Query> queries =
+            Lists.newArrayList(
+                new Preanalysis(callGraph, new FirstArgumentOf("(yes|no|unknown)QueryFor"))
+                    .computeSeeds());
+        queries.sort(Comparator.comparing(GoalDirectedBoomerangTest::expectedAnswer));
+
+        Boomerang solver = new Boomerang(callGraph, dataFlowScope, createOptions());
+        GoalDirectedChecks<Weight.NoWeight> checks = new GoalDirectedChecks<>(solver);
+        for (Query query : queries) {
+          String type =
+              query.stmt().getInvokeExpr().getArg(1).getClassConstantType().toString();
+          Answer answer = checks.pointsToAllocationOfType((BackwardQuery) query, type);
+          if (answer != expectedAnswer(query)) {
+            throw new AssertionError(
+                "Expected " + expectedAnswer(query) + " but was " + answer + " for " + query);
+          }
+        }
+        solver.unregisterAllListeners();
+      }
+    };
+  }
+
+  private static Answer expectedAnswer(Query query) {
+    String name = query.stmt().getInvokeExpr().getMethod().getName();
+    return Answer.valueOf(name.substring(0, name.indexOf("QueryFor")).toUpperCase());
+  }
+
+  private DefaultBoomerangOptions createOptions() {
+    return new DefaultBoomerangOptions() {
+      @Override
+      public boolean onTheFlyCallGraph() {
+        return false;
+      }
+
+      @Override
+      public boolean allowMultipleQueries() {
+        return true;
+      }
+    };
+  }
+
+  /** The variable is expected to point to an allocation of the type. */
+  public static void yesQueryFor(Object variable, Class type) {}
+
+  /** The variable is expected not to point to an allocation of the type. */
+  public static void noQueryFor(Object variable, Class type) {}
+
+  /** The check is expected to be undecided, e.g. after an earlier check has been stopped. */
+  public static void unknownQueryFor(Object variable, Class type) {}
+}
@@ -0,0 +1,117 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package test.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import boomerang.scene.Method;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import boomerang.scene.jimple.JimpleMethod;
+import boomerang.scene.jimple.JimpleStatement;
+import boomerang.scene.jimple.JimpleVal;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import soot.Local;
+import soot.SceneTransformer;
+import soot.Unit;
+import soot.jimple.Stmt;
+import test.core.selfrunning.AbstractTestingFramework;
+
+/**
+ * Checks that the Jimple scope interns the statements and values of each test method: equal
+ * statements and values are the same instance, values of different methods and with different
+ * unbalanced statements are distinct.
+ */
+public class JimpleInterningTest extends AbstractTestingFramework {
+
+  @Test
+  public void straightLine() {
+    Object a = new Object();
+    Object b = a;
+    b.hashCode();
+  }
+
+  @Test
+  public void calls() {
+    Object a = new Object();
+    Object b = identity(a);
+    identity(b);
+  }
+
+  @Test
+  public void fields() {
+    Holder h = new Holder();
+    h.f = new Object();
+    Object b = h.f;
+    b.toString();
+  }
+
+  protected SceneTransformer createAnalysisTransformer() {
+    return new SceneTransformer() {
+
+      protected void internalTransform(
+          String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        JimpleMethod m = JimpleMethod.of(sootTestMethod);
+        assertSame(m, JimpleMethod.of(sootTestMethod));
+        List<Statement> statements = Lists.newArrayList();
+        for (Unit u : sootTestMethod.getActiveBody().getUnits()) {
+          Statement[] first = JimpleStatement.create((Stmt) u, m);
+          Statement[] second = JimpleStatement.create((Stmt) u, m);
+          assertEquals(first.length, second.length);
+          for (int i = 0; i < first.length; i++) {
+            assertSame(first[i], second[i]);
+            statements.add(first[i]);
+          }
+        }
+        assertTrue(statements.size() > 1);
+        Statement s1 = statements.get(0);
+        Statement s2 = statements.get(1);
+
+        Method other =
+            JimpleMethod.of(sootTestMethod.getDeclaringClass().getMethodByName("identity"));
+        for (Local l : sootTestMethod.getActiveBody().getLocals()) {
+          Val val = JimpleVal.of(l, m);
+          assertSame(val, JimpleVal.of(l, m));
+          assertNotEquals(val, JimpleVal.of(l, other));
+          assertSame(JimpleVal.of(l, null), JimpleVal.of(l, null));
+          assertNotEquals(val, JimpleVal.of(l, null));
+
+          Val unbalanced = val.asUnbalanced(s1);
+          assertSame(unbalanced, val.asUnbalanced(s1));
+          assertNotEquals(val, unbalanced);
+          assertNotEquals(unbalanced, val.asUnbalanced(s2));
+
+          @SuppressWarnings("deprecation")
+          Val copy = new JimpleVal(l, m);
+          assertNotSame(val, copy);
+          assertEquals(val, copy);
+          assertEquals(val.hashCode(), copy.hashCode());
+        }
+      }
+    };
+  }
+
+  private static Object identity(Object o) {
+    return o;
+  }
+
+  private static class Holder {
+    Object f;
+  }
+}
@@ -0,0 +1,151 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package test.core;
+
+import boomerang.BackwardQuery;
+import boomerang.Boomerang;
+import boomerang.DefaultBoomerangOptions;
+import boomerang.Query;
+import boomerang.scene.CallGraph;
+import boomerang.scene.DataFlowScope;
+import boomerang.scene.SootDataFlowScope;
+import boomerang.scene.jimple.BoomerangPretransformer;
+import boomerang.scene.jimple.SootCallGraph;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import soot.Scene;
+import soot.SceneTransformer;
+import test.core.selfrunning.AbstractTestingFramework;
+import wpds.metrics.Metrics;
+import wpds.metrics.MetricsRegistry;
+import wpds.metrics.SimpleMetricsRegistry;
+import wpds.metrics.SimpleMetricsRegistry.SimpleGauge;
+
+/**
+ * Checks the solver gauges of a {@link SimpleMetricsRegistry} for {@link #gaugedQueryFor} queries.
+ * The solver must not estimate its retained bytes until the gauge is read, and must estimate them
+ * once at the end of the next query after a read. The solvers gauge must sum the solvers of all
+ * instances rather than report the instance that solved last.
+ */
+public class MetricsBoomerangTest extends AbstractTestingFramework {
+
+  @Rule public Timeout timeout = new Timeout(10000000, TimeUnit.MILLISECONDS);
+
+  protected SceneTransformer createAnalysisTransformer() {
+    return new SceneTransformer() {
+
+      protected void internalTransform(
+          String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        BoomerangPretransformer.v().reset();
+        BoomerangPretransformer.v().apply();
+        CallGraph callGraph = new SootCallGraph();
+        DataFlowScope dataFlowScope = SootDataFlowScope.make(Scene.v());
+        try {
+          for (Query query :
+              new Preanalysis(callGraph, new FirstArgumentOf("gaugedQueryFor")).computeSeeds()) {
+            checkEstimates(callGraph, dataFlowScope, (BackwardQuery) query);
+            checkSolversSummed(callGraph, dataFlowScope, (BackwardQuery) query);
+          }
+        } finally {
+          Metrics.setRegistry(MetricsRegistry.NOOP);
+        }
+      }
+    };
+  }
+
+  private void checkEstimates(
+      CallGraph callGraph, DataFlowScope dataFlowScope, BackwardQuery query) {
+    SimpleMetricsRegistry registry = install();
+    CountingBoomerang solver = new CountingBoomerang(callGraph, dataFlowScope);
+    solver.solve(query);
+    solver.solve(query);
+    assertEstimates(0, solver);
+
+    SimpleGauge gauge = (SimpleGauge) registry.gauge("boomerang_retained_bytes", "");
+    gauge.get();
+    assertEstimates(0, solver);
+    solver.solve(query);
+    assertEstimates(1, solver);
+    if (gauge.get() <= 0) {
+      throw new AssertionError("No retained bytes reported for " + query);
+    }
+    solver.solve(query);
+    assertEstimates(2, solver);
+    solver.solve(query);
+    assertEstimates(2, solver);
+    solver.unregisterAllListeners();
+  }
+
+  private void checkSolversSummed(
+      CallGraph callGraph, DataFlowScope dataFlowScope, BackwardQuery query) {
+    // Only the instances created after the registry was installed report to its gauges.
+    SimpleGauge gauge = (SimpleGauge) install().gauge("boomerang_solvers", "");
+    CountingBoomerang first = new CountingBoomerang(callGraph, dataFlowScope);
+    first.solve(query);
+    long solvers = gauge.get();
+    if (solvers <= 0) {
+      throw new AssertionError("No solvers reported for " + query);
+    }
+    CountingBoomerang second = new CountingBoomerang(callGraph, dataFlowScope);
+    second.solve(query);
+    if (gauge.get() != 2 * solvers) {
+      throw new AssertionError("Reported " + gauge.get() + " solvers, expected " + 2 * solvers);
+    }
+    first.unregisterAllListeners();
+    second.unregisterAllListeners();
+  }
+
+  private static SimpleMetricsRegistry install() {
+    SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+    Metrics.setRegistry(registry);
+    return registry;
+  }
+
+  private static void assertEstimates(int expected, CountingBoomerang solver) {
+    if (solver.estimates != expected) {
+      throw new AssertionError(
+          "Estimated retained bytes " + solver.estimates + " times, expected " + expected);
+    }
+  }
+
+  private static class CountingBoomerang extends Boomerang {
+    int estimates;
+
+    CountingBoomerang(CallGraph callGraph, DataFlowScope dataFlowScope) {
+      super(
+          callGraph,
+          dataFlowScope,
+          new DefaultBoomerangOptions() {
+            @Override
+            public boolean onTheFlyCallGraph() {
+              return false;
+            }
+
+            @Override
+            public boolean allowMultipleQueries() {
+              return true;
+            }
+          });
+    }
+
+    @Override
+    public long estimateRetainedBytes() {
+      estimates++;
+      return super.estimateRetainedBytes();
+    }
+  }
+
+  /** The retained bytes of the query for the variable are gauged. */
+  public static void gaugedQueryFor(Object variable) {}
+}
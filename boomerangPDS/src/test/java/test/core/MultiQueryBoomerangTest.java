@@ -13,9 +13,12 @@ package test.core;
 
 import boomerang.BackwardQuery;
 import boomerang.Boomerang;
+import boomerang.ConcurrentBoomerang;
 import boomerang.DefaultBoomerangOptions;
+import boomerang.ForwardQuery;
 import boomerang.Query;
 import boomerang.WeightedBoomerang;
+import boomerang.results.AbstractBoomerangResults;
 import boomerang.results.BackwardBoomerangResults;
 import boomerang.scene.AnalysisScope;
 import boomerang.scene.CallGraph;
@@ -27,12 +30,15 @@ import boomerang.scene.jimple.SootCallGraph;
 import com.google.common.base.Joiner;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.rules.Timeout;
@@ -60,6 +66,7 @@ public class MultiQueryBoomerangTest extends AbstractTestingFramework {
   protected int analysisTimeout = 300 * 1000;
 
   private WeightedBoomerang<Weight.NoWeight> solver;
+  private Map<Query, Set<ForwardQuery>> sequentialResults = Maps.newHashMap();
 
   protected SceneTransformer createAnalysisTransformer() {
     return new SceneTransformer() {
@@ -84,6 +91,7 @@ public class MultiQueryBoomerangTest extends AbstractTestingFramework {
           }
         }
         runDemandDrivenBackward();
+        runConcurrentBackward();
         if (!unsoundErrors.isEmpty()) {
           throw new RuntimeException(Joiner.on("\n").join(unsoundErrors));
         }
@@ -128,34 +136,68 @@ public class MultiQueryBoomerangTest extends AbstractTestingFramework {
     }
   }
 
-  private void runDemandDrivenBackward() {
-    DefaultBoomerangOptions options =
-        new DefaultBoomerangOptions() {
-          @Override
-          public int analysisTimeoutMS() {
-            return analysisTimeout;
-          }
+  private DefaultBoomerangOptions createOptions() {
+    return new DefaultBoomerangOptions() {
+      @Override
+      public int analysisTimeoutMS() {
+        return analysisTimeout;
+      }
 
-          @Override
-          public boolean onTheFlyCallGraph() {
-            return false;
-          }
+      @Override
+      public boolean onTheFlyCallGraph() {
+        return false;
+      }
 
-          @Override
-          public boolean allowMultipleQueries() {
-            return true;
-          }
-        };
-    solver = new Boomerang(callGraph, dataFlowScope, options);
+      @Override
+      public boolean allowMultipleQueries() {
+        return true;
+      }
+    };
+  }
+
+  private void runDemandDrivenBackward() {
+    solver = new Boomerang(callGraph, dataFlowScope, createOptions());
     for (final Query query : queryForCallSites) {
       if (query instanceof BackwardQuery) {
         BackwardBoomerangResults<Weight.NoWeight> res = solver.solve((BackwardQuery) query);
         compareQuery(query, res.getAllocationSites().keySet());
+        sequentialResults.put(query, Sets.newHashSet(res.getAllocationSites().keySet()));
       }
     }
     solver.unregisterAllListeners();
   }
 
+  /** Solves the queries of the test case concurrently and compares to the sequential results. */
+  private void runConcurrentBackward() {
+    CallGraph sharedCallGraph = callGraph.immutableCopy();
+    ConcurrentBoomerang<Weight.NoWeight> concurrent =
+        new ConcurrentBoomerang<>(
+            () -> new Boomerang(sharedCallGraph, dataFlowScope, createOptions()), 2);
+    List<Query> backwardQueries = Lists.newArrayList();
+    for (Query query : queryForCallSites) {
+      if (query instanceof BackwardQuery) {
+        backwardQueries.add(query);
+      }
+    }
+    Map<Query, AbstractBoomerangResults<Weight.NoWeight>> results =
+        concurrent.solve(backwardQueries);
+    for (Query query : backwardQueries) {
+      BackwardBoomerangResults<Weight.NoWeight> res =
+          (BackwardBoomerangResults<Weight.NoWeight>) results.get(query);
+      Set<ForwardQuery> allocationSites = res.getAllocationSites().keySet();
+      if (!allocationSites.equals(sequentialResults.get(query))) {
+        throw new AssertionError(
+            "Concurrent results differ for "
+                + query
+                + "\nsequential: "
+                + sequentialResults.get(query)
+                + "\nconcurrent: "
+                + allocationSites);
+      }
+    }
+    concurrent.unregisterAllListeners();
+  }
+
   private boolean allocatesObjectOfInterest(NewExpr rightOp, String type) {
     SootClass interfaceType = Scene.v().getSootClass(type);
     if (!interfaceType.isInterface()) return false;
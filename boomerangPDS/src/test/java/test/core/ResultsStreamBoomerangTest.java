@@ -0,0 +1,176 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package test.core;
+
+import boomerang.BackwardQuery;
+import boomerang.Boomerang;
+import boomerang.DefaultBoomerangOptions;
+import boomerang.ForwardQuery;
+import boomerang.Query;
+import boomerang.results.BackwardBoomerangResults;
+import boomerang.results.ResultsListener;
+import boomerang.scene.CallGraph;
+import boomerang.scene.DataFlowScope;
+import boomerang.scene.SootDataFlowScope;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import boomerang.scene.jimple.BoomerangPretransformer;
+import boomerang.scene.jimple.SootCallGraph;
+import boomerang.util.AccessPath;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import soot.Scene;
+import soot.SceneTransformer;
+import test.core.selfrunning.AbstractTestingFramework;
+import wpds.impl.Weight.NoWeight;
+
+/**
+ * Checks the results a {@link ResultsListener} receives while the queries of a test case are
+ * solved. For {@link #streamedQueryFor} the streamed allocation sites, aliases and reached
+ * statements must equal the results of the terminated query. For {@link #cancelledQueryFor} the
+ * listener cancels the query at the first allocation site, which must time out the query, and a
+ * second solve of the query on the same solver must complete it.
+ */
+public class ResultsStreamBoomerangTest extends AbstractTestingFramework {
+
+  @Rule public Timeout timeout = new Timeout(10000000, TimeUnit.MILLISECONDS);
+
+  protected SceneTransformer createAnalysisTransformer() {
+    return new SceneTransformer() {
+
+      protected void internalTransform(
+          String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        BoomerangPretransformer.v().reset();
+        BoomerangPretransformer.v().apply();
+        CallGraph callGraph = new SootCallGraph();
+        DataFlowScope dataFlowScope = SootDataFlowScope.make(Scene.v());
+        for (Query query :
+            new Preanalysis(callGraph, new FirstArgumentOf("(streamed|cancelled)QueryFor"))
+                .computeSeeds()) {
+          BackwardQuery backwardQuery = (BackwardQuery) query;
+          if (query.stmt().getInvokeExpr().getMethod().getName().startsWith("streamed")) {
+            checkStreamed(callGraph, dataFlowScope, backwardQuery);
+          } else {
+            checkCancelled(callGraph, dataFlowScope, backwardQuery);
+          }
+        }
+      }
+    };
+  }
+
+  private void checkStreamed(
+      CallGraph callGraph, DataFlowScope dataFlowScope, BackwardQuery query) {
+    Boomerang solver = new Boomerang(callGraph, dataFlowScope, createOptions());
+    Recorder recorder = new Recorder();
+    solver.registerResultsListener(recorder);
+    BackwardBoomerangResults<NoWeight> results = solver.solve(query);
+    if (results.getAllocationSites().isEmpty()) {
+      throw new AssertionError("No allocation site found for " + query);
+    }
+    assertEquals("allocation sites", results.getAllocationSites().keySet(), recorder.sites);
+    assertEquals("aliases", results.getAllAliases(), recorder.aliases);
+    for (ForwardQuery site : recorder.sites) {
+      assertEquals(
+          "reached statements of " + site,
+          results.asStatementValWeightTable(site),
+          recorder.statements.get(site));
+    }
+    solver.unregisterAllListeners();
+  }
+
+  private void checkCancelled(
+      CallGraph callGraph, DataFlowScope dataFlowScope, BackwardQuery query) {
+    Boomerang complete = new Boomerang(callGraph, dataFlowScope, createOptions());
+    Set<ForwardQuery> expected = complete.solve(query).getAllocationSites().keySet();
+    complete.unregisterAllListeners();
+
+    Boomerang solver = new Boomerang(callGraph, dataFlowScope, createOptions());
+    Recorder recorder =
+        new Recorder() {
+          @Override
+          public void onAllocationSiteFound(BackwardQuery query, ForwardQuery allocationSite) {
+            super.onAllocationSiteFound(query, allocationSite);
+            solver.cancel();
+          }
+        };
+    solver.registerResultsListener(recorder);
+    BackwardBoomerangResults<NoWeight> cancelled = solver.solve(query);
+    if (!cancelled.isTimedout()) {
+      throw new AssertionError("Cancelled query did not time out: " + query);
+    }
+    if (recorder.sites.isEmpty() || !expected.containsAll(recorder.sites)) {
+      throw new AssertionError(
+          "Expected part of " + expected + " before the cancellation, was " + recorder.sites);
+    }
+    BackwardBoomerangResults<NoWeight> resumed = solver.solve(query);
+    if (resumed.isTimedout()) {
+      throw new AssertionError("Query timed out after the cancellation: " + query);
+    }
+    assertEquals("allocation sites after resuming", expected, recorder.sites);
+    solver.unregisterAllListeners();
+  }
+
+  private static void assertEquals(String what, Object expected, Object actual) {
+    if (!expected.equals(actual)) {
+      throw new AssertionError("Streamed " + what + " " + actual + ", expected " + expected);
+    }
+  }
+
+  private DefaultBoomerangOptions createOptions() {
+    return new DefaultBoomerangOptions() {
+      @Override
+      public boolean onTheFlyCallGraph() {
+        return false;
+      }
+
+      @Override
+      public boolean allowMultipleQueries() {
+        return true;
+      }
+    };
+  }
+
+  private static class Recorder implements ResultsListener<NoWeight> {
+    final Set<ForwardQuery> sites = Sets.newHashSet();
+    final Set<AccessPath> aliases = Sets.newHashSet();
+    final Map<ForwardQuery, Table<Statement, Val, NoWeight>> statements = Maps.newHashMap();
+
+    @Override
+    public void onAllocationSiteFound(BackwardQuery query, ForwardQuery allocationSite) {
+      sites.add(allocationSite);
+    }
+
+    @Override
+    public void onAliasFound(BackwardQuery query, ForwardQuery allocationSite, AccessPath alias) {
+      aliases.add(alias);
+    }
+
+    @Override
+    public void onStatementReached(
+        ForwardQuery query, Statement stmt, Val val, NoWeight weight) {
+      statements.computeIfAbsent(query, q -> HashBasedTable.create()).put(stmt, val, weight);
+    }
+  }
+
+  /** The streamed results for the variable are expected to equal the final results. */
+  public static void streamedQueryFor(Object variable) {}
+
+  /** The variable is expected to have several allocation sites, the query is cancelled early. */
+  public static void cancelledQueryFor(Object variable) {}
+}
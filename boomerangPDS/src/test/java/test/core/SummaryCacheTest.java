@@ -0,0 +1,289 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package test.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import boomerang.SummaryCache;
+import boomerang.SummaryCache.Kind;
+import boomerang.SummaryCache.Summaries;
+import boomerang.SummaryCodecs;
+import com.google.common.collect.Sets;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import org.junit.Test;
+import wpds.impl.NormalRule;
+import wpds.impl.PopRule;
+import wpds.impl.PushRule;
+import wpds.impl.SummaryFile;
+import wpds.impl.Transition;
+import wpds.impl.Weight;
+import wpds.impl.Weight.NoWeight;
+import wpds.impl.WeightedPAutomaton;
+import wpds.impl.WeightedPushdownSystem;
+import wpds.interfaces.BinaryCodec;
+import wpds.interfaces.Location;
+import wpds.interfaces.State;
+
+public class SummaryCacheTest {
+
+  private static final NoWeight ONE = Weight.NO_WEIGHT_ONE;
+  private static final Fact ACC = new Fact("acc", null);
+
+  private static final BinaryCodec<Label> LABELS =
+      new BinaryCodec<Label>() {
+        @Override
+        public void write(Label value, DataOutput out) throws IOException {
+          SummaryFile.writeString(out, value.name);
+        }
+
+        @Override
+        public Label read(ByteBuffer in) {
+          return l(SummaryFile.readString(in));
+        }
+      };
+
+  private static final BinaryCodec<Fact> FACTS =
+      new BinaryCodec<Fact>() {
+        @Override
+        public void write(Fact value, DataOutput out) throws IOException {
+          SummaryFile.writeString(out, value.name);
+          out.writeBoolean(value.label != null);
+          if (value.label != null) {
+            LABELS.write(value.label, out);
+          }
+        }
+
+        @Override
+        public Fact read(ByteBuffer in) {
+          String name = SummaryFile.readString(in);
+          return new Fact(name, in.get() != 0 ? LABELS.read(in) : null);
+        }
+      };
+
+  private static final SummaryFile<Label, Fact, NoWeight> FORMAT =
+      new SummaryFile<>(LABELS, FACTS, SummaryCodecs.NO_WEIGHT);
+
+  @Test
+  public void summariesAreReused() {
+    SummaryCache cache = new SummaryCache(100);
+    WeightedPAutomaton<Label, Fact, NoWeight> first = solve(cache, "domain");
+    long computed = cache.missCount();
+    assertTrue(computed > 1);
+    assertEquals(0, cache.hitCount());
+
+    WeightedPAutomaton<Label, Fact, NoWeight> second = solve(cache, "domain");
+    assertEquals(computed, cache.hitCount());
+    assertEquals(computed, cache.missCount());
+    assertEquals(nestedTransitions(first), nestedTransitions(second));
+  }
+
+  @Test
+  public void domainsAreIsolated() {
+    SummaryCache cache = new SummaryCache(100);
+    solve(cache, "domain");
+    long computed = cache.missCount();
+    solve(cache, "otherDomain");
+    assertEquals(0, cache.hitCount());
+    assertEquals(2 * computed, cache.missCount());
+  }
+
+  @Test
+  public void cacheDoesNotKeepSolversAlive() throws InterruptedException {
+    SummaryCache cache = new SummaryCache(100);
+    WeakReference<WeightedPAutomaton<Label, Fact, NoWeight>> ref =
+        new WeakReference<>(solve(cache, "domain"));
+    for (int i = 0; i < 100 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(ref.get());
+    solve(cache, "domain");
+    assertTrue(cache.hitCount() > 0);
+  }
+
+  @Test
+  public void summariesArePreloaded() throws IOException {
+    SummaryCache cache = new SummaryCache(100);
+    WeightedPAutomaton<Label, Fact, NoWeight> first = solve(cache, "domain");
+    long computed = cache.missCount();
+    Path file = Files.createTempFile("summaries", ".bin");
+    try {
+      assertEquals(cache.size(), cache.write(file, Kind.FORWARD_CALL, "domain", FORMAT));
+
+      SummaryCache preloaded = new SummaryCache(100);
+      int count =
+          preloaded.preload(file, Kind.FORWARD_CALL, "domain", FORMAT, fact -> null, k -> true);
+      assertEquals(cache.size(), count);
+      WeightedPAutomaton<Label, Fact, NoWeight> second = solve(preloaded, "domain");
+      assertEquals(computed, preloaded.hitCount());
+      assertEquals(0, preloaded.missCount());
+      assertEquals(nestedTransitions(first), nestedTransitions(second));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void corruptFileIsNotPreloaded() throws IOException {
+    SummaryCache cache = new SummaryCache(100);
+    solve(cache, "domain");
+    Path file = Files.createTempFile("summaries", ".bin");
+    try {
+      cache.write(file, Kind.FORWARD_CALL, "domain", FORMAT);
+      byte[] content = Files.readAllBytes(file);
+      Files.write(file, Arrays.copyOf(content, content.length - 3));
+
+      SummaryCache preloaded = new SummaryCache(100);
+      try {
+        preloaded.preload(file, Kind.FORWARD_CALL, "domain", FORMAT, fact -> null, k -> true);
+        fail("Expected an IOException for a truncated file");
+      } catch (IOException e) {
+        assertEquals(0, preloaded.size());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /** Solves a program with two calls and hands the summaries to the cache. */
+  private static WeightedPAutomaton<Label, Fact, NoWeight> solve(
+      SummaryCache cache, Object domain) {
+    WeightedPushdownSystem<Label, Fact, NoWeight> pds = new WeightedPushdownSystem<>();
+    Fact p = new Fact("p", null);
+    pds.addRule(new NormalRule<>(p, l("a"), p, l("b"), ONE));
+    pds.addRule(new PushRule<>(p, l("b"), p, l("c"), l("d"), ONE));
+    pds.addRule(new NormalRule<>(p, l("c"), p, l("e"), ONE));
+    pds.addRule(new PushRule<>(p, l("e"), p, l("f"), l("g"), ONE));
+    pds.addRule(new PopRule<>(p, l("f"), p, ONE));
+    pds.addRule(new PopRule<>(p, l("g"), p, ONE));
+    Summaries<Label, Fact, NoWeight> summaries =
+        cache.summaries(Kind.FORWARD_CALL, domain, fact -> null);
+    WeightedPAutomaton<Label, Fact, NoWeight> fa = automaton();
+    summaries.putSummaryAutomaton(ACC, fa);
+    fa.addWeightForTransition(new Transition<>(p, l("a"), ACC), ONE);
+    pds.poststar(fa, summaries);
+    summaries.publish();
+    return fa;
+  }
+
+  private static Set<Transition<Label, Fact>> nestedTransitions(
+      WeightedPAutomaton<Label, Fact, NoWeight> aut) {
+    Set<Transition<Label, Fact>> res = Sets.newHashSet();
+    for (WeightedPAutomaton<Label, Fact, NoWeight> nested : aut.getNestedAutomata()) {
+      res.addAll(nested.getTransitions());
+    }
+    return res;
+  }
+
+  private static WeightedPAutomaton<Label, Fact, NoWeight> automaton() {
+    WeightedPAutomaton<Label, Fact, NoWeight> aut =
+        new WeightedPAutomaton<Label, Fact, NoWeight>() {
+
+          @Override
+          public Fact createState(Fact d, Label loc) {
+            return new Fact(d.name, loc);
+          }
+
+          @Override
+          public Label epsilon() {
+            return l("EPS");
+          }
+
+          @Override
+          public NoWeight getOne() {
+            return ONE;
+          }
+
+          @Override
+          public boolean isGeneratedState(Fact d) {
+            return d.label != null;
+          }
+
+          @Override
+          public boolean nested() {
+            return true;
+          }
+        };
+    aut.addFinalState(ACC);
+    return aut;
+  }
+
+  private static Label l(String name) {
+    return new Label(name);
+  }
+
+  private static class Label implements Location {
+    private final String name;
+
+    Label(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public boolean accepts(Location other) {
+      return equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Label && ((Label) obj).name.equals(name);
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private static class Fact implements State {
+    private final String name;
+    private final Label label;
+
+    Fact(String name, Label label) {
+      this.name = name;
+      this.label = label;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, label);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Fact)) return false;
+      Fact other = (Fact) obj;
+      return name.equals(other.name) && Objects.equals(label, other.label);
+    }
+
+    @Override
+    public String toString() {
+      return label == null ? name : "<" + name + "," + label + ">";
+    }
+  }
+}
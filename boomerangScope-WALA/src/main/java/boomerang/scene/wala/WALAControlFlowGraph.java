@@ -236,7 +236,7 @@ public class WALAControlFlowGraph implements ControlFlowGraph {
       uninitializedStatements.add(new WALADummyNullStatement(dummyVal, method));
       uninitializedStatements.add(
           new WALAUnitializedFieldStatement(
-              new WALAField(ref), (WALAMethod) method, method.getThisLocal(), dummyVal));
+              WALAField.of(ref), (WALAMethod) method, method.getThisLocal(), dummyVal));
     }
     addListOfStmts(uninitializedStatements);
     return uninitializedStatements;
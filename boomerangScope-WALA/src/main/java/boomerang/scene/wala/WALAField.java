@@ -12,34 +12,44 @@
 package boomerang.scene.wala;
 
 import boomerang.scene.Field;
+import boomerang.scene.Interned;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.ibm.wala.types.FieldReference;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class WALAField extends Field {
+public class WALAField extends Field implements Interned {
+  private static final AtomicInteger IDS = new AtomicInteger();
+  // Field references are canonical in WALA, hence the pool may compare them by identity
+  private static final Cache<FieldReference, WALAField> INTERNAL_POOL =
+      CacheBuilder.newBuilder().weakKeys().weakValues().build();
 
-  private FieldReference fieldRef;
+  private final FieldReference fieldRef;
+  private final int id;
 
-  public WALAField(FieldReference fieldRef) {
+  private WALAField(FieldReference fieldRef) {
     this.fieldRef = fieldRef;
+    this.id = IDS.getAndIncrement();
+  }
+
+  public static WALAField of(FieldReference fieldRef) {
+    WALAField field = INTERNAL_POOL.getIfPresent(fieldRef);
+    return field != null ? field : INTERNAL_POOL.asMap().computeIfAbsent(fieldRef, WALAField::new);
+  }
+
+  @Override
+  public int getId() {
+    return id;
   }
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((fieldRef == null) ? 0 : fieldRef.hashCode());
-    return result;
+    return id;
   }
 
   @Override
   public boolean equals(Object obj) {
-    if (this == obj) return true;
-    if (!super.equals(obj)) return false;
-    if (getClass() != obj.getClass()) return false;
-    WALAField other = (WALAField) obj;
-    if (fieldRef == null) {
-      if (other.fieldRef != null) return false;
-    } else if (!fieldRef.equals(other.fieldRef)) return false;
-    return true;
+    return this == obj;
   }
 
   @Override
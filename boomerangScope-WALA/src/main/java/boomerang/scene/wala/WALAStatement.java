@@ -74,7 +74,7 @@ public class WALAStatement extends Statement {
   @Override
   public Field getWrittenField() {
     SSAPutInstruction ins = (SSAPutInstruction) delegate;
-    return new WALAField(ins.getDeclaredField());
+    return WALAField.of(ins.getDeclaredField());
   }
 
   @Override
@@ -89,7 +89,7 @@ public class WALAStatement extends Statement {
   @Override
   public Field getLoadedField() {
     SSAGetInstruction ins = (SSAGetInstruction) delegate;
-    return new WALAField(ins.getDeclaredField());
+    return WALAField.of(ins.getDeclaredField());
   }
 
   @Override
@@ -166,7 +166,7 @@ public class WALAStatement extends Statement {
     }
     if (isStaticFieldStore()) {
       return new WALAStaticFieldVal(
-          new WALAField(((SSAFieldAccessInstruction) delegate).getDeclaredField()),
+          WALAField.of(((SSAFieldAccessInstruction) delegate).getDeclaredField()),
           (WALAMethod) method);
     }
     if (isAllocationStatement()) {
@@ -220,7 +220,7 @@ public class WALAStatement extends Statement {
     }
     if (isStaticFieldLoad()) {
       return new WALAStaticFieldVal(
-          new WALAField(((SSAFieldAccessInstruction) delegate).getDeclaredField()),
+          WALAField.of(((SSAFieldAccessInstruction) delegate).getDeclaredField()),
           (WALAMethod) method);
     }
     return null;
@@ -325,14 +325,14 @@ public class WALAStatement extends Statement {
   public Pair<Val, Field> getFieldStore() {
     SSAPutInstruction ins = (SSAPutInstruction) delegate;
     return new Pair<>(
-        new WALAVal(ins.getRef(), (WALAMethod) method), new WALAField(ins.getDeclaredField()));
+        new WALAVal(ins.getRef(), (WALAMethod) method), WALAField.of(ins.getDeclaredField()));
   }
 
   @Override
   public Pair<Val, Field> getFieldLoad() {
     SSAGetInstruction ins = (SSAGetInstruction) delegate;
     return new Pair<>(
-        new WALAVal(ins.getRef(), (WALAMethod) method), new WALAField(ins.getDeclaredField()));
+        new WALAVal(ins.getRef(), (WALAMethod) method), WALAField.of(ins.getDeclaredField()));
   }
 
   @Override
@@ -349,7 +349,7 @@ public class WALAStatement extends Statement {
   public StaticFieldVal getStaticField() {
     SSAFieldAccessInstruction stmt = (SSAFieldAccessInstruction) delegate;
     if (!stmt.isStatic()) throw new RuntimeException("Not a static field access statement");
-    return new WALAStaticFieldVal(new WALAField(stmt.getDeclaredField()), method);
+    return new WALAStaticFieldVal(WALAField.of(stmt.getDeclaredField()), method);
   }
 
   @Override
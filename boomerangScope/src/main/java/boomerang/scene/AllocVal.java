@@ -166,6 +166,10 @@ public class AllocVal extends Val {
     return delegate;
   }
 
+  public Statement getAllocStatement() {
+    return allocStatement;
+  }
+
   @Override
   public boolean isLongConstant() {
     return false;
@@ -1,6 +1,8 @@
 package boomerang.scene;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import java.util.Collection;
@@ -15,6 +17,17 @@ public class CallGraph {
   private Multimap<Field, Statement> fieldLoadStatements = HashMultimap.create();
   private Multimap<Field, Statement> fieldStoreStatements = HashMultimap.create();
 
+  public CallGraph() {}
+
+  private CallGraph(CallGraph cg) {
+    edges = ImmutableSet.copyOf(cg.edges);
+    edgesOutOf = ImmutableSetMultimap.copyOf(cg.edgesOutOf);
+    edgesInto = ImmutableSetMultimap.copyOf(cg.edgesInto);
+    entryPoints = ImmutableSet.copyOf(cg.entryPoints);
+    fieldLoadStatements = ImmutableSetMultimap.copyOf(cg.fieldLoadStatements);
+    fieldStoreStatements = ImmutableSetMultimap.copyOf(cg.fieldStoreStatements);
+  }
+
   public Collection<Edge> edgesOutOf(Statement stmt) {
     return edgesOutOf.get(stmt);
   }
@@ -110,6 +123,40 @@ public class CallGraph {
     return fieldLoadStatements;
   }
 
+  /**
+   * Returns a copy of this call graph that rejects any further modification, multiple threads may
+   * share the copy. The control flow graphs and locals of methods are computed lazily and cached,
+   * the caches are safe to build concurrently. The copy builds them upfront for the reachable
+   * methods so that the threads do not wait for each other; methods first reached later, e.g.
+   * through the data-flow scope, are built on demand.
+   */
+  public CallGraph immutableCopy() {
+    for (Method m : getReachableMethods()) {
+      m.getControlFlowGraph().getStartPoints();
+      m.getLocals();
+      m.getParameterLocals();
+      m.getReturnLocals();
+    }
+    return new ImmutableCallGraph(this);
+  }
+
+  private static class ImmutableCallGraph extends CallGraph {
+
+    private ImmutableCallGraph(CallGraph cg) {
+      super(cg);
+    }
+
+    @Override
+    public boolean addEdge(Edge edge) {
+      throw new UnsupportedOperationException("Call graph is immutable");
+    }
+
+    @Override
+    public boolean addEntryPoint(Method m) {
+      throw new UnsupportedOperationException("Call graph is immutable");
+    }
+  }
+
   private void computeStaticFieldsLoadAndStores(Method m) {
     for (Statement s : m.getStatements()) {
       if (s.isStaticFieldStore()) {
@@ -18,4 +18,15 @@ public interface DataFlowScope {
   public boolean isExcluded(DeclaredMethod method);
 
   public boolean isExcluded(Method method);
+
+  /**
+   * Returns a scope that may be shared by multiple threads. The given scope is only called by one
+   * thread at a time. Its answers are cached, so it has to answer equal methods alike.
+   */
+  static DataFlowScope threadSafe(DataFlowScope scope) {
+    if (scope == INCLUDE_ALL || scope instanceof ThreadSafeDataFlowScope) {
+      return scope;
+    }
+    return new ThreadSafeDataFlowScope(scope);
+  }
 }
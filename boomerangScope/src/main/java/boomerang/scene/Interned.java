@@ -0,0 +1,24 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.scene;
+
+/**
+ * A scene object, e.g. a {@link Statement}, {@link Val} or {@link Field}, of which the scope
+ * creates a single instance per underlying element. Interned objects carry an id, which is unique
+ * among all objects of the same kind of one scene and assigned densely from 0, and are compared by
+ * their id. Clients may use the id as an index into arrays or as key of primitive collections.
+ * The ids of a scope restart with each new scene, e.g. after Soot is reset.
+ */
+public interface Interned {
+
+  int getId();
+}
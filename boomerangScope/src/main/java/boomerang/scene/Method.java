@@ -8,11 +8,18 @@ import java.util.Set;
 import wpds.interfaces.Location;
 
 public abstract class Method implements Location {
-  private static Method epsilon;
+  private static volatile Method epsilon;
 
   protected Method() {}
 
   public static Method epsilon() {
+    if (epsilon == null) {
+      createEpsilon();
+    }
+    return epsilon;
+  }
+
+  private static synchronized void createEpsilon() {
     if (epsilon == null)
       epsilon =
           new Method() {
@@ -116,7 +123,6 @@ public abstract class Method implements Location {
               return false;
             }
           };
-    return epsilon;
   }
 
   @Override
@@ -158,18 +164,21 @@ public abstract class Method implements Location {
 
   public abstract boolean isPublic();
 
-  private Collection<Val> returnLocals;
+  // Published only once complete, threads racing on the first call compute equal sets.
+  private volatile Collection<Val> returnLocals;
 
   public Collection<Val> getReturnLocals() {
-    if (returnLocals == null) {
-      returnLocals = Sets.newHashSet();
+    Collection<Val> res = returnLocals;
+    if (res == null) {
+      res = Sets.newHashSet();
       for (Statement s : getStatements()) {
         if (s.isReturnStmt()) {
-          returnLocals.add(s.getReturnOp());
+          res.add(s.getReturnOp());
         }
       }
+      returnLocals = res;
     }
-    return returnLocals;
+    return res;
   }
 
   @Override
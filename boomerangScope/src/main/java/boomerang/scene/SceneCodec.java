@@ -0,0 +1,203 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.scene;
+
+import boomerang.scene.Field.ArrayField;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import wpds.interfaces.BinaryCodec;
+import wpds.wildcard.ExclusionWildcard;
+import wpds.wildcard.Wildcard;
+
+/**
+ * Encodes statements, values and fields for the binary summary format, see {@link
+ * wpds.impl.SummaryFile}. This class handles the objects that are independent of the scene, i.e.
+ * the epsilon statement and call and return site wrappers, the zero value, allocation and
+ * unbalanced values and the special fields. Subclasses encode the remaining objects of their scene.
+ */
+public abstract class SceneCodec {
+  private static final byte EPSILON = 0;
+  private static final byte CALL_SITE = 1;
+  private static final byte RETURN_SITE = 2;
+  private static final byte ZERO = 3;
+  private static final byte ALLOCATION = 4;
+  private static final byte UNBALANCED = 5;
+  private static final byte EMPTY_FIELD = 6;
+  private static final byte EPSILON_FIELD = 7;
+  private static final byte WILDCARD = 8;
+  private static final byte EXCLUSION_WILDCARD = 9;
+  private static final byte ARRAY = 10;
+  private static final byte SCENE = 11;
+
+  private final BinaryCodec<Statement> statements =
+      new BinaryCodec<Statement>() {
+        @Override
+        public void write(Statement value, DataOutput out) throws IOException {
+          if (value.equals(Statement.epsilon())) {
+            out.writeByte(EPSILON);
+          } else if (value instanceof CallSiteStatement) {
+            out.writeByte(CALL_SITE);
+            write(((CallSiteStatement) value).getDelegate(), out);
+          } else if (value instanceof ReturnSiteStatement) {
+            out.writeByte(RETURN_SITE);
+            write(((ReturnSiteStatement) value).getDelegate(), out);
+          } else {
+            out.writeByte(SCENE);
+            writeStatement(value, out);
+          }
+        }
+
+        @Override
+        public Statement read(ByteBuffer in) {
+          byte tag = in.get();
+          switch (tag) {
+            case EPSILON:
+              return Statement.epsilon();
+            case CALL_SITE:
+              return new CallSiteStatement(read(in));
+            case RETURN_SITE:
+              return new ReturnSiteStatement(read(in));
+            case SCENE:
+              return readStatement(in);
+            default:
+              throw new IllegalArgumentException("Unknown statement tag " + tag);
+          }
+        }
+      };
+
+  private final BinaryCodec<Val> vals =
+      new BinaryCodec<Val>() {
+        @Override
+        public void write(Val value, DataOutput out) throws IOException {
+          if (value.equals(Val.zero())) {
+            out.writeByte(ZERO);
+          } else if (value instanceof AllocVal) {
+            AllocVal alloc = (AllocVal) value;
+            out.writeByte(ALLOCATION);
+            write(alloc.getDelegate(), out);
+            statements.write(alloc.getAllocStatement(), out);
+            write(alloc.getAllocVal(), out);
+          } else if (value.isUnbalanced()) {
+            out.writeByte(UNBALANCED);
+            statements.write(value.unbalancedStmt, out);
+            writeVal(value, out);
+          } else {
+            out.writeByte(SCENE);
+            writeVal(value, out);
+          }
+        }
+
+        @Override
+        public Val read(ByteBuffer in) {
+          byte tag = in.get();
+          switch (tag) {
+            case ZERO:
+              return Val.zero();
+            case ALLOCATION:
+              Val delegate = read(in);
+              Statement allocStatement = statements.read(in);
+              return new AllocVal(delegate, allocStatement, read(in));
+            case UNBALANCED:
+              Statement unbalanced = statements.read(in);
+              return readVal(in).asUnbalanced(unbalanced);
+            case SCENE:
+              return readVal(in);
+            default:
+              throw new IllegalArgumentException("Unknown value tag " + tag);
+          }
+        }
+      };
+
+  private final BinaryCodec<Field> fields =
+      new BinaryCodec<Field>() {
+        @Override
+        public void write(Field value, DataOutput out) throws IOException {
+          if (value.equals(Field.empty())) {
+            out.writeByte(EMPTY_FIELD);
+          } else if (value.equals(Field.epsilon())) {
+            out.writeByte(EPSILON_FIELD);
+          } else if (value instanceof ExclusionWildcard) {
+            out.writeByte(EXCLUSION_WILDCARD);
+            write((Field) ((ExclusionWildcard<?>) value).excludes(), out);
+          } else if (value instanceof Wildcard) {
+            out.writeByte(WILDCARD);
+          } else if (value instanceof ArrayField) {
+            out.writeByte(ARRAY);
+            out.writeInt(((ArrayField) value).getIndex());
+          } else {
+            out.writeByte(SCENE);
+            writeField(value, out);
+          }
+        }
+
+        @Override
+        public Field read(ByteBuffer in) {
+          byte tag = in.get();
+          switch (tag) {
+            case EMPTY_FIELD:
+              return Field.empty();
+            case EPSILON_FIELD:
+              return Field.epsilon();
+            case WILDCARD:
+              return Field.wildcard();
+            case EXCLUSION_WILDCARD:
+              return Field.exclusionWildcard(read(in));
+            case ARRAY:
+              return Field.array(in.getInt());
+            case SCENE:
+              return readField(in);
+            default:
+              throw new IllegalArgumentException("Unknown field tag " + tag);
+          }
+        }
+      };
+
+  public BinaryCodec<Statement> statements() {
+    return statements;
+  }
+
+  public BinaryCodec<Val> vals() {
+    return vals;
+  }
+
+  public BinaryCodec<Field> fields() {
+    return fields;
+  }
+
+  /**
+   * Writes a statement of the scene.
+   *
+   * @throws IllegalArgumentException if the statement cannot be encoded.
+   */
+  protected abstract void writeStatement(Statement statement, DataOutput out) throws IOException;
+
+  protected abstract Statement readStatement(ByteBuffer in);
+
+  /**
+   * Writes a value of the scene, ignoring whether it is unbalanced.
+   *
+   * @throws IllegalArgumentException if the value cannot be encoded.
+   */
+  protected abstract void writeVal(Val val, DataOutput out) throws IOException;
+
+  protected abstract Val readVal(ByteBuffer in);
+
+  /**
+   * Writes a field of the scene.
+   *
+   * @throws IllegalArgumentException if the field cannot be encoded.
+   */
+  protected abstract void writeField(Field field, DataOutput out) throws IOException;
+
+  protected abstract Field readField(ByteBuffer in);
+}
@@ -17,7 +17,7 @@ import wpds.interfaces.Location;
 
 public abstract class Statement implements Location {
   // Wrapper for stmt so we know the method
-  private static Statement epsilon;
+  private static volatile Statement epsilon;
   private final String rep;
   protected final Method method;
 
@@ -33,7 +33,11 @@ public abstract class Statement implements Location {
 
   public static Statement epsilon() {
     if (epsilon == null) {
-      epsilon = new EpsStatement();
+      synchronized (Statement.class) {
+        if (epsilon == null) {
+          epsilon = new EpsStatement();
+        }
+      }
     }
     return epsilon;
   }
@@ -0,0 +1,42 @@
+package boomerang.scene;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps a {@link DataFlowScope} for use by multiple threads. The delegate is only called by one
+ * thread at a time and its answers are cached per method, repeated queries do not lock.
+ */
+final class ThreadSafeDataFlowScope implements DataFlowScope {
+  private final DataFlowScope delegate;
+  private final Map<DeclaredMethod, Boolean> declaredMethods = new ConcurrentHashMap<>();
+  private final Map<Method, Boolean> methods = new ConcurrentHashMap<>();
+
+  ThreadSafeDataFlowScope(DataFlowScope delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public boolean isExcluded(DeclaredMethod method) {
+    Boolean excluded = declaredMethods.get(method);
+    if (excluded == null) {
+      synchronized (delegate) {
+        excluded = delegate.isExcluded(method);
+      }
+      declaredMethods.put(method, excluded);
+    }
+    return excluded;
+  }
+
+  @Override
+  public boolean isExcluded(Method method) {
+    Boolean excluded = methods.get(method);
+    if (excluded == null) {
+      synchronized (delegate) {
+        excluded = delegate.isExcluded(method);
+      }
+      methods.put(method, excluded);
+    }
+    return excluded;
+  }
+}
@@ -16,7 +16,7 @@ public abstract class Val {
   private final String rep;
   protected final Statement unbalancedStmt;
 
-  private static Val zeroInstance;
+  private static volatile Val zeroInstance;
 
   protected Val(Method m) {
     this.rep = null;
@@ -54,6 +54,13 @@ public abstract class Val {
   }
 
   public static Val zero() {
+    if (zeroInstance == null) {
+      createZero();
+    }
+    return zeroInstance;
+  }
+
+  private static synchronized void createZero() {
     if (zeroInstance == null)
       zeroInstance =
           new Val("ZERO") {
@@ -224,7 +231,6 @@ public abstract class Val {
               return toString();
             }
           };
-    return zeroInstance;
   }
 
   public abstract boolean isStatic();
@@ -0,0 +1,80 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.scene.jimple;
+
+import boomerang.scene.Method;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import soot.G;
+import soot.SootField;
+import soot.jimple.Stmt;
+
+/**
+ * The interning state of the current Soot scene, see {@link boomerang.scene.Interned}: the id
+ * counters, the interned fields and the statements and values that do not belong to a {@link
+ * JimpleMethod}. Statements and values of a {@link JimpleMethod} are interned by the method itself.
+ * The state is replaced when Soot is reset with {@link G#reset()}, such that ids are dense per
+ * scene.
+ */
+final class InternTables {
+  private static volatile InternTables current = new InternTables(null);
+
+  private final WeakReference<G> scene;
+  final AtomicInteger statementIds = new AtomicInteger();
+  final AtomicInteger valIds = new AtomicInteger();
+  final AtomicInteger fieldIds = new AtomicInteger();
+  final Cache<SootField, JimpleField> fields =
+      CacheBuilder.newBuilder().weakKeys().weakValues().build();
+  // Tables of statements and values of other methods, null is mapped to this
+  private final Map<Object, Map<Stmt, JimpleStatement>> statements = Maps.newConcurrentMap();
+  private final Map<Object, Map<JimpleVal.Key, JimpleVal>> vals = Maps.newConcurrentMap();
+
+  private InternTables(G scene) {
+    this.scene = new WeakReference<>(scene);
+  }
+
+  static InternTables v() {
+    G scene = G.v();
+    InternTables tables = current;
+    if (tables.scene.get() != scene) {
+      synchronized (InternTables.class) {
+        tables = current;
+        if (tables.scene.get() != scene) {
+          tables = new InternTables(scene);
+          current = tables;
+        }
+      }
+    }
+    return tables;
+  }
+
+  static Map<Stmt, JimpleStatement> statementsOf(Method m) {
+    if (m instanceof JimpleMethod) {
+      return ((JimpleMethod) m).statements;
+    }
+    InternTables tables = v();
+    return tables.statements.computeIfAbsent(
+        m == null ? tables : m, k -> Maps.newConcurrentMap());
+  }
+
+  static Map<JimpleVal.Key, JimpleVal> valsOf(Method m) {
+    if (m instanceof JimpleMethod) {
+      return ((JimpleMethod) m).vals;
+    }
+    InternTables tables = v();
+    return tables.vals.computeIfAbsent(m == null ? tables : m, k -> Maps.newConcurrentMap());
+  }
+}
@@ -18,7 +18,8 @@ public class JimpleControlFlowGraph implements ControlFlowGraph {
 
   private UnitGraph graph;
 
-  private boolean cacheBuild = false;
+  // Set once the caches are complete, they are built under the lock of this graph.
+  private volatile boolean cacheBuild = false;
   private List<Statement> startPointCache = Lists.newArrayList();
   private List<Statement> endPointCache = Lists.newArrayList();
   private Multimap<Statement, Statement> succsOfCache = HashMultimap.create();
@@ -39,7 +40,15 @@ public class JimpleControlFlowGraph implements ControlFlowGraph {
 
   private void buildCache() {
     if (cacheBuild) return;
-    cacheBuild = true;
+    synchronized (this) {
+      if (!cacheBuild) {
+        fillCache();
+        cacheBuild = true;
+      }
+    }
+  }
+
+  private void fillCache() {
     List<Unit> heads = graph.getHeads();
     for (Unit u : heads) {
       // We add a nop statement to the body and ignore IdentityStmt ($stack14 := @caughtexception)
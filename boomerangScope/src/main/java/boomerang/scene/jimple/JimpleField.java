@@ -12,14 +12,36 @@
 package boomerang.scene.jimple;
 
 import boomerang.scene.Field;
+import boomerang.scene.Interned;
 import soot.SootField;
 
-public class JimpleField extends Field {
+public class JimpleField extends Field implements Interned {
   private final SootField delegate;
+  private final int id;
 
-  public JimpleField(SootField delegate) {
+  private JimpleField(SootField delegate, int id) {
     super();
     this.delegate = delegate;
+    this.id = id;
+  }
+
+  /**
+   * @deprecated Use {@link #of(SootField)}, which returns the interned field. The created field
+   *     equals the interned one.
+   */
+  @Deprecated
+  public JimpleField(SootField delegate) {
+    this(delegate, of(delegate).id);
+  }
+
+  public static JimpleField of(SootField delegate) {
+    InternTables tables = InternTables.v();
+    JimpleField field = tables.fields.getIfPresent(delegate);
+    return field != null
+        ? field
+        : tables.fields
+            .asMap()
+            .computeIfAbsent(delegate, d -> new JimpleField(d, tables.fieldIds.getAndIncrement()));
   }
 
   @Override
@@ -31,24 +53,19 @@ public class JimpleField extends Field {
     return this.delegate;
   }
 
+  @Override
+  public int getId() {
+    return id;
+  }
+
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((delegate == null) ? 0 : delegate.hashCode());
-    return result;
+    return id;
   }
 
   @Override
   public boolean equals(Object obj) {
-    if (this == obj) return true;
-    if (!super.equals(obj)) return false;
-    if (getClass() != obj.getClass()) return false;
-    JimpleField other = (JimpleField) obj;
-    if (delegate == null) {
-      if (other.delegate != null) return false;
-    } else if (!delegate.equals(other.delegate)) return false;
-    return true;
+    return this == obj || (obj instanceof JimpleField && ((JimpleField) obj).id == id);
   }
 
   @Override
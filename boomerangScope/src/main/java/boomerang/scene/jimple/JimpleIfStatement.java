@@ -33,17 +33,17 @@ public class JimpleIfStatement implements IfStatement {
       EqExpr eqExpr = (EqExpr) delegate.getCondition();
       Value op1 = eqExpr.getOp1();
       Value op2 = eqExpr.getOp2();
-      if ((val.equals(new JimpleVal(op1, method)) && op2.equals(NullConstant.v())
-          || (val.equals(new JimpleVal(op2, method)) && op2.equals(NullConstant.v())))) {
+      if ((val.equals(JimpleVal.of(op1, method)) && op2.equals(NullConstant.v())
+          || (val.equals(JimpleVal.of(op2, method)) && op2.equals(NullConstant.v())))) {
         return Evaluation.TRUE;
       }
-      if ((val.equals(new JimpleVal(IntConstant.v(0), method)) && op2.equals(IntConstant.v(0))
-          || (val.equals(new JimpleVal(IntConstant.v(1), method))
+      if ((val.equals(JimpleVal.of(IntConstant.v(0), method)) && op2.equals(IntConstant.v(0))
+          || (val.equals(JimpleVal.of(IntConstant.v(1), method))
               && op2.equals(IntConstant.v(1))))) {
         return Evaluation.TRUE;
       }
-      if ((val.equals(new JimpleVal(IntConstant.v(1), method)) && op2.equals(IntConstant.v(0))
-          || (val.equals(new JimpleVal(IntConstant.v(0), method))
+      if ((val.equals(JimpleVal.of(IntConstant.v(1), method)) && op2.equals(IntConstant.v(0))
+          || (val.equals(JimpleVal.of(IntConstant.v(0), method))
               && op2.equals(IntConstant.v(1))))) {
         return Evaluation.FALSE;
       }
@@ -53,17 +53,17 @@ public class JimpleIfStatement implements IfStatement {
       NeExpr eqExpr = (NeExpr) delegate.getCondition();
       Value op1 = eqExpr.getOp1();
       Value op2 = eqExpr.getOp2();
-      if ((val.equals(new JimpleVal(op1, method)) && op2.equals(NullConstant.v())
-          || (val.equals(new JimpleVal(op2, method)) && op2.equals(NullConstant.v())))) {
+      if ((val.equals(JimpleVal.of(op1, method)) && op2.equals(NullConstant.v())
+          || (val.equals(JimpleVal.of(op2, method)) && op2.equals(NullConstant.v())))) {
         return Evaluation.FALSE;
       }
-      if ((val.equals(new JimpleVal(IntConstant.v(0), method)) && op2.equals(IntConstant.v(0))
-          || (val.equals(new JimpleVal(IntConstant.v(1), method))
+      if ((val.equals(JimpleVal.of(IntConstant.v(0), method)) && op2.equals(IntConstant.v(0))
+          || (val.equals(JimpleVal.of(IntConstant.v(1), method))
               && op2.equals(IntConstant.v(1))))) {
         return Evaluation.FALSE;
       }
-      if ((val.equals(new JimpleVal(IntConstant.v(1), method)) && op2.equals(IntConstant.v(0))
-          || (val.equals(new JimpleVal(IntConstant.v(0), method))
+      if ((val.equals(JimpleVal.of(IntConstant.v(1), method)) && op2.equals(IntConstant.v(0))
+          || (val.equals(JimpleVal.of(IntConstant.v(0), method))
               && op2.equals(IntConstant.v(1))))) {
         return Evaluation.TRUE;
       }
@@ -77,7 +77,7 @@ public class JimpleIfStatement implements IfStatement {
       ConditionExpr c = ((ConditionExpr) delegate.getCondition());
       Value op1 = c.getOp1();
       Value op2 = c.getOp2();
-      return val.equals(new JimpleVal(op1, method)) || val.equals(new JimpleVal(op2, method));
+      return val.equals(JimpleVal.of(op1, method)) || val.equals(JimpleVal.of(op2, method));
     }
     return false;
   }
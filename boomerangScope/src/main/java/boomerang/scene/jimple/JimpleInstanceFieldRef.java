@@ -15,10 +15,10 @@ public class JimpleInstanceFieldRef implements InstanceFieldRef {
   }
 
   public Val getBase() {
-    return new JimpleVal(delegate.getBase(), m);
+    return JimpleVal.of(delegate.getBase(), m);
   }
 
   public Field getField() {
-    return new JimpleField(delegate.getField());
+    return JimpleField.of(delegate.getField());
   }
 }
@@ -26,7 +26,7 @@ public class JimpleInvokeExpr implements InvokeExpr {
     if (delegate.getArg(index) == null) {
       return Val.zero();
     }
-    return new JimpleVal(delegate.getArg(index), m);
+    return JimpleVal.of(delegate.getArg(index), m);
   }
 
   public List<Val> getArgs() {
@@ -45,7 +45,7 @@ public class JimpleInvokeExpr implements InvokeExpr {
 
   public Val getBase() {
     InstanceInvokeExpr iie = (InstanceInvokeExpr) delegate;
-    return new JimpleVal(iie.getBase(), m);
+    return JimpleVal.of(iie.getBase(), m);
   }
 
   public DeclaredMethod getMethod() {
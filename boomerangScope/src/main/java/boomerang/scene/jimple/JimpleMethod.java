@@ -8,20 +8,27 @@ import boomerang.scene.WrappedClass;
 import com.google.common.collect.Interner;
 import com.google.common.collect.Interners;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import soot.Local;
 import soot.SootMethod;
+import soot.jimple.Stmt;
 import soot.util.Chain;
 
 public class JimpleMethod extends Method {
   private final SootMethod delegate;
 
   private static Interner<JimpleMethod> INTERNAL_POOL = Interners.newWeakInterner();
-  private ControlFlowGraph cfg;
-  private List<Val> parameterLocalCache;
-  private Set<Val> localCache;
+  // The caches are published only once complete, methods may be shared by multiple threads.
+  private volatile ControlFlowGraph cfg;
+  private volatile List<Val> parameterLocalCache;
+  private volatile Set<Val> localCache;
+  // The interned statements and values of this method, see JimpleStatement and JimpleVal
+  final Map<Stmt, JimpleStatement> statements = Maps.newConcurrentMap();
+  final Map<JimpleVal.Key, JimpleVal> vals = Maps.newConcurrentMap();
 
   private JimpleMethod(SootMethod m) {
     this.delegate = m;
@@ -84,28 +91,32 @@ public class JimpleMethod extends Method {
   }
 
   public Set<Val> getLocals() {
-    if (localCache == null) {
-      localCache = Sets.newHashSet();
+    Set<Val> res = localCache;
+    if (res == null) {
+      res = Sets.newHashSet();
       Chain<Local> locals = delegate.getActiveBody().getLocals();
       for (Local l : locals) {
-        localCache.add(new JimpleVal(l, this));
+        res.add(JimpleVal.of(l, this));
       }
+      localCache = res;
     }
-    return localCache;
+    return res;
   }
 
   public Val getThisLocal() {
-    return new JimpleVal(delegate.getActiveBody().getThisLocal(), this);
+    return JimpleVal.of(delegate.getActiveBody().getThisLocal(), this);
   }
 
   public List<Val> getParameterLocals() {
-    if (parameterLocalCache == null) {
-      parameterLocalCache = Lists.newArrayList();
+    List<Val> res = parameterLocalCache;
+    if (res == null) {
+      res = Lists.newArrayList();
       for (Local v : delegate.getActiveBody().getParameterLocals()) {
-        parameterLocalCache.add(new JimpleVal(v, this));
+        res.add(JimpleVal.of(v, this));
       }
+      parameterLocalCache = res;
     }
-    return parameterLocalCache;
+    return res;
   }
 
   public boolean isStatic() {
@@ -125,10 +136,17 @@ public class JimpleMethod extends Method {
   }
 
   public ControlFlowGraph getControlFlowGraph() {
-    if (cfg == null) {
-      cfg = new JimpleControlFlowGraph(this);
+    ControlFlowGraph res = cfg;
+    if (res == null) {
+      synchronized (this) {
+        res = cfg;
+        if (res == null) {
+          res = new JimpleControlFlowGraph(this);
+          cfg = res;
+        }
+      }
     }
-    return cfg;
+    return res;
   }
 
   public String getSubSignature() {
@@ -0,0 +1,195 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package boomerang.scene.jimple;
+
+import boomerang.scene.CallSiteStatement;
+import boomerang.scene.Field;
+import boomerang.scene.Method;
+import boomerang.scene.SceneCodec;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import soot.Local;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.Stmt;
+import wpds.impl.SummaryFile;
+
+/**
+ * Encodes the statements, values and fields of the Soot scene. Methods and fields are identified by
+ * their signature, statements by their position in the active body of their method, locals by their
+ * name and all other values by the statement and the value box they occur in. Values that do not
+ * occur in the body of their method cannot be encoded.
+ *
+ * <p>The bodies must not change after the codec is created, i.e. it must be created after the
+ * {@link BoomerangPretransformer} has run, in both the writing and the reading run.
+ */
+public class JimpleSceneCodec extends SceneCodec {
+  private static final byte LOCAL = 0;
+  private static final byte VALUE = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte STATIC_FIELD = 3;
+
+  private final Map<SootMethod, BodyIndex> bodies = Maps.newConcurrentMap();
+
+  @Override
+  protected void writeStatement(Statement statement, DataOutput out) throws IOException {
+    if (!(statement instanceof JimpleStatement)) {
+      throw new IllegalArgumentException("Not a Jimple statement " + statement);
+    }
+    JimpleStatement stmt = (JimpleStatement) statement;
+    BodyIndex body = writeMethod(stmt.getMethod(), out);
+    out.writeInt(body.indexOf(stmt.getDelegate()));
+  }
+
+  @Override
+  protected Statement readStatement(ByteBuffer in) {
+    JimpleMethod m = readMethod(in);
+    Unit unit = bodies.get(m.getDelegate()).units.get(in.getInt());
+    Statement statement = JimpleStatement.create((Stmt) unit, m)[0];
+    return statement instanceof CallSiteStatement
+        ? ((CallSiteStatement) statement).getDelegate()
+        : statement;
+  }
+
+  @Override
+  protected void writeVal(Val val, DataOutput out) throws IOException {
+    if (val instanceof JimpleDoubleVal) {
+      out.writeByte(DOUBLE);
+      writeValue((JimpleVal) val, out);
+      vals().write(((JimpleDoubleVal) val).getFalseVariable(), out);
+    } else if (val instanceof JimpleVal) {
+      writeValue((JimpleVal) val, out);
+    } else if (val instanceof JimpleStaticFieldVal) {
+      out.writeByte(STATIC_FIELD);
+      writeField(((JimpleStaticFieldVal) val).field(), out);
+      writeMethod(val.m(), out);
+    } else {
+      throw new IllegalArgumentException("Not a Jimple value " + val);
+    }
+  }
+
+  private void writeValue(JimpleVal val, DataOutput out) throws IOException {
+    Value value = val.getDelegate();
+    if (value instanceof Local) {
+      out.writeByte(LOCAL);
+      writeMethod(val.m(), out);
+      SummaryFile.writeString(out, ((Local) value).getName());
+    } else {
+      out.writeByte(VALUE);
+      BodyIndex body = writeMethod(val.m(), out);
+      int[] position = body.values.get(value);
+      if (position == null) {
+        throw new IllegalArgumentException("Value " + val + " does not occur in its method");
+      }
+      out.writeInt(position[0]);
+      out.writeInt(position[1]);
+    }
+  }
+
+  @Override
+  protected Val readVal(ByteBuffer in) {
+    byte tag = in.get();
+    switch (tag) {
+      case DOUBLE:
+        Val val = readVal(in);
+        return val.withSecondVal(vals().read(in));
+      case LOCAL:
+        JimpleMethod m = readMethod(in);
+        Local local = bodies.get(m.getDelegate()).locals.get(SummaryFile.readString(in));
+        if (local == null) {
+          throw new IllegalArgumentException("Unknown local in " + m);
+        }
+        return JimpleVal.of(local, m);
+      case VALUE:
+        JimpleMethod method = readMethod(in);
+        Unit unit = bodies.get(method.getDelegate()).units.get(in.getInt());
+        ValueBox box = unit.getUseAndDefBoxes().get(in.getInt());
+        return JimpleVal.of(box.getValue(), method);
+      case STATIC_FIELD:
+        JimpleField field = (JimpleField) readField(in);
+        return new JimpleStaticFieldVal(field, readMethod(in));
+      default:
+        throw new IllegalArgumentException("Unknown Jimple value tag " + tag);
+    }
+  }
+
+  @Override
+  protected void writeField(Field field, DataOutput out) throws IOException {
+    if (!(field instanceof JimpleField)) {
+      throw new IllegalArgumentException("Not a Jimple field " + field);
+    }
+    SummaryFile.writeString(out, ((JimpleField) field).getSootField().getSignature());
+  }
+
+  @Override
+  protected Field readField(ByteBuffer in) {
+    return JimpleField.of(Scene.v().getField(SummaryFile.readString(in)));
+  }
+
+  private BodyIndex writeMethod(Method m, DataOutput out) throws IOException {
+    if (!(m instanceof JimpleMethod)) {
+      throw new IllegalArgumentException("Not a Jimple method " + m);
+    }
+    SootMethod method = ((JimpleMethod) m).getDelegate();
+    if (!method.hasActiveBody()) {
+      throw new IllegalArgumentException("No active body for " + m);
+    }
+    SummaryFile.writeString(out, method.getSignature());
+    return bodies.computeIfAbsent(method, BodyIndex::new);
+  }
+
+  private JimpleMethod readMethod(ByteBuffer in) {
+    SootMethod method = Scene.v().getMethod(SummaryFile.readString(in));
+    bodies.computeIfAbsent(method, BodyIndex::new);
+    return JimpleMethod.of(method);
+  }
+
+  /** The positions of the statements and values in the active body of a method. */
+  private static class BodyIndex {
+    private final List<Unit> units;
+    private final Map<Unit, Integer> unitIds = Maps.newIdentityHashMap();
+    private final Map<Value, int[]> values = Maps.newHashMap();
+    private final Map<String, Local> locals = Maps.newHashMap();
+
+    BodyIndex(SootMethod method) {
+      units = Lists.newArrayList(method.getActiveBody().getUnits());
+      for (int i = 0; i < units.size(); i++) {
+        unitIds.put(units.get(i), i);
+        List<ValueBox> boxes = units.get(i).getUseAndDefBoxes();
+        for (int j = 0; j < boxes.size(); j++) {
+          values.putIfAbsent(boxes.get(j).getValue(), new int[] {i, j});
+        }
+      }
+      for (Local local : method.getActiveBody().getLocals()) {
+        locals.put(local.getName(), local);
+      }
+    }
+
+    int indexOf(Unit unit) {
+      Integer id = unitIds.get(unit);
+      if (id == null) {
+        throw new IllegalArgumentException("Statement " + unit + " is not in the active body");
+      }
+      return id;
+    }
+  }
+}
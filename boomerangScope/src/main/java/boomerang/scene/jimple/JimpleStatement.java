@@ -14,6 +14,7 @@ package boomerang.scene.jimple;
 import boomerang.scene.CallSiteStatement;
 import boomerang.scene.Field;
 import boomerang.scene.IfStatement;
+import boomerang.scene.Interned;
 import boomerang.scene.InvokeExpr;
 import boomerang.scene.Method;
 import boomerang.scene.Pair;
@@ -23,6 +24,7 @@ import boomerang.scene.StaticFieldVal;
 import boomerang.scene.Val;
 import com.google.common.base.Joiner;
 import java.util.Collection;
+import java.util.Map;
 import soot.jimple.ArrayRef;
 import soot.jimple.AssignStmt;
 import soot.jimple.CastExpr;
@@ -40,30 +42,40 @@ import soot.jimple.StringConstant;
 import soot.jimple.ThrowStmt;
 import soot.tagkit.SourceLnPosTag;
 
-public class JimpleStatement extends Statement {
-
+public class JimpleStatement extends Statement implements Interned {
   // Wrapper for stmt so we know the method
   private final Stmt delegate;
   private final Method method;
+  private final int id;
+  private final Statement[] statements;
 
   private JimpleStatement(Stmt delegate, Method m) {
     super(m);
-    if (delegate == null) {
-      throw new RuntimeException("Invalid, parameter may not be null");
-    }
     this.delegate = delegate;
     this.method = m;
+    this.id = InternTables.v().statementIds.getAndIncrement();
+    if (delegate.containsInvokeExpr()) {
+      this.statements =
+          new Statement[] {new CallSiteStatement(this), new ReturnSiteStatement(this)};
+    } else {
+      this.statements = new Statement[] {this};
+    }
   }
 
+  /**
+   * Returns the statements of a Soot statement, i.e. the statement itself or the call and return
+   * site of a call. Statements are interned per method, repeated calls return the same instances.
+   */
   public static Statement[] create(Stmt delegate, Method m) {
-    JimpleStatement jimpleStatement = new JimpleStatement(delegate, m);
-    if (delegate.containsInvokeExpr()) {
-      return new Statement[] {
-        new CallSiteStatement(jimpleStatement), new ReturnSiteStatement(jimpleStatement)
-      };
-    } else {
-      return new Statement[] {jimpleStatement};
+    if (delegate == null) {
+      throw new RuntimeException("Invalid, parameter may not be null");
+    }
+    Map<Stmt, JimpleStatement> statements = InternTables.statementsOf(m);
+    JimpleStatement jimpleStatement = statements.get(delegate);
+    if (jimpleStatement == null) {
+      jimpleStatement = statements.computeIfAbsent(delegate, d -> new JimpleStatement(d, m));
     }
+    return jimpleStatement.statements.clone();
   }
 
   @Override
@@ -129,14 +141,14 @@ public class JimpleStatement extends Statement {
     AssignStmt as = (AssignStmt) delegate;
     if (as.getLeftOp() instanceof StaticFieldRef) {
       StaticFieldRef staticFieldRef = (StaticFieldRef) as.getLeftOp();
-      return new JimpleField(staticFieldRef.getField());
+      return JimpleField.of(staticFieldRef.getField());
     }
 
     if (as.getLeftOp() instanceof ArrayRef) {
       return Field.array(getArrayBase().getY());
     }
     InstanceFieldRef ifr = (InstanceFieldRef) as.getLeftOp();
-    return new JimpleField(ifr.getField());
+    return JimpleField.of(ifr.getField());
   }
 
   public boolean isFieldWriteWithBase(Val base) {
@@ -154,7 +166,7 @@ public class JimpleStatement extends Statement {
   public Field getLoadedField() {
     AssignStmt as = (AssignStmt) delegate;
     InstanceFieldRef ifr = (InstanceFieldRef) as.getRightOp();
-    return new JimpleField(ifr.getField());
+    return JimpleField.of(ifr.getField());
   }
 
   public boolean isFieldLoadWithBase(Val base) {
@@ -173,10 +185,10 @@ public class JimpleStatement extends Statement {
     assert isAssign() || isIdentityStmt();
     if (isAssign()) {
       AssignStmt assignStmt = (AssignStmt) delegate;
-      return new JimpleVal(assignStmt.getLeftOp(), method);
+      return JimpleVal.of(assignStmt.getLeftOp(), method);
     } else {
       IdentityStmt identityStmt = (IdentityStmt) delegate;
-      return new JimpleVal(identityStmt.getLeftOp(), method);
+      return JimpleVal.of(identityStmt.getLeftOp(), method);
     }
   }
 
@@ -184,10 +196,10 @@ public class JimpleStatement extends Statement {
     assert isAssign() || isIdentityStmt();
     if (isAssign()) {
       AssignStmt assignStmt = (AssignStmt) delegate;
-      return new JimpleVal(assignStmt.getRightOp(), method);
+      return JimpleVal.of(assignStmt.getRightOp(), method);
     } else {
       IdentityStmt identityStmt = (IdentityStmt) delegate;
-      return new JimpleVal(identityStmt.getRightOp(), method);
+      return JimpleVal.of(identityStmt.getRightOp(), method);
     }
   }
 
@@ -230,7 +242,7 @@ public class JimpleStatement extends Statement {
   public Val getReturnOp() {
     assert isReturnStmt();
     ReturnStmt assignStmt = (ReturnStmt) delegate;
-    return new JimpleVal(assignStmt.getOp(), method);
+    return JimpleVal.of(assignStmt.getOp(), method);
   }
 
   public boolean isMultiArrayAllocation() {
@@ -385,31 +397,19 @@ public class JimpleStatement extends Statement {
     return false;
   }
 
+  @Override
+  public int getId() {
+    return id;
+  }
+
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((delegate == null) ? 0 : delegate.hashCode());
-    return result;
+    return id;
   }
 
   @Override
   public boolean equals(Object obj) {
-    if (this == obj) {
-      return true;
-    }
-    if (obj == null) {
-      return false;
-    }
-    if (getClass() != obj.getClass()) {
-      return false;
-    }
-    JimpleStatement other = (JimpleStatement) obj;
-    if (delegate == null) {
-      return other.delegate == null;
-    } else {
-      return delegate.equals(other.delegate);
-    }
+    return this == obj;
   }
 
   @Override
@@ -417,7 +417,7 @@ public class JimpleStatement extends Statement {
     AssignStmt ins = (AssignStmt) delegate;
     soot.jimple.InstanceFieldRef val = (soot.jimple.InstanceFieldRef) ins.getLeftOp();
     return new Pair<Val, Field>(
-        new JimpleVal(val.getBase(), method), new JimpleField(val.getField()));
+        JimpleVal.of(val.getBase(), method), JimpleField.of(val.getField()));
   }
 
   @Override
@@ -425,7 +425,7 @@ public class JimpleStatement extends Statement {
     AssignStmt ins = (AssignStmt) delegate;
     soot.jimple.InstanceFieldRef val = (soot.jimple.InstanceFieldRef) ins.getRightOp();
     return new Pair<Val, Field>(
-        new JimpleVal(val.getBase(), method), new JimpleField(val.getField()));
+        JimpleVal.of(val.getBase(), method), JimpleField.of(val.getField()));
   }
 
   @Override
@@ -450,7 +450,7 @@ public class JimpleStatement extends Statement {
     } else {
       throw new RuntimeException("Error");
     }
-    return new JimpleStaticFieldVal(new JimpleField(v.getField()), method);
+    return new JimpleStaticFieldVal(JimpleField.of(v.getField()), method);
   }
 
   @Override
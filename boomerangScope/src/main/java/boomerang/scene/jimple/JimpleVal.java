@@ -11,12 +11,16 @@
  */
 package boomerang.scene.jimple;
 
+import boomerang.scene.Interned;
 import boomerang.scene.Method;
 import boomerang.scene.Pair;
 import boomerang.scene.Statement;
 import boomerang.scene.StaticFieldVal;
 import boomerang.scene.Type;
 import boomerang.scene.Val;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
 import soot.Local;
 import soot.NullType;
 import soot.Scene;
@@ -35,17 +39,49 @@ import soot.jimple.NullConstant;
 import soot.jimple.StaticFieldRef;
 import soot.jimple.StringConstant;
 
-public class JimpleVal extends Val {
+/**
+ * A value of a {@link JimpleMethod}. Values are interned per method, use {@link #of(Value, Method)}
+ * to obtain them.
+ */
+public class JimpleVal extends Val implements Interned {
   private final Value v;
+  private final int id;
 
-  public JimpleVal(Value v, Method m) {
-    this(v, m, null);
-  }
-
-  protected JimpleVal(Value v, Method m, Statement unbalanced) {
+  JimpleVal(Value v, Method m, Statement unbalanced) {
     super(m, unbalanced);
     if (v == null) throw new RuntimeException("Value must not be null!");
     this.v = v;
+    this.id = InternTables.v().valIds.getAndIncrement();
+  }
+
+  /**
+   * @deprecated Use {@link #of(Value, Method)}, which returns the interned value. The created value
+   *     equals the interned one.
+   */
+  @Deprecated
+  public JimpleVal(Value v, Method m) {
+    this(of(v, m));
+  }
+
+  /** A copy of an interned value, which equals it. */
+  JimpleVal(JimpleVal interned) {
+    super(interned.m, interned.unbalancedStmt);
+    this.v = interned.v;
+    this.id = interned.id;
+  }
+
+  public static JimpleVal of(Value v, Method m) {
+    return of(v, m, null);
+  }
+
+  private static JimpleVal of(Value v, Method m, Statement unbalanced) {
+    return intern(m, new Key(v, unbalanced, null), () -> new JimpleVal(v, m, unbalanced));
+  }
+
+  private static JimpleVal intern(Method m, Key key, Supplier<JimpleVal> factory) {
+    Map<Key, JimpleVal> vals = InternTables.valsOf(m);
+    JimpleVal val = vals.get(key);
+    return val != null ? val : vals.computeIfAbsent(key, k -> factory.get());
   }
 
   public JimpleType getType() {
@@ -80,7 +116,7 @@ public class JimpleVal extends Val {
   }
 
   public Val asUnbalanced(Statement stmt) {
-    return new JimpleVal(v, m, stmt);
+    return of(v, m, stmt);
   }
 
   public boolean isLocal() {
@@ -130,7 +166,7 @@ public class JimpleVal extends Val {
 
   public Val getCastOp() {
     CastExpr cast = (CastExpr) v;
-    return new JimpleVal(cast.getOp(), m);
+    return of(cast.getOp(), m);
   }
 
   public boolean isInstanceFieldRef() {
@@ -143,7 +179,7 @@ public class JimpleVal extends Val {
 
   public StaticFieldVal getStaticField() {
     StaticFieldRef val = (StaticFieldRef) v;
-    return new JimpleStaticFieldVal(new JimpleField(val.getField()), m);
+    return new JimpleStaticFieldVal(JimpleField.of(val.getField()), m);
   }
 
   public boolean isArrayRef() {
@@ -153,7 +189,7 @@ public class JimpleVal extends Val {
   @Override
   public Pair<Val, Integer> getArrayBase() {
     return new Pair<>(
-        new JimpleVal(((ArrayRef) v).getBase(), m),
+        of(((ArrayRef) v).getBase(), m),
         ((ArrayRef) v).getIndex() instanceof IntConstant
             ? ((IntConstant) ((ArrayRef) v).getIndex()).value
             : -1);
@@ -165,7 +201,7 @@ public class JimpleVal extends Val {
 
   public Val getInstanceOfOp() {
     InstanceOfExpr val = (InstanceOfExpr) v;
-    return new JimpleVal(val.getOp(), m);
+    return of(val.getOp(), m);
   }
 
   public boolean isLengthExpr() {
@@ -174,7 +210,7 @@ public class JimpleVal extends Val {
 
   public Val getLengthOp() {
     LengthExpr val = (LengthExpr) v;
-    return new JimpleVal(val.getOp(), m);
+    return of(val.getOp(), m);
   }
 
   public boolean isIntConstant() {
@@ -208,27 +244,22 @@ public class JimpleVal extends Val {
 
   @Override
   public Val withSecondVal(Val leftOp) {
-    return new JimpleDoubleVal(v, m, leftOp);
+    return intern(m, new Key(v, null, leftOp), () -> new JimpleDoubleVal(v, m, leftOp));
+  }
+
+  @Override
+  public int getId() {
+    return id;
   }
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((v == null) ? 0 : v.hashCode());
-    return result;
+    return id;
   }
 
   @Override
   public boolean equals(Object obj) {
-    if (this == obj) return true;
-    if (!super.equals(obj)) return false;
-    if (getClass() != obj.getClass()) return false;
-    JimpleVal other = (JimpleVal) obj;
-    if (v == null) {
-      if (other.v != null) return false;
-    } else if (!v.equals(other.v)) return false;
-    return true;
+    return this == obj || (obj instanceof JimpleVal && ((JimpleVal) obj).id == id);
   }
 
   public Value getDelegate() {
@@ -239,4 +270,32 @@ public class JimpleVal extends Val {
   public String getVariableName() {
     return v.toString();
   }
+
+  /** Identifies a value within its method, the method itself is given by the interning table. */
+  static final class Key {
+    private final Value v;
+    private final Statement unbalanced;
+    private final Val falseVariable;
+
+    private Key(Value v, Statement unbalanced, Val falseVariable) {
+      this.v = v;
+      this.unbalanced = unbalanced;
+      this.falseVariable = falseVariable;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(v, unbalanced, falseVariable);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (obj == null || getClass() != obj.getClass()) return false;
+      Key other = (Key) obj;
+      return Objects.equals(v, other.v)
+          && Objects.equals(unbalanced, other.unbalanced)
+          && Objects.equals(falseVariable, other.falseVariable);
+    }
+  }
 }
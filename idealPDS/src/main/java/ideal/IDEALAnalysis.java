@@ -16,13 +16,21 @@ import boomerang.Query;
 import boomerang.WeightedForwardQuery;
 import boomerang.results.ForwardBoomerangResults;
 import boomerang.scene.AnalysisScope;
+import boomerang.scene.CallGraph;
+import boomerang.scene.DataFlowScope;
 import boomerang.scene.Statement;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import typestate.TransitionFunction;
@@ -36,9 +44,10 @@ public class IDEALAnalysis<W extends Weight> {
 
   protected final IDEALAnalysisDefinition<W> analysisDefinition;
   private final AnalysisScope seedFactory;
-  private int seedCount;
-  private Map<WeightedForwardQuery<W>, Stopwatch> analysisTime = new HashMap<>();
-  private Set<WeightedForwardQuery<W>> timedoutSeeds = new HashSet<>();
+  private final AtomicInteger seedCount = new AtomicInteger();
+  private final Map<WeightedForwardQuery<W>, Stopwatch> analysisTime = new ConcurrentHashMap<>();
+  private final Set<WeightedForwardQuery<W>> timedoutSeeds = ConcurrentHashMap.newKeySet();
+  private final Object resultHandlerLock = new Object();
 
   public IDEALAnalysis(final IDEALAnalysisDefinition<W> analysisDefinition) {
     this.analysisDefinition = analysisDefinition;
@@ -59,25 +68,75 @@ public class IDEALAnalysis<W extends Weight> {
 
     if (initialSeeds.isEmpty()) LOGGER.info("No seeds found!");
     else LOGGER.info("Analysing {} seeds!", initialSeeds.size());
+    List<WeightedForwardQuery<W>> seeds = Lists.newArrayList();
     for (Query s : initialSeeds) {
       if (!(s instanceof WeightedForwardQuery)) continue;
-      WeightedForwardQuery<W> seed = (WeightedForwardQuery<W>) s;
-      seedCount++;
-      LOGGER.info("Analyzing {}", seed);
-      Stopwatch watch = Stopwatch.createStarted();
-      analysisTime.put(seed, watch);
-      ForwardBoomerangResults<W> res = run(seed);
-      watch.stop();
-      LOGGER.debug(
-          "Analyzed (finished,timedout): \t ({},{}) of {} seeds",
-          (seedCount - timedoutSeeds.size()),
-          timedoutSeeds.size(),
-          initialSeeds.size());
+      seeds.add((WeightedForwardQuery<W>) s);
+    }
+    int threads = analysisDefinition.numberOfThreads();
+    if (threads > 1 && seeds.size() > 1) {
+      runParallel(seeds, threads, initialSeeds.size());
+    } else {
+      CallGraph callGraph = analysisDefinition.callGraph();
+      DataFlowScope dataFlowScope = analysisDefinition.getDataFlowScope();
+      for (WeightedForwardQuery<W> seed : seeds) {
+        analyze(seed, callGraph, dataFlowScope, initialSeeds.size());
+      }
+    }
+  }
+
+  private void runParallel(List<WeightedForwardQuery<W>> seeds, int threads, int totalSeeds) {
+    LOGGER.info("Analysing seeds with {} threads", threads);
+    CallGraph callGraph = analysisDefinition.callGraph().immutableCopy();
+    DataFlowScope dataFlowScope = DataFlowScope.threadSafe(analysisDefinition.getDataFlowScope());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (WeightedForwardQuery<W> seed : seeds) {
+        futures.add(executor.submit(() -> analyze(seed, callGraph, dataFlowScope, totalSeeds)));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while analyzing seeds", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executor.shutdownNow();
     }
   }
 
+  private void analyze(
+      WeightedForwardQuery<W> seed,
+      CallGraph callGraph,
+      DataFlowScope dataFlowScope,
+      int totalSeeds) {
+    int count = seedCount.incrementAndGet();
+    LOGGER.info("Analyzing {}", seed);
+    Stopwatch watch = Stopwatch.createStarted();
+    analysisTime.put(seed, watch);
+    run(seed, callGraph, dataFlowScope);
+    watch.stop();
+    LOGGER.debug(
+        "Analyzed (finished,timedout): \t ({},{}) of {} seeds",
+        (count - timedoutSeeds.size()),
+        timedoutSeeds.size(),
+        totalSeeds);
+  }
+
   public ForwardBoomerangResults<W> run(ForwardQuery seed) {
-    IDEALSeedSolver<W> idealAnalysis = new IDEALSeedSolver<W>(analysisDefinition, seed);
+    return run(seed, analysisDefinition.callGraph(), analysisDefinition.getDataFlowScope());
+  }
+
+  private ForwardBoomerangResults<W> run(
+      ForwardQuery seed, CallGraph callGraph, DataFlowScope dataFlowScope) {
+    IDEALSeedSolver<W> idealAnalysis =
+        new IDEALSeedSolver<W>(analysisDefinition, seed, callGraph, dataFlowScope);
     ForwardBoomerangResults<W> res;
     try {
       res = idealAnalysis.run();
@@ -85,7 +144,10 @@ public class IDEALAnalysis<W extends Weight> {
       res = (ForwardBoomerangResults<W>) e.getLastResults();
       timedoutSeeds.add((WeightedForwardQuery) seed);
     }
-    analysisDefinition.getResultHandler().report((WeightedForwardQuery) seed, res);
+    // Result handlers are not required to be thread-safe, reports are serialized.
+    synchronized (resultHandlerLock) {
+      analysisDefinition.getResultHandler().report((WeightedForwardQuery) seed, res);
+    }
     return res;
   }
 
@@ -49,6 +49,18 @@ public abstract class IDEALAnalysisDefinition<W extends Weight> {
     return true;
   }
 
+  /**
+   * Number of threads used to analyze the seeds. With more than one thread the seeds are analyzed
+   * in parallel on an immutable copy of the {@link #callGraph()}. The {@link #getDataFlowScope()}
+   * is then wrapped by {@link DataFlowScope#threadSafe(DataFlowScope)}, it is only called by one
+   * thread at a time and must answer equal methods alike. The {@link #weightFunctions()} are used
+   * by multiple threads and must not keep mutable state. The result handler is only invoked by one
+   * thread at a time.
+   */
+  public int numberOfThreads() {
+    return 1;
+  }
+
   public String toString() {
     String str = "====== IDEal Analysis Options ======";
     // str += "\nEdge Functions:\t\t" + edgeFunctions();
@@ -0,0 +1,53 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package ideal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans a phase of an {@link IDEALSeedSolver}, i.e. the object flow or the value flow of a seed.
+ * Like the events of {@link boomerang.jfr}, the event is only recorded if enabled by a recording.
+ */
+@Name("ideal.SeedPhase")
+@Label("IDEal Seed Phase")
+@Category({"Boomerang", "IDEal"})
+@Description("Phase of the analysis of a seed by IDEal")
+public class IDEALPhaseEvent extends Event {
+  @Label("Seed")
+  public String seed;
+
+  @Label("Phase")
+  public String phase;
+
+  @Label("Timed Out")
+  public boolean timedOut;
+
+  @Label("Solvers")
+  public int solvers;
+
+  @Label("Visited Methods")
+  public int visitedMethods;
+
+  @Label("Allocated")
+  @DataAmount
+  public long allocatedBytes;
+
+  @Label("Retained")
+  @Description("Estimated bytes retained by the solvers of the phase")
+  @DataAmount
+  public long retainedBytes;
+}
@@ -17,6 +17,8 @@ import boomerang.Query;
 import boomerang.WeightedBoomerang;
 import boomerang.results.BackwardBoomerangResults;
 import boomerang.results.ForwardBoomerangResults;
+import boomerang.scene.CallGraph;
+import boomerang.scene.DataFlowScope;
 import boomerang.scene.CallSiteStatement;
 import boomerang.scene.Field;
 import boomerang.scene.ReturnSiteStatement;
@@ -29,6 +31,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -55,6 +58,8 @@ public class IDEALSeedSolver<W extends Weight> {
 
   private static Logger LOGGER = LoggerFactory.getLogger(IDEALSeedSolver.class);
   private final IDEALAnalysisDefinition<W> analysisDefinition;
+  private final CallGraph callGraph;
+  private final DataFlowScope dataFlowScope;
   private final ForwardQuery seed;
   private final IDEALWeightFunctions<W> idealWeightFunctions;
   private final W one;
@@ -276,7 +281,27 @@ public class IDEALSeedSolver<W extends Weight> {
   };
 
   public IDEALSeedSolver(IDEALAnalysisDefinition<W> analysisDefinition, ForwardQuery seed) {
+    this(
+        analysisDefinition,
+        seed,
+        analysisDefinition.callGraph(),
+        analysisDefinition.getDataFlowScope());
+  }
+
+  /**
+   * @param callGraph the call graph to analyze the seed on, used instead of {@link
+   *     IDEALAnalysisDefinition#callGraph()} when several seeds share an immutable copy.
+   * @param dataFlowScope the scope to analyze the seed in, used instead of {@link
+   *     IDEALAnalysisDefinition#getDataFlowScope()} when several seeds share a thread-safe scope.
+   */
+  public IDEALSeedSolver(
+      IDEALAnalysisDefinition<W> analysisDefinition,
+      ForwardQuery seed,
+      CallGraph callGraph,
+      DataFlowScope dataFlowScope) {
     this.analysisDefinition = analysisDefinition;
+    this.callGraph = callGraph;
+    this.dataFlowScope = dataFlowScope;
     this.seed = seed;
     this.idealWeightFunctions =
         new IDEALWeightFunctions<W>(
@@ -309,9 +334,7 @@ public class IDEALSeedSolver<W extends Weight> {
 
   private WeightedBoomerang<W> createSolver(Phases phase) {
     return new WeightedBoomerang<W>(
-        analysisDefinition.callGraph(),
-        analysisDefinition.getDataFlowScope(),
-        analysisDefinition.boomerangOptions()) {
+        callGraph, dataFlowScope, analysisDefinition.boomerangOptions()) {
 
       @Override
       protected WeightFunctions<Statement, Val, Statement, W> getForwardCallWeights(
@@ -325,6 +348,15 @@ public class IDEALSeedSolver<W extends Weight> {
         return new OneWeightFunctions<>(one);
       }
 
+      /**
+       * The weights of the seed depend on the weight functions, the seed itself and the phase,
+       * e.g. strong updates are only applied in the value flow phase.
+       */
+      @Override
+      protected Object getSummaryCacheDomain() {
+        return Arrays.asList(analysisDefinition.weightFunctions(), seed, phase);
+      }
+
       @Override
       protected WeightFunctions<Statement, Val, Field, W> getBackwardFieldWeights() {
         return new OneWeightFunctions<>(one);
@@ -372,6 +404,8 @@ public class IDEALSeedSolver<W extends Weight> {
 
   private ForwardBoomerangResults<W> runPhase(
       final WeightedBoomerang<W> boomerang, final Phases phase) {
+    IDEALPhaseEvent event = new IDEALPhaseEvent();
+    event.begin();
     analysisStopwatch.start();
     idealWeightFunctions.setPhase(phase);
 
@@ -391,6 +425,16 @@ public class IDEALSeedSolver<W extends Weight> {
         });
     ForwardBoomerangResults<W> res = boomerang.solve(seed);
     analysisStopwatch.stop();
+    if (event.shouldCommit()) {
+      event.seed = seed.toString();
+      event.phase = phase.toString();
+      event.timedOut = res.isTimedout();
+      event.solvers = boomerang.getSolvers().size();
+      event.visitedMethods = res.getVisitedMethods().size();
+      event.allocatedBytes = res.getMemory().getAllocatedBytes();
+      event.retainedBytes = res.getMemory().getRetainedBytes();
+      event.commit();
+    }
     if (LOGGER.isDebugEnabled()) {
       boomerang.printAllForwardCallAutomatonFlow();
     }
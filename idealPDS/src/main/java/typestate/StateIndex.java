@@ -0,0 +1,49 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package typestate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import typestate.finiteautomata.State;
+
+/**
+ * Numbers states in the order they are first seen, such that a {@link TransitionFunction} can store
+ * its transitions as a bit matrix over these numbers. An index keeps its states alive, it should
+ * therefore be scoped to an analysis, see {@link
+ * typestate.finiteautomata.TypeStateMachineWeightFunctions}.
+ */
+public final class StateIndex {
+  private final Map<State, Integer> ids = new ConcurrentHashMap<>();
+  private volatile State[] states = new State[0];
+
+  int id(State state) {
+    Integer id = ids.get(state);
+    return id != null ? id : register(state);
+  }
+
+  State state(int id) {
+    return states[id];
+  }
+
+  private synchronized int register(State state) {
+    Integer id = ids.get(state);
+    if (id != null) {
+      return id;
+    }
+    State[] next = Arrays.copyOf(states, states.length + 1);
+    next[states.length] = state;
+    states = next;
+    ids.put(state, states.length - 1);
+    return states.length - 1;
+  }
+}
@@ -14,17 +14,45 @@ package typestate;
 import boomerang.scene.Statement;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import typestate.finiteautomata.ITransition;
 import typestate.finiteautomata.Transition;
 import wpds.impl.Weight;
+import wpds.impl.WeightInterner;
 
+/**
+ * A set of transitions of a state machine. The transitions (other than {@link
+ * Transition#identity()}) are stored as a bit matrix over the numbers of a {@link StateIndex}: bit
+ * j of row i is set iff the function contains the transition from state i to state j. Rows consist
+ * of {@link #words} longs and there are never more than {@code 64 * words} rows, such that each
+ * row has room for its diagonal bit. Composing two functions is a boolean matrix product.
+ *
+ * <p>The functions of one analysis should share a {@link StateIndex}, see {@link
+ * typestate.finiteautomata.TypeStateMachineWeightFunctions}. Functions over different indices are
+ * renumbered before they are combined.
+ *
+ * <p>Functions can be interned, see {@link #interner()}. As equals ignores the state change
+ * statements, functions are interned by their transitions and state change statements.
+ */
 public class TransitionFunction extends Weight {
 
-  private final Set<ITransition> value;
+  private static final long[] EMPTY = new long[0];
+
+  private static final WeightInterner<TransitionFunction> INTERNER =
+      new WeightInterner<>(100000, TransitionFunction::key);
+
+  private final StateIndex index;
+
+  private final boolean identity;
+
+  private final long[] matrix;
+
+  private final int words;
 
   private final String rep;
 
@@ -34,87 +62,229 @@ public class TransitionFunction extends Weight {
 
   private Set<Statement> stateChangeStatements;
 
+  private int hash;
+
   public TransitionFunction(
       Set<? extends ITransition> trans, Set<Statement> stateChangeStatements) {
+    this(new StateIndex(), trans, stateChangeStatements);
+  }
+
+  public TransitionFunction(ITransition trans, Set<Statement> stateChangeStatements) {
+    this(Collections.singleton(trans), stateChangeStatements);
+  }
+
+  public TransitionFunction(
+      StateIndex index, Set<? extends ITransition> trans, Set<Statement> stateChangeStatements) {
+    this.index = index;
     this.stateChangeStatements = stateChangeStatements;
-    this.value = new HashSet<>(trans);
     this.rep = null;
+    boolean identity = false;
+    int max = -1;
+    for (ITransition t : trans) {
+      if (t.equals(Transition.identity())) {
+        identity = true;
+      } else {
+        max = Math.max(max, Math.max(index.id(t.from()), index.id(t.to())));
+      }
+    }
+    this.identity = identity;
+    this.words = max / 64 + 1;
+    this.matrix = new long[(max + 1) * words];
+    for (ITransition t : trans) {
+      if (!t.equals(Transition.identity())) {
+        int to = index.id(t.to());
+        matrix[index.id(t.from()) * words + to / 64] |= 1L << to;
+      }
+    }
   }
 
-  public TransitionFunction(ITransition trans, Set<Statement> stateChangeStatements) {
-    this(new HashSet<>(Collections.singleton(trans)), stateChangeStatements);
+  public TransitionFunction(
+      StateIndex index, ITransition trans, Set<Statement> stateChangeStatements) {
+    this(index, Collections.singleton(trans), stateChangeStatements);
+  }
+
+  private TransitionFunction(
+      StateIndex index,
+      boolean identity,
+      long[] matrix,
+      int words,
+      Set<Statement> stateChangeStatements) {
+    this.index = index;
+    this.identity = identity;
+    this.matrix = matrix;
+    this.words = words;
+    this.rep = null;
+    this.stateChangeStatements = stateChangeStatements;
   }
 
   private TransitionFunction(String rep) {
-    this.value = Sets.newHashSet();
+    this.index = null;
+    this.identity = false;
+    this.matrix = EMPTY;
+    this.words = 1;
     this.rep = rep;
     this.stateChangeStatements = Sets.newHashSet();
   }
 
   public Collection<ITransition> values() {
-    return Lists.newArrayList(value);
+    List<ITransition> res = Lists.newArrayList();
+    if (identity) {
+      res.add(Transition.identity());
+    }
+    for (int i = 0; i < rows(); i++) {
+      for (int w = 0; w < words; w++) {
+        long bits = matrix[i * words + w];
+        while (bits != 0) {
+          int j = w * 64 + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          res.add(new Transition(index.state(i), index.state(j)));
+        }
+      }
+    }
+    return res;
   }
 
   public Set<Statement> getLastStateChangeStatements() {
     return stateChangeStatements;
   }
 
+  /** Interning of transition functions is disabled by default. */
+  public static WeightInterner<TransitionFunction> interner() {
+    return INTERNER;
+  }
+
+  private Object key() {
+    if (rep != null) {
+      return rep;
+    }
+    return Arrays.asList(Sets.newHashSet(values()), Sets.newHashSet(stateChangeStatements));
+  }
+
   @Override
   public Weight extendWith(Weight other) {
+    return INTERNER.extendWith(this, (TransitionFunction) other, TransitionFunction::extend);
+  }
+
+  private TransitionFunction extend(TransitionFunction other) {
     if (other.equals(one())) return this;
     if (this.equals(one())) return other;
     if (other.equals(zero()) || this.equals(zero())) {
       return zero();
     }
-    TransitionFunction func = (TransitionFunction) other;
-    Set<ITransition> otherTransitions = func.value;
-    Set<ITransition> ress = new HashSet<>();
+    TransitionFunction func = renumber(other);
     Set<Statement> newStateChangeStatements = new HashSet<>();
-    for (ITransition first : value) {
-      for (ITransition second : otherTransitions) {
-        if (second.equals(Transition.identity())) {
-          ress.add(first);
-          newStateChangeStatements.addAll(stateChangeStatements);
-        } else if (first.equals(Transition.identity())) {
-          ress.add(second);
-          newStateChangeStatements.addAll(func.stateChangeStatements);
-        } else if (first.to().equals(second.from())) {
-          ress.add(new Transition(first.from(), second.to()));
-          newStateChangeStatements.addAll(func.stateChangeStatements);
-        }
-      }
+    TransitionFunction res = compose(this, func, newStateChangeStatements);
+    if (res.hasTransitions()) {
+      newStateChangeStatements.addAll(func.stateChangeStatements);
+    }
+    if (func.identity && (identity || hasTransitions())) {
+      res = union(res, this, newStateChangeStatements);
+      newStateChangeStatements.addAll(stateChangeStatements);
     }
-    return new TransitionFunction(ress, newStateChangeStatements);
+    if (identity && func.hasTransitions()) {
+      res = union(res, func, newStateChangeStatements);
+      newStateChangeStatements.addAll(func.stateChangeStatements);
+    }
+    return res;
   }
 
   @Override
   public Weight combineWith(Weight other) {
     if (!(other instanceof TransitionFunction)) throw new RuntimeException();
-    if (this.equals(zero())) return other;
-    if (other.equals(zero())) return this;
-    if (other.equals(one()) && this.equals(one())) {
+    return INTERNER.combineWith(this, (TransitionFunction) other, TransitionFunction::combine);
+  }
+
+  private TransitionFunction combine(TransitionFunction func) {
+    if (this.equals(zero())) return func;
+    if (func.equals(zero())) return this;
+    if (func.equals(one()) && this.equals(one())) {
       return one();
     }
-    TransitionFunction func = (TransitionFunction) other;
-    if (other.equals(one()) || this.equals(one())) {
-      Set<ITransition> transitions = new HashSet<>((other.equals(one()) ? value : func.value));
-      Set<ITransition> idTransitions = Sets.newHashSet();
-      for (ITransition t : transitions) {
-        idTransitions.add(new Transition(t.from(), t.from()));
+    if (func.equals(one()) || this.equals(one())) {
+      TransitionFunction f = func.equals(one()) ? this : func;
+      long[] matrix = f.matrix.clone();
+      for (int i = 0; i < f.rows(); i++) {
+        if (f.hasTransitionsFrom(i)) {
+          matrix[i * f.words + i / 64] |= 1L << i;
+        }
       }
-      transitions.addAll(idTransitions);
       return new TransitionFunction(
-          transitions,
-          Sets.newHashSet(
-              (other.equals(one()) ? stateChangeStatements : func.stateChangeStatements)));
+          f.index, f.identity, matrix, f.words, Sets.newHashSet(f.stateChangeStatements));
     }
-    Set<ITransition> transitions = new HashSet<>(func.value);
-    transitions.addAll(value);
     HashSet<Statement> newStateChangeStmts = Sets.newHashSet(stateChangeStatements);
     newStateChangeStmts.addAll(func.stateChangeStatements);
-    return new TransitionFunction(transitions, newStateChangeStmts);
+    return union(this, renumber(func), newStateChangeStmts);
   };
 
+  /** Returns the given function over the {@link StateIndex} of this function. */
+  private TransitionFunction renumber(TransitionFunction other) {
+    if (other.index == index) {
+      return other;
+    }
+    return new TransitionFunction(
+        index, Sets.newHashSet(other.values()), other.stateChangeStatements);
+  }
+
+  /** The boolean product of the matrices of the two functions, ignoring the identity. */
+  private static TransitionFunction compose(
+      TransitionFunction first, TransitionFunction second, Set<Statement> stateChangeStatements) {
+    int words = Math.max(first.words, second.words);
+    int secondRows = second.rows();
+    long[] res = new long[first.rows() * words];
+    for (int i = 0; i < first.rows(); i++) {
+      for (int w = 0; w < first.words; w++) {
+        long bits = first.matrix[i * first.words + w];
+        while (bits != 0) {
+          int j = w * 64 + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          if (j >= secondRows) {
+            break;
+          }
+          for (int k = 0; k < second.words; k++) {
+            res[i * words + k] |= second.matrix[j * second.words + k];
+          }
+        }
+      }
+    }
+    return new TransitionFunction(first.index, false, res, words, stateChangeStatements);
+  }
+
+  private static TransitionFunction union(
+      TransitionFunction a, TransitionFunction b, Set<Statement> stateChangeStatements) {
+    int words = Math.max(a.words, b.words);
+    int rows = Math.max(a.rows(), b.rows());
+    long[] res = new long[rows * words];
+    for (int i = 0; i < rows; i++) {
+      for (int w = 0; w < words; w++) {
+        res[i * words + w] = a.word(i, w) | b.word(i, w);
+      }
+    }
+    return new TransitionFunction(
+        a.index, a.identity || b.identity, res, words, stateChangeStatements);
+  }
+
+  private int rows() {
+    return matrix.length / words;
+  }
+
+  private long word(int row, int w) {
+    return row < rows() && w < words ? matrix[row * words + w] : 0;
+  }
+
+  private boolean hasTransitionsFrom(int row) {
+    for (int w = 0; w < words; w++) {
+      if (matrix[row * words + w] != 0) return true;
+    }
+    return false;
+  }
+
+  private boolean hasTransitions() {
+    for (long bits : matrix) {
+      if (bits != 0) return true;
+    }
+    return false;
+  }
+
   public static TransitionFunction one() {
     if (one == null) one = new TransitionFunction("ONE");
     return one;
@@ -127,15 +297,30 @@ public class TransitionFunction extends Weight {
 
   public String toString() {
     if (this.rep != null) return this.rep;
-    return "Weight: " + value.toString() + "";
+    return "Weight: " + values().toString() + "";
   }
 
   @Override
   public int hashCode() {
+    if (hash != 0) {
+      return hash;
+    }
     final int prime = 31;
     int result = 1;
     result = prime * result + ((rep == null) ? 0 : rep.hashCode());
-    result = prime * result + ((value == null) ? 0 : value.hashCode());
+    result = prime * result + (identity ? 1231 : 1237);
+    // The hash depends on the states only, equal functions over different indices hash alike.
+    for (int i = 0; i < rows(); i++) {
+      for (int w = 0; w < words; w++) {
+        long bits = matrix[i * words + w];
+        while (bits != 0) {
+          int j = w * 64 + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          result += prime * index.state(i).hashCode() ^ index.state(j).hashCode();
+        }
+      }
+    }
+    hash = result;
     return result;
   }
 
@@ -148,9 +333,17 @@ public class TransitionFunction extends Weight {
     if (rep == null) {
       if (other.rep != null) return false;
     } else if (!rep.equals(other.rep)) return false;
-    if (value == null) {
-      if (other.value != null) return false;
-    } else if (!value.equals(other.value)) return false;
+    if (identity != other.identity) return false;
+    if (index != other.index) {
+      return Sets.newHashSet(values()).equals(Sets.newHashSet(other.values()));
+    }
+    int rows = Math.max(rows(), other.rows());
+    int words = Math.max(this.words, other.words);
+    for (int i = 0; i < rows; i++) {
+      for (int w = 0; w < words; w++) {
+        if (word(i, w) != other.word(i, w)) return false;
+      }
+    }
     return true;
   }
 }
@@ -21,6 +21,7 @@ public class MatcherTransition extends Transition {
   private Type type;
   private Parameter param;
   private String methodMatcher;
+  private Pattern pattern;
   private boolean negate = false;
 
   public enum Type {
@@ -39,6 +40,7 @@ public class MatcherTransition extends Transition {
   public MatcherTransition(State from, String methodMatcher, Parameter param, State to, Type type) {
     super(from, to);
     this.methodMatcher = methodMatcher;
+    this.pattern = Pattern.compile(methodMatcher);
     this.type = type;
     this.param = param;
   }
@@ -47,19 +49,29 @@ public class MatcherTransition extends Transition {
       State from, String methodMatcher, boolean negate, Parameter param, State to, Type type) {
     super(from, to);
     this.methodMatcher = methodMatcher;
+    this.pattern = Pattern.compile(methodMatcher);
     this.negate = negate;
     this.type = type;
     this.param = param;
   }
 
   public boolean matches(DeclaredMethod declaredMethod) {
-    boolean matches = Pattern.matches(methodMatcher, declaredMethod.getSubSignature());
+    boolean matches = pattern.matcher(declaredMethod.getSubSignature()).matches();
     if (matches)
       LOGGER.debug(
           "Found matching transition at call site {} for {}", declaredMethod.getInvokeExpr(), this);
     return negate ? !matches : matches;
   }
 
+  /**
+   * Whether a method with the given sub signature matches. This is {@link #matches(DeclaredMethod)}
+   * unless a subclass overrides the latter.
+   */
+  public boolean matches(String subSignature) {
+    boolean matches = pattern.matcher(subSignature).matches();
+    return negate ? !matches : matches;
+  }
+
   public Type getType() {
     return type;
   }
@@ -0,0 +1,71 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package typestate.finiteautomata;
+
+import boomerang.scene.DeclaredMethod;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Looks up the {@link MatcherTransition}s that match a called method. For a plain {@link
+ * MatcherTransition} the match only depends on the sub signature of the method, the matching
+ * transitions are therefore computed once per sub signature. Subclasses may override {@link
+ * MatcherTransition#matches(DeclaredMethod)} and are checked on every lookup.
+ */
+public class MatcherTransitionIndex {
+  private final List<MatcherTransition> bySubSignature = Lists.newArrayList();
+  private final List<MatcherTransition> byMethod = Lists.newArrayList();
+  private final Map<String, List<MatcherTransition>> matching = new ConcurrentHashMap<>();
+
+  public MatcherTransitionIndex(Collection<MatcherTransition> transitions) {
+    for (MatcherTransition t : transitions) {
+      if (t.getClass() == MatcherTransition.class) {
+        bySubSignature.add(t);
+      } else {
+        byMethod.add(t);
+      }
+    }
+  }
+
+  public boolean isEmpty() {
+    return bySubSignature.isEmpty() && byMethod.isEmpty();
+  }
+
+  public Collection<MatcherTransition> getMatching(DeclaredMethod method) {
+    List<MatcherTransition> res =
+        matching.computeIfAbsent(method.getSubSignature(), this::computeMatching);
+    if (byMethod.isEmpty()) {
+      return res;
+    }
+    List<MatcherTransition> all = Lists.newArrayList(res);
+    for (MatcherTransition t : byMethod) {
+      if (t.matches(method)) {
+        all.add(t);
+      }
+    }
+    return all;
+  }
+
+  private List<MatcherTransition> computeMatching(String subSignature) {
+    ImmutableList.Builder<MatcherTransition> res = ImmutableList.builder();
+    for (MatcherTransition t : bySubSignature) {
+      if (t.matches(subSignature)) {
+        res.add(t);
+      }
+    }
+    return res.build();
+  }
+}
@@ -32,6 +32,7 @@ import soot.Scene;
 import soot.SootClass;
 import sync.pds.solver.WeightFunctions;
 import sync.pds.solver.nodes.Node;
+import typestate.StateIndex;
 import typestate.TransitionFunction;
 import typestate.finiteautomata.MatcherTransition.Parameter;
 import typestate.finiteautomata.MatcherTransition.Type;
@@ -40,10 +41,18 @@ public abstract class TypeStateMachineWeightFunctions
     implements WeightFunctions<Statement, Val, Statement, TransitionFunction> {
   private static final Logger LOGGER =
       LoggerFactory.getLogger(TypeStateMachineWeightFunctions.class);
-  public Set<MatcherTransition> transition = new HashSet<>();
+  private final Set<MatcherTransition> transition = new HashSet<>();
+
+  private final StateIndex stateIndex = new StateIndex();
+
+  private volatile MatcherTransitionIndex onCallTransitions;
+
+  private volatile MatcherTransitionIndex onCallToReturnTransitions;
 
   public void addTransition(MatcherTransition trans) {
     transition.add(trans);
+    onCallTransitions = null;
+    onCallToReturnTransitions = null;
   }
 
   @Override
@@ -64,11 +73,7 @@ public abstract class TypeStateMachineWeightFunctions
         (push instanceof ReturnSiteStatement
             ? ((ReturnSiteStatement) push).getCallSiteStatement()
             : push),
-        Collections2.filter(
-            transition,
-            input ->
-                input.getType().equals(Type.OnCall)
-                    || input.getType().equals(Type.OnCallOrOnCallToReturn)),
+        getOnCallTransitions(),
         Type.OnCall);
   }
 
@@ -85,13 +90,7 @@ public abstract class TypeStateMachineWeightFunctions
     Set<Transition> res = Sets.newHashSet();
     if (invokeExpr.isInstanceInvokeExpr()) {
       if (invokeExpr.getBase().equals(succ.fact())) {
-        for (MatcherTransition trans : transition) {
-          if (trans.matches(invokeExpr.getMethod())
-              && (trans.getType().equals(Type.OnCallToReturn)
-                  || trans.getType().equals(Type.OnCallOrOnCallToReturn))) {
-            res.add(trans);
-          }
-        }
+        res.addAll(getOnCallToReturnTransitions().getMatching(invokeExpr.getMethod()));
       }
     }
     if (!res.isEmpty()) {
@@ -99,37 +98,68 @@ public abstract class TypeStateMachineWeightFunctions
     }
     return (res.isEmpty()
         ? getOne()
-        : new TransitionFunction(res, Collections.singleton(succ.stmt())));
+        : new TransitionFunction(stateIndex, res, Collections.singleton(succ.stmt())));
+  }
+
+  /** @return the transitions of type OnCall, rebuilt after a transition was added. */
+  protected MatcherTransitionIndex getOnCallTransitions() {
+    MatcherTransitionIndex index = onCallTransitions;
+    if (index == null) {
+      index =
+          new MatcherTransitionIndex(
+              Collections2.filter(
+                  transition,
+                  input ->
+                      input.getType().equals(Type.OnCall)
+                          || input.getType().equals(Type.OnCallOrOnCallToReturn)));
+      onCallTransitions = index;
+    }
+    return index;
+  }
+
+  /** @return the transitions of type OnCallToReturn, rebuilt after a transition was added. */
+  protected MatcherTransitionIndex getOnCallToReturnTransitions() {
+    MatcherTransitionIndex index = onCallToReturnTransitions;
+    if (index == null) {
+      index =
+          new MatcherTransitionIndex(
+              Collections2.filter(
+                  transition,
+                  input ->
+                      input.getType().equals(Type.OnCallToReturn)
+                          || input.getType().equals(Type.OnCallOrOnCallToReturn)));
+      onCallToReturnTransitions = index;
+    }
+    return index;
   }
 
   private TransitionFunction getMatchingTransitions(
       Statement statement,
       Val node,
       Statement transitionStmt,
-      Collection<MatcherTransition> filteredTrans,
+      MatcherTransitionIndex filteredTrans,
       Type type) {
     Set<ITransition> res = new HashSet<>();
     if (filteredTrans.isEmpty() || !transitionStmt.containsInvokeExpr()) return getOne();
-    for (MatcherTransition trans : filteredTrans) {
-      if (trans.matches(transitionStmt.getInvokeExpr().getMethod())) {
-        LOGGER.trace(
-            "Found potential transition at {}, now checking if parameter match", transitionStmt);
-        Parameter param = trans.getParam();
-        if (param.equals(Parameter.This) && statement.getMethod().isThisLocal(node))
-          res.add(new Transition(trans.from(), trans.to()));
-        if (param.equals(Parameter.Param1)
-            && statement.getMethod().getParameterLocal(0).equals(node))
-          res.add(new Transition(trans.from(), trans.to()));
-        if (param.equals(Parameter.Param2)
-            && statement.getMethod().getParameterLocal(1).equals(node))
-          res.add(new Transition(trans.from(), trans.to()));
-      }
+    for (MatcherTransition trans :
+        filteredTrans.getMatching(transitionStmt.getInvokeExpr().getMethod())) {
+      LOGGER.trace(
+          "Found potential transition at {}, now checking if parameter match", transitionStmt);
+      Parameter param = trans.getParam();
+      if (param.equals(Parameter.This) && statement.getMethod().isThisLocal(node))
+        res.add(new Transition(trans.from(), trans.to()));
+      if (param.equals(Parameter.Param1)
+          && statement.getMethod().getParameterLocal(0).equals(node))
+        res.add(new Transition(trans.from(), trans.to()));
+      if (param.equals(Parameter.Param2)
+          && statement.getMethod().getParameterLocal(1).equals(node))
+        res.add(new Transition(trans.from(), trans.to()));
     }
 
     if (res.isEmpty()) return getOne();
 
     LOGGER.debug("Typestate transition at {} to {}, [{}]", transitionStmt, res, type);
-    return new TransitionFunction(res, Collections.singleton(transitionStmt));
+    return new TransitionFunction(stateIndex, res, Collections.singleton(transitionStmt));
   }
 
   protected List<SootClass> getSubclassesOf(String className) {
@@ -192,7 +222,7 @@ public abstract class TypeStateMachineWeightFunctions
 
   public TransitionFunction initialTransition() {
     return new TransitionFunction(
-        new Transition(initialState(), initialState()), Collections.emptySet());
+        stateIndex, new Transition(initialState(), initialState()), Collections.emptySet());
   }
 
   protected abstract State initialState();
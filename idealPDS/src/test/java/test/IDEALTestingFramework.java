@@ -57,6 +57,11 @@ public abstract class IDEALTestingFramework extends AbstractTestingFramework {
 
   protected abstract TypeStateMachineWeightFunctions getStateMachine();
 
+  /** @see IDEALAnalysisDefinition#numberOfThreads() */
+  protected int numberOfThreads() {
+    return 1;
+  }
+
   protected IDEALAnalysis<TransitionFunction> createAnalysis() {
     return new IDEALAnalysis<>(
         new IDEALAnalysisDefinition<TransitionFunction>() {
@@ -116,6 +121,11 @@ public abstract class IDEALTestingFramework extends AbstractTestingFramework {
           protected DataFlowScope getDataFlowScope() {
             return dataFlowScope;
           }
+
+          @Override
+          public int numberOfThreads() {
+            return IDEALTestingFramework.this.numberOfThreads();
+          }
         });
   }
 
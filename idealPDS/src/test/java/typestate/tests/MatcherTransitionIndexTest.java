@@ -0,0 +1,185 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package typestate.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import boomerang.WeightedForwardQuery;
+import boomerang.scene.DeclaredMethod;
+import boomerang.scene.Statement;
+import boomerang.scene.WrappedClass;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Test;
+import typestate.TransitionFunction;
+import typestate.finiteautomata.MatcherTransition;
+import typestate.finiteautomata.MatcherTransition.Parameter;
+import typestate.finiteautomata.MatcherTransition.Type;
+import typestate.finiteautomata.MatcherTransitionIndex;
+import typestate.finiteautomata.State;
+import typestate.finiteautomata.TypeStateMachineWeightFunctions;
+
+public class MatcherTransitionIndexTest {
+
+  private static final State OPEN = new TestState("OPEN");
+  private static final State CLOSED = new TestState("CLOSED");
+
+  private final MatcherTransition close =
+      new MatcherTransition(OPEN, ".* close\\(\\)", Parameter.This, CLOSED, Type.OnCallToReturn);
+  private final MatcherTransition open =
+      new MatcherTransition(CLOSED, ".* open\\(\\)", Parameter.This, OPEN, Type.OnCall);
+
+  @Test
+  public void matchesBySubSignature() {
+    MatcherTransitionIndex index = new MatcherTransitionIndex(Lists.newArrayList(close, open));
+    assertEquals(Lists.newArrayList(close), index.getMatching(method("void close()")));
+    assertEquals(Lists.newArrayList(open), index.getMatching(method("void open()")));
+    assertTrue(index.getMatching(method("void read()")).isEmpty());
+  }
+
+  @Test
+  public void cachesPerSubSignature() {
+    MatcherTransitionIndex index = new MatcherTransitionIndex(Lists.newArrayList(close, open));
+    Collection<MatcherTransition> first = index.getMatching(method("void close()"));
+    assertSame(first, index.getMatching(method("void close()")));
+  }
+
+  @Test
+  public void overriddenMatcherIsCheckedPerMethod() {
+    MatcherTransition byName =
+        new MatcherTransition(OPEN, ".*", Parameter.This, CLOSED, Type.OnCallToReturn) {
+          @Override
+          public boolean matches(DeclaredMethod declaredMethod) {
+            return declaredMethod.getName().equals("dispose");
+          }
+        };
+    MatcherTransitionIndex index = new MatcherTransitionIndex(Lists.newArrayList(close, byName));
+    assertEquals(Lists.newArrayList(close), index.getMatching(method("void close()")));
+    assertEquals(
+        Lists.newArrayList(close, byName), index.getMatching(method("void close()", "dispose")));
+  }
+
+  @Test
+  public void addTransitionInvalidatesIndex() {
+    TestWeightFunctions functions = new TestWeightFunctions();
+    functions.addTransition(close);
+    MatcherTransitionIndex onCall = functions.onCall();
+    MatcherTransitionIndex onCallToReturn = functions.onCallToReturn();
+    assertTrue(onCall.getMatching(method("void open()")).isEmpty());
+    assertSame(onCall, functions.onCall());
+
+    functions.addTransition(open);
+    assertNotSame(onCall, functions.onCall());
+    assertNotSame(onCallToReturn, functions.onCallToReturn());
+    assertEquals(Lists.newArrayList(open), functions.onCall().getMatching(method("void open()")));
+    assertEquals(
+        Sets.newHashSet(close),
+        Sets.newHashSet(functions.onCallToReturn().getMatching(method("void close()"))));
+  }
+
+  private static DeclaredMethod method(String subSignature) {
+    return method(subSignature, subSignature);
+  }
+
+  private static DeclaredMethod method(String subSignature, String name) {
+    return new DeclaredMethod(null) {
+      @Override
+      public boolean isNative() {
+        return false;
+      }
+
+      @Override
+      public String getSubSignature() {
+        return subSignature;
+      }
+
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public boolean isStatic() {
+        return false;
+      }
+
+      @Override
+      public boolean isConstructor() {
+        return false;
+      }
+
+      @Override
+      public String getSignature() {
+        return "<Test: " + subSignature + ">";
+      }
+
+      @Override
+      public WrappedClass getDeclaringClass() {
+        return null;
+      }
+    };
+  }
+
+  private static class TestWeightFunctions extends TypeStateMachineWeightFunctions {
+
+    MatcherTransitionIndex onCall() {
+      return getOnCallTransitions();
+    }
+
+    MatcherTransitionIndex onCallToReturn() {
+      return getOnCallToReturnTransitions();
+    }
+
+    @Override
+    public Collection<WeightedForwardQuery<TransitionFunction>> generateSeed(Statement stmt) {
+      return Collections.emptySet();
+    }
+
+    @Override
+    protected State initialState() {
+      return CLOSED;
+    }
+  }
+
+  private static class TestState implements State {
+    private final String name;
+
+    private TestState(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public boolean isErrorState() {
+      return false;
+    }
+
+    @Override
+    public boolean isInitialState() {
+      return false;
+    }
+
+    @Override
+    public boolean isAccepting() {
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package typestate.tests;
+
+/**
+ * Runs the test cases of {@link FileMustBeClosedTest} with the seeds analyzed in parallel. Most of
+ * the cases have several seeds, which share the call graph, the data-flow scope and the scene.
+ */
+public class ParallelFileMustBeClosedTest extends FileMustBeClosedTest {
+
+  @Override
+  protected int numberOfThreads() {
+    return 4;
+  }
+
+  @Override
+  public String getTestCaseClassName() {
+    // The test methods are declared, and therefore looked up, in the super class.
+    return FileMustBeClosedTest.class.getName();
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * ***************************************************************************** Copyright (c) 2018
+ * Fraunhofer IEM, Paderborn, Germany. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * <p>SPDX-License-Identifier: EPL-2.0
+ *
+ * <p>Contributors: Johannes Spaeth - initial API and implementation
+ * *****************************************************************************
+ */
+package typestate.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.Set;
+import org.junit.Test;
+import typestate.StateIndex;
+import typestate.TransitionFunction;
+import typestate.finiteautomata.ITransition;
+import typestate.finiteautomata.State;
+import typestate.finiteautomata.Transition;
+import wpds.impl.Weight;
+
+public class TransitionFunctionTest {
+
+  private final StateIndex index = new StateIndex();
+
+  @Test
+  public void composeFewStates() {
+    TestState[] s = states(3);
+    Weight res = function(t(s[0], s[1])).extendWith(function(t(s[1], s[2])));
+    assertEquals(Sets.newHashSet(t(s[0], s[2])), values(res));
+  }
+
+  @Test
+  public void composeManyStates() {
+    TestState[] s = states(101);
+    Weight res = function(t(s[100], s[0])).extendWith(function(t(s[0], s[1])));
+    assertEquals(Sets.newHashSet(t(s[100], s[1])), values(res));
+    res = function(t(s[0], s[100])).extendWith(function(t(s[100], s[70])));
+    assertEquals(Sets.newHashSet(t(s[0], s[70])), values(res));
+  }
+
+  @Test
+  public void combineComposedWithOne() {
+    TestState[] s = states(101);
+    Weight composed = function(t(s[100], s[0])).extendWith(function(t(s[0], s[1])));
+    Weight res = composed.combineWith(TransitionFunction.one());
+    assertEquals(Sets.newHashSet(t(s[100], s[1]), t(s[100], s[100])), values(res));
+  }
+
+  @Test
+  public void identityFewStates() {
+    TestState[] s = states(3);
+    Weight f = function(Transition.identity(), t(s[0], s[1]));
+    Weight res = f.extendWith(function(t(s[1], s[2])));
+    assertEquals(Sets.newHashSet(t(s[0], s[2]), t(s[1], s[2])), values(res));
+  }
+
+  @Test
+  public void identityManyStates() {
+    TestState[] s = states(101);
+    Weight f = function(Transition.identity(), t(s[99], s[100]));
+    Weight res = f.extendWith(function(t(s[100], s[3]), t(s[5], s[80])));
+    assertEquals(
+        Sets.newHashSet(t(s[99], s[3]), t(s[100], s[3]), t(s[5], s[80])), values(res));
+    assertEquals(f, f.extendWith(TransitionFunction.one()));
+  }
+
+  @Test
+  public void functionsOverDifferentIndices() {
+    TestState[] s = states(70);
+    TransitionFunction a = function(t(s[69], s[1]));
+    TransitionFunction b =
+        new TransitionFunction(
+            new StateIndex(), Sets.newHashSet(t(s[1], s[69])), Collections.emptySet());
+    TransitionFunction c =
+        new TransitionFunction(
+            new StateIndex(), Sets.newHashSet(t(s[69], s[1])), Collections.emptySet());
+    assertEquals(a, c);
+    assertEquals(a.hashCode(), c.hashCode());
+    assertEquals(Sets.newHashSet(t(s[69], s[69])), values(a.extendWith(b)));
+    assertEquals(Sets.newHashSet(t(s[69], s[1]), t(s[1], s[69])), values(a.combineWith(b)));
+  }
+
+  private TransitionFunction function(ITransition... transitions) {
+    return new TransitionFunction(index, Sets.newHashSet(transitions), Collections.emptySet());
+  }
+
+  private static Transition t(State from, State to) {
+    return new Transition(from, to);
+  }
+
+  private static Set<ITransition> values(Weight w) {
+    return Sets.newHashSet(((TransitionFunction) w).values());
+  }
+
+  private static TestState[] states(int n) {
+    TestState[] res = new TestState[n];
+    for (int i = 0; i < n; i++) {
+      res[i] = new TestState(i);
+    }
+    return res;
+  }
+
+  private static class TestState implements State {
+    private final int id;
+
+    private TestState(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean isErrorState() {
+      return false;
+    }
+
+    @Override
+    public boolean isInitialState() {
+      return false;
+    }
+
+    @Override
+    public boolean isAccepting() {
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return "s" + id;
+    }
+  }
+}